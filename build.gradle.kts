@@ -27,4 +27,62 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+// Benchmarks live in their own source set so JMH never leaks onto the main or test classpath.
+// Run with ./gradlew jmh, or pass JMH options e.g. ./gradlew jmh -PjmhArgs="TaskServiceBenchmark -p mapSize=1000"
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+        // WorkloadData reads the same test-data.csv rows the tests use.
+        resources.srcDir("src/test/resources")
+    }
+}
+
+val jmhImplementation by configurations.getting
+val jmhAnnotationProcessor by configurations.getting
+
+dependencies {
+    jmhImplementation("org.openjdk.jmh:jmh-core:1.37")
+    jmhAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks with the GC profiler enabled."
+    dependsOn("jmhClasses")
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val reportFile = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+    doFirst { reportFile.parentFile.mkdirs() }
+    args(listOf("-prof", "gc", "-rf", "json", "-rff", reportFile.absolutePath))
+    args(providers.gradleProperty("jmhArgs").orNull?.split(" ")?.filter { it.isNotBlank() } ?: emptyList<String>())
+}
+
+tasks.register<JavaExec>("footprint") {
+    group = "benchmark"
+    description = "Prints bytes per task for each TaskStore mode."
+    dependsOn("jmhClasses")
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.jeremiahboothe.FootprintReport")
+    jvmArgs("-Xms4g", "-Xmx4g")
+    args(providers.gradleProperty("footprintTasks").orNull ?: "1000000")
+}
+
+tasks.register<JavaExec>("taskServer") {
+    group = "application"
+    description = "Serves the TaskService singleton over the binary task protocol."
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("org.jeremiahboothe.TaskServer")
+    args(providers.gradleProperty("serverArgs").orNull?.split(" ")?.filter { it.isNotBlank() } ?: emptyList<String>())
+}
+
+tasks.register<JavaExec>("serverLoadTest") {
+    group = "benchmark"
+    description = "Drives an in-process TaskServer over loopback and prints throughput and latency percentiles."
+    dependsOn("jmhClasses")
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.jeremiahboothe.ServerLoadTest")
+    args(providers.gradleProperty("loadArgs").orNull?.split(" ")?.filter { it.isNotBlank() } ?: emptyList<String>())
+}
@@ -0,0 +1,48 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of AsyncTaskService with 10,000 concurrent callers in flight at once: each invocation issues that many mixed reads and updates
+ * and waits for all of them, and the score is per call. Run on Java 21+ to measure virtual threads, on Java 17 this measures the work-stealing fallback.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class AsyncTaskServiceBenchmark {
+    private static final int MAP_SIZE = 100_000;
+    private static final int CALLERS = 10_000;
+
+    AsyncTaskService asyncTaskService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        asyncTaskService = new AsyncTaskService(WorkloadData.populatedService(MAP_SIZE));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        asyncTaskService.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLERS)
+    public Object concurrentCallers() {
+        CompletableFuture<?>[] inFlight = new CompletableFuture<?>[CALLERS];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < CALLERS; i++) {
+            String taskId = String.valueOf(random.nextInt(MAP_SIZE));
+            inFlight[i] = i % 5 == 0
+                    ? asyncTaskService.updateTaskName(taskId, WorkloadData.ROWS[i % WorkloadData.ROWS.length][0])
+                    : asyncTaskService.getTaskById(taskId);
+        }
+        return CompletableFuture.allOf(inFlight).join();
+    }
+}
@@ -0,0 +1,57 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a batch into an empty TaskService row by row, through createNewTaskToAddToMap and addTask, against one addTasks call.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class BulkAddBenchmark {
+    @Param({"100000", "500000"})
+    int batchSize;
+
+    /**
+     * Percentage of rows with a name that is too long.
+     */
+    @Param({"0", "5"})
+    int invalidPercent;
+
+    List<TaskRow> rows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rows = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            String[] row = WorkloadData.ROWS[i % WorkloadData.ROWS.length];
+            String taskName = i % 100 < invalidPercent ? "Cook Dinner Cook Dinner" : row[0];
+            rows.add(new TaskRow(String.valueOf(i), taskName, row[1]));
+        }
+    }
+
+    @Benchmark
+    public TaskService perRow() {
+        TaskService taskService = new TaskService();
+        for (TaskRow row : rows) {
+            try {
+                taskService.addTask(taskService.createNewTaskToAddToMap(row.getTaskId(), row.getTaskName(), row.getTaskDescription()));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                // rejected row, same as a caller looping today
+            }
+        }
+        return taskService;
+    }
+
+    @Benchmark
+    public BulkAddResult bulk() {
+        return new TaskService().addTasks(rows, BulkCommitPolicy.PARTIAL);
+    }
+}
@@ -0,0 +1,72 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Skewed reads through a CachingTaskStore holding cachePercent of the tasks in front of a FileTaskBackingStore. Nine reads in ten go to the
+ * hottest tenth of the Ids, so the cache should answer most of them from memory; the hit rate is printed after each trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class CachingTaskStoreBenchmark {
+    private static final int TASK_COUNT = 200_000;
+
+    @Param({"5", "20"})
+    int cachePercent;
+
+    @Param({"WRITE_THROUGH", "WRITE_BEHIND"})
+    String writePolicy;
+
+    Path file;
+    CachingTaskStore taskStore;
+    TaskService taskService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("tasks", ".dat");
+        taskStore = new CachingTaskStore(FileTaskBackingStore.open(file), TASK_COUNT / 100 * cachePercent,
+                CachingTaskStore.WritePolicy.valueOf(writePolicy), 100);
+        taskService = new TaskService(taskStore);
+        for (int i = 0; i < TASK_COUNT; i++) {
+            String[] row = WorkloadData.ROWS[i % WorkloadData.ROWS.length];
+            taskService.addTask(new Task(String.valueOf(i), row[0], row[1]));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.printf("%nhit rate %.3f, evictions %d%n", taskStore.getHitRate(), taskStore.getEvictionCount());
+        taskStore.close();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * @return String Id drawn from the hot tenth nine times in ten.
+     */
+    private static String nextId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return String.valueOf(random.nextInt(10) < 9 ? random.nextInt(TASK_COUNT / 10) : random.nextInt(TASK_COUNT));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Task skewedGet() {
+        return taskService.getTaskById(nextId());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TaskStatus skewedUpdate() {
+        return taskService.tryUpdateTaskDescription(nextId(), WorkloadData.ROWS[1][1]);
+    }
+}
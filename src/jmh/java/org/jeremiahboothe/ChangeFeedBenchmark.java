@@ -0,0 +1,56 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cost of a TaskChangeFeed on the write path: 4 threads updating task names with no feed, a feed nobody subscribes to, and one subscriber
+ * under each overflow policy. The subscriber only counts events, so the numbers show the ring itself rather than downstream work.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ChangeFeedBenchmark {
+    private static final int MAP_SIZE = 100_000;
+
+    @Param({"NONE", "UNSUBSCRIBED", "BLOCK", "DROP"})
+    String feedMode;
+
+    TaskService taskService;
+    TaskChangeFeed feed;
+    LongAdder consumed = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskService = WorkloadData.populatedService(MAP_SIZE);
+        if (feedMode.equals("NONE")) {
+            return;
+        }
+        TaskChangeFeed.OverflowPolicy policy = feedMode.equals("DROP") ? TaskChangeFeed.OverflowPolicy.DROP : TaskChangeFeed.OverflowPolicy.BLOCK;
+        feed = TaskChangeFeed.attach(taskService, 1 << 16, policy);
+        if (!feedMode.equals("UNSUBSCRIBED")) {
+            feed.subscribe(batch -> consumed.add(batch.size()), 256);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (feed != null) {
+            System.out.printf("%npublished %d, dropped %d, consumed %d%n", feed.getPublishedCount(), feed.getDroppedCount(), consumed.sum());
+            feed.detach();
+        }
+    }
+
+    @Benchmark
+    public TaskStatus updateTaskName() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return taskService.tryUpdateTaskName(String.valueOf(random.nextInt(MAP_SIZE)), WorkloadData.ROWS[random.nextInt(WorkloadData.ROWS.length)][0]);
+    }
+}
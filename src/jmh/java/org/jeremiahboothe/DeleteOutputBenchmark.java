@@ -0,0 +1,53 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delete throughput with the confirmation deleteTask prints going to System.out on the caller's thread (CONSOLE, the old behaviour) against
+ * an AsyncTaskOutput to System.out that waits when its ring is full (ASYNC_BLOCK) or drops the line (ASYNC_DROP). Each operation adds a
+ * scratch task and deletes it with deleteTask, so every operation prints one line.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeleteOutputBenchmark {
+    @Param({"CONSOLE", "ASYNC_BLOCK", "ASYNC_DROP"})
+    String outputMode;
+
+    TaskService taskService;
+    AsyncTaskOutput asyncOutput;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskService = WorkloadData.populatedService(10_000);
+        if (!outputMode.equals("CONSOLE")) {
+            asyncOutput = AsyncTaskOutput.standardOut(8192, outputMode.equals("ASYNC_BLOCK")
+                    ? AsyncTaskOutput.OverflowPolicy.BLOCK : AsyncTaskOutput.OverflowPolicy.DROP);
+            taskService.setOutput(asyncOutput);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (asyncOutput != null) {
+            asyncOutput.close();
+            System.err.printf("%s: %d lines written in %d batches, %d dropped%n", outputMode, asyncOutput.getWrittenCount(),
+                    asyncOutput.getBatchCount(), asyncOutput.getDroppedCount());
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void addThenDelete() {
+        String taskId = "d" + ThreadLocalRandom.current().nextInt(1_000_000);
+        if (taskService.tryAdd(new Task(taskId, WorkloadData.ROWS[0][0], WorkloadData.ROWS[0][1])) == TaskStatus.OK) {
+            taskService.deleteTask(taskId);
+        }
+    }
+}
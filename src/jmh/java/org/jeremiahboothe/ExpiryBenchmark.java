@@ -0,0 +1,65 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cost of TTLs on the request path: add-then-delete of a scratch Id with and without a TTL, over services of different sizes where every
+ * preloaded task also has a pending timer. The request thread only queues an event, so the TTL cost should not grow with the timer count.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ExpiryBenchmark {
+    @Param({"1000", "1000000"})
+    int mapSize;
+
+    TaskService taskService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskService = new TaskService();
+        taskService.enableExpiry(100, false);
+        taskService.presize(mapSize);
+        for (int i = 0; i < mapSize; i++) {
+            String[] row = WorkloadData.ROWS[i % WorkloadData.ROWS.length];
+            taskService.addTask(new Task(String.valueOf(i), row[0], row[1]), TimeUnit.HOURS.toMillis(1));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        taskService.getExpiry().close();
+    }
+
+    /**
+     * Per thread scratch Id for the add/delete pairs.
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+        String scratchId;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            scratchId = "x" + THREAD_COUNTER.getAndIncrement();
+        }
+    }
+
+    @Benchmark
+    public TaskStatus addDeleteWithoutTtl(ThreadState threadState) {
+        taskService.tryAdd(new Task(threadState.scratchId, WorkloadData.ROWS[0][0], WorkloadData.ROWS[0][1]));
+        return taskService.tryDelete(threadState.scratchId);
+    }
+
+    @Benchmark
+    public TaskStatus addDeleteWithTtl(ThreadState threadState) {
+        taskService.tryAdd(new Task(threadState.scratchId, WorkloadData.ROWS[0][0], WorkloadData.ROWS[0][1]), 60_000);
+        return taskService.tryDelete(threadState.scratchId);
+    }
+}
@@ -0,0 +1,65 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-service walks over 1M tasks: TaskExporter to a temp file in both formats, and a sequential against a parallel stream count, on both
+ * stores. Compare the export time with the file size to see how close it runs to disk speed.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ExportBenchmark {
+    private static final int MAP_SIZE = 1_000_000;
+
+    @Param({"onHeap", "offHeap"})
+    String store;
+
+    TaskService taskService;
+    Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        taskService = new TaskService("offHeap".equals(store) ? new OffHeapTaskStore() : new OnHeapTaskStore());
+        taskService.presize(MAP_SIZE);
+        for (int i = 0; i < MAP_SIZE; i++) {
+            String[] row = WorkloadData.ROWS[i % WorkloadData.ROWS.length];
+            taskService.addTask(new Task(String.valueOf(i), row[0], row[1]));
+        }
+        file = Files.createTempFile("tasks-export", ".out");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.println("Last export: " + Files.size(file) / (1024 * 1024) + " MB");
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long exportCsv() throws IOException {
+        return TaskExporter.export(taskService, file, TaskExporter.Format.CSV);
+    }
+
+    @Benchmark
+    public long exportBinary() throws IOException {
+        return TaskExporter.export(taskService, file, TaskExporter.Format.BINARY);
+    }
+
+    @Benchmark
+    public long sequentialStreamCount() {
+        return taskService.stream().filter(task -> task.getTaskName().length() > 5).count();
+    }
+
+    @Benchmark
+    public long parallelStreamCount() {
+        return taskService.parallelStream().filter(task -> task.getTaskName().length() > 5).count();
+    }
+}
@@ -0,0 +1,58 @@
+package org.jeremiahboothe;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Prints bytes per task for the on-heap, off-heap and numeric-key storage modes, and for on-heap with names and descriptions deduplicated through a
+ * TaskStringPool. Heap is measured as used heap after a full GC, before and after loading the tasks; the off-heap mode adds the direct memory
+ * its pages reserve. Run with ./gradlew footprint -PfootprintTasks=10000000
+ */
+public final class FootprintReport {
+
+    private FootprintReport() {
+    }
+
+    public static void main(String[] args) {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.printf("%-10s %14s %14s %14s%n", "mode", "heap B/task", "direct B/task", "total B/task");
+        report("on-heap", taskCount, new OnHeapTaskStore());
+        report("off-heap", taskCount, new OffHeapTaskStore());
+        report("numeric", taskCount, new NumericKeyTaskStore());
+        TaskStringPool pool = new TaskStringPool(1 << 16);
+        Task.useStringPool(pool);
+        try {
+            report("deduped", taskCount, new OnHeapTaskStore());
+        } finally {
+            Task.useStringPool(null);
+        }
+        System.out.printf("pool hits %d, misses %d, pooled strings %d%n", pool.getHitCount(), pool.getMissCount(), pool.size());
+    }
+
+    private static void report(String mode, int taskCount, TaskStore taskStore) {
+        long heapBefore = usedHeapAfterGc();
+        TaskService taskService = new TaskService(taskStore);
+        taskService.presize(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            String[] row = WorkloadData.ROWS[i % WorkloadData.ROWS.length];
+            // Copy the characters so every task owns its strings, as tasks parsed from a request or file do.
+            taskService.addTask(new Task(String.valueOf(i), new String(row[0].toCharArray()), new String(row[1].toCharArray())));
+        }
+        long heapBytes = usedHeapAfterGc() - heapBefore;
+        long directBytes = taskStore instanceof OffHeapTaskStore ? ((OffHeapTaskStore) taskStore).getOffHeapBytes() : 0;
+
+        System.out.printf("%-10s %14.1f %14.1f %14.1f%n", mode,
+                (double) heapBytes / taskCount, (double) directBytes / taskCount, (double) (heapBytes + directBytes) / taskCount);
+        if (taskService.size() != taskCount) {
+            throw new IllegalStateException("Lost tasks while measuring " + mode);
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,84 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading "Ids 100 through 199" style ranges from a million tasks through TaskIdIndex against the only way without it, a full scan of the
+ * map followed by a sort (scanAndSortRange). pageOf100 and floorId are the index's keyset page and nearest-Id lookup at a random spot.
+ * addThenDelete is the write cost, run with the index off (NONE) and on (SKIP_LIST) to show what keeping the skip list adds per change.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class IdIndexBenchmark {
+    @Param({"1000000"})
+    int mapSize;
+
+    @Param({"NONE", "SKIP_LIST"})
+    String index;
+
+    TaskService taskService;
+    TaskIdIndex idIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskService = WorkloadData.populatedService(mapSize);
+        if (index.equals("SKIP_LIST")) {
+            idIndex = taskService.enableIdIndex();
+        }
+    }
+
+    private int randomStart() {
+        return ThreadLocalRandom.current().nextInt(mapSize - 100);
+    }
+
+    @Benchmark
+    public List<Task> indexRange() {
+        if (idIndex == null) {
+            return null;
+        }
+        int from = randomStart();
+        return idIndex.range(String.valueOf(from), String.valueOf(from + 99), Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<Task> scanAndSortRange() {
+        int from = randomStart();
+        int to = from + 99;
+        List<Task> found = new ArrayList<>();
+        taskService.forEachTask(task -> {
+            long key = NumericKeyTaskStore.numericKey(task.getTaskId());
+            if (key >= from && key <= to) {
+                found.add(task);
+            }
+        });
+        found.sort((left, right) -> TaskIdIndex.ID_ORDER.compare(left.getTaskId(), right.getTaskId()));
+        return found;
+    }
+
+    @Benchmark
+    public List<Task> pageOf100() {
+        return idIndex == null ? null : idIndex.page(String.valueOf(randomStart()), 100);
+    }
+
+    @Benchmark
+    public String floorId() {
+        return idIndex == null ? null : idIndex.floorId(randomStart() + "5");
+    }
+
+    @Benchmark
+    public void addThenDelete() {
+        String taskId = "n" + ThreadLocalRandom.current().nextInt(1_000_000);
+        if (taskService.tryAdd(new Task(taskId, WorkloadData.ROWS[0][0], WorkloadData.ROWS[0][1])) == TaskStatus.OK) {
+            taskService.tryDelete(taskId);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of TaskMetrics on the hot operations: the same service with metrics off, on with the default sampling, and on timing every call.
+ * Run with -t 4 or more to see the counters under contention.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+    private static final int MAP_SIZE = 100_000;
+
+    /**
+     * 0 leaves metrics off, otherwise the sample interval passed to enableMetrics.
+     */
+    @Param({"0", "16", "1"})
+    int sampleInterval;
+
+    TaskService taskService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskService = WorkloadData.populatedService(MAP_SIZE);
+        if (sampleInterval > 0) {
+            taskService.enableMetrics(sampleInterval);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void printMetrics() {
+        if (taskService.getMetrics() != null) {
+            System.out.println(taskService.getMetrics().snapshot());
+        }
+    }
+
+    @Benchmark
+    public Task getTaskById() {
+        return taskService.getTaskById(String.valueOf(ThreadLocalRandom.current().nextInt(MAP_SIZE)));
+    }
+
+    @Benchmark
+    public void updateTaskName() {
+        int id = ThreadLocalRandom.current().nextInt(MAP_SIZE);
+        taskService.updateTaskName(String.valueOf(id), WorkloadData.ROWS[id % WorkloadData.ROWS.length][0]);
+    }
+}
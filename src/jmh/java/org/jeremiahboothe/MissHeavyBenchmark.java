@@ -0,0 +1,106 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misses through the throwing TaskService methods against the TaskStatus and Optional methods. Each call picks an Id that is absent with
+ * probability missPercent, so the throwing variants pay for building an exception with its stack trace on every miss.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class MissHeavyBenchmark {
+    private static final int MAP_SIZE = 100_000;
+
+    @Param({"10", "90"})
+    int missPercent;
+
+    TaskService taskService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskService = WorkloadData.populatedService(MAP_SIZE);
+    }
+
+    /**
+     * @return String An existing Id, or with probability missPercent one outside the preloaded range.
+     */
+    private String nextId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int id = random.nextInt(MAP_SIZE);
+        return random.nextInt(100) < missPercent ? String.valueOf(id + MAP_SIZE) : String.valueOf(id);
+    }
+
+    @Benchmark
+    public String throwingGetTaskName() {
+        try {
+            return taskService.getTaskName(nextId());
+        } catch (NullPointerException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public String findByIdName() {
+        Optional<Task> task = taskService.findById(nextId());
+        return task.isPresent() ? task.get().getTaskName() : null;
+    }
+
+    @Benchmark
+    public boolean throwingUpdateTaskName() {
+        try {
+            taskService.updateTaskName(nextId(), WorkloadData.ROWS[0][0]);
+            return true;
+        } catch (NullPointerException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public TaskStatus tryUpdateTaskName() {
+        return taskService.tryUpdateTaskName(nextId(), WorkloadData.ROWS[0][0]);
+    }
+
+    /**
+     * Deletes only ever miss here, so the map stays the same size across iterations.
+     */
+    @Benchmark
+    public boolean throwingDeleteMiss() {
+        try {
+            taskService.deleteTaskQuietly(String.valueOf(MAP_SIZE + ThreadLocalRandom.current().nextInt(MAP_SIZE)));
+            return true;
+        } catch (NullPointerException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public TaskStatus tryDeleteMiss() {
+        return taskService.tryDelete(String.valueOf(MAP_SIZE + ThreadLocalRandom.current().nextInt(MAP_SIZE)));
+    }
+
+    /**
+     * Adds only ever collide with a preloaded Id, so nothing is added.
+     */
+    @Benchmark
+    public boolean throwingAddDuplicate() {
+        try {
+            taskService.addTask(new Task(String.valueOf(ThreadLocalRandom.current().nextInt(MAP_SIZE)), "Dup", "Dup"));
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public TaskStatus tryAddDuplicate() {
+        return taskService.tryAdd(new Task(String.valueOf(ThreadLocalRandom.current().nextInt(MAP_SIZE)), "Dup", "Dup"));
+    }
+}
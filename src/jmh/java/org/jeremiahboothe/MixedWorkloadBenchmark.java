@@ -0,0 +1,73 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mixed read/write profile over a preloaded TaskService: 80% getTaskById, 15% updates split between name and description, 5% add/delete pairs.
+ * Rows come from WorkloadData, which mirrors the TaskServiceTest CSV inputs.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class MixedWorkloadBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int mapSize;
+
+    TaskService taskService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskService = WorkloadData.populatedService(mapSize);
+    }
+
+    /**
+     * Per thread Id for the add/delete share of the mix.
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+        String scratchId;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            scratchId = "m" + THREAD_COUNTER.getAndIncrement();
+        }
+    }
+
+    private Object step(ThreadState threadState) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        String taskId = String.valueOf(random.nextInt(mapSize));
+        String[] row = WorkloadData.ROWS[random.nextInt(WorkloadData.ROWS.length)];
+
+        if (roll < 80) {
+            return taskService.getTaskById(taskId);
+        } else if (roll < 88) {
+            taskService.updateTaskName(taskId, row[0]);
+        } else if (roll < 95) {
+            taskService.updateTaskDescription(taskId, row[1]);
+        } else {
+            taskService.addTask(taskService.createNewTaskToAddToMap(threadState.scratchId, row[0], row[1]));
+            taskService.deleteTaskQuietly(threadState.scratchId);
+        }
+        return taskId;
+    }
+
+    @Benchmark
+    public Object mixed(ThreadState threadState) {
+        return step(threadState);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object mixedContended(ThreadState threadState) {
+        return step(threadState);
+    }
+}
@@ -0,0 +1,64 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NumericKeyTaskStore against the default ConcurrentHashMap store on numeric Ids: hits, misses, and an add-then-delete churn that moves
+ * entries in and out of the tables. The Id strings are built once up front, so the numbers compare the stores rather than String.valueOf.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class NumericKeyBenchmark {
+    @Param({"10000", "1000000"})
+    int mapSize;
+
+    @Param({"ON_HEAP", "NUMERIC_KEY"})
+    String storeMode;
+
+    TaskService taskService;
+    String[] presentIds;
+    String[] absentIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskService = new TaskService(storeMode.equals("ON_HEAP") ? new OnHeapTaskStore() : new NumericKeyTaskStore());
+        presentIds = new String[mapSize];
+        absentIds = new String[mapSize];
+        for (int i = 0; i < mapSize; i++) {
+            presentIds[i] = String.valueOf(i);
+            absentIds[i] = String.valueOf(mapSize + i);
+            String[] row = WorkloadData.ROWS[i % WorkloadData.ROWS.length];
+            taskService.addTask(new Task(presentIds[i], row[0], row[1]));
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Task getHit() {
+        return taskService.getTaskById(presentIds[ThreadLocalRandom.current().nextInt(mapSize)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Task getMiss() {
+        return taskService.getTaskById(absentIds[ThreadLocalRandom.current().nextInt(mapSize)]);
+    }
+
+    /**
+     * Adds an absent Id and deletes it again, so the map size stays put.
+     */
+    @Benchmark
+    @Threads(4)
+    public TaskStatus addThenDelete() {
+        String taskId = absentIds[ThreadLocalRandom.current().nextInt(mapSize)];
+        taskService.tryAdd(new Task(taskId, WorkloadData.ROWS[0][0], WorkloadData.ROWS[0][1]));
+        return taskService.tryDelete(taskId);
+    }
+}
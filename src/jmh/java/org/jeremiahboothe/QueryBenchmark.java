@@ -0,0 +1,68 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskQuery over ten million tasks, run on the calling thread (SEQUENTIAL) or split across the common fork-join pool (PARALLEL).
+ * countContains and countByNameLength read every task; limit100 and findAbsentFirst show early termination, the first stopping after a
+ * hundred matches and the second, which matches nothing, reading everything. streamCount is the same count as countContains through
+ * TaskService.stream, for comparison with the query's own splitting.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+    @Param({"10000000"})
+    int mapSize;
+
+    @Param({"SEQUENTIAL", "PARALLEL"})
+    String mode;
+
+    TaskService taskService;
+    TaskFilter containsFriend;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskService = WorkloadData.populatedService(mapSize);
+        containsFriend = TaskFilter.contains(TaskFilter.Field.DESCRIPTION, "friend");
+    }
+
+    private TaskQuery query() {
+        TaskQuery query = taskService.query();
+        return mode.equals("SEQUENTIAL") ? query.sequential() : query;
+    }
+
+    @Benchmark
+    public long countContains() {
+        return query().where(containsFriend).count();
+    }
+
+    @Benchmark
+    public Map<Integer, Long> countByNameLength() {
+        return query().countBy(task -> task.getTaskName().length());
+    }
+
+    @Benchmark
+    public List<VersionedTask> limit100() {
+        return query().where(containsFriend).limit(100).list();
+    }
+
+    @Benchmark
+    public boolean findAbsentFirst() {
+        return query().where(TaskFilter.equalTo(TaskFilter.Field.NAME, "Absent")).anyMatch();
+    }
+
+    @Benchmark
+    public long streamCount() {
+        return (mode.equals("SEQUENTIAL") ? taskService.stream() : taskService.parallelStream())
+                .filter(task -> task.getTaskDescription().contains("friend"))
+                .count();
+    }
+}
@@ -0,0 +1,60 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time for TaskPersistence.open to rebuild a TaskService from a snapshot plus a log tail of logTailPercent changes written after it.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class RecoveryBenchmark {
+    @Param({"1000000", "10000000"})
+    int taskCount;
+
+    @Param({"1"})
+    int logTailPercent;
+
+    Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("task-recovery");
+        TaskService taskService = new TaskService();
+        try (TaskPersistence persistence = TaskPersistence.open(directory, taskService, 10, 0)) {
+            for (int i = 0; i < taskCount; i++) {
+                String[] row = WorkloadData.ROWS[i % WorkloadData.ROWS.length];
+                taskService.addTask(new Task(String.valueOf(i), row[0], row[1]));
+            }
+            persistence.checkpoint();
+            int tail = taskCount / 100 * logTailPercent;
+            for (int i = 0; i < tail; i++) {
+                taskService.updateTaskName(String.valueOf(i), WorkloadData.ROWS[0][0]);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public TaskService recover() throws IOException {
+        TaskService taskService = new TaskService();
+        TaskPersistence.open(directory, taskService, 10, 0).close();
+        return taskService;
+    }
+}
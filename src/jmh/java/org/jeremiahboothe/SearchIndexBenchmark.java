@@ -0,0 +1,65 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskSearchIndex queries against the full scan callers had to do before, over a preloaded TaskService. Every task gets a distinct name, so an
+ * exact lookup matches one task and a prefix matches a handful.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class SearchIndexBenchmark {
+    @Param({"100000", "1000000"})
+    int mapSize;
+
+    TaskService taskService;
+    TaskSearchIndex searchIndex;
+    String name;
+    String prefix;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskService = new TaskService();
+        for (int i = 0; i < mapSize; i++) {
+            String[] row = WorkloadData.ROWS[i % WorkloadData.ROWS.length];
+            taskService.addTask(new Task(String.valueOf(i), "Task " + i, row[1]));
+        }
+        searchIndex = TaskSearchIndex.attach(taskService);
+        name = "Task " + mapSize / 2;
+        prefix = "Task " + mapSize / 20;
+    }
+
+    @Benchmark
+    public List<Task> indexedExactName() {
+        return searchIndex.findByName(name);
+    }
+
+    @Benchmark
+    public List<Task> indexedNamePrefix() {
+        return searchIndex.findByNamePrefix(prefix, 100);
+    }
+
+    @Benchmark
+    public List<Task> indexedDescriptionWords() {
+        return searchIndex.findByDescriptionWords("guitar minutes", 100);
+    }
+
+    @Benchmark
+    public List<Task> scanExactName() {
+        List<Task> found = new ArrayList<>();
+        taskService.forEachTask(task -> {
+            if (task.getTaskName().equals(name)) {
+                found.add(task);
+            }
+        });
+        return found;
+    }
+}
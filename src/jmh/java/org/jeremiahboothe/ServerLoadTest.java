@@ -0,0 +1,105 @@
+package org.jeremiahboothe;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loopback load test for TaskServer. Starts a server over a preloaded TaskService, then drives it from several TaskClient connections, each
+ * keeping up to pipelineDepth requests in flight with the MixedWorkloadBenchmark mix: 80% gets, 15% updates, 5% adds and deletes of a scratch Id.
+ * Prints throughput and latency percentiles measured from send to response.
+ * Run with ./gradlew serverLoadTest -PloadArgs="connections pipelineDepth seconds mapSize eventLoops"
+ */
+public final class ServerLoadTest {
+
+    private ServerLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int pipelineDepth = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int mapSize = args.length > 3 ? Integer.parseInt(args[3]) : 100_000;
+        int eventLoops = args.length > 4 ? Integer.parseInt(args[4]) : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        try (TaskServer server = new TaskServer(WorkloadData.populatedService(mapSize), new InetSocketAddress("127.0.0.1", 0), eventLoops)) {
+            System.out.printf("connections=%d pipelineDepth=%d mapSize=%d eventLoops=%d%n", connections, pipelineDepth, mapSize, eventLoops);
+            run(server.getPort(), connections, pipelineDepth, Math.max(1, seconds / 5), mapSize, "warmup");
+            run(server.getPort(), connections, pipelineDepth, seconds, mapSize, "measure");
+        }
+    }
+
+    private static void run(int port, int connections, int pipelineDepth, int seconds, int mapSize, String phase)
+            throws IOException, InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder completed = new LongAdder();
+        LongAdder failed = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Thread> drivers = new ArrayList<>();
+        List<TaskClient> clients = new ArrayList<>();
+        for (int c = 0; c < connections; c++) {
+            TaskClient client = TaskClient.connect("127.0.0.1", port);
+            clients.add(client);
+            String scratchId = "load" + c;
+            Thread driver = new Thread(() -> drive(client, pipelineDepth, deadline, mapSize, scratchId, latency, completed, failed),
+                    "load-driver-" + c);
+            drivers.add(driver);
+        }
+        long start = System.nanoTime();
+        drivers.forEach(Thread::start);
+        for (Thread driver : drivers) {
+            driver.join();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        clients.forEach(TaskClient::close);
+
+        LatencyHistogram.Snapshot snapshot = latency.snapshot();
+        System.out.printf("%-8s %12.0f req/s  p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus failed=%d%n", phase,
+                completed.sum() / elapsedSeconds, snapshot.getP50() / 1e3, snapshot.getP99() / 1e3, snapshot.getP999() / 1e3,
+                snapshot.getMax() / 1e3, failed.sum());
+    }
+
+    /**
+     * Keeps pipelineDepth requests outstanding on one connection until the deadline, then waits for the stragglers.
+     */
+    private static void drive(TaskClient client, int pipelineDepth, long deadline, int mapSize, String scratchId,
+                              LatencyHistogram latency, LongAdder completed, LongAdder failed) {
+        Semaphore inFlight = new Semaphore(pipelineDepth);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            inFlight.acquireUninterruptibly();
+            int roll = random.nextInt(100);
+            String taskId = String.valueOf(random.nextInt(mapSize));
+            String[] row = WorkloadData.ROWS[random.nextInt(WorkloadData.ROWS.length)];
+            long sent = System.nanoTime();
+            CompletableFuture<?> response;
+            if (roll < 80) {
+                response = client.getTaskAsync(taskId);
+            } else if (roll < 88) {
+                response = client.updateTaskNameAsync(taskId, row[0]);
+            } else if (roll < 95) {
+                response = client.updateTaskDescriptionAsync(taskId, row[1]);
+            } else if (roll < 98) {
+                response = client.addTaskAsync(scratchId, row[0], row[1]);
+            } else {
+                response = client.deleteTaskAsync(scratchId);
+            }
+            response.whenComplete((result, error) -> {
+                latency.record(System.nanoTime() - sent);
+                if (error == null) {
+                    completed.increment();
+                } else {
+                    failed.increment();
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquireUninterruptibly(pipelineDepth);
+    }
+}
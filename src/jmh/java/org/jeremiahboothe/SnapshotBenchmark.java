@@ -0,0 +1,80 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * What SnapshotTaskStore costs writers and what it saves readers. ON_HEAP is the default store, SNAPSHOT_IDLE wraps it in a SnapshotTaskStore
+ * with no snapshot open, and SNAPSHOT_OPEN keeps one snapshot open for the whole trial so every update goes through the overlay.
+ * pointInTimeView is the price of a stable view of the whole map: a full copy on the default store, a snapshot taken and closed otherwise.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+    @Param({"10000", "1000000"})
+    int mapSize;
+
+    @Param({"ON_HEAP", "SNAPSHOT_IDLE", "SNAPSHOT_OPEN"})
+    String storeMode;
+
+    TaskService taskService;
+    TaskMapSnapshot openSnapshot;
+    String[] taskIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskService = new TaskService(storeMode.equals("ON_HEAP") ? new OnHeapTaskStore() : new SnapshotTaskStore(new OnHeapTaskStore()));
+        taskIds = new String[mapSize];
+        for (int i = 0; i < mapSize; i++) {
+            taskIds[i] = String.valueOf(i);
+            String[] row = WorkloadData.ROWS[i % WorkloadData.ROWS.length];
+            taskService.addTask(new Task(taskIds[i], row[0], row[1]));
+        }
+        if (storeMode.equals("SNAPSHOT_OPEN")) {
+            openSnapshot = taskService.snapshot();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (openSnapshot != null) {
+            openSnapshot.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Task getHit() {
+        return taskService.getTaskById(taskIds[ThreadLocalRandom.current().nextInt(mapSize)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TaskStatus updateName() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return taskService.tryUpdateTaskName(taskIds[random.nextInt(mapSize)], WorkloadData.ROWS[random.nextInt(WorkloadData.ROWS.length)][0]);
+    }
+
+    /**
+     * A view of every task that later writes cannot change, and its size.
+     */
+    @Benchmark
+    @Threads(1)
+    public int pointInTimeView() {
+        if (storeMode.equals("ON_HEAP")) {
+            List<VersionedTask> copy = taskService.stream().map(Task::snapshot).collect(Collectors.toList());
+            return copy.size();
+        }
+        try (TaskMapSnapshot snapshot = taskService.snapshot()) {
+            return snapshot.size();
+        }
+    }
+}
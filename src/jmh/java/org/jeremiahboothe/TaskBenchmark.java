@@ -0,0 +1,49 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the Task constructor and setters, which is almost entirely the null and length validation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TaskBenchmark {
+    private String taskId = "53354";
+    private String taskName = WorkloadData.ROWS[5][0];
+    private String taskDescription = WorkloadData.ROWS[5][1];
+    private Task task;
+
+    @Setup
+    public void setUp() {
+        task = new Task(taskId, taskName, taskDescription);
+    }
+
+    @Benchmark
+    public Task constructor() {
+        return new Task(taskId, taskName, taskDescription);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Task constructorContended() {
+        return new Task(taskId, taskName, taskDescription);
+    }
+
+    @Benchmark
+    public Task setTaskName() {
+        task.setTaskName(taskName);
+        return task;
+    }
+
+    @Benchmark
+    public Task setTaskDescription() {
+        task.setTaskDescription(taskDescription);
+        return task;
+    }
+}
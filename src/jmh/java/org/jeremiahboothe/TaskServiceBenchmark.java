@@ -0,0 +1,100 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput and average latency of the TaskService operations at map sizes from 1K to 10M tasks. Each operation has a single threaded and a
+ * multi-threaded variant, run the task with -prof gc (the default for ./gradlew jmh) to see the allocation rate per operation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TaskServiceBenchmark {
+
+    /**
+     * The preloaded service, shared by every benchmark thread.
+     */
+    @State(Scope.Benchmark)
+    public static class ServiceState {
+        @Param({"1000", "100000", "1000000", "10000000"})
+        int mapSize;
+
+        TaskService taskService;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            taskService = WorkloadData.populatedService(mapSize);
+        }
+    }
+
+    /**
+     * Per thread scratch state, each thread owns an Id outside the preloaded range so add/delete pairs never collide.
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+        Task scratchTask;
+        String scratchId;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            scratchId = "t" + THREAD_COUNTER.getAndIncrement();
+            scratchTask = new Task(scratchId, WorkloadData.ROWS[0][0], WorkloadData.ROWS[0][1]);
+        }
+
+        String randomExistingId(ServiceState serviceState) {
+            return String.valueOf(ThreadLocalRandom.current().nextInt(serviceState.mapSize));
+        }
+    }
+
+    @Benchmark
+    public Task getTaskById(ServiceState serviceState, ThreadState threadState) {
+        return serviceState.taskService.getTaskById(threadState.randomExistingId(serviceState));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Task getTaskByIdContended(ServiceState serviceState, ThreadState threadState) {
+        return serviceState.taskService.getTaskById(threadState.randomExistingId(serviceState));
+    }
+
+    @Benchmark
+    public void updateTaskName(ServiceState serviceState, ThreadState threadState) {
+        serviceState.taskService.updateTaskName(threadState.randomExistingId(serviceState), WorkloadData.ROWS[1][0]);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void updateTaskNameContended(ServiceState serviceState, ThreadState threadState) {
+        serviceState.taskService.updateTaskName(threadState.randomExistingId(serviceState), WorkloadData.ROWS[1][0]);
+    }
+
+    /**
+     * addTask and deleteTask are measured as a pair so the map size stays at mapSize for the whole run.
+     */
+    @Benchmark
+    public void addTaskThenDeleteTask(ServiceState serviceState, ThreadState threadState) {
+        serviceState.taskService.addTask(threadState.scratchTask);
+        serviceState.taskService.deleteTaskQuietly(threadState.scratchId);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void addTaskThenDeleteTaskContended(ServiceState serviceState, ThreadState threadState) {
+        serviceState.taskService.addTask(threadState.scratchTask);
+        serviceState.taskService.deleteTaskQuietly(threadState.scratchId);
+    }
+
+    @Benchmark
+    public void createNewTaskToAddToMap(ServiceState serviceState, Blackhole blackhole) {
+        blackhole.consume(serviceState.taskService.createNewTaskToAddToMap("1234567890", WorkloadData.ROWS[2][0], WorkloadData.ROWS[2][1]));
+    }
+}
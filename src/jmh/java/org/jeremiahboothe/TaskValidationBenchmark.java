@@ -0,0 +1,73 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the specialized TaskValidation checks against the generic nullCheck/lengthCheck pair Task used before, on both the valid path and the
+ * failing path. Look at gc.alloc.rate.norm: the specialized valid path should report 0 B/op, and the result-code failure path avoids the exception.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TaskValidationBenchmark {
+    private String taskId = "53354";
+    private String taskName = WorkloadData.ROWS[5][0];
+    private String taskDescription = WorkloadData.ROWS[5][1];
+    private String tooLongName = "Cook Dinner Cook Dinner";
+
+    /**
+     * The generic null check Task used before TaskValidation, kept here as the baseline.
+     */
+    private static <T> void legacyNullCheck(T genericValue, String errorMessage) {
+        if (genericValue == null) {
+            throw new NullPointerException(errorMessage + " cannot be null!");
+        }
+    }
+
+    /**
+     * The generic length check Task used before TaskValidation, kept here as the baseline.
+     */
+    private static <T> void legacyLengthCheck(T genericValue, String errorMessage, int allowedLength) {
+        int length = String.valueOf(genericValue).length();
+        if (length > allowedLength) {
+            throw new IllegalArgumentException(errorMessage + " cannot be longer than " + allowedLength + "!");
+        }
+    }
+
+    @Benchmark
+    public int legacyValid() {
+        legacyNullCheck(taskId, "Task Id");
+        legacyLengthCheck(taskId, "Task Id", 10);
+        legacyNullCheck(taskName, "Task Name");
+        legacyLengthCheck(taskName, "Task Name", 20);
+        legacyNullCheck(taskDescription, "Task Description");
+        legacyLengthCheck(taskDescription, "Task Description", 50);
+        return 0;
+    }
+
+    @Benchmark
+    public TaskValidation specializedValid() {
+        return TaskValidation.check(taskId, taskName, taskDescription);
+    }
+
+    @Benchmark
+    public Object legacyInvalid() {
+        try {
+            legacyNullCheck(tooLongName, "Task Name");
+            legacyLengthCheck(tooLongName, "Task Name", 20);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public TaskValidation specializedInvalidResultCode() {
+        return TaskValidation.check(taskId, tooLongName, taskDescription);
+    }
+}
@@ -0,0 +1,78 @@
+package org.jeremiahboothe;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Four threads each renaming one random task and changing another's description, over a hundred thousand tasks. UNLOCKED makes the two
+ * changes as separate calls with transactions off, the old way with no atomicity; STRIPED does the same with transactions on, to show what
+ * the per-Id stripe costs a single-task write; GLOBAL_LOCK makes the pair atomic behind one lock shared by every thread; TRANSACTION commits
+ * the pair as a TaskTransaction, which only waits when two threads pick Ids on the same stripe.
+ * consistentRead reads both tasks with getVersionedTasks, for comparison with two getVersionedTask calls in UNLOCKED.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionBenchmark {
+    private static final Object GLOBAL_LOCK = new Object();
+
+    @Param({"100000"})
+    int mapSize;
+
+    @Param({"UNLOCKED", "STRIPED", "GLOBAL_LOCK", "TRANSACTION"})
+    String mode;
+
+    TaskService taskService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskService = WorkloadData.populatedService(mapSize);
+        if (!mode.equals("UNLOCKED")) {
+            taskService.enableTransactions();
+        }
+    }
+
+    private String randomId() {
+        return String.valueOf(ThreadLocalRandom.current().nextInt(mapSize));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TaskStatus renameAndDescribe() {
+        String renamed = randomId();
+        String described = randomId();
+        String[] row = WorkloadData.ROWS[ThreadLocalRandom.current().nextInt(WorkloadData.ROWS.length)];
+        switch (mode) {
+            case "TRANSACTION":
+                return taskService.beginTransaction()
+                        .updateTaskName(renamed, row[0])
+                        .updateTaskDescription(described, row[1])
+                        .commit();
+            case "GLOBAL_LOCK":
+                synchronized (GLOBAL_LOCK) {
+                    taskService.tryUpdateTaskName(renamed, row[0]);
+                    return taskService.tryUpdateTaskDescription(described, row[1]);
+                }
+            default:
+                taskService.tryUpdateTaskName(renamed, row[0]);
+                return taskService.tryUpdateTaskDescription(described, row[1]);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object consistentRead() {
+        String first = randomId();
+        String second = randomId();
+        if (mode.equals("UNLOCKED")) {
+            return new VersionedTask[] {taskService.getVersionedTask(first), taskService.getVersionedTask(second)};
+        }
+        return taskService.getVersionedTasks(Arrays.asList(first, second));
+    }
+}
@@ -0,0 +1,76 @@
+package org.jeremiahboothe;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared benchmark inputs loaded from src/test/resources/test-data.csv, so the benchmarks exercise the same names and lengths the tests do.
+ */
+final class WorkloadData {
+    private static final String TEST_DATA = "/test-data.csv";
+
+    /**
+     * Valid name/description pairs built from the test-data.csv rows, first and last name as the name, phone and address as the description.
+     */
+    static final String[][] ROWS = loadRows();
+
+    private WorkloadData() {
+    }
+
+    /**
+     * Builds a TaskService holding mapSize tasks with numeric Ids 0 through mapSize - 1.
+     * @param mapSize Number of tasks to preload.
+     * @return TaskService Populated, isolated service.
+     */
+    static TaskService populatedService(int mapSize) {
+        TaskService taskService = new TaskService();
+        for (int i = 0; i < mapSize; i++) {
+            String[] row = ROWS[i % ROWS.length];
+            taskService.addTask(new Task(String.valueOf(i), row[0], row[1]));
+        }
+        return taskService;
+    }
+
+    /**
+     * Reads test-data.csv from the classpath, skipping the rows whose name or description would be blank and cutting the rest down to the Task limits.
+     * @return String[][] Name/description pairs in file order.
+     */
+    private static String[][] loadRows() {
+        List<String[]> rows = new ArrayList<>();
+        try (InputStream in = WorkloadData.class.getResourceAsStream(TEST_DATA)) {
+            if (in == null) {
+                throw new IllegalStateException(TEST_DATA + " is not on the benchmark classpath!");
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",", -1);
+                if (fields.length < 4) {
+                    continue;
+                }
+                String name = join(fields[0], fields[1], Task.TASK_NAME_MAX_LENGTH);
+                String description = join(fields[2], fields[3], Task.TASK_DESCRIPTION_MAX_LENGTH);
+                if (!name.isEmpty() && !description.isEmpty()) {
+                    rows.add(new String[]{name, description});
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (rows.isEmpty()) {
+            throw new IllegalStateException(TEST_DATA + " has no usable rows!");
+        }
+        return rows.toArray(new String[0][]);
+    }
+
+    private static String join(String first, String second, int maxLength) {
+        String joined = (first.trim() + " " + second.trim()).trim();
+        return joined.length() > maxLength ? joined.substring(0, maxLength).trim() : joined;
+    }
+}
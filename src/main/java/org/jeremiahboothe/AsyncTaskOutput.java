@@ -0,0 +1,234 @@
+package org.jeremiahboothe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * TaskOutput that keeps printing off the caller's thread. A caller claims a slot in a fixed ring with one compare-and-set and stores the
+ * unjoined pieces of its line there; it never locks, formats or writes. A single writer thread takes the published lines in claim order, up to
+ * maxBatch at a time, joins and encodes them into one buffer and hands the whole batch to the channel in one write, so the PrintStream lock
+ * that System.out takes per line is taken once per batch, by one thread.
+ * When callers get a full ring ahead of the writer, BLOCK makes them wait for it, which is the backpressure, while DROP discards the line and
+ * counts it, so callers never wait. Lines from one thread come out in the order it printed them. Close it to write what is queued and stop
+ * the writer; lines printed after that are dropped.
+ */
+final class AsyncTaskOutput implements TaskOutput, AutoCloseable {
+    /**
+     * What a caller does when the ring is full.
+     */
+    enum OverflowPolicy {
+        BLOCK, DROP
+    }
+
+    private static final long CALLER_PARK_NANOS = 1_000;
+    private static final long WRITER_PARK_NANOS = 50_000;
+    private static final int WRITER_SPINS = 100;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final WritableByteChannel channel;
+    private final OverflowPolicy overflowPolicy;
+    private final int maxBatch;
+    private final AtomicReferenceArray<Line> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final Thread writer;
+    private volatile long head;
+    private volatile long writtenCount;
+    private volatile boolean running = true;
+
+    /**
+     * @param channel Where the lines go. It is not closed with this sink.
+     * @param capacity Lines the ring holds, rounded up to a power of two.
+     * @param maxBatch Most lines per channel write.
+     * @param overflowPolicy BLOCK or DROP.
+     */
+    AsyncTaskOutput(WritableByteChannel channel, int capacity, int maxBatch, OverflowPolicy overflowPolicy) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Output capacity must be at least 2!");
+        }
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1!");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.channel = channel;
+        this.overflowPolicy = overflowPolicy;
+        this.maxBatch = maxBatch;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.writer = new Thread(this::run, "task-output");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Sink writing to System.out as it is now, in batches of up to 256 lines.
+     * @param capacity Lines the ring holds.
+     * @param overflowPolicy BLOCK or DROP.
+     * @return AsyncTaskOutput Running sink, close it when done.
+     */
+    static AsyncTaskOutput standardOut(int capacity, OverflowPolicy overflowPolicy) {
+        return new AsyncTaskOutput(Channels.newChannel(System.out), capacity, 256, overflowPolicy);
+    }
+
+    @Override
+    public void println(String line) {
+        offer(new Line("", line, ""));
+    }
+
+    /**
+     * Queues the pieces as they are; the writer joins them.
+     */
+    @Override
+    public void println(String prefix, String value, String suffix) {
+        offer(new Line(prefix, value, suffix));
+    }
+
+    /**
+     * Waits until every line queued before the call has been handed to the channel.
+     */
+    void flush() {
+        long target = tail.get();
+        while (writtenCount < target && writer.isAlive()) {
+            LockSupport.parkNanos(WRITER_PARK_NANOS);
+        }
+    }
+
+    /**
+     * @return long Lines handed to the channel so far.
+     */
+    long getWrittenCount() {
+        return writtenCount;
+    }
+
+    /**
+     * @return long Lines discarded, by DROP while the ring was full or because the sink was closed.
+     */
+    long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return long Channel writes so far, each carrying one batch.
+     */
+    long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * Writes the lines already queued, then stops the writer.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        if (writer != Thread.currentThread()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Claims the next sequence once the writer has freed its slot, then stores the line in it. The volatile slot write is what publishes the
+     * line, since the writer checks the slot rather than the tail.
+     */
+    private void offer(Line line) {
+        while (true) {
+            if (!running) {
+                dropped.increment();
+                return;
+            }
+            long claimed = tail.get();
+            if (claimed - head >= slots.length()) {
+                if (overflowPolicy == OverflowPolicy.DROP) {
+                    dropped.increment();
+                    return;
+                }
+                LockSupport.parkNanos(CALLER_PARK_NANOS);
+                continue;
+            }
+            if (tail.compareAndSet(claimed, claimed + 1)) {
+                slots.set((int) claimed & mask, line);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writer thread body: collects the run of published lines at the head, frees their slots, then writes them as one buffer. Spins briefly
+     * when the ring is empty and then parks, since callers never wake the writer. Stops once closed and every claimed line is written.
+     */
+    private void run() {
+        StringBuilder text = new StringBuilder();
+        long next = head;
+        int idleSpins = 0;
+        while (true) {
+            int count = 0;
+            while (count < maxBatch) {
+                int index = (int) next & mask;
+                Line line = slots.get(index);
+                if (line == null) {
+                    break;
+                }
+                slots.lazySet(index, null);
+                text.append(line.prefix).append(line.value).append(line.suffix).append(LINE_SEPARATOR);
+                next++;
+                count++;
+            }
+            if (count == 0) {
+                if (!running && tail.get() == next) {
+                    return;
+                }
+                if (++idleSpins < WRITER_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(WRITER_PARK_NANOS);
+                }
+                continue;
+            }
+            idleSpins = 0;
+            head = next;
+            write(text);
+            text.setLength(0);
+            batches.increment();
+            writtenCount = next;
+        }
+    }
+
+    private void write(StringBuilder text) {
+        ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            System.err.println("Task output write failed: " + e);
+        }
+    }
+
+    /**
+     * One queued line, still in the pieces the caller passed.
+     */
+    private static final class Line {
+        private final String prefix;
+        private final String value;
+        private final String suffix;
+
+        Line(String prefix, String value, String suffix) {
+            this.prefix = prefix;
+            this.value = value;
+            this.suffix = suffix;
+        }
+    }
+}
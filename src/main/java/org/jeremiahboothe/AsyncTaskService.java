@@ -0,0 +1,129 @@
+package org.jeremiahboothe;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Public, non-blocking front end for TaskService. Each call runs on its own virtual thread when the runtime has them (Java 21+), or on a
+ * work-stealing pool otherwise, and returns a CompletableFuture that completes with the result or with the same exception the blocking method
+ * throws. Delete confirmations go to the service's TaskOutput, except that while it is still the synchronous console they go to an
+ * AsyncTaskOutput of the facade's own, so callers never wait on the System.out lock or pin a virtual thread there.
+ */
+public class AsyncTaskService implements AutoCloseable {
+    private static final int CONFIRMATION_CAPACITY = 1024;
+
+    private final TaskService taskService;
+    private final ExecutorService executor;
+    private final AsyncTaskOutput confirmations;
+    private final boolean virtualThreads;
+
+    /**
+     * @param taskService Service the calls run against.
+     */
+    AsyncTaskService(TaskService taskService) {
+        this.taskService = taskService;
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : Executors.newWorkStealingPool();
+        this.confirmations = AsyncTaskOutput.standardOut(CONFIRMATION_CAPACITY, AsyncTaskOutput.OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Async front end for the TaskService singleton.
+     * @return AsyncTaskService New facade, close it when done.
+     */
+    public static AsyncTaskService create() {
+        return new AsyncTaskService(TaskService.getInstance());
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor only exists from Java 21, so it is looked up reflectively to keep compiling for Java 17.
+     * @return ExecutorService Virtual thread per task executor, or null when the runtime has no virtual threads.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return boolean True when calls run on virtual threads.
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Creates and adds a task.
+     * @param taskId Id for new Task
+     * @param taskName Name of new Task
+     * @param taskDescription Description of new Task
+     * @return CompletableFuture Completes when added, or exceptionally with NullPointerException or IllegalArgumentException.
+     */
+    public CompletableFuture<Void> addTask(String taskId, String taskName, String taskDescription) {
+        return CompletableFuture.runAsync(
+                () -> taskService.addTask(taskService.createNewTaskToAddToMap(taskId, taskName, taskDescription)), executor);
+    }
+
+    /**
+     * @param taskId Id of Task.
+     * @return CompletableFuture Completes with the Task, or null when the Id is absent.
+     */
+    public CompletableFuture<Task> getTaskById(String taskId) {
+        return CompletableFuture.supplyAsync(() -> taskService.getTaskById(taskId), executor);
+    }
+
+    /**
+     * @param taskId Id of task to update
+     * @param taskName Task Name to update
+     * @return CompletableFuture Completes when updated, or exceptionally like TaskService.updateTaskName.
+     */
+    public CompletableFuture<Void> updateTaskName(String taskId, String taskName) {
+        return CompletableFuture.runAsync(() -> taskService.updateTaskName(taskId, taskName), executor);
+    }
+
+    /**
+     * @param taskId Task Id to update
+     * @param taskDescription New Task Description
+     * @return CompletableFuture Completes when updated, or exceptionally like TaskService.updateTaskDescription.
+     */
+    public CompletableFuture<Void> updateTaskDescription(String taskId, String taskDescription) {
+        return CompletableFuture.runAsync(() -> taskService.updateTaskDescription(taskId, taskDescription), executor);
+    }
+
+    /**
+     * Deletes a task. The confirmation goes to the service's TaskOutput, or to the facade's background writer while that is the console.
+     * @param taskId Task Id to delete
+     * @return CompletableFuture Completes when deleted, or exceptionally with NullPointerException when the Id is absent.
+     */
+    public CompletableFuture<Void> deleteTask(String taskId) {
+        return CompletableFuture.runAsync(() -> {
+            taskService.deleteTaskQuietly(taskId);
+            TaskOutput output = taskService.getOutput();
+            if (output == TaskOutput.console()) {
+                output = confirmations;
+            }
+            output.println("Task with Id: ", taskId, " deleted successfully!");
+        }, executor);
+    }
+
+    /**
+     * Stops accepting calls, waits for calls in flight, then writes the queued confirmations.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        confirmations.close();
+    }
+}
@@ -0,0 +1,138 @@
+package org.jeremiahboothe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of TaskService.addTasks: how many rows were added, whether the batch was committed, and every rejected row with its reason.
+ */
+final class BulkAddResult {
+
+    /**
+     * Why a row was rejected.
+     */
+    enum Reason {
+        /**
+         * The row failed a TaskValidation check, see Rejection.getValidation().
+         */
+        INVALID,
+        /**
+         * An earlier row in the same batch has the same Id.
+         */
+        DUPLICATE_IN_BATCH,
+        /**
+         * The Id is already in the TaskService.
+         */
+        ALREADY_EXISTS
+    }
+
+    /**
+     * One rejected row.
+     */
+    static final class Rejection {
+        private final int rowIndex;
+        private final String taskId;
+        private final Reason reason;
+        private final TaskValidation validation;
+
+        Rejection(int rowIndex, String taskId, Reason reason, TaskValidation validation) {
+            this.rowIndex = rowIndex;
+            this.taskId = taskId;
+            this.reason = reason;
+            this.validation = validation;
+        }
+
+        /**
+         * @return int Position of the row in the submitted batch.
+         */
+        int getRowIndex() {
+            return rowIndex;
+        }
+
+        String getTaskId() {
+            return taskId;
+        }
+
+        Reason getReason() {
+            return reason;
+        }
+
+        /**
+         * @return TaskValidation The failing check for INVALID rows, VALID otherwise.
+         */
+        TaskValidation getValidation() {
+            return validation;
+        }
+
+        /**
+         * @return String Same wording the single task methods use in their exceptions.
+         */
+        String getMessage() {
+            switch (reason) {
+                case INVALID:
+                    return validation.getMessage();
+                case DUPLICATE_IN_BATCH:
+                    return "Task Id: " + taskId + " appears more than once in the batch!";
+                default:
+                    return "Task Id: " + taskId + " already exists!";
+            }
+        }
+    }
+
+    private final int submittedCount;
+    private int addedCount;
+    private boolean committed;
+    private List<Rejection> rejections = Collections.emptyList();
+
+    /**
+     * @param submittedCount Number of rows in the batch.
+     */
+    BulkAddResult(int submittedCount) {
+        this.submittedCount = submittedCount;
+    }
+
+    /**
+     * Records a rejected row, the list is only allocated once the first reject shows up.
+     */
+    void reject(int rowIndex, String taskId, Reason reason, TaskValidation validation) {
+        if (rejections.isEmpty()) {
+            rejections = new ArrayList<>();
+        }
+        rejections.add(new Rejection(rowIndex, taskId, reason, validation));
+    }
+
+    void commit(int addedCount) {
+        this.addedCount = addedCount;
+        this.committed = true;
+    }
+
+    int getSubmittedCount() {
+        return submittedCount;
+    }
+
+    /**
+     * @return int Rows actually added to the TaskService, 0 when an ATOMIC batch was not committed.
+     */
+    int getAddedCount() {
+        return addedCount;
+    }
+
+    /**
+     * @return boolean False only when an ATOMIC batch was rolled back.
+     */
+    boolean isCommitted() {
+        return committed;
+    }
+
+    /**
+     * @return List Rejected rows in the order they were found, empty when everything was accepted.
+     */
+    List<Rejection> getRejections() {
+        return Collections.unmodifiableList(rejections);
+    }
+
+    boolean hasRejections() {
+        return !rejections.isEmpty();
+    }
+}
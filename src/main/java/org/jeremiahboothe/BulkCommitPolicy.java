@@ -0,0 +1,15 @@
+package org.jeremiahboothe;
+
+/**
+ * How TaskService.addTasks commits a batch that contains rejected rows.
+ */
+enum BulkCommitPolicy {
+    /**
+     * Commit nothing if any row is rejected.
+     */
+    ATOMIC,
+    /**
+     * Commit every valid row and report the rest.
+     */
+    PARTIAL
+}
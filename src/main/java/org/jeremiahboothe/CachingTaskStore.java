@@ -0,0 +1,661 @@
+package org.jeremiahboothe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * TaskStore that keeps at most maximumSize hot tasks in memory in front of a larger TaskBackingStore, loading misses on demand.
+ * Eviction is W-TinyLFU: new tasks enter a small LRU window, and a task leaving the window only displaces the main region's victim if a
+ * count-min sketch has seen it more often, so one-off scans do not flush the working set. The main region is a segmented LRU whose
+ * protected part holds tasks read at least twice.
+ * Changes go to the backing store inside the per-Id atomic section (WRITE_THROUGH), or are queued and written by a background thread every
+ * flush interval (WRITE_BEHIND), where a crash can lose the queued writes. Reads consult the queue first, so they always see the latest value.
+ * The per-Id atomic section is one of a fixed set of striped locks, not a ConcurrentHashMap bin, so loads and writes to the backing store
+ * never hold up other bins or a resize of the map; cache hits take no lock at all.
+ * Tasks returned by get are the cached objects while they stay cached, so hold on to them no longer than a request, like OffHeapTaskStore's copies.
+ */
+final class CachingTaskStore implements TaskStore, Closeable {
+    /**
+     * When changes reach the backing store.
+     */
+    enum WritePolicy {
+        WRITE_THROUGH, WRITE_BEHIND
+    }
+
+    private static final Task DELETED = new Task("deleted", "", "");
+    private static final int ID_LOCKS = 256;
+
+    private final TaskBackingStore backingStore;
+    private final WritePolicy writePolicy;
+    private final ConcurrentHashMap<String, Node> cache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Task> pendingWrites = new ConcurrentHashMap<>();
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ReentrantLock[] idLocks = new ReentrantLock[ID_LOCKS];
+    private final FrequencySketch sketch;
+    private final AccessQueue window = new AccessQueue();
+    private final AccessQueue probation = new AccessQueue();
+    private final AccessQueue protectedQueue = new AccessQueue();
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final int protectedCapacity;
+    private final ScheduledExecutorService flusher;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Write-through cache.
+     * @param backingStore Store holding every task.
+     * @param maximumSize Most tasks to keep in memory.
+     */
+    CachingTaskStore(TaskBackingStore backingStore, int maximumSize) {
+        this(backingStore, maximumSize, WritePolicy.WRITE_THROUGH, 0);
+    }
+
+    /**
+     * @param backingStore Store holding every task.
+     * @param maximumSize Most tasks to keep in memory, at least 2.
+     * @param writePolicy WRITE_THROUGH or WRITE_BEHIND.
+     * @param flushIntervalMillis How often WRITE_BEHIND writes the queued changes, ignored for WRITE_THROUGH.
+     */
+    CachingTaskStore(TaskBackingStore backingStore, int maximumSize, WritePolicy writePolicy, long flushIntervalMillis) {
+        if (maximumSize < 2) {
+            throw new IllegalArgumentException("Cache size must be at least 2!");
+        }
+        this.backingStore = backingStore;
+        this.writePolicy = writePolicy;
+        this.windowCapacity = Math.max(1, maximumSize / 100);
+        this.mainCapacity = maximumSize - windowCapacity;
+        this.protectedCapacity = mainCapacity * 4 / 5;
+        this.sketch = new FrequencySketch(maximumSize);
+        for (int i = 0; i < ID_LOCKS; i++) {
+            idLocks[i] = new ReentrantLock();
+        }
+        if (writePolicy == WritePolicy.WRITE_BEHIND) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "task-write-behind");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::scheduledFlush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    @Override
+    public Task get(String taskId) {
+        Node node = cache.get(taskId);
+        if (node != null) {
+            hits.increment();
+            recordAccess(node);
+            return node.task;
+        }
+        misses.increment();
+        ReentrantLock idLock = lockId(taskId);
+        try {
+            node = cache.get(taskId);
+            if (node == null) {
+                node = loadNode(taskId);
+                if (node != null) {
+                    cache.put(taskId, node);
+                }
+            }
+        } finally {
+            idLock.unlock();
+        }
+        if (node == null) {
+            sketch.increment(taskId);
+            return null;
+        }
+        admit(node);
+        return node.task;
+    }
+
+    @Override
+    public boolean insertIfAbsent(Task task, Consumer<Task> beforeInsert) {
+        String taskId = task.getTaskId();
+        boolean inserted = false;
+        Node node;
+        ReentrantLock idLock = lockId(taskId);
+        try {
+            node = cache.get(taskId);
+            if (node == null) {
+                node = loadNode(taskId);
+                if (node == null) {
+                    if (beforeInsert != null) {
+                        beforeInsert.accept(task);
+                    }
+                    write(task);
+                    inserted = true;
+                    node = new Node(taskId, task);
+                }
+                cache.put(taskId, node);
+            }
+        } finally {
+            idLock.unlock();
+        }
+        admit(node);
+        return inserted;
+    }
+
+    /**
+     * The expected task matches when it is the cached object or has the same values, since an evicted task comes back as a new object.
+     */
+    @Override
+    public Task remove(String taskId, Task expected, Consumer<Task> beforeRemove) {
+        Node existing;
+        Node current;
+        ReentrantLock idLock = lockId(taskId);
+        try {
+            existing = cache.get(taskId);
+            current = existing != null ? existing : loadNode(taskId);
+            if (current == null || (expected != null && !sameValues(expected, current.task))) {
+                return null;
+            }
+            if (beforeRemove != null) {
+                beforeRemove.accept(current.task);
+            }
+            writeDelete(taskId);
+            current.removed = true;
+            if (existing != null) {
+                cache.remove(taskId, existing);
+            }
+        } finally {
+            idLock.unlock();
+        }
+        if (existing != null) {
+            unlink(existing);
+        }
+        return current.task;
+    }
+
+    /**
+     * If the mutation throws after changing the cached task, the task is dropped from the cache, so the next read loads the last written values
+     * and version again instead of the half applied change.
+     */
+    @Override
+    public Task update(String taskId, Consumer<Task> mutation) {
+        Node node;
+        ReentrantLock idLock = lockId(taskId);
+        try {
+            Node existing = cache.get(taskId);
+            node = existing != null ? existing : loadNode(taskId);
+            if (node == null) {
+                return null;
+            }
+            int versionBefore = node.task.getVersion();
+            try {
+                mutation.accept(node.task);
+            } catch (RuntimeException e) {
+                if (existing != null && node.task.getVersion() != versionBefore && cache.remove(taskId, existing)) {
+                    existing.removed = true;
+                    unlink(existing);
+                }
+                throw e;
+            }
+            write(node.task);
+            if (existing == null) {
+                cache.put(taskId, node);
+            }
+        } finally {
+            idLock.unlock();
+        }
+        admit(node);
+        return node.task;
+    }
+
+    @Override
+    public void put(Task task) {
+        String taskId = task.getTaskId();
+        Node node = new Node(taskId, task);
+        Node replaced;
+        ReentrantLock idLock = lockId(taskId);
+        try {
+            write(task);
+            replaced = cache.put(taskId, node);
+            if (replaced != null) {
+                replaced.removed = true;
+            }
+        } finally {
+            idLock.unlock();
+        }
+        if (replaced != null) {
+            unlink(replaced);
+        }
+        admit(node);
+    }
+
+    /**
+     * Exact for WRITE_THROUGH. For WRITE_BEHIND the queued changes are counted against the backing store, which may be off by writes in flight.
+     */
+    @Override
+    public int size() {
+        int size = backingStore.size();
+        for (Map.Entry<String, Task> pending : pendingWrites.entrySet()) {
+            boolean stored = backingStore.contains(pending.getKey());
+            if (pending.getValue() == DELETED && stored) {
+                size--;
+            } else if (pending.getValue() != DELETED && !stored) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Walks the backing store after writing any queued changes, so it does not pull every task through the cache.
+     */
+    @Override
+    public void forEach(Consumer<Task> action) {
+        spliterator().forEachRemaining(action);
+    }
+
+    @Override
+    public Spliterator<Task> spliterator() {
+        flush();
+        return backingStore.spliterator();
+    }
+
+    /**
+     * The cache size is fixed, so this is only a hint the cache ignores.
+     */
+    @Override
+    public void presize(int expectedSize) {
+    }
+
+    /**
+     * Writes the WRITE_BEHIND queue to the backing store now and makes it durable. Does nothing else for WRITE_THROUGH.
+     */
+    void flush() {
+        if (writePolicy != WritePolicy.WRITE_BEHIND) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            for (Map.Entry<String, Task> pending : pendingWrites.entrySet()) {
+                Task value = pending.getValue();
+                if (value == DELETED) {
+                    backingStore.delete(pending.getKey());
+                } else {
+                    backingStore.store(value);
+                }
+                pendingWrites.remove(pending.getKey(), value);
+            }
+            backingStore.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.err.println("Write-behind flush failed: " + e);
+        }
+    }
+
+    /**
+     * Stops the background flush, writes the queue and closes the backing store.
+     * @throws IOException When the backing store fails to close.
+     */
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        flush();
+        backingStore.close();
+    }
+
+    /**
+     * @return long Reads answered from memory.
+     */
+    long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return long Reads that went to the backing store, whether or not the Id existed there.
+     */
+    long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return long Tasks read from the backing store into the cache, by reads and by changes to uncached tasks.
+     */
+    long getLoadCount() {
+        return loads.sum();
+    }
+
+    /**
+     * @return long Tasks dropped from memory to stay within maximumSize.
+     */
+    long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return double Hits over all reads, 0 before the first read.
+     */
+    double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * @return int Tasks in memory right now.
+     */
+    int getCachedCount() {
+        return cache.size();
+    }
+
+    /**
+     * @return int Changes waiting for the next WRITE_BEHIND flush.
+     */
+    int getPendingWriteCount() {
+        return pendingWrites.size();
+    }
+
+    /**
+     * Reads a task into a new cache node, from the write-behind queue if it has the Id, else from the backing store. Runs holding the Id's lock.
+     */
+    private Node loadNode(String taskId) {
+        Task pending = pendingWrites.get(taskId);
+        Task task;
+        if (pending != null) {
+            task = pending == DELETED ? null : pending.copy();
+        } else {
+            task = backingStore.load(taskId);
+        }
+        if (task == null) {
+            return null;
+        }
+        loads.increment();
+        return new Node(taskId, task);
+    }
+
+    /**
+     * Sends the task's current values to the backing store, or queues a copy of them; the copy keeps a later change from slipping past a flush.
+     */
+    private void write(Task task) {
+        if (writePolicy == WritePolicy.WRITE_THROUGH) {
+            backingStore.store(task);
+        } else {
+            pendingWrites.put(task.getTaskId(), task.copy());
+        }
+    }
+
+    private void writeDelete(String taskId) {
+        if (writePolicy == WritePolicy.WRITE_THROUGH) {
+            backingStore.delete(taskId);
+        } else {
+            pendingWrites.put(taskId, DELETED);
+        }
+    }
+
+    private static boolean sameValues(Task expected, Task stored) {
+        return expected == stored
+                || (expected.getTaskName().equals(stored.getTaskName()) && expected.getTaskDescription().equals(stored.getTaskDescription()));
+    }
+
+    /**
+     * Counts the read and, if nobody else holds the policy lock, moves the task up its queue. Under contention the reorder is skipped,
+     * which only makes eviction slightly less precise.
+     */
+    private void recordAccess(Node node) {
+        sketch.increment(node.key);
+        if (!policyLock.tryLock()) {
+            return;
+        }
+        try {
+            if (node.queue == window) {
+                window.moveToFront(node);
+            } else if (node.queue == probation) {
+                probation.remove(node);
+                protectedQueue.addFirst(node);
+                if (protectedQueue.size > protectedCapacity) {
+                    Node demoted = protectedQueue.last();
+                    protectedQueue.remove(demoted);
+                    probation.addFirst(demoted);
+                }
+            } else if (node.queue == protectedQueue) {
+                protectedQueue.moveToFront(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Places a node that is not yet in a queue into the window, then pushes the window's oldest task into the main region, where it and the
+     * main region's victim compete on sketch frequency. Nodes already queued or removed meanwhile are left alone.
+     */
+    private void admit(Node node) {
+        sketch.increment(node.key);
+        policyLock.lock();
+        try {
+            if (node.queue != null || node.removed) {
+                return;
+            }
+            window.addFirst(node);
+            if (window.size <= windowCapacity) {
+                return;
+            }
+            Node candidate = window.last();
+            window.remove(candidate);
+            if (probation.size + protectedQueue.size < mainCapacity) {
+                probation.addFirst(candidate);
+                return;
+            }
+            Node victim = probation.size > 0 ? probation.last() : protectedQueue.last();
+            if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                victim.queue.remove(victim);
+                probation.addFirst(candidate);
+                evict(victim);
+            } else {
+                evict(candidate);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Drops a node the policy has already taken out of its queue. Marking it removed keeps a racing admit from queueing it again.
+     */
+    private void evict(Node node) {
+        node.removed = true;
+        if (cache.remove(node.key, node)) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Locks the striped lock guarding taskId, the per-Id atomic section of every change and every load from the backing store.
+     * @return ReentrantLock The held lock, unlock it when done.
+     */
+    private ReentrantLock lockId(String taskId) {
+        int hash = taskId.hashCode();
+        ReentrantLock idLock = idLocks[(hash ^ (hash >>> 16)) & (ID_LOCKS - 1)];
+        idLock.lock();
+        return idLock;
+    }
+
+    private void unlink(Node node) {
+        policyLock.lock();
+        try {
+            if (node.queue != null) {
+                node.queue.remove(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Cached task plus its links in one of the three policy queues, guarded by policyLock.
+     */
+    private static final class Node {
+        private final String key;
+        private final Task task;
+        private volatile boolean removed;
+        private AccessQueue queue;
+        private Node previous;
+        private Node next;
+
+        Node(String key, Task task) {
+            this.key = key;
+            this.task = task;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked LRU list, most recent first.
+     */
+    private static final class AccessQueue {
+        private final Node head = new Node(null, null);
+        private int size;
+
+        AccessQueue() {
+            head.previous = head;
+            head.next = head;
+        }
+
+        void addFirst(Node node) {
+            node.queue = this;
+            node.previous = head;
+            node.next = head.next;
+            head.next.previous = node;
+            head.next = node;
+            size++;
+        }
+
+        Node last() {
+            return head.previous;
+        }
+
+        void remove(Node node) {
+            node.previous.next = node.next;
+            node.next.previous = node.previous;
+            node.previous = null;
+            node.next = null;
+            node.queue = null;
+            size--;
+        }
+
+        void moveToFront(Node node) {
+            remove(node);
+            addFirst(node);
+        }
+    }
+
+    /**
+     * Count-min sketch of recent access frequency: four rows of 4 bit counters packed sixteen to a long. Every counter is halved once the
+     * sketch has counted ten times the cache size, so old popularity fades. Readers increment without locks, so every counter change is a
+     * compare-and-set on its long: a counter saturates at 15 instead of carrying into its neighbour, and a halving is never overwritten by
+     * a stale increment. One thread wins the reset and halves the table a long at a time while increments carry on.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {0x97cb3127L, 0xb492b66fL, 0x9ae16a3bL, 0xc3a5c85cL};
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final AtomicLongArray table;
+        private final int tableMask;
+        private final int sampleSize;
+        private final int salt = ThreadLocalRandom.current().nextInt();
+        private final AtomicInteger additions = new AtomicInteger();
+
+        FrequencySketch(int maximumSize) {
+            int length = Integer.highestOneBit(Math.max(8, maximumSize) - 1) << 1;
+            table = new AtomicLongArray(length);
+            tableMask = length - 1;
+            sampleSize = 10 * maximumSize;
+        }
+
+        int frequency(String key) {
+            int hash = rehash(key.hashCode());
+            int frequency = Integer.MAX_VALUE;
+            for (int row = 0; row < SEEDS.length; row++) {
+                int index = indexOf(hash, row);
+                int shift = counterShift(hash, row);
+                frequency = Math.min(frequency, (int) ((table.get(index) >>> shift) & 0xF));
+            }
+            return frequency;
+        }
+
+        void increment(String key) {
+            int hash = rehash(key.hashCode());
+            boolean added = false;
+            for (int row = 0; row < SEEDS.length; row++) {
+                added |= incrementAt(indexOf(hash, row), counterShift(hash, row));
+            }
+            if (added) {
+                int count = additions.incrementAndGet();
+                if (count >= sampleSize && additions.compareAndSet(count, count / 2)) {
+                    reset();
+                }
+            }
+        }
+
+        /**
+         * @return boolean True when the counter was below 15 and went up by one.
+         */
+        private boolean incrementAt(int index, int shift) {
+            while (true) {
+                long current = table.get(index);
+                if (((current >>> shift) & 0xF) == 15) {
+                    return false;
+                }
+                if (table.compareAndSet(index, current, current + (1L << shift))) {
+                    return true;
+                }
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length(); i++) {
+                long current;
+                do {
+                    current = table.get(i);
+                } while (!table.compareAndSet(i, current, (current >>> 1) & RESET_MASK));
+            }
+        }
+
+        private int rehash(int hash) {
+            hash ^= salt;
+            hash *= 0x31848bab;
+            return hash ^ (hash >>> 14);
+        }
+
+        private int indexOf(int hash, int row) {
+            long mixed = (hash + SEEDS[row]) * SEEDS[row];
+            mixed += mixed >>> 32;
+            return (int) mixed & tableMask;
+        }
+
+        private int counterShift(int hash, int row) {
+            return (((hash >>> (row << 3)) & 0xF) << 2);
+        }
+    }
+}
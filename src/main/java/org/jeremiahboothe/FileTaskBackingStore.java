@@ -0,0 +1,443 @@
+package org.jeremiahboothe;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * TaskBackingStore in one local file of fixed 168 byte records: Id, name and description lengths, a state byte, the version as an int, then the
+ * three fields as UTF-16 chars padded to their maximum lengths. A record is rewritten in place on update and marked free on delete, and free records are reused.
+ * Free records form a list through their version field, so the heap holds nothing per record. The Id index is an open-addressing table in
+ * direct memory of 8 byte entries, the Id's hash and its record number, kept at most half full; a probe that meets a matching hash reads that
+ * record to compare the Id, so the heap stays the same size however many tasks the file holds. Both are rebuilt by scanning the file on open.
+ * Reads share a lock and use positional reads, writes take it exclusively.
+ */
+final class FileTaskBackingStore implements TaskBackingStore {
+    static final int RECORD_BYTES = 8 + 2 * (Task.TASK_ID_MAX_LENGTH + Task.TASK_NAME_MAX_LENGTH + Task.TASK_DESCRIPTION_MAX_LENGTH);
+
+    private static final int STATE_OFFSET = 3;
+    private static final int VERSION_OFFSET = 4;
+    private static final int ID_OFFSET = 8;
+    private static final int NAME_OFFSET = ID_OFFSET + 2 * Task.TASK_ID_MAX_LENGTH;
+    private static final int DESCRIPTION_OFFSET = NAME_OFFSET + 2 * Task.TASK_NAME_MAX_LENGTH;
+    private static final byte FREE = 0;
+    private static final byte USED = 1;
+    private static final int SCAN_RECORDS = 1024;
+    private static final int NO_SLOT = -1;
+    private static final int INDEX_ENTRY_BYTES = 8;
+    private static final int MIN_INDEX_CAPACITY = 1024;
+
+    private final FileChannel channel;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private ByteBuffer index = ByteBuffer.allocateDirect(MIN_INDEX_CAPACITY * INDEX_ENTRY_BYTES);
+    private int indexMask = MIN_INDEX_CAPACITY - 1;
+    private int size;
+    private int freeHead = NO_SLOT;
+    private int nextUnusedSlot;
+
+    private FileTaskBackingStore(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens the file, creating it if missing, and indexes the tasks already in it.
+     * @param path File holding the records.
+     * @return FileTaskBackingStore Open store, close it when done.
+     * @throws IOException When the file cannot be opened or read.
+     */
+    static FileTaskBackingStore open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileTaskBackingStore store = new FileTaskBackingStore(channel);
+        try {
+            store.rebuildIndex();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return store;
+    }
+
+    /**
+     * Indexes every used record and links the free ones into a new free list, rewriting their links, since the links on disk may be stale.
+     */
+    private void rebuildIndex() throws IOException {
+        int slotCount = (int) (channel.size() / RECORD_BYTES);
+        ByteBuffer batch = ByteBuffer.allocate(SCAN_RECORDS * RECORD_BYTES);
+        for (int first = 0; first < slotCount; first += SCAN_RECORDS) {
+            int count = Math.min(SCAN_RECORDS, slotCount - first);
+            readFully(batch, first, count);
+            for (int i = 0; i < count; i++) {
+                int base = i * RECORD_BYTES;
+                if (batch.get(base + STATE_OFFSET) == USED) {
+                    int hash = hash(readString(batch, base, 0, ID_OFFSET));
+                    insertEntry(emptyPosition(hash), hash, first + i);
+                } else {
+                    pushFreeSlot(first + i);
+                }
+            }
+        }
+        nextUnusedSlot = slotCount;
+    }
+
+    @Override
+    public Task load(String taskId) {
+        lock.readLock().lock();
+        try {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+            return findPosition(taskId, record) >= 0 ? decode(record, 0) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(String taskId) {
+        lock.readLock().lock();
+        try {
+            return findPosition(taskId, ByteBuffer.allocate(RECORD_BYTES)) >= 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void store(Task task) {
+        ByteBuffer record = encode(task);
+        lock.writeLock().lock();
+        try {
+            int position = findPosition(task.getTaskId(), ByteBuffer.allocate(RECORD_BYTES));
+            int slot;
+            if (position >= 0) {
+                slot = index.getInt(position * INDEX_ENTRY_BYTES + 4) - 1;
+            } else {
+                slot = allocateSlot();
+                insertEntry(position, hash(task.getTaskId()), slot);
+            }
+            writeFully(record, (long) slot * RECORD_BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(String taskId) {
+        lock.writeLock().lock();
+        try {
+            int position = findPosition(taskId, ByteBuffer.allocate(RECORD_BYTES));
+            if (position < 0) {
+                return;
+            }
+            int slot = index.getInt(position * INDEX_ENTRY_BYTES + 4) - 1;
+            deleteEntry(position);
+            pushFreeSlot(slot);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits by record range and reads 1024 records per positional read.
+     */
+    @Override
+    public Spliterator<Task> spliterator() {
+        lock.readLock().lock();
+        try {
+            return new RecordSpliterator(0, nextUnusedSlot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (channel.isOpen()) {
+                channel.force(false);
+                channel.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the record free and makes it the head of the free list, its version field holding the next free record.
+     */
+    private void pushFreeSlot(int slot) throws IOException {
+        ByteBuffer link = ByteBuffer.allocate(VERSION_OFFSET + 4 - STATE_OFFSET);
+        link.put(0, FREE).putInt(VERSION_OFFSET - STATE_OFFSET, freeHead);
+        writeFully(link, (long) slot * RECORD_BYTES + STATE_OFFSET);
+        freeHead = slot;
+    }
+
+    /**
+     * @return int The head of the free list, which is then unlinked, or a new record at the end of the file.
+     */
+    private int allocateSlot() throws IOException {
+        if (freeHead == NO_SLOT) {
+            return nextUnusedSlot++;
+        }
+        int slot = freeHead;
+        ByteBuffer link = ByteBuffer.allocate(4);
+        while (link.hasRemaining()) {
+            if (channel.read(link, (long) slot * RECORD_BYTES + VERSION_OFFSET + link.position()) < 0) {
+                throw new IOException("Task file ends inside record " + slot);
+            }
+        }
+        freeHead = link.getInt(0);
+        return slot;
+    }
+
+    private static int hash(String taskId) {
+        int hash = taskId.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Linear probing from the Id's hash. Only entries with the same hash have their record read, into record, to compare the Id.
+     * @return int Table position of the Id's entry, its record left in record, or -1 minus the empty position where it would go.
+     */
+    private int findPosition(String taskId, ByteBuffer record) throws IOException {
+        int hash = hash(taskId);
+        for (int position = hash & indexMask; ; position = (position + 1) & indexMask) {
+            int slot = index.getInt(position * INDEX_ENTRY_BYTES + 4) - 1;
+            if (slot < 0) {
+                return -1 - position;
+            }
+            if (index.getInt(position * INDEX_ENTRY_BYTES) == hash) {
+                readFully(record, slot, 1);
+                if (sameId(record, taskId)) {
+                    return position;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return int -1 minus the first empty position from hash, for Ids known to be absent.
+     */
+    private int emptyPosition(int hash) {
+        int position = hash & indexMask;
+        while (index.getInt(position * INDEX_ENTRY_BYTES + 4) != 0) {
+            position = (position + 1) & indexMask;
+        }
+        return -1 - position;
+    }
+
+    private static boolean sameId(ByteBuffer record, String taskId) {
+        if (record.get(0) != taskId.length()) {
+            return false;
+        }
+        for (int i = 0; i < taskId.length(); i++) {
+            if (record.getChar(ID_OFFSET + 2 * i) != taskId.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param position Negative result of findPosition or emptyPosition.
+     */
+    private void insertEntry(int position, int hash, int slot) {
+        int empty = -1 - position;
+        index.putInt(empty * INDEX_ENTRY_BYTES, hash);
+        index.putInt(empty * INDEX_ENTRY_BYTES + 4, slot + 1);
+        if (++size * 2 > indexMask + 1) {
+            growIndex();
+        }
+    }
+
+    /**
+     * Doubles the table and reinserts every entry by its stored hash, without reading the file.
+     */
+    private void growIndex() {
+        ByteBuffer old = index;
+        int oldCapacity = indexMask + 1;
+        index = ByteBuffer.allocateDirect(oldCapacity * 2 * INDEX_ENTRY_BYTES);
+        indexMask = oldCapacity * 2 - 1;
+        for (int position = 0; position < oldCapacity; position++) {
+            int slotPlusOne = old.getInt(position * INDEX_ENTRY_BYTES + 4);
+            if (slotPlusOne != 0) {
+                int hash = old.getInt(position * INDEX_ENTRY_BYTES);
+                int empty = -1 - emptyPosition(hash);
+                index.putInt(empty * INDEX_ENTRY_BYTES, hash);
+                index.putInt(empty * INDEX_ENTRY_BYTES + 4, slotPlusOne);
+            }
+        }
+    }
+
+    /**
+     * Backward shift deletion: later entries of the probe run move into the hole unless that would put them before their home position,
+     * so lookups never need tombstones.
+     */
+    private void deleteEntry(int position) {
+        int hole = position;
+        for (int next = (hole + 1) & indexMask; index.getInt(next * INDEX_ENTRY_BYTES + 4) != 0; next = (next + 1) & indexMask) {
+            int home = index.getInt(next * INDEX_ENTRY_BYTES) & indexMask;
+            if (((next - home) & indexMask) >= ((next - hole) & indexMask)) {
+                index.putInt(hole * INDEX_ENTRY_BYTES, index.getInt(next * INDEX_ENTRY_BYTES));
+                index.putInt(hole * INDEX_ENTRY_BYTES + 4, index.getInt(next * INDEX_ENTRY_BYTES + 4));
+                hole = next;
+            }
+        }
+        index.putInt(hole * INDEX_ENTRY_BYTES, 0);
+        index.putInt(hole * INDEX_ENTRY_BYTES + 4, 0);
+        size--;
+    }
+
+    private static ByteBuffer encode(Task task) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        record.put(0, (byte) task.getTaskId().length());
+        record.put(1, (byte) task.getTaskName().length());
+        record.put(2, (byte) task.getTaskDescription().length());
+        record.put(STATE_OFFSET, USED);
+        record.putInt(VERSION_OFFSET, task.getVersion());
+        putChars(record, ID_OFFSET, task.getTaskId());
+        putChars(record, NAME_OFFSET, task.getTaskName());
+        putChars(record, DESCRIPTION_OFFSET, task.getTaskDescription());
+        return record;
+    }
+
+    private static void putChars(ByteBuffer record, int offset, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            record.putChar(offset + 2 * i, value.charAt(i));
+        }
+    }
+
+    private static Task decode(ByteBuffer records, int base) {
+        return new Task(readString(records, base, 0, ID_OFFSET), readString(records, base, 1, NAME_OFFSET),
+                readString(records, base, 2, DESCRIPTION_OFFSET), records.getInt(base + VERSION_OFFSET));
+    }
+
+    private static String readString(ByteBuffer records, int base, int lengthOffset, int offset) {
+        char[] chars = new char[records.get(base + lengthOffset)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = records.getChar(base + offset + 2 * i);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Reads count records starting at slot into the start of buffer.
+     */
+    private void readFully(ByteBuffer buffer, int slot, int count) throws IOException {
+        buffer.clear().limit(count * RECORD_BYTES);
+        long position = (long) slot * RECORD_BYTES;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Task file ends inside record " + slot);
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    /**
+     * Spliterator over the records in [nextSlot, endSlot), reading a batch per lock hold.
+     */
+    private final class RecordSpliterator implements Spliterator<Task> {
+        private static final int MIN_SPLIT_SLOTS = 4 * SCAN_RECORDS;
+
+        private final int endSlot;
+        private final List<Task> batch = new ArrayList<>();
+        private int nextSlot;
+        private int batchPosition;
+
+        RecordSpliterator(int startSlot, int endSlot) {
+            this.nextSlot = startSlot;
+            this.endSlot = endSlot;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Task> action) {
+            while (batchPosition >= batch.size()) {
+                if (nextSlot >= endSlot) {
+                    return false;
+                }
+                fillBatch();
+            }
+            action.accept(batch.get(batchPosition++));
+            return true;
+        }
+
+        private void fillBatch() {
+            batch.clear();
+            batchPosition = 0;
+            int count = Math.min(SCAN_RECORDS, endSlot - nextSlot);
+            ByteBuffer records = ByteBuffer.allocate(count * RECORD_BYTES);
+            lock.readLock().lock();
+            try {
+                readFully(records, nextSlot, count);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                lock.readLock().unlock();
+            }
+            for (int i = 0; i < count; i++) {
+                if (records.get(i * RECORD_BYTES + STATE_OFFSET) == USED) {
+                    batch.add(decode(records, i * RECORD_BYTES));
+                }
+            }
+            nextSlot += count;
+        }
+
+        @Override
+        public Spliterator<Task> trySplit() {
+            int remaining = endSlot - nextSlot;
+            if (remaining < MIN_SPLIT_SLOTS || batchPosition < batch.size()) {
+                return null;
+            }
+            int middle = nextSlot + remaining / 2;
+            RecordSpliterator prefix = new RecordSpliterator(nextSlot, middle);
+            nextSlot = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return endSlot - nextSlot + batch.size() - batchPosition;
+        }
+
+        @Override
+        public int characteristics() {
+            return CONCURRENT | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.jeremiahboothe;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts from one TaskCsvImporter run. Filled in by parallel chunk parsers, so every counter is only updated through the synchronized add method.
+ */
+final class ImportReport {
+    private long rowsRead;
+    private long rowsAdded;
+    private long invalidRows;
+    private long duplicateRows;
+    private long malformedRows;
+    private long elapsedNanos;
+
+    /**
+     * Folds one chunk's counts into the report.
+     */
+    synchronized void add(long rowsRead, long rowsAdded, long invalidRows, long duplicateRows, long malformedRows) {
+        this.rowsRead += rowsRead;
+        this.rowsAdded += rowsAdded;
+        this.invalidRows += invalidRows;
+        this.duplicateRows += duplicateRows;
+        this.malformedRows += malformedRows;
+    }
+
+    synchronized void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return long Non-blank lines read from the file.
+     */
+    synchronized long getRowsRead() {
+        return rowsRead;
+    }
+
+    synchronized long getRowsAdded() {
+        return rowsAdded;
+    }
+
+    /**
+     * @return long Rows that parsed but failed TaskValidation.
+     */
+    synchronized long getInvalidRows() {
+        return invalidRows;
+    }
+
+    /**
+     * @return long Rows whose Id was already in the TaskService or earlier in the file.
+     */
+    synchronized long getDuplicateRows() {
+        return duplicateRows;
+    }
+
+    /**
+     * @return long Lines that did not have exactly three fields or had a broken quote.
+     */
+    synchronized long getMalformedRows() {
+        return malformedRows;
+    }
+
+    /**
+     * @return long Every row that was not added.
+     */
+    synchronized long getRejectedRows() {
+        return invalidRows + duplicateRows + malformedRows;
+    }
+
+    synchronized long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * @return double Rows read per second of wall clock time.
+     */
+    synchronized double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Read %d rows in %d ms (%.0f rows/sec): %d added, %d rejected (%d invalid, %d duplicate, %d malformed)",
+                rowsRead, getElapsedMillis(), getRowsPerSecond(), rowsAdded, getRejectedRows(), invalidRows, duplicateRows, malformedRows);
+    }
+}
@@ -0,0 +1,144 @@
+package org.jeremiahboothe;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent log-linear latency histogram in the style of HdrHistogram: every power of two is split into 8 linear buckets, so any recorded
+ * value is reported within 12.5% using a fixed 488 buckets for the full long range. Buckets are LongAdders, so recording from many threads
+ * never contends on one cache line.
+ */
+final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param nanos Latency to record, negative values count as 0.
+     */
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets[bucketIndex(value)].increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return long Largest value that lands in the bucket, reported as the bucket's value like HdrHistogram's highest equivalent value.
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * Reads the buckets into an immutable summary. Values recorded while this runs may or may not be included.
+     * @return Snapshot Count, mean, percentiles and max.
+     */
+    Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        return new Snapshot(count, count == 0 ? 0 : (double) total.sum() / count,
+                percentile(counts, count, 0.50), percentile(counts, count, 0.90),
+                percentile(counts, count, 0.99), percentile(counts, count, 0.999), max.get());
+    }
+
+    private static long percentile(long[] counts, long count, double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return bucketUpperBound(i);
+            }
+        }
+        return bucketUpperBound(counts.length - 1);
+    }
+
+    /**
+     * Point-in-time summary of a LatencyHistogram, all values in nanoseconds.
+     */
+    static final class Snapshot {
+        private final long count;
+        private final double mean;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long p999;
+        private final long max;
+
+        Snapshot(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+            this.count = count;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        double getMean() {
+            return mean;
+        }
+
+        long getP50() {
+            return p50;
+        }
+
+        long getP90() {
+            return p90;
+        }
+
+        long getP99() {
+            return p99;
+        }
+
+        long getP999() {
+            return p999;
+        }
+
+        long getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.0fns p50=%dns p90=%dns p99=%dns p99.9=%dns max=%dns", count, mean, p50, p90, p99, p999, max);
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package org.jeremiahboothe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * TaskStore for services whose Ids are mostly plain numbers. An Id of one to ten digits without a leading zero is parsed to a long and kept in
+ * open-addressing long[] and Task[] tables, so it needs no map entry object and a lookup compares longs instead of Strings. Other Ids, such as
+ * "007" or "tenant:1", go to an OnHeapTaskStore, so every Id keeps exactly one home.
+ * The numeric tables are split into 64 segments by key hash, each with its own StampedLock. Lookups read optimistically and only take the
+ * read lock if a writer got in the way; writes lock one segment. Tables stay at most half full and use backward-shift deletion, so there
+ * are no tombstones. getTaskById hands out the stored Task itself, like the default store.
+ */
+final class NumericKeyTaskStore implements TaskStore {
+    private static final int SEGMENT_SHIFT = 6;
+    private static final int SEGMENT_COUNT = 1 << SEGMENT_SHIFT;
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+    private static final long MAX_NUMERIC_ID = 9_999_999_999L;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final OnHeapTaskStore fallback = new OnHeapTaskStore();
+
+    NumericKeyTaskStore() {
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Parses an Id that round-trips through Long.toString, so "7" and "07" never share a key.
+     * @param taskId Id to parse.
+     * @return long The number, or -1 when the Id is not in canonical numeric form.
+     */
+    static long numericKey(String taskId) {
+        int length = taskId.length();
+        if (length == 0 || length > Task.TASK_ID_MAX_LENGTH || (length > 1 && taskId.charAt(0) == '0')) {
+            return -1;
+        }
+        long key = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = taskId.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            key = key * 10 + digit;
+        }
+        return key <= MAX_NUMERIC_ID ? key : -1;
+    }
+
+    private static long mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> (64 - SEGMENT_SHIFT))];
+    }
+
+    @Override
+    public Task get(String taskId) {
+        long key = numericKey(taskId);
+        if (key < 0) {
+            return fallback.get(taskId);
+        }
+        long hash = mix(key);
+        return segmentFor(hash).get(key + 1, (int) hash);
+    }
+
+    @Override
+    public boolean insertIfAbsent(Task task, Consumer<Task> beforeInsert) {
+        long key = numericKey(task.getTaskId());
+        if (key < 0) {
+            return fallback.insertIfAbsent(task, beforeInsert);
+        }
+        long hash = mix(key);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            if (segment.find(key + 1, (int) hash) >= 0) {
+                return false;
+            }
+            if (beforeInsert != null) {
+                beforeInsert.accept(task);
+            }
+            segment.insert(key + 1, (int) hash, task);
+            return true;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * expected is compared by identity, as in OnHeapTaskStore.
+     */
+    @Override
+    public Task remove(String taskId, Task expected, Consumer<Task> beforeRemove) {
+        long key = numericKey(taskId);
+        if (key < 0) {
+            return fallback.remove(taskId, expected, beforeRemove);
+        }
+        long hash = mix(key);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            int position = segment.find(key + 1, (int) hash);
+            if (position < 0) {
+                return null;
+            }
+            Task task = segment.values[position];
+            if (expected != null && task != expected) {
+                return null;
+            }
+            if (beforeRemove != null) {
+                beforeRemove.accept(task);
+            }
+            segment.delete(position);
+            return task;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Task update(String taskId, Consumer<Task> mutation) {
+        long key = numericKey(taskId);
+        if (key < 0) {
+            return fallback.update(taskId, mutation);
+        }
+        long hash = mix(key);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            int position = segment.find(key + 1, (int) hash);
+            if (position < 0) {
+                return null;
+            }
+            Task task = segment.values[position];
+            mutation.accept(task);
+            return task;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void put(Task task) {
+        long key = numericKey(task.getTaskId());
+        if (key < 0) {
+            fallback.put(task);
+            return;
+        }
+        long hash = mix(key);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            int position = segment.find(key + 1, (int) hash);
+            if (position >= 0) {
+                segment.values[position] = task;
+            } else {
+                segment.insert(key + 1, (int) hash, task);
+            }
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = fallback.size();
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * Copies one segment's tasks at a time under its read lock and runs the action outside it.
+     */
+    @Override
+    public void forEach(Consumer<Task> action) {
+        spliterator().forEachRemaining(action);
+    }
+
+    /**
+     * Splits by segment range, with the string-keyed tasks last.
+     */
+    @Override
+    public Spliterator<Task> spliterator() {
+        return new SegmentSpliterator(0, SEGMENT_COUNT, true);
+    }
+
+    @Override
+    public void presize(int expectedSize) {
+        int perSegment = expectedSize / SEGMENT_COUNT + 1;
+        for (Segment segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                segment.ensureCapacity(perSegment);
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * One lock's share of the numeric Ids. keys holds key + 1 so that 0 can mean empty; values holds the Task at the same position.
+     */
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private long[] keys = new long[MIN_SEGMENT_CAPACITY];
+        private Task[] values = new Task[MIN_SEGMENT_CAPACITY];
+        private volatile int size;
+
+        /**
+         * Probes without locking and validates the stamp afterwards, falling back to the read lock if a writer ran meanwhile. A resize can
+         * leave the two arrays read from different tables, which the length check catches, and the probe is bounded by the table length, so
+         * a torn view of a table being rewritten can neither fail nor loop forever.
+         */
+        Task get(long storedKey, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                long[] currentKeys = keys;
+                Task[] currentValues = values;
+                if (currentKeys.length == currentValues.length) {
+                    Task task = probe(currentKeys, currentValues, storedKey, hash);
+                    if (lock.validate(stamp)) {
+                        return task;
+                    }
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return probe(keys, values, storedKey, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private static Task probe(long[] keys, Task[] values, long storedKey, int hash) {
+            int mask = keys.length - 1;
+            int position = hash & mask;
+            for (int probes = 0; probes < keys.length; probes++) {
+                long entry = keys[position];
+                if (entry == 0) {
+                    return null;
+                }
+                if (entry == storedKey) {
+                    return values[position];
+                }
+                position = (position + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * @return int Position of storedKey, or -1 when absent. Caller holds the lock.
+         */
+        int find(long storedKey, int hash) {
+            int mask = keys.length - 1;
+            for (int position = hash & mask; ; position = (position + 1) & mask) {
+                long entry = keys[position];
+                if (entry == 0) {
+                    return -1;
+                }
+                if (entry == storedKey) {
+                    return position;
+                }
+            }
+        }
+
+        /**
+         * Adds an absent key, growing first if that would leave the table more than half full. Caller holds the write lock.
+         */
+        void insert(long storedKey, int hash, Task task) {
+            ensureCapacity(size + 1);
+            place(storedKey, hash, task);
+            size++;
+        }
+
+        private void place(long storedKey, int hash, Task task) {
+            int mask = keys.length - 1;
+            int position = hash & mask;
+            while (keys[position] != 0) {
+                position = (position + 1) & mask;
+            }
+            values[position] = task;
+            keys[position] = storedKey;
+        }
+
+        /**
+         * Removes the entry at position and shifts later entries of the same probe run back. Caller holds the write lock.
+         */
+        void delete(int position) {
+            int mask = keys.length - 1;
+            int hole = position;
+            keys[hole] = 0;
+            values[hole] = null;
+            for (int next = (hole + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+                int home = (int) mix(keys[next] - 1) & mask;
+                boolean homeBetweenHoleAndNext = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+                if (!homeBetweenHoleAndNext) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    keys[next] = 0;
+                    values[next] = null;
+                    hole = next;
+                }
+            }
+            size--;
+        }
+
+        /**
+         * Rehashes into new arrays so optimistic readers holding the old ones still see a complete table. Caller holds the write lock.
+         */
+        void ensureCapacity(int expectedSize) {
+            if ((long) expectedSize * 2 <= keys.length) {
+                return;
+            }
+            int capacity = keys.length;
+            while ((long) expectedSize * 2 > capacity) {
+                capacity <<= 1;
+            }
+            long[] previousKeys = keys;
+            Task[] previousValues = values;
+            keys = new long[capacity];
+            values = new Task[capacity];
+            for (int i = 0; i < previousKeys.length; i++) {
+                if (previousKeys[i] != 0) {
+                    place(previousKeys[i], (int) mix(previousKeys[i] - 1), previousValues[i]);
+                }
+            }
+        }
+
+        void copyTasksTo(List<Task> batch) {
+            long stamp = lock.readLock();
+            try {
+                for (Task task : values) {
+                    if (task != null) {
+                        batch.add(task);
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * Spliterator over the segments in [nextSegment, endSegment), then the string-keyed tasks when includeFallback is set. Each segment is
+     * copied when reached, so writers to it wait for one copy and changes to later segments are seen.
+     */
+    private final class SegmentSpliterator implements Spliterator<Task> {
+        private final int endSegment;
+        private final List<Task> batch = new ArrayList<>();
+        private int nextSegment;
+        private boolean includeFallback;
+        private int batchPosition;
+
+        SegmentSpliterator(int startSegment, int endSegment, boolean includeFallback) {
+            this.nextSegment = startSegment;
+            this.endSegment = endSegment;
+            this.includeFallback = includeFallback;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Task> action) {
+            while (batchPosition >= batch.size()) {
+                if (!fillBatch()) {
+                    return false;
+                }
+            }
+            action.accept(batch.get(batchPosition++));
+            return true;
+        }
+
+        private boolean fillBatch() {
+            batch.clear();
+            batchPosition = 0;
+            if (nextSegment < endSegment) {
+                segments[nextSegment++].copyTasksTo(batch);
+                return true;
+            }
+            if (includeFallback) {
+                includeFallback = false;
+                fallback.forEach(batch::add);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<Task> trySplit() {
+            int remaining = endSegment - nextSegment;
+            if (remaining < 2 || batchPosition < batch.size()) {
+                return null;
+            }
+            int middle = nextSegment + remaining / 2;
+            SegmentSpliterator prefix = new SegmentSpliterator(nextSegment, middle, false);
+            nextSegment = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            long perSegment = (long) size() / SEGMENT_COUNT + 1;
+            return (endSegment - nextSegment) * perSegment + batch.size() - batchPosition;
+        }
+
+        @Override
+        public int characteristics() {
+            return CONCURRENT | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,563 @@
+package org.jeremiahboothe;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * TaskStore that keeps tasks outside the Java heap, for maps too large to hold as Task and String objects without long GC pauses.
+ * Each task is a fixed 88 byte record in direct memory: three length bytes, a state byte, the version as an int, then the Id, name and
+ * description padded to their maximum lengths at one byte per character. An open-addressing table of int slot numbers is the only per-task structure on the heap.
+ * Tasks with a character outside Latin-1 do not fit the one byte layout and are kept as plain Task objects in a small on-heap overflow map.
+ * get() materializes a new Task from the record on every call, and overflow tasks are copied in and out, so changing a Task passed in or
+ * returned never changes the store.
+ * One StampedLock guards the store; reads share it, writes take it exclusively, which trades write concurrency for footprint.
+ */
+final class OffHeapTaskStore implements TaskStore {
+    static final int RECORD_BYTES = 8 + Task.TASK_ID_MAX_LENGTH + Task.TASK_NAME_MAX_LENGTH + Task.TASK_DESCRIPTION_MAX_LENGTH;
+
+    private static final int ID_LENGTH_OFFSET = 0;
+    private static final int NAME_LENGTH_OFFSET = 1;
+    private static final int DESCRIPTION_LENGTH_OFFSET = 2;
+    private static final int STATE_OFFSET = 3;
+    private static final int VERSION_OFFSET = 4;
+    private static final int ID_OFFSET = 8;
+    private static final int NAME_OFFSET = ID_OFFSET + Task.TASK_ID_MAX_LENGTH;
+    private static final int DESCRIPTION_OFFSET = NAME_OFFSET + Task.TASK_NAME_MAX_LENGTH;
+    private static final byte FREE = 0;
+    private static final byte USED = 1;
+
+    private static final int PAGE_SHIFT = 16;
+    private static final int PAGE_RECORDS = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_RECORDS - 1;
+    private static final int MIN_INDEX_CAPACITY = 16;
+
+    private final StampedLock lock = new StampedLock();
+    private final HashMap<String, Task> overflow = new HashMap<>();
+    private ByteBuffer[] pages = new ByteBuffer[0];
+    private int nextUnusedSlot;
+    private int[] freeSlots = new int[MIN_INDEX_CAPACITY];
+    private int freeSlotCount;
+    private int[] index = new int[MIN_INDEX_CAPACITY];
+    private int indexedCount;
+
+    @Override
+    public Task get(String taskId) {
+        long stamp = lock.readLock();
+        try {
+            int position = findIndexPosition(taskId);
+            if (position >= 0) {
+                return materialize(index[position] - 1);
+            }
+            Task task = overflow.isEmpty() ? null : overflow.get(taskId);
+            return task == null ? null : task.copy();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean insertIfAbsent(Task task, Consumer<Task> beforeInsert) {
+        long stamp = lock.writeLock();
+        try {
+            if (findIndexPosition(task.getTaskId()) >= 0 || overflow.containsKey(task.getTaskId())) {
+                return false;
+            }
+            if (beforeInsert != null) {
+                beforeInsert.accept(task);
+            }
+            store(task);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Records hold no object identity, so expected is compared by its Id, name and description.
+     */
+    @Override
+    public Task remove(String taskId, Task expected, Consumer<Task> beforeRemove) {
+        long stamp = lock.writeLock();
+        try {
+            int position = findIndexPosition(taskId);
+            if (position >= 0) {
+                int slot = index[position] - 1;
+                Task task = materialize(slot);
+                if (expected != null && !sameValues(task, expected)) {
+                    return null;
+                }
+                if (beforeRemove != null) {
+                    beforeRemove.accept(task);
+                }
+                deleteIndexPosition(position);
+                freeSlot(slot);
+                return task;
+            }
+            Task task = overflow.get(taskId);
+            if (task == null || (expected != null && !sameValues(task, expected))) {
+                return null;
+            }
+            if (beforeRemove != null) {
+                beforeRemove.accept(task);
+            }
+            overflow.remove(taskId);
+            return task.copy();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * The mutation runs on a materialized copy that is written back afterwards, moving to the overflow map if it no longer fits a record.
+     */
+    @Override
+    public Task update(String taskId, Consumer<Task> mutation) {
+        long stamp = lock.writeLock();
+        try {
+            int position = findIndexPosition(taskId);
+            if (position >= 0) {
+                int slot = index[position] - 1;
+                Task task = materialize(slot);
+                mutation.accept(task);
+                if (fitsRecord(task)) {
+                    write(slot, task);
+                } else {
+                    deleteIndexPosition(position);
+                    freeSlot(slot);
+                    overflow.put(taskId, task.copy());
+                }
+                return task;
+            }
+            Task task = overflow.get(taskId);
+            if (task == null) {
+                return null;
+            }
+            mutation.accept(task);
+            return task.copy();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void put(Task task) {
+        long stamp = lock.writeLock();
+        try {
+            int position = findIndexPosition(task.getTaskId());
+            if (position >= 0) {
+                int slot = index[position] - 1;
+                deleteIndexPosition(position);
+                freeSlot(slot);
+            }
+            overflow.remove(task.getTaskId());
+            store(task);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return indexedCount + overflow.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Copies one page of records at a time under the read lock and runs the action outside it, so a long walk never blocks writers for long.
+     */
+    @Override
+    public void forEach(Consumer<Task> action) {
+        List<Task> batch = new ArrayList<>();
+        for (int page = 0; ; page++) {
+            long stamp = lock.readLock();
+            try {
+                if (page == 0) {
+                    copyOverflow(batch);
+                }
+                if (page >= pages.length) {
+                    if (batch.isEmpty()) {
+                        return;
+                    }
+                } else {
+                    int firstSlot = page << PAGE_SHIFT;
+                    int lastSlot = Math.min(nextUnusedSlot, firstSlot + PAGE_RECORDS);
+                    for (int slot = firstSlot; slot < lastSlot; slot++) {
+                        if (pages[page].get(recordOffset(slot) + STATE_OFFSET) == USED) {
+                            batch.add(materialize(slot));
+                        }
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            batch.forEach(action);
+            batch.clear();
+            if (page >= pages.length) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Splits by slot range. Each range is read a batch of slots at a time under the read lock, so writers wait for one batch rather than the walk,
+     * and the overflow tasks go with the first range.
+     */
+    @Override
+    public Spliterator<Task> spliterator() {
+        long stamp = lock.readLock();
+        try {
+            return new RecordSpliterator(0, nextUnusedSlot, true);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void presize(int expectedSize) {
+        long stamp = lock.writeLock();
+        try {
+            ensureIndexCapacity(expectedSize);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return long Direct memory reserved for records, including free slots.
+     */
+    long getOffHeapBytes() {
+        long stamp = lock.readLock();
+        try {
+            return (long) pages.length * PAGE_RECORDS * RECORD_BYTES;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return long Heap used by the Id index and free slot list.
+     */
+    long getIndexBytes() {
+        long stamp = lock.readLock();
+        try {
+            return 4L * index.length + 4L * freeSlots.length;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return int Tasks kept on the heap because they contain characters outside Latin-1.
+     */
+    int getOverflowCount() {
+        long stamp = lock.readLock();
+        try {
+            return overflow.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Adds copies of the overflow tasks, so callers outside the lock never hold the stored ones. Called under the lock.
+     */
+    private void copyOverflow(List<Task> batch) {
+        for (Task task : overflow.values()) {
+            batch.add(task.copy());
+        }
+    }
+
+    private void store(Task task) {
+        if (!fitsRecord(task)) {
+            overflow.put(task.getTaskId(), task.copy());
+            return;
+        }
+        int slot = allocateSlot();
+        write(slot, task);
+        ensureIndexCapacity(indexedCount + 1);
+        insertIndex(slot, hashId(task.getTaskId()));
+    }
+
+    private static boolean fitsRecord(Task task) {
+        return isLatin1(task.getTaskId()) && isLatin1(task.getTaskName()) && isLatin1(task.getTaskDescription());
+    }
+
+    private static boolean isLatin1(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameValues(Task task, Task expected) {
+        return task.getTaskId().equals(expected.getTaskId())
+                && task.getTaskName().equals(expected.getTaskName())
+                && task.getTaskDescription().equals(expected.getTaskDescription());
+    }
+
+    private static int recordOffset(int slot) {
+        return (slot & PAGE_MASK) * RECORD_BYTES;
+    }
+
+    private ByteBuffer page(int slot) {
+        return pages[slot >>> PAGE_SHIFT];
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        int slot = nextUnusedSlot++;
+        int page = slot >>> PAGE_SHIFT;
+        if (page == pages.length) {
+            pages = Arrays.copyOf(pages, page + 1);
+            pages[page] = ByteBuffer.allocateDirect(PAGE_RECORDS * RECORD_BYTES);
+        }
+        return slot;
+    }
+
+    private void freeSlot(int slot) {
+        page(slot).put(recordOffset(slot) + STATE_OFFSET, FREE);
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    private void write(int slot, Task task) {
+        ByteBuffer page = page(slot);
+        int base = recordOffset(slot);
+        page.put(base + ID_LENGTH_OFFSET, (byte) task.getTaskId().length());
+        page.put(base + NAME_LENGTH_OFFSET, (byte) task.getTaskName().length());
+        page.put(base + DESCRIPTION_LENGTH_OFFSET, (byte) task.getTaskDescription().length());
+        page.putInt(base + VERSION_OFFSET, task.getVersion());
+        writeChars(page, base + ID_OFFSET, task.getTaskId());
+        writeChars(page, base + NAME_OFFSET, task.getTaskName());
+        writeChars(page, base + DESCRIPTION_OFFSET, task.getTaskDescription());
+        page.put(base + STATE_OFFSET, USED);
+    }
+
+    private static void writeChars(ByteBuffer page, int offset, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            page.put(offset + i, (byte) value.charAt(i));
+        }
+    }
+
+    private Task materialize(int slot) {
+        ByteBuffer page = page(slot);
+        int base = recordOffset(slot);
+        return new Task(
+                readChars(page, base + ID_OFFSET, page.get(base + ID_LENGTH_OFFSET)),
+                readChars(page, base + NAME_OFFSET, page.get(base + NAME_LENGTH_OFFSET)),
+                readChars(page, base + DESCRIPTION_OFFSET, page.get(base + DESCRIPTION_LENGTH_OFFSET)),
+                page.getInt(base + VERSION_OFFSET));
+    }
+
+    private static String readChars(ByteBuffer page, int offset, int length) {
+        byte[] bytes = new byte[length];
+        page.get(offset, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Same value as String.hashCode, computed straight from the record so rehashing never builds a String.
+     */
+    private int hashSlot(int slot) {
+        ByteBuffer page = page(slot);
+        int base = recordOffset(slot);
+        int length = page.get(base + ID_LENGTH_OFFSET);
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + (page.get(base + ID_OFFSET + i) & 0xFF);
+        }
+        return spread(hash);
+    }
+
+    private static int hashId(String taskId) {
+        return spread(taskId.hashCode());
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private boolean idEquals(int slot, String taskId) {
+        ByteBuffer page = page(slot);
+        int base = recordOffset(slot);
+        int length = page.get(base + ID_LENGTH_OFFSET);
+        if (length != taskId.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if ((page.get(base + ID_OFFSET + i) & 0xFF) != taskId.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Linear probe for taskId. Index entries are slot + 1 so that 0 can mean empty.
+     * @return int Position in the index, or -1 when absent.
+     */
+    private int findIndexPosition(String taskId) {
+        int mask = index.length - 1;
+        for (int position = hashId(taskId) & mask; ; position = (position + 1) & mask) {
+            int entry = index[position];
+            if (entry == 0) {
+                return -1;
+            }
+            if (idEquals(entry - 1, taskId)) {
+                return position;
+            }
+        }
+    }
+
+    private void insertIndex(int slot, int hash) {
+        int mask = index.length - 1;
+        int position = hash & mask;
+        while (index[position] != 0) {
+            position = (position + 1) & mask;
+        }
+        index[position] = slot + 1;
+        indexedCount++;
+    }
+
+    /**
+     * Removes an index entry and shifts later entries of the same probe run back, so lookups never need tombstones.
+     */
+    private void deleteIndexPosition(int position) {
+        int mask = index.length - 1;
+        int hole = position;
+        index[hole] = 0;
+        for (int next = (hole + 1) & mask; index[next] != 0; next = (next + 1) & mask) {
+            int home = hashSlot(index[next] - 1) & mask;
+            boolean homeBetweenHoleAndNext = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+            if (!homeBetweenHoleAndNext) {
+                index[hole] = index[next];
+                index[next] = 0;
+                hole = next;
+            }
+        }
+        indexedCount--;
+    }
+
+    /**
+     * Keeps the index at most half full.
+     */
+    private void ensureIndexCapacity(int expectedSize) {
+        if ((long) expectedSize * 2 <= index.length) {
+            return;
+        }
+        int capacity = index.length;
+        while ((long) expectedSize * 2 > capacity) {
+            capacity <<= 1;
+        }
+        int[] previous = index;
+        index = new int[capacity];
+        indexedCount = 0;
+        for (int entry : previous) {
+            if (entry != 0) {
+                insertIndex(entry - 1, hashSlot(entry - 1));
+            }
+        }
+    }
+
+    /**
+     * Spliterator over the records in [nextSlot, endSlot), plus the overflow map when includeOverflow is set. Slots added past endSlot after
+     * it was created are not seen, like any weakly consistent iterator.
+     */
+    private final class RecordSpliterator implements Spliterator<Task> {
+        private static final int BATCH_SLOTS = 1024;
+        private static final int MIN_SPLIT_SLOTS = 4 * BATCH_SLOTS;
+
+        private final int endSlot;
+        private final List<Task> batch = new ArrayList<>();
+        private int nextSlot;
+        private boolean includeOverflow;
+        private int batchPosition;
+
+        RecordSpliterator(int startSlot, int endSlot, boolean includeOverflow) {
+            this.nextSlot = startSlot;
+            this.endSlot = endSlot;
+            this.includeOverflow = includeOverflow;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Task> action) {
+            while (batchPosition >= batch.size()) {
+                if (!fillBatch()) {
+                    return false;
+                }
+            }
+            action.accept(batch.get(batchPosition++));
+            return true;
+        }
+
+        /**
+         * Materializes the overflow tasks or the next batch of used slots.
+         * @return boolean False once the range is exhausted.
+         */
+        private boolean fillBatch() {
+            batch.clear();
+            batchPosition = 0;
+            if (!includeOverflow && nextSlot >= endSlot) {
+                return false;
+            }
+            long stamp = lock.readLock();
+            try {
+                if (includeOverflow) {
+                    includeOverflow = false;
+                    copyOverflow(batch);
+                    return true;
+                }
+                int lastSlot = Math.min(endSlot, nextSlot + BATCH_SLOTS);
+                for (int slot = nextSlot; slot < lastSlot; slot++) {
+                    if (page(slot).get(recordOffset(slot) + STATE_OFFSET) == USED) {
+                        batch.add(materialize(slot));
+                    }
+                }
+                nextSlot = lastSlot;
+                return true;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        @Override
+        public Spliterator<Task> trySplit() {
+            int remaining = endSlot - nextSlot;
+            if (remaining < MIN_SPLIT_SLOTS || batchPosition < batch.size()) {
+                return null;
+            }
+            int middle = nextSlot + remaining / 2;
+            RecordSpliterator prefix = new RecordSpliterator(nextSlot, middle, includeOverflow);
+            includeOverflow = false;
+            nextSlot = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return endSlot - nextSlot + batch.size() - batchPosition;
+        }
+
+        @Override
+        public int characteristics() {
+            return CONCURRENT | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.jeremiahboothe;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Default TaskStore: a ConcurrentHashMap of live Task objects. It locks per bin rather than globally, so request handlers on many threads can add,
+ * update and delete tasks without serializing on one lock. getTaskById hands out the stored Task itself.
+ */
+final class OnHeapTaskStore implements TaskStore {
+    private final ConcurrentHashMap<String, Task> taskMap = new ConcurrentHashMap<>();
+
+    @Override
+    public Task get(String taskId) {
+        return taskMap.get(taskId);
+    }
+
+    /**
+     * With no callback this is a plain putIfAbsent, otherwise computeIfAbsent so the callback runs under the bin lock.
+     */
+    @Override
+    public boolean insertIfAbsent(Task task, Consumer<Task> beforeInsert) {
+        if (beforeInsert == null) {
+            return taskMap.putIfAbsent(task.getTaskId(), task) == null;
+        }
+        boolean[] inserted = new boolean[1];
+        taskMap.computeIfAbsent(task.getTaskId(), id -> {
+            beforeInsert.accept(task);
+            inserted[0] = true;
+            return task;
+        });
+        return inserted[0];
+    }
+
+    /**
+     * With no callback this is a plain remove, otherwise computeIfPresent so the callback runs under the bin lock. expected is compared by identity.
+     */
+    @Override
+    public Task remove(String taskId, Task expected, Consumer<Task> beforeRemove) {
+        if (beforeRemove == null) {
+            if (expected == null) {
+                return taskMap.remove(taskId);
+            }
+            return taskMap.remove(taskId, expected) ? expected : null;
+        }
+        Task[] removed = new Task[1];
+        taskMap.computeIfPresent(taskId, (id, task) -> {
+            if (expected != null && task != expected) {
+                return task;
+            }
+            beforeRemove.accept(task);
+            removed[0] = task;
+            return null;
+        });
+        return removed[0];
+    }
+
+    @Override
+    public Task update(String taskId, Consumer<Task> mutation) {
+        return taskMap.computeIfPresent(taskId, (id, task) -> {
+            mutation.accept(task);
+            return task;
+        });
+    }
+
+    @Override
+    public void put(Task task) {
+        taskMap.put(task.getTaskId(), task);
+    }
+
+    @Override
+    public int size() {
+        return taskMap.size();
+    }
+
+    @Override
+    public void forEach(Consumer<Task> action) {
+        taskMap.values().forEach(action);
+    }
+
+    /**
+     * ConcurrentHashMap's own value spliterator, which splits the bin table in halves.
+     */
+    @Override
+    public Spliterator<Task> spliterator() {
+        return taskMap.values().spliterator();
+    }
+
+    /**
+     * ConcurrentHashMap has no public ensureCapacity, but putAll presizes from the argument's size() before copying, so an empty view reporting the
+     * wanted size triggers the growth without adding anything.
+     */
+    @Override
+    public void presize(int expectedSize) {
+        if (expectedSize <= taskMap.size()) {
+            return;
+        }
+        taskMap.putAll(new AbstractMap<String, Task>() {
+            @Override
+            public int size() {
+                return expectedSize;
+            }
+
+            @Override
+            public Set<Map.Entry<String, Task>> entrySet() {
+                return Collections.emptySet();
+            }
+        });
+    }
+}
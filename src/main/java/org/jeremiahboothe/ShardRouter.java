@@ -0,0 +1,53 @@
+package org.jeremiahboothe;
+
+/**
+ * Picks the shard of a ShardedTaskService that owns a Task Id. A router must always send the same Id to the same shard.
+ */
+@FunctionalInterface
+interface ShardRouter {
+    /**
+     * @param taskId Id to place, never null.
+     * @param shardCount Number of shards.
+     * @return int Shard index from 0 to shardCount - 1.
+     */
+    int shardFor(String taskId, int shardCount);
+
+    /**
+     * Spreads Ids evenly by hash, for a single tenant or when tenants do not need isolating.
+     * @return ShardRouter Router by Id hash.
+     */
+    static ShardRouter byIdHash() {
+        return (taskId, shardCount) -> Math.floorMod(spread(taskId.hashCode()), shardCount);
+    }
+
+    /**
+     * Places Ids by the tenant written before the separator, such as "acme:42", so every task of a tenant shares one shard and one tenant's
+     * growth only rehashes its own shard. Ids without the separator are routed by their whole value.
+     * @param separator Character between tenant and the rest of the Id.
+     * @return ShardRouter Router by tenant prefix.
+     */
+    static ShardRouter byTenantPrefix(char separator) {
+        return (taskId, shardCount) -> {
+            int end = taskId.indexOf(separator);
+            if (end < 0) {
+                end = taskId.length();
+            }
+            int hash = 0;
+            for (int i = 0; i < end; i++) {
+                hash = 31 * hash + taskId.charAt(i);
+            }
+            return Math.floorMod(spread(hash), shardCount);
+        };
+    }
+
+    /**
+     * Mixes the high bits of String.hashCode into the low ones, since short numeric Ids differ mostly in their last characters.
+     * @param hash Raw hash.
+     * @return int Mixed hash.
+     */
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x45d9f3b;
+        return hash ^ (hash >>> 16);
+    }
+}
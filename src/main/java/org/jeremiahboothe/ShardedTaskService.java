@@ -0,0 +1,426 @@
+package org.jeremiahboothe;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * TaskService split into independent shards, each a TaskService with its own TaskStore, so tenants or Id ranges do not contend on one map and
+ * one shard growing only rehashes that shard. A ShardRouter sends every Id to a fixed shard, and the methods here route to that shard with the
+ * same semantics, messages and exceptions as TaskService. Shards can also be reached directly to size, persist or iterate them one at a time.
+ */
+class ShardedTaskService {
+    private final TaskService[] shards;
+    private final ShardRouter router;
+
+    /**
+     * @param shardCount Number of shards.
+     * @param storeFactory Creates the store of each shard, such as OnHeapTaskStore::new.
+     * @param router Picks the shard of an Id.
+     */
+    ShardedTaskService(int shardCount, Supplier<TaskStore> storeFactory, ShardRouter router) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1!");
+        }
+        this.shards = new TaskService[shardCount];
+        this.router = router;
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new TaskService(storeFactory.get());
+        }
+    }
+
+    /**
+     * On-heap shards routed by Id hash.
+     * @param shardCount Number of shards.
+     */
+    ShardedTaskService(int shardCount) {
+        this(shardCount, OnHeapTaskStore::new, ShardRouter.byIdHash());
+    }
+
+    /**
+     * @return int Number of shards.
+     */
+    int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @param index Shard index from 0 to getShardCount() - 1.
+     * @return TaskService The shard, for per-shard listeners, metrics, persistence or iteration.
+     */
+    TaskService getShard(int index) {
+        return shards[index];
+    }
+
+    /**
+     * @param taskId Id to place.
+     * @return int Index of the shard that owns the Id.
+     */
+    int shardIndexFor(String taskId) {
+        if (taskId == null) {
+            return 0;
+        }
+        return router.shardFor(taskId, shards.length);
+    }
+
+    /**
+     * @param taskId Id to place.
+     * @return TaskService The shard that owns the Id. Null Ids go to shard 0, which reports them exactly as TaskService does.
+     */
+    TaskService shardFor(String taskId) {
+        return shards[shardIndexFor(taskId)];
+    }
+
+    /**
+     * Creates new task, see TaskService.createNewTaskToAddToMap.
+     * @param taskId Id for new Task
+     * @param taskName Name of new Task
+     * @param taskDescription Description of new Task
+     * @return Task New Task
+     */
+    Task createNewTaskToAddToMap(String taskId, String taskName, String taskDescription) {
+        return shardFor(taskId).createNewTaskToAddToMap(taskId, taskName, taskDescription);
+    }
+
+    /**
+     * Adds new Task to its shard or throws exception if Task already Exists.
+     * @param task Task to be added.
+     */
+    void addTask(Task task) {
+        shardFor(task.getTaskId()).addTask(task);
+    }
+
+    /**
+     * @param task Task to be added.
+     * @return TaskStatus OK or ALREADY_EXISTS.
+     */
+    TaskStatus tryAdd(Task task) {
+        return shardFor(task.getTaskId()).tryAdd(task);
+    }
+
+    /**
+     * Adds new Task with a time to live to its shard or throws exception if Task already Exists.
+     * @param task Task to be added.
+     * @param ttlMillis Time to live.
+     */
+    void addTask(Task task, long ttlMillis) {
+        shardFor(task.getTaskId()).addTask(task, ttlMillis);
+    }
+
+    /**
+     * @param task Task to be added.
+     * @param ttlMillis Time to live.
+     * @return TaskStatus OK or ALREADY_EXISTS.
+     */
+    TaskStatus tryAdd(Task task, long ttlMillis) {
+        return shardFor(task.getTaskId()).tryAdd(task, ttlMillis);
+    }
+
+    /**
+     * @param taskId Id of task.
+     * @param ttlMillis New time to live, 0 or less to remove it.
+     * @return TaskStatus OK or NOT_FOUND.
+     */
+    TaskStatus setTaskTtl(String taskId, long ttlMillis) {
+        return shardFor(taskId).setTaskTtl(taskId, ttlMillis);
+    }
+
+    /**
+     * Sends every shard's printed lines to output, see TaskService.setOutput.
+     * @param output Sink shared by the shards.
+     */
+    void setOutput(TaskOutput output) {
+        for (TaskService shard : shards) {
+            shard.setOutput(output);
+        }
+    }
+
+    /**
+     * Starts an expiry reaper on every shard, see TaskService.enableExpiry.
+     * @param tickMillis Resolution of expiry.
+     * @param refreshOnUpdate True to restart a task's TTL whenever it changes.
+     * @return List Expiry of each shard, in shard order.
+     */
+    List<TaskExpiry> enableExpiry(long tickMillis, boolean refreshOnUpdate) {
+        List<TaskExpiry> expiries = new ArrayList<>(shards.length);
+        for (TaskService shard : shards) {
+            expiries.add(shard.enableExpiry(tickMillis, refreshOnUpdate));
+        }
+        return expiries;
+    }
+
+    /**
+     * @param taskId Id for new Task
+     * @param taskName Name of new Task
+     * @param taskDescription Description of new Task
+     * @return TaskStatus OK, ALREADY_EXISTS or INVALID.
+     */
+    TaskStatus tryAdd(String taskId, String taskName, String taskDescription) {
+        return shardFor(taskId).tryAdd(taskId, taskName, taskDescription);
+    }
+
+    /**
+     * Adds a batch across shards with the TaskService.addTasks rules. Rows are split by shard and each shard runs its part; rejection row
+     * indexes refer to the original list. With ATOMIC, every part is checked on its shard before any shard adds anything, so a batch with a
+     * reject changes nothing. Only when a concurrent add claims an Id after those checks does a shard fail its commit; then no later shard
+     * commits, and the tasks earlier shards added are removed again, each only if it is still the one stored.
+     * @param rows Raw rows to add.
+     * @param policy ATOMIC or PARTIAL.
+     * @return BulkAddResult Added count, commit flag and rejected rows.
+     */
+    BulkAddResult addTasks(List<TaskRow> rows, BulkCommitPolicy policy) {
+        List<List<TaskRow>> shardRows = new ArrayList<>(shards.length);
+        List<int[]> shardRowIndexes = new ArrayList<>(shards.length);
+        int[] counts = new int[shards.length];
+        int[] placements = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            placements[i] = shardIndexFor(rows.get(i).getTaskId());
+            counts[placements[i]]++;
+        }
+        for (int shard = 0; shard < shards.length; shard++) {
+            shardRows.add(new ArrayList<>(counts[shard]));
+            shardRowIndexes.add(new int[counts[shard]]);
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            List<TaskRow> part = shardRows.get(placements[i]);
+            shardRowIndexes.get(placements[i])[part.size()] = i;
+            part.add(rows.get(i));
+        }
+
+        BulkAddResult result = new BulkAddResult(rows.size());
+        if (policy == BulkCommitPolicy.ATOMIC) {
+            for (int shard = 0; shard < shards.length; shard++) {
+                if (!shardRows.get(shard).isEmpty()) {
+                    addRejections(result, shards[shard].checkTasks(shardRows.get(shard)), shardRowIndexes.get(shard));
+                }
+            }
+            if (result.hasRejections()) {
+                return result;
+            }
+        }
+
+        List<List<Task>> shardAdded = new ArrayList<>(shards.length);
+        int addedCount = 0;
+        for (int shard = 0; shard < shards.length; shard++) {
+            List<Task> added = new ArrayList<>();
+            shardAdded.add(added);
+            if (shardRows.get(shard).isEmpty()) {
+                continue;
+            }
+            BulkAddResult shardResult = shards[shard].addTasks(shardRows.get(shard), policy, added);
+            addRejections(result, shardResult, shardRowIndexes.get(shard));
+            if (!shardResult.isCommitted()) {
+                for (int committed = 0; committed < shard; committed++) {
+                    for (Task task : shardAdded.get(committed)) {
+                        shards[committed].rollbackAdd(task);
+                    }
+                }
+                return result;
+            }
+            addedCount += shardResult.getAddedCount();
+        }
+        result.commit(addedCount);
+        return result;
+    }
+
+    /**
+     * Copies a shard's rejections into the whole batch's result, mapping their row indexes back to the original list.
+     */
+    private static void addRejections(BulkAddResult result, BulkAddResult shardResult, int[] rowIndexes) {
+        for (BulkAddResult.Rejection rejection : shardResult.getRejections()) {
+            result.reject(rowIndexes[rejection.getRowIndex()], rejection.getTaskId(), rejection.getReason(), rejection.getValidation());
+        }
+    }
+
+    /**
+     * Deletes a Task by Id or throws an exception if the Id does not exist.
+     * @param taskId Task Id to delete
+     * @throws NullPointerException When Id is not in the service.
+     */
+    void deleteTask(String taskId) throws NullPointerException {
+        shardFor(taskId).deleteTask(taskId);
+    }
+
+    /**
+     * Deletes a Task by Id like deleteTask, without printing the confirmation.
+     * @param taskId Task Id to delete
+     * @throws NullPointerException When Id is not in the service.
+     */
+    void deleteTaskQuietly(String taskId) throws NullPointerException {
+        shardFor(taskId).deleteTaskQuietly(taskId);
+    }
+
+    /**
+     * @param taskId Task Id to delete
+     * @return TaskStatus OK or NOT_FOUND.
+     */
+    TaskStatus tryDelete(String taskId) {
+        return shardFor(taskId).tryDelete(taskId);
+    }
+
+    /**
+     * @param taskId Id of Task.
+     * @return Task at Id taskId, or null.
+     */
+    Task getTaskById(String taskId) {
+        return shardFor(taskId).getTaskById(taskId);
+    }
+
+    /**
+     * @param taskId Id of Task.
+     * @return Optional Task at Id taskId, or empty.
+     */
+    Optional<Task> findById(String taskId) {
+        return shardFor(taskId).findById(taskId);
+    }
+
+    /**
+     * @param taskId Id of Task
+     * @return taskName Name of Task at taskId.
+     */
+    String getTaskName(String taskId) {
+        return shardFor(taskId).getTaskName(taskId);
+    }
+
+    /**
+     * @param taskId Id of Task
+     * @return taskDescription Description of Task at taskId.
+     */
+    String getTaskDescription(String taskId) {
+        return shardFor(taskId).getTaskDescription(taskId);
+    }
+
+    /**
+     * @param taskId Id of task to update
+     * @param taskName Task Name to update
+     * @throws NullPointerException When Id is not in the service.
+     */
+    void updateTaskName(String taskId, String taskName) {
+        shardFor(taskId).updateTaskName(taskId, taskName);
+    }
+
+    /**
+     * @param taskId Task Id to update
+     * @param taskDescription New Task Description
+     * @throws NullPointerException When Id is not in the service.
+     */
+    void updateTaskDescription(String taskId, String taskDescription) {
+        shardFor(taskId).updateTaskDescription(taskId, taskDescription);
+    }
+
+    /**
+     * @param taskId Id of task to update
+     * @param taskName Task Name to update
+     * @return TaskStatus OK, NOT_FOUND or INVALID.
+     */
+    TaskStatus tryUpdateTaskName(String taskId, String taskName) {
+        return shardFor(taskId).tryUpdateTaskName(taskId, taskName);
+    }
+
+    /**
+     * @param taskId Task Id to update
+     * @param taskDescription New Task Description
+     * @return TaskStatus OK, NOT_FOUND or INVALID.
+     */
+    TaskStatus tryUpdateTaskDescription(String taskId, String taskDescription) {
+        return shardFor(taskId).tryUpdateTaskDescription(taskId, taskDescription);
+    }
+
+    /**
+     * @param taskId Id of Task.
+     * @return VersionedTask Copy of the task at Id taskId, or null.
+     */
+    VersionedTask getVersionedTask(String taskId) {
+        return shardFor(taskId).getVersionedTask(taskId);
+    }
+
+    /**
+     * @param taskId Id of task to update.
+     * @param expectedVersion Version from getVersionedTask.
+     * @param taskName New Task Name.
+     * @param taskDescription New Task Description.
+     * @return TaskStatus OK, NOT_FOUND, INVALID or VERSION_CONFLICT.
+     */
+    TaskStatus compareAndSetTask(String taskId, int expectedVersion, String taskName, String taskDescription) {
+        return shardFor(taskId).compareAndSetTask(taskId, expectedVersion, taskName, taskDescription);
+    }
+
+    /**
+     * @param taskId Id of task to display values from
+     */
+    void displayValues(String taskId) {
+        shardFor(taskId).displayValues(taskId);
+    }
+
+    /**
+     * Prints all tasks, one shard after another.
+     */
+    void printAllTasks() {
+        for (TaskService shard : shards) {
+            shard.printAllTasks();
+        }
+    }
+
+    /**
+     * Sum of the shard sizes, each read at a slightly different moment while writes continue.
+     * @return int Task count.
+     */
+    int size() {
+        int size = 0;
+        for (TaskService shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return int[] Task count of each shard.
+     */
+    int[] shardSizes() {
+        int[] sizes = new int[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            sizes[i] = shards[i].size();
+        }
+        return sizes;
+    }
+
+    /**
+     * Runs the action on every task, one shard after another, with TaskService.forEachTask's guarantees per shard.
+     * @param action Action to run per task.
+     */
+    void forEachTask(Consumer<Task> action) {
+        for (TaskService shard : shards) {
+            shard.forEachTask(action);
+        }
+    }
+
+    /**
+     * Opens persistence for every shard, each in its own subdirectory shard-NN with its own log and snapshot, so shards recover and
+     * checkpoint independently. Call before the service takes traffic.
+     * @param directory Parent directory.
+     * @return List Persistence of each shard, in shard order. Close each when done.
+     * @throws IOException When a shard cannot be recovered or opened, shards already opened are closed again.
+     */
+    List<TaskPersistence> openPersistence(Path directory) throws IOException {
+        List<TaskPersistence> opened = new ArrayList<>(shards.length);
+        try {
+            for (int i = 0; i < shards.length; i++) {
+                opened.add(TaskPersistence.open(directory.resolve(String.format("shard-%02d", i)), shards[i]));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (TaskPersistence persistence : opened) {
+                try {
+                    persistence.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        }
+        return opened;
+    }
+}
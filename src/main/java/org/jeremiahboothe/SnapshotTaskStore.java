@@ -0,0 +1,532 @@
+package org.jeremiahboothe;
+
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * TaskStore decorator that hands out point-in-time snapshots of the tasks, opened with TaskService.snapshot, without stopping writers.
+ * With no snapshot open every call goes to the wrapped store. Taking a snapshot freezes the store as it stands and sends later writes to a
+ * copy-on-write overlay: a ConcurrentHashMap of added tasks, copies of changed ones and tombstones for deleted ones, which reads check before
+ * the layers below. The snapshot only keeps a reference to the frozen layers, so it costs the same whatever the number of tasks, and only the
+ * tasks written while it is open take extra memory. Another snapshot freezes the current overlay and starts a new one on top of it. When the
+ * last open snapshot closes, the overlays are merged back into the wrapped store by the closing thread and dropped.
+ * Frozen tasks are never changed in place, so while a snapshot may be open, change tasks through TaskService rather than through a Task handed
+ * out by getTaskById. remove compares expected by identity or by values, like CachingTaskStore, since tasks below the overlay may be copies.
+ */
+final class SnapshotTaskStore implements TaskStore {
+    private static final Object TOMBSTONE = new Object();
+    private static final Overlay[] NO_OVERLAYS = new Overlay[0];
+    private static final int STRIPES = 16;
+    private static final int STRIPE_PADDING = 16;
+
+    private final TaskStore base;
+    private volatile Layers layers = new Layers(null, NO_OVERLAYS);
+    private int openSnapshots;
+
+    /**
+     * @param base Store holding the tasks, such as an OnHeapTaskStore. Use it only through this store from now on.
+     */
+    SnapshotTaskStore(TaskStore base) {
+        this.base = base;
+    }
+
+    /**
+     * Freezes the current state and returns a view of it. Waits for writes already in progress to finish, and for a merge in progress after
+     * the last snapshot closed, but never for the number of tasks.
+     * @return TaskMapSnapshot Immutable view, close it to release the memory held for it.
+     */
+    @Override
+    public synchronized TaskMapSnapshot snapshot() {
+        Layers current = layers;
+        Overlay[] view;
+        if (current.top != null && current.top.entries.isEmpty()) {
+            // Nothing was written since the last freeze, so the frozen layers are still the current state.
+            view = current.lower;
+        } else {
+            view = current.top == null ? NO_OVERLAYS : push(current.top, current.lower);
+            layers = new Layers(new Overlay(), view);
+            awaitWriters(current);
+        }
+        openSnapshots++;
+        return new TaskMapSnapshot(this, view, base, sizeOf(view));
+    }
+
+    /**
+     * Called once per snapshot by TaskMapSnapshot.close. The last one merges the overlays into the wrapped store.
+     */
+    synchronized void release() {
+        if (--openSnapshots > 0) {
+            return;
+        }
+        Layers current = layers;
+        if (current.top == null) {
+            return;
+        }
+        Overlay[] draining = push(current.top, current.lower);
+        Layers next = new Layers(null, draining);
+        layers = next;
+        awaitWriters(current);
+        for (int i = draining.length - 1; i >= 0; i--) {
+            Overlay overlay = draining[i];
+            for (String taskId : overlay.entries.keySet()) {
+                merge(overlay, taskId);
+            }
+        }
+        layers = new Layers(null, NO_OVERLAYS);
+        // Writes that flushed against the draining layers may still be landing in the wrapped store, which the next snapshot freezes.
+        awaitWriters(next);
+    }
+
+    /**
+     * @return int Snapshots taken and not yet closed.
+     */
+    synchronized int getOpenSnapshots() {
+        return openSnapshots;
+    }
+
+    /**
+     * @return int Overlays holding writes made while snapshots were open, 0 once they are merged.
+     */
+    int getOverlayCount() {
+        Layers current = layers;
+        return current.lower.length + (current.top == null ? 0 : 1);
+    }
+
+    @Override
+    public Task get(String taskId) {
+        Layers current = layers;
+        if (current.top != null) {
+            Object value = current.top.entries.get(taskId);
+            if (value != null) {
+                return value == TOMBSTONE ? null : (Task) value;
+            }
+        }
+        return below(taskId, current.lower);
+    }
+
+    @Override
+    public boolean insertIfAbsent(Task task, Consumer<Task> beforeInsert) {
+        int stripe = stripe();
+        Layers current = enter(stripe);
+        try {
+            if (current.top == null) {
+                flush(task.getTaskId(), current.lower);
+                return base.insertIfAbsent(task, beforeInsert);
+            }
+            boolean[] inserted = new boolean[1];
+            current.top.entries.compute(task.getTaskId(), (id, value) -> {
+                if (value instanceof Task || (value == null && below(id, current.lower) != null)) {
+                    return value;
+                }
+                if (beforeInsert != null) {
+                    beforeInsert.accept(task);
+                }
+                inserted[0] = true;
+                return task;
+            });
+            if (inserted[0]) {
+                current.top.delta.increment();
+            }
+            return inserted[0];
+        } finally {
+            current.exit(stripe);
+        }
+    }
+
+    /**
+     * In an overlay, removing a task that a lower layer still holds leaves a tombstone.
+     */
+    @Override
+    public Task remove(String taskId, Task expected, Consumer<Task> beforeRemove) {
+        int stripe = stripe();
+        Layers current = enter(stripe);
+        try {
+            if (current.top == null) {
+                flush(taskId, current.lower);
+                return base.remove(taskId, expected, beforeRemove);
+            }
+            Task[] removed = new Task[1];
+            current.top.entries.compute(taskId, (id, value) -> {
+                if (value == TOMBSTONE) {
+                    return value;
+                }
+                Task lowerTask = below(id, current.lower);
+                Task task = value == null ? lowerTask : (Task) value;
+                if (task == null || (expected != null && !sameValues(expected, task))) {
+                    return value;
+                }
+                if (beforeRemove != null) {
+                    beforeRemove.accept(task);
+                }
+                removed[0] = task;
+                return lowerTask != null ? TOMBSTONE : null;
+            });
+            if (removed[0] != null) {
+                current.top.delta.decrement();
+            }
+            return removed[0];
+        } finally {
+            current.exit(stripe);
+        }
+    }
+
+    /**
+     * In an overlay, a task that only a lower layer holds is copied up before the mutation runs on the copy, so frozen layers never change.
+     */
+    @Override
+    public Task update(String taskId, Consumer<Task> mutation) {
+        int stripe = stripe();
+        Layers current = enter(stripe);
+        try {
+            if (current.top == null) {
+                flush(taskId, current.lower);
+                return base.update(taskId, mutation);
+            }
+            Task[] updated = new Task[1];
+            current.top.entries.compute(taskId, (id, value) -> {
+                if (value == TOMBSTONE) {
+                    return value;
+                }
+                Task task = (Task) value;
+                if (task == null) {
+                    Task lowerTask = below(id, current.lower);
+                    if (lowerTask == null) {
+                        return null;
+                    }
+                    task = lowerTask.copy();
+                }
+                mutation.accept(task);
+                updated[0] = task;
+                return task;
+            });
+            return updated[0];
+        } finally {
+            current.exit(stripe);
+        }
+    }
+
+    @Override
+    public void put(Task task) {
+        int stripe = stripe();
+        Layers current = enter(stripe);
+        try {
+            if (current.top == null) {
+                flush(task.getTaskId(), current.lower);
+                base.put(task);
+                return;
+            }
+            boolean[] added = new boolean[1];
+            current.top.entries.compute(task.getTaskId(), (id, value) -> {
+                added[0] = value == TOMBSTONE || (value == null && below(id, current.lower) == null);
+                return task;
+            });
+            if (added[0]) {
+                current.top.delta.increment();
+            }
+        } finally {
+            current.exit(stripe);
+        }
+    }
+
+    /**
+     * The wrapped store's size plus what each overlay added or removed.
+     */
+    @Override
+    public int size() {
+        Layers current = layers;
+        int size = sizeOf(current.lower);
+        return current.top == null ? size : size + current.top.delta.intValue();
+    }
+
+    @Override
+    public void forEach(Consumer<Task> action) {
+        Layers current = layers;
+        if (current.top == null && current.lower.length == 0) {
+            base.forEach(action);
+        } else {
+            spliterator(current).forEachRemaining(action);
+        }
+    }
+
+    /**
+     * The wrapped store's spliterator while no overlay exists, otherwise one range per layer, newest first, each skipping Ids that a newer
+     * layer holds.
+     */
+    @Override
+    public Spliterator<Task> spliterator() {
+        return spliterator(layers);
+    }
+
+    @Override
+    public void presize(int expectedSize) {
+        base.presize(expectedSize);
+    }
+
+    /**
+     * @param overlays Frozen overlays, newest first.
+     * @param base Store below them, unchanged while they are frozen.
+     * @return Spliterator Tasks visible through the layers.
+     */
+    static Spliterator<Task> layeredSpliterator(Overlay[] overlays, TaskStore base) {
+        Spliterator<Task>[] parts = newParts(overlays.length + 1);
+        for (int i = 0; i < overlays.length; i++) {
+            parts[i] = new LayerSpliterator(overlays[i].entries.values().spliterator(), overlays, i);
+        }
+        parts[overlays.length] = new LayerSpliterator(base.spliterator(), overlays, overlays.length);
+        return new ConcatSpliterator(parts, 0, parts.length);
+    }
+
+    /**
+     * @param overlays Frozen overlays, newest first.
+     * @param base Store below them.
+     * @return Task The task the layers show for the Id, or null.
+     */
+    static Task lookup(String taskId, Overlay[] overlays, TaskStore base) {
+        for (Overlay overlay : overlays) {
+            Object value = overlay.entries.get(taskId);
+            if (value != null) {
+                return value == TOMBSTONE ? null : (Task) value;
+            }
+        }
+        return base.get(taskId);
+    }
+
+    private Spliterator<Task> spliterator(Layers current) {
+        if (current.top == null && current.lower.length == 0) {
+            return base.spliterator();
+        }
+        return layeredSpliterator(current.top == null ? current.lower : push(current.top, current.lower), base);
+    }
+
+    private Task below(String taskId, Overlay[] lower) {
+        return lookup(taskId, lower, base);
+    }
+
+    private int sizeOf(Overlay[] overlays) {
+        int size = base.size();
+        for (Overlay overlay : overlays) {
+            size += overlay.delta.intValue();
+        }
+        return size;
+    }
+
+    /**
+     * Before a write straight to the wrapped store, merges anything the draining overlays still hold for the Id, oldest first, so the write
+     * lands on the latest value.
+     */
+    private void flush(String taskId, Overlay[] draining) {
+        for (int i = draining.length - 1; i >= 0; i--) {
+            merge(draining[i], taskId);
+        }
+    }
+
+    /**
+     * Moves one entry into the wrapped store and out of the overlay under the overlay's lock for the Id, so a reader that misses it in the
+     * overlay finds it below.
+     */
+    private void merge(Overlay overlay, String taskId) {
+        overlay.entries.computeIfPresent(taskId, (id, value) -> {
+            if (value == TOMBSTONE) {
+                if (base.remove(id, null, null) != null) {
+                    overlay.delta.increment();
+                }
+            } else {
+                if (base.get(id) == null) {
+                    overlay.delta.decrement();
+                }
+                base.put((Task) value);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Registers a write against the current layers, retrying if they change in between, so a freeze can wait for the writes it might miss.
+     */
+    private Layers enter(int stripe) {
+        while (true) {
+            Layers current = layers;
+            current.writers.incrementAndGet(stripe);
+            if (layers == current) {
+                return current;
+            }
+            current.writers.decrementAndGet(stripe);
+        }
+    }
+
+    private static void awaitWriters(Layers replaced) {
+        for (int i = 0; i < STRIPES; i++) {
+            while (replaced.writers.get(i * STRIPE_PADDING) != 0) {
+                Thread.yield();
+            }
+        }
+    }
+
+    private static int stripe() {
+        int hash = Thread.currentThread().hashCode();
+        return ((hash ^ (hash >>> 16)) & (STRIPES - 1)) * STRIPE_PADDING;
+    }
+
+    private static Overlay[] push(Overlay top, Overlay[] lower) {
+        Overlay[] overlays = new Overlay[lower.length + 1];
+        overlays[0] = top;
+        System.arraycopy(lower, 0, overlays, 1, lower.length);
+        return overlays;
+    }
+
+    private static boolean sameValues(Task expected, Task stored) {
+        return expected == stored
+                || (expected.getTaskName().equals(stored.getTaskName()) && expected.getTaskDescription().equals(stored.getTaskDescription()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Spliterator<Task>[] newParts(int length) {
+        return (Spliterator<Task>[]) new Spliterator<?>[length];
+    }
+
+    /**
+     * Writes made while snapshots were open: Tasks and tombstones by Id, and the change in task count they make to the layers below.
+     */
+    static final class Overlay {
+        private final ConcurrentHashMap<String, Object> entries = new ConcurrentHashMap<>();
+        private final LongAdder delta = new LongAdder();
+    }
+
+    /**
+     * Where writes go and what reads check, replaced as a whole on every freeze and merge. top is null when writes go to the wrapped store;
+     * lower is then either empty or the overlays being merged. writers counts the writes in progress against this instance, striped and
+     * padded so writers on different threads do not share a cache line.
+     */
+    private static final class Layers {
+        private final Overlay top;
+        private final Overlay[] lower;
+        private final AtomicLongArray writers = new AtomicLongArray(STRIPES * STRIPE_PADDING);
+
+        Layers(Overlay top, Overlay[] lower) {
+            this.top = top;
+            this.lower = lower;
+        }
+
+        void exit(int stripe) {
+            writers.decrementAndGet(stripe);
+        }
+    }
+
+    /**
+     * One layer's tasks, skipping tombstones and Ids a newer layer holds.
+     */
+    private static final class LayerSpliterator implements Spliterator<Task> {
+        private final Spliterator<?> source;
+        private final Overlay[] overlays;
+        private final int layer;
+        private Object next;
+
+        LayerSpliterator(Spliterator<?> source, Overlay[] overlays, int layer) {
+            this.source = source;
+            this.overlays = overlays;
+            this.layer = layer;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Task> action) {
+            while (source.tryAdvance(value -> next = value)) {
+                Object value = next;
+                next = null;
+                if (value instanceof Task && !shadowed(((Task) value).getTaskId())) {
+                    action.accept((Task) value);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean shadowed(String taskId) {
+            for (int i = 0; i < layer; i++) {
+                if (overlays[i].entries.containsKey(taskId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<Task> trySplit() {
+            Spliterator<?> split = source.trySplit();
+            return split == null ? null : new LayerSpliterator(split, overlays, layer);
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return CONCURRENT | NONNULL;
+        }
+    }
+
+    /**
+     * The layers one after another. Splits hand out whole layers first, then split the last layer left.
+     */
+    private static final class ConcatSpliterator implements Spliterator<Task> {
+        private final Spliterator<Task>[] parts;
+        private int from;
+        private final int to;
+
+        ConcatSpliterator(Spliterator<Task>[] parts, int from, int to) {
+            this.parts = parts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Task> action) {
+            while (from < to) {
+                if (parts[from].tryAdvance(action)) {
+                    return true;
+                }
+                from++;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Task> action) {
+            for (; from < to; from++) {
+                parts[from].forEachRemaining(action);
+            }
+        }
+
+        @Override
+        public Spliterator<Task> trySplit() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                Spliterator<Task> prefix = new ConcatSpliterator(parts, from, middle);
+                from = middle;
+                return prefix;
+            }
+            return from < to ? parts[from].trySplit() : null;
+        }
+
+        @Override
+        public long estimateSize() {
+            long size = 0;
+            for (int i = from; i < to; i++) {
+                size += parts[i].estimateSize();
+                if (size < 0) {
+                    return Long.MAX_VALUE;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public int characteristics() {
+            return CONCURRENT | NONNULL;
+        }
+    }
+}
@@ -1,41 +1,27 @@
 package org.jeremiahboothe;
 
+/**
+ * A task and its version. The version counts the name and description changes applied to the task. Every change runs in a short write section
+ * guarded by the task's monitor and an even/odd sequence number, so snapshot() reads the name, description and version without locking and never
+ * sees a change half applied.
+ */
 public class Task {
     private final String taskId;
-    private String taskName;
-    private String taskDescription;
-    private final int lengthCheckShort = 10;
-    private final int lengthCheckMid = 20;
-    private final int lengthCheckLong = 50;
+    private volatile String taskName;
+    private volatile String taskDescription;
+    private volatile int version;
+    private volatile int sequence;
+    private static volatile TaskStringPool stringPool;
 
     /**
-     * Generic type nullCheck to universally check string values and pass NullPointerExceptions back up the chain if one is thrown.
-     * @param genericValue The generic typed value to check for null.
-     * @param errorMessage The error message for tracing back to the origin.
-     * @param <T> Generic Type.
-     */
-    private <T> void nullCheck(T genericValue, String errorMessage) {
-        if (genericValue == null) {
-            throw new NullPointerException(errorMessage + " cannot be null!");
-        }
-    }
-
-    /**
-     * Generic type length check, made it more universal, now it receives an integer value of allowedLength, to be more flexible and redefined in the final lengths at the top or by each setter.
-     * @param genericValue The generic typed value to check for length greater than 10 or 30.
-     * @param errorMessage The error message for tracing back to the origin.
-     * @param allowedLength The allowed maximum not to be exceeded by each setter.
-     * @param <T> Generic Type.
-     */
-    private <T> void lengthCheck(T genericValue, String errorMessage, int allowedLength) {
-        int length = String.valueOf(genericValue).length();
-        if (length > allowedLength) {
-            throw new IllegalArgumentException(errorMessage + " cannot be longer than " + allowedLength + "!");
-        }
-    }
+     * Maximum lengths, shared by every Task rather than stored per instance.
+     */
+    static final int TASK_ID_MAX_LENGTH = 10;
+    static final int TASK_NAME_MAX_LENGTH = 20;
+    static final int TASK_DESCRIPTION_MAX_LENGTH = 50;
 
     /**
-     * Constructor for new Task Creation. Constructor is designed to prevent object instantiation upon failed null check or failed length check. Passes errors up the chain to be captured at test level.
+     * Constructor for new Task Creation. Constructor is designed to prevent object instantiation upon failed null check or failed length check, both done by TaskValidation. Passes errors up the chain to be captured at test level.
      * @param taskId User Input ID
      * @param taskName Task Name
      * @param taskDescription Task Name
@@ -48,45 +34,146 @@ public class Task {
             throws IllegalArgumentException,
             NullPointerException {
 
-        nullCheck(taskId, "Task Id");
-        lengthCheck(taskId, "Task Id", lengthCheckShort);
+        this(taskId, taskName, taskDescription, 0);
+    }
 
-        setTaskName(taskName);
-        setTaskDescription(taskDescription);
+    /**
+     * Constructor for a Task rebuilt from storage, carrying the version it had when it was stored.
+     * @param taskId User Input ID
+     * @param taskName Task Name
+     * @param taskDescription Task Description
+     * @param version Version of the stored task.
+     */
+    Task(String taskId, String taskName, String taskDescription, int version) {
+        TaskValidation.check(taskId, taskName, taskDescription).throwIfInvalid();
 
         this.taskId = taskId;
+        this.taskName = deduplicate(taskName);
+        this.taskDescription = deduplicate(taskDescription);
+        this.version = version;
+    }
+
+    /**
+     * Makes every Task created or changed from now on keep pooled copies of its name and description. Tasks that already exist keep their own
+     * Strings until they are next changed.
+     * @param pool Pool to use, or null to stop deduplicating.
+     */
+    static void useStringPool(TaskStringPool pool) {
+        stringPool = pool;
+    }
+
+    /**
+     * @return TaskStringPool Pool in use, or null when Tasks keep their own Strings.
+     */
+    static TaskStringPool getStringPool() {
+        return stringPool;
+    }
+
+    private static String deduplicate(String value) {
+        TaskStringPool pool = stringPool;
+        return pool == null ? value : pool.intern(value);
     }
     
     /**
-     * Setter for taskName
+     * Setter for taskName, adds one to the version.
      * @param taskName Name of Task
      */
     void setTaskName(String taskName) {
-        String errorIdentifier = "Task Name";
-
-        nullCheck(taskName, errorIdentifier);
-        lengthCheck(taskName, errorIdentifier, lengthCheckMid);
+        TaskValidation.checkName(taskName).throwIfInvalid();
+        taskName = deduplicate(taskName);
 
-        this.taskName = taskName;
+        synchronized (this) {
+            sequence++;
+            this.taskName = taskName;
+            version++;
+            sequence++;
+        }
     }
 
     /**
-     * Setter for taskDescription
+     * Setter for taskDescription, adds one to the version.
      * @param taskDescription Description of Task
      */
     void setTaskDescription(String taskDescription) {
-        String errorIdentifier = "Task Description";
+        TaskValidation.checkDescription(taskDescription).throwIfInvalid();
+        taskDescription = deduplicate(taskDescription);
 
-        nullCheck(taskDescription, "Task Description");
-        lengthCheck(taskDescription, errorIdentifier, lengthCheckLong);
-        this.taskDescription = taskDescription;
+        synchronized (this) {
+            sequence++;
+            this.taskDescription = taskDescription;
+            version++;
+            sequence++;
+        }
+    }
+
+    /**
+     * Sets the name and description together if the version is still expectedVersion. Counts as two changes, one per field, so replaying
+     * it as a name and a description update gives the same version.
+     * @param expectedVersion Version the caller read.
+     * @param taskName New Task Name.
+     * @param taskDescription New Task Description.
+     * @return boolean True when the version matched and both fields were set.
+     */
+    boolean compareAndSet(int expectedVersion, String taskName, String taskDescription) {
+        TaskValidation.checkName(taskName).throwIfInvalid();
+        TaskValidation.checkDescription(taskDescription).throwIfInvalid();
+        taskName = deduplicate(taskName);
+        taskDescription = deduplicate(taskDescription);
+
+        synchronized (this) {
+            if (version != expectedVersion) {
+                return false;
+            }
+            sequence++;
+            this.taskName = taskName;
+            this.taskDescription = taskDescription;
+            version += 2;
+            sequence++;
+            return true;
+        }
+    }
+
+    /**
+     * Reads the task without locking, retrying while a change is in its write section.
+     * @return VersionedTask Consistent copy of the name, description and version.
+     */
+    VersionedTask snapshot() {
+        while (true) {
+            int before = sequence;
+            if ((before & 1) == 0) {
+                String name = taskName;
+                String description = taskDescription;
+                int currentVersion = version;
+                if (sequence == before) {
+                    return new VersionedTask(taskId, name, description, currentVersion);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Copies the task with its version, for stores that keep their own copy.
+     * @return Task New Task with the same values.
+     */
+    Task copy() {
+        VersionedTask snapshot = snapshot();
+        return new Task(taskId, snapshot.getTaskName(), snapshot.getTaskDescription(), snapshot.getVersion());
+    }
+
+    /**
+     * Retrieves the version, the number of changes applied to the task.
+     * @return int Version of the Task.
+     */
+    int getVersion() {
+        return version;
     }
 
      /**
      * Retrieves the Task Id
      * @return taskId The Task Id of the Task.
      */
-    String getTaskId(){
+    public String getTaskId(){
         return this.taskId;
     }
 
@@ -94,7 +181,7 @@ public class Task {
      * Retrieves the Task Description
      * @return taskDescription The Task Description of the Task.
      */
-    String getTaskDescription(){
+    public String getTaskDescription(){
         return this.taskDescription;
     }
 
@@ -102,7 +189,7 @@ public class Task {
      * Retrieves the Task Task Name
      * @return taskName
      */
-    String getTaskName(){
+    public String getTaskName(){
         return this.taskName;
     }
 
@@ -110,8 +197,16 @@ public class Task {
      * Prints Task Values of current task
      */
     void displayValues() {
-        System.out.println("Task Id: " + getTaskId());
-        System.out.println("Task Name: " + getTaskName());
-        System.out.println("Task Description: " + getTaskDescription());
+        displayValues(TaskOutput.console());
+    }
+
+    /**
+     * Prints Task Values of current task to output
+     * @param output Sink for the lines, such as TaskService.getOutput().
+     */
+    void displayValues(TaskOutput output) {
+        output.println("Task Id: ", getTaskId(), "");
+        output.println("Task Name: ", getTaskName(), "");
+        output.println("Task Description: ", getTaskDescription(), "");
     }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package org.jeremiahboothe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Spliterator;
+
+/**
+ * Slower, larger storage behind a CachingTaskStore, such as FileTaskBackingStore. Implementations must be safe for concurrent use; the cache
+ * never calls them for the same Id from two threads at once, but does for different Ids. Tasks returned are copies the cache may keep.
+ * Failures are reported as UncheckedIOException, since TaskStore callers cannot handle checked exceptions.
+ */
+interface TaskBackingStore extends Closeable {
+
+    /**
+     * @param taskId Id to read.
+     * @return Task A new Task with the stored values, or null when the Id is absent.
+     */
+    Task load(String taskId);
+
+    /**
+     * @param taskId Id to look up.
+     * @return boolean True when a task is stored under the Id.
+     */
+    boolean contains(String taskId);
+
+    /**
+     * Stores the task's current values, replacing any task with the same Id.
+     * @param task Task to write.
+     */
+    void store(Task task);
+
+    /**
+     * Removes the task stored under taskId, missing Ids are ignored.
+     * @param taskId Id to remove.
+     */
+    void delete(String taskId);
+
+    /**
+     * @return int Number of stored tasks.
+     */
+    int size();
+
+    /**
+     * Weakly consistent spliterator over the stored tasks, see TaskStore.spliterator.
+     * @return Spliterator Stored tasks as new Task objects.
+     */
+    Spliterator<Task> spliterator();
+
+    /**
+     * Makes every write so far durable.
+     * @throws IOException When the device fails.
+     */
+    void flush() throws IOException;
+}
@@ -0,0 +1,63 @@
+package org.jeremiahboothe;
+
+/**
+ * One change published by a TaskChangeFeed. Events are immutable and numbered in publish order; events for the same Id are published in the
+ * order the changes happen, since TaskService calls its listeners inside the Id's atomic section.
+ */
+final class TaskChangeEvent {
+    /**
+     * Kind of change.
+     */
+    enum Type {
+        ADDED, NAME_UPDATED, DESCRIPTION_UPDATED, DELETED
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final String taskId;
+    private final String taskName;
+    private final String taskDescription;
+
+    TaskChangeEvent(long sequence, Type type, String taskId, String taskName, String taskDescription) {
+        this.sequence = sequence;
+        this.type = type;
+        this.taskId = taskId;
+        this.taskName = taskName;
+        this.taskDescription = taskDescription;
+    }
+
+    /**
+     * @return long Position in the feed, starting at 0 and without gaps.
+     */
+    long getSequence() {
+        return sequence;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    String getTaskId() {
+        return taskId;
+    }
+
+    /**
+     * @return String Name of an added task or the new name, null for the other types.
+     */
+    String getTaskName() {
+        return taskName;
+    }
+
+    /**
+     * @return String Description of an added task or the new description, null for the other types.
+     */
+    String getTaskDescription() {
+        return taskDescription;
+    }
+
+    @Override
+    public String toString() {
+        return sequence + " " + type + " " + taskId + (taskName != null ? " name=" + taskName : "")
+                + (taskDescription != null ? " description=" + taskDescription : "");
+    }
+}
@@ -0,0 +1,285 @@
+package org.jeremiahboothe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Change feed over a TaskService for downstream caches and indexes. Registered as a TaskChangeListener, it turns every add, update and delete
+ * into a TaskChangeEvent in a fixed ring of slots. Writers claim a sequence with one compare-and-set and never lock or wake anyone; each
+ * subscriber has its own thread that polls the ring and hands over runs of up to maxBatch events at a time.
+ * A slot is reused only once every subscriber has consumed it. When a writer gets a full ring lap ahead of the slowest subscriber, BLOCK makes
+ * it wait for that subscriber, which is the backpressure, while DROP discards the event and counts it, so writers never wait and subscribers
+ * must resynchronize from the service after a drop. With no subscribers nothing is published and a change costs one array read.
+ * Listeners run before the change is applied, so register the feed after listeners that may cancel a change, such as the write-ahead log.
+ * Publishing happens inside the writer's atomic section, so a BLOCK wait holds up more than the writer; see OverflowPolicy.BLOCK.
+ */
+final class TaskChangeFeed implements TaskChangeListener {
+    /**
+     * What a writer does when the ring is full.
+     */
+    enum OverflowPolicy {
+        /**
+         * The writer parks until the slowest subscriber frees a slot. It parks inside the listener call, so it still holds the map's atomic
+         * section for its Id, which on the default map also blocks other Ids in the same bin, and, with transactions on, its lock stripe,
+         * which holds up every write to that stripe and TaskService.snapshot and getVersionedTasks. One slow or stuck subscriber can stall
+         * writers well beyond the feed, so use BLOCK only with subscribers that keep up, and close ones that stop.
+         */
+        BLOCK,
+        /**
+         * The writer discards the event and counts it, so it never waits.
+         */
+        DROP
+    }
+
+    private static final long WRITER_PARK_NANOS = 1_000;
+    private static final long SUBSCRIBER_PARK_NANOS = 50_000;
+    private static final int SUBSCRIBER_SPINS = 100;
+
+    private final TaskService taskService;
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicReferenceArray<TaskChangeEvent> slots;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long gatingCache = -1;
+    private volatile Subscription[] subscriptions = new Subscription[0];
+
+    private TaskChangeFeed(TaskService taskService, int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Feed capacity must be at least 2!");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.taskService = taskService;
+        this.overflowPolicy = overflowPolicy;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Creates a feed and registers it for every later change. Tasks already in the service are not replayed; read them with forEachTask.
+     * @param taskService Service to follow.
+     * @param capacity Events the ring holds, rounded up to a power of two.
+     * @param overflowPolicy BLOCK or DROP.
+     * @return TaskChangeFeed Live feed.
+     */
+    static TaskChangeFeed attach(TaskService taskService, int capacity, OverflowPolicy overflowPolicy) {
+        TaskChangeFeed feed = new TaskChangeFeed(taskService, capacity, overflowPolicy);
+        taskService.addChangeListener(feed);
+        return feed;
+    }
+
+    /**
+     * Unregisters the feed and closes every subscription, each stops after the batch it is delivering.
+     */
+    void detach() {
+        taskService.removeChangeListener(this);
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+
+    /**
+     * Starts delivering events published from now on to subscriber, on a new daemon thread.
+     * @param subscriber Receives each batch in sequence order. The list is only valid during the call and must not be changed.
+     * @param maxBatch Most events per call.
+     * @return Subscription Handle to watch lag and close the subscription.
+     */
+    synchronized Subscription subscribe(Consumer<List<TaskChangeEvent>> subscriber, int maxBatch) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1!");
+        }
+        Subscription subscription = new Subscription(subscriber, maxBatch, cursor.get());
+        Subscription[] current = subscriptions;
+        Subscription[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = subscription;
+        subscriptions = updated;
+        subscription.thread.start();
+        return subscription;
+    }
+
+    private synchronized void unsubscribe(Subscription subscription) {
+        List<Subscription> remaining = new ArrayList<>(Arrays.asList(subscriptions));
+        remaining.remove(subscription);
+        subscriptions = remaining.toArray(new Subscription[0]);
+    }
+
+    /**
+     * @return long Events put in the ring so far.
+     */
+    long getPublishedCount() {
+        return published.sum();
+    }
+
+    /**
+     * @return long Events discarded by DROP because the ring was full.
+     */
+    long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return long Sequence of the last claimed event, -1 before the first.
+     */
+    long getCursor() {
+        return cursor.get();
+    }
+
+    @Override
+    public void taskAdded(Task task) {
+        publish(TaskChangeEvent.Type.ADDED, task.getTaskId(), task.getTaskName(), task.getTaskDescription());
+    }
+
+    @Override
+    public void taskNameUpdated(Task task, String taskName) {
+        publish(TaskChangeEvent.Type.NAME_UPDATED, task.getTaskId(), taskName, null);
+    }
+
+    @Override
+    public void taskDescriptionUpdated(Task task, String taskDescription) {
+        publish(TaskChangeEvent.Type.DESCRIPTION_UPDATED, task.getTaskId(), null, taskDescription);
+    }
+
+    @Override
+    public void taskDeleted(Task task) {
+        publish(TaskChangeEvent.Type.DELETED, task.getTaskId(), null, null);
+    }
+
+    /**
+     * Claims the next sequence once the slot a lap back has been consumed by every subscriber, then writes the event into it. The volatile
+     * slot write is what makes the event visible to subscribers, which check the sequence in the slot rather than the cursor.
+     */
+    private void publish(TaskChangeEvent.Type type, String taskId, String taskName, String taskDescription) {
+        long sequence;
+        while (true) {
+            Subscription[] current = subscriptions;
+            if (current.length == 0) {
+                return;
+            }
+            long claimed = cursor.get();
+            long next = claimed + 1;
+            long wrapPoint = next - slots.length();
+            if (wrapPoint > gatingCache) {
+                long minimum = minimumSequence(current, claimed);
+                gatingCache = minimum;
+                if (wrapPoint > minimum) {
+                    if (overflowPolicy == OverflowPolicy.DROP) {
+                        dropped.increment();
+                        return;
+                    }
+                    LockSupport.parkNanos(WRITER_PARK_NANOS);
+                    continue;
+                }
+            }
+            if (cursor.compareAndSet(claimed, next)) {
+                sequence = next;
+                break;
+            }
+        }
+        slots.set((int) sequence & mask, new TaskChangeEvent(sequence, type, taskId, taskName, taskDescription));
+        published.increment();
+    }
+
+    private static long minimumSequence(Subscription[] current, long minimum) {
+        for (Subscription subscription : current) {
+            minimum = Math.min(minimum, subscription.sequence.get());
+        }
+        return minimum;
+    }
+
+    /**
+     * One subscriber's position in the ring and the thread delivering to it.
+     */
+    final class Subscription implements AutoCloseable {
+        private final Consumer<List<TaskChangeEvent>> subscriber;
+        private final int maxBatch;
+        private final AtomicLong sequence;
+        private final LongAdder delivered = new LongAdder();
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private Subscription(Consumer<List<TaskChangeEvent>> subscriber, int maxBatch, long startSequence) {
+            this.subscriber = subscriber;
+            this.maxBatch = maxBatch;
+            this.sequence = new AtomicLong(startSequence);
+            this.thread = new Thread(this::run, "task-change-feed");
+            thread.setDaemon(true);
+        }
+
+        /**
+         * Collects the run of published events after the last consumed one, delivers it, then frees the slots. Spins briefly when the ring
+         * is empty and then parks, since writers never wake subscribers.
+         */
+        private void run() {
+            List<TaskChangeEvent> batch = new ArrayList<>(Math.min(maxBatch, slots.length()));
+            List<TaskChangeEvent> view = Collections.unmodifiableList(batch);
+            long next = sequence.get() + 1;
+            int idleSpins = 0;
+            while (running) {
+                while (batch.size() < maxBatch) {
+                    TaskChangeEvent event = slots.get((int) next & mask);
+                    if (event == null || event.getSequence() != next) {
+                        break;
+                    }
+                    batch.add(event);
+                    next++;
+                }
+                if (batch.isEmpty()) {
+                    if (++idleSpins < SUBSCRIBER_SPINS) {
+                        Thread.onSpinWait();
+                    } else {
+                        LockSupport.parkNanos(SUBSCRIBER_PARK_NANOS);
+                    }
+                    continue;
+                }
+                idleSpins = 0;
+                try {
+                    subscriber.accept(view);
+                } catch (RuntimeException e) {
+                    System.err.println("Task change subscriber failed: " + e);
+                }
+                delivered.add(batch.size());
+                batch.clear();
+                sequence.lazySet(next - 1);
+            }
+        }
+
+        /**
+         * @return long Sequence of the last event this subscriber has consumed.
+         */
+        long getSequence() {
+            return sequence.get();
+        }
+
+        /**
+         * @return long Events delivered so far.
+         */
+        long getDeliveredCount() {
+            return delivered.sum();
+        }
+
+        /**
+         * @return long Published events this subscriber has not consumed yet.
+         */
+        long getLag() {
+            return Math.max(0, cursor.get() - sequence.get());
+        }
+
+        /**
+         * Stops delivery after the current batch and releases the subscriber's hold on the ring, so writers no longer wait for it.
+         */
+        @Override
+        public void close() {
+            running = false;
+            unsubscribe(this);
+            LockSupport.unpark(thread);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.jeremiahboothe;
+
+/**
+ * Hook for components that must see every change TaskService makes, such as the write-ahead log. Each call happens inside the map's per-Id
+ * atomic section, after validation and before the change is applied, so calls for the same Id arrive in the order the changes happen and a
+ * listener that throws cancels the change. Calls for different Ids may arrive concurrently. Implementations must be quick and must not call
+ * back into TaskService.
+ */
+interface TaskChangeListener {
+
+    /**
+     * @param task Task about to be added.
+     */
+    void taskAdded(Task task);
+
+    /**
+     * @param task Task about to be renamed, still holding its old name.
+     * @param taskName New Task Name.
+     */
+    void taskNameUpdated(Task task, String taskName);
+
+    /**
+     * @param task Task about to get a new description, still holding its old one.
+     * @param taskDescription New Task Description.
+     */
+    void taskDescriptionUpdated(Task task, String taskDescription);
+
+    /**
+     * @param task Task about to be deleted.
+     */
+    void taskDeleted(Task task);
+}
@@ -0,0 +1,295 @@
+package org.jeremiahboothe;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Client for TaskServer over one connection. The async methods send the request and return at once, so a caller can keep many requests in
+ * flight on the connection; a reader thread matches the in-order responses to their futures. The blocking methods wait on the same futures.
+ * Safe to share between threads. Writers and the reader never share a lock, so a writer blocked on a full socket cannot stop the responses
+ * that would drain it. Results mirror the exception-free TaskService methods: a TaskStatus, or for a get the VersionedTask or null.
+ */
+public final class TaskClient implements AutoCloseable {
+    private static final int RESPONSE_HEADER_BYTES = 5;
+
+    private final SocketChannel channel;
+    private final ByteBuffer requestBuffer = ByteBuffer.allocate(TaskProtocol.LENGTH_BYTES + TaskProtocol.MAX_FRAME_LENGTH);
+    private final Queue<PendingRequest> pending = new ConcurrentLinkedQueue<>();
+    private final Object writeLock = new Object();
+    private final Thread reader;
+    private int nextRequestId;
+    private volatile IOException failure;
+
+    private TaskClient(SocketChannel channel) {
+        this.channel = channel;
+        this.reader = new Thread(this::readResponses, "task-client-reader");
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    /**
+     * @param host Server host.
+     * @param port Server port.
+     * @return TaskClient Connected client, close it when done.
+     * @throws IOException When the connection fails.
+     */
+    public static TaskClient connect(String host, int port) throws IOException {
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        return new TaskClient(channel);
+    }
+
+    /**
+     * @return CompletableFuture Completes with OK, ALREADY_EXISTS or INVALID, or exceptionally when the connection fails.
+     */
+    public CompletableFuture<TaskStatus> addTaskAsync(String taskId, String taskName, String taskDescription) {
+        return send(TaskProtocol.ADD, taskId, TaskProtocol.utf8(taskName), TaskProtocol.utf8(taskDescription), 2).status;
+    }
+
+    /**
+     * @return CompletableFuture Completes with a copy of the task, or null when the Id is absent.
+     */
+    public CompletableFuture<VersionedTask> getTaskAsync(String taskId) {
+        return send(TaskProtocol.GET, taskId, null, null, 0).task;
+    }
+
+    /**
+     * @return CompletableFuture Completes with OK, NOT_FOUND or INVALID.
+     */
+    public CompletableFuture<TaskStatus> updateTaskNameAsync(String taskId, String taskName) {
+        return send(TaskProtocol.UPDATE_NAME, taskId, TaskProtocol.utf8(taskName), null, 1).status;
+    }
+
+    /**
+     * @return CompletableFuture Completes with OK, NOT_FOUND or INVALID.
+     */
+    public CompletableFuture<TaskStatus> updateTaskDescriptionAsync(String taskId, String taskDescription) {
+        return send(TaskProtocol.UPDATE_DESCRIPTION, taskId, TaskProtocol.utf8(taskDescription), null, 1).status;
+    }
+
+    /**
+     * @return CompletableFuture Completes with OK or NOT_FOUND.
+     */
+    public CompletableFuture<TaskStatus> deleteTaskAsync(String taskId) {
+        return send(TaskProtocol.DELETE, taskId, null, null, 0).status;
+    }
+
+    /**
+     * @return TaskStatus OK, ALREADY_EXISTS or INVALID.
+     * @throws UncheckedIOException When the connection fails.
+     */
+    public TaskStatus addTask(String taskId, String taskName, String taskDescription) {
+        return await(addTaskAsync(taskId, taskName, taskDescription));
+    }
+
+    /**
+     * @return VersionedTask Copy of the task, or null when the Id is absent.
+     * @throws UncheckedIOException When the connection fails.
+     */
+    public VersionedTask getTask(String taskId) {
+        return await(getTaskAsync(taskId));
+    }
+
+    /**
+     * @return TaskStatus OK, NOT_FOUND or INVALID.
+     * @throws UncheckedIOException When the connection fails.
+     */
+    public TaskStatus updateTaskName(String taskId, String taskName) {
+        return await(updateTaskNameAsync(taskId, taskName));
+    }
+
+    /**
+     * @return TaskStatus OK, NOT_FOUND or INVALID.
+     * @throws UncheckedIOException When the connection fails.
+     */
+    public TaskStatus updateTaskDescription(String taskId, String taskDescription) {
+        return await(updateTaskDescriptionAsync(taskId, taskDescription));
+    }
+
+    /**
+     * @return TaskStatus OK or NOT_FOUND.
+     * @throws UncheckedIOException When the connection fails.
+     */
+    public TaskStatus deleteTask(String taskId) {
+        return await(deleteTaskAsync(taskId));
+    }
+
+    /**
+     * Closes the connection. Requests still in flight complete exceptionally.
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Closing anyway.
+        }
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Encodes and writes one request, queueing its future under the write lock so the queue stays in wire order.
+     * @param fieldCount Number of string fields after the Id that this opcode carries.
+     */
+    private PendingRequest send(byte opcode, String taskId, byte[] first, byte[] second, int fieldCount) {
+        synchronized (writeLock) {
+            return sendLocked(opcode, taskId, first, second, fieldCount);
+        }
+    }
+
+    private PendingRequest sendLocked(byte opcode, String taskId, byte[] first, byte[] second, int fieldCount) {
+        PendingRequest request = new PendingRequest(opcode, nextRequestId++, taskId);
+        if (failure != null) {
+            request.fail(failure);
+            return request;
+        }
+        byte[] id = TaskProtocol.utf8(taskId);
+        int length = 5 + TaskProtocol.encodedLength(id)
+                + (fieldCount > 0 ? TaskProtocol.encodedLength(first) : 0)
+                + (fieldCount > 1 ? TaskProtocol.encodedLength(second) : 0);
+        if (length > TaskProtocol.MAX_FRAME_LENGTH) {
+            throw new IllegalArgumentException("Request of " + length + " bytes is larger than a frame");
+        }
+        requestBuffer.clear();
+        requestBuffer.putInt(length).put(opcode).putInt(request.requestId);
+        TaskProtocol.putString(requestBuffer, id);
+        if (fieldCount > 0) {
+            TaskProtocol.putString(requestBuffer, first);
+        }
+        if (fieldCount > 1) {
+            TaskProtocol.putString(requestBuffer, second);
+        }
+        requestBuffer.flip();
+        pending.add(request);
+        try {
+            while (requestBuffer.hasRemaining()) {
+                channel.write(requestBuffer);
+            }
+        } catch (IOException e) {
+            failAll(e);
+        }
+        return request;
+    }
+
+    /**
+     * Reader thread body: completes pending requests in order until the connection ends, then fails whatever is left.
+     */
+    private void readResponses() {
+        ByteBuffer in = ByteBuffer.allocate(TaskProtocol.LENGTH_BYTES + TaskProtocol.MAX_FRAME_LENGTH);
+        try {
+            while (true) {
+                if (channel.read(in) < 0) {
+                    throw new EOFException("Task server closed the connection");
+                }
+                in.flip();
+                while (in.remaining() >= TaskProtocol.LENGTH_BYTES) {
+                    int length = in.getInt(in.position());
+                    TaskProtocol.checkFrameLength(length, RESPONSE_HEADER_BYTES);
+                    if (in.remaining() < TaskProtocol.LENGTH_BYTES + length) {
+                        break;
+                    }
+                    int frameEnd = in.position() + TaskProtocol.LENGTH_BYTES + length;
+                    int limit = in.limit();
+                    in.position(in.position() + TaskProtocol.LENGTH_BYTES).limit(frameEnd);
+                    complete(in);
+                    in.limit(limit).position(frameEnd);
+                }
+                in.compact();
+            }
+        } catch (IOException e) {
+            failAll(e);
+        }
+    }
+
+    private void complete(ByteBuffer in) throws ProtocolException {
+        int requestId = in.getInt();
+        TaskStatus status = TaskProtocol.status(in.get());
+        PendingRequest request = pending.poll();
+        if (request == null || request.requestId != requestId) {
+            throw new ProtocolException("Response " + requestId + " does not match the oldest request");
+        }
+        if (request.opcode != TaskProtocol.GET) {
+            request.status.complete(status);
+        } else if (status == TaskStatus.OK) {
+            int version = in.getInt();
+            String taskName = TaskProtocol.getString(in);
+            String taskDescription = TaskProtocol.getString(in);
+            request.task.complete(new VersionedTask(request.taskId, taskName, taskDescription, version));
+        } else {
+            request.task.complete(null);
+        }
+    }
+
+    /**
+     * Records the first failure, closes the channel and fails everything queued. The channel closes before the queue drains, so a send
+     * racing with this either sees the failure, is drained, or fails its write and calls this again.
+     */
+    private void failAll(IOException e) {
+        synchronized (pending) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Already failing.
+        }
+        PendingRequest request;
+        while ((request = pending.poll()) != null) {
+            request.fail(failure);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw new UncheckedIOException((IOException) e.getCause());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A request on the wire waiting for its response. Gets complete task, everything else completes status.
+     */
+    private static final class PendingRequest {
+        private final byte opcode;
+        private final int requestId;
+        private final String taskId;
+        private final CompletableFuture<TaskStatus> status;
+        private final CompletableFuture<VersionedTask> task;
+
+        PendingRequest(byte opcode, int requestId, String taskId) {
+            this.opcode = opcode;
+            this.requestId = requestId;
+            this.taskId = taskId;
+            this.status = opcode == TaskProtocol.GET ? null : new CompletableFuture<>();
+            this.task = opcode == TaskProtocol.GET ? new CompletableFuture<>() : null;
+        }
+
+        void fail(IOException e) {
+            if (status != null) {
+                status.completeExceptionally(e);
+            } else {
+                task.completeExceptionally(e);
+            }
+        }
+    }
+}
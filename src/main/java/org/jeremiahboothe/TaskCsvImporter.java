@@ -0,0 +1,256 @@
+package org.jeremiahboothe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Streams a taskId,taskName,taskDescription CSV file into a TaskService. The file is memory-mapped one window at a time, each window is cut into
+ * line-aligned chunks, and the chunks are parsed and added in parallel on a ForkJoinPool through TaskService.addTasks, so every row goes through
+ * the same validation as createNewTaskToAddToMap. Only one window's rows are ever on the heap, whatever the file size.
+ * Fields follow @CsvSource rules: surrounding spaces are trimmed, an empty unquoted field is null, and double quotes allow commas inside a field.
+ */
+class TaskCsvImporter {
+    private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    private static final int FIELD_COUNT = 3;
+
+    private final TaskService taskService;
+    private final ForkJoinPool pool;
+    private final int windowSize;
+    private final int chunkSize;
+
+    /**
+     * Importer using the common pool and 64 MB mapped windows.
+     * @param taskService Service to feed.
+     */
+    TaskCsvImporter(TaskService taskService) {
+        this(taskService, ForkJoinPool.commonPool(), DEFAULT_WINDOW_SIZE, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param taskService Service to feed.
+     * @param pool Pool the chunks are parsed on.
+     * @param windowSize Bytes mapped at once, must hold at least one full line.
+     * @param chunkSize Target bytes per parallel chunk.
+     */
+    TaskCsvImporter(TaskService taskService, ForkJoinPool pool, int windowSize, int chunkSize) {
+        if (windowSize <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("Window and chunk sizes must be positive!");
+        }
+        this.taskService = taskService;
+        this.pool = pool;
+        this.windowSize = windowSize;
+        this.chunkSize = Math.min(chunkSize, windowSize);
+    }
+
+    /**
+     * Imports every row of the file, rows that fail validation or repeat an Id are counted and skipped.
+     * @param path CSV file to read.
+     * @return ImportReport Row counts and throughput.
+     * @throws IOException When the file cannot be read or a single line does not fit in one window.
+     */
+    ImportReport importFile(Path path) throws IOException {
+        ImportReport report = new ImportReport();
+        long startNanos = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long position = 0;
+            while (position < fileSize) {
+                long mapSize = Math.min(windowSize, fileSize - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, mapSize);
+                boolean lastWindow = position + mapSize == fileSize;
+
+                int usable = lastWindow ? (int) mapSize : lastLineEnd(window, (int) mapSize);
+                if (usable == 0) {
+                    throw new IOException("Line at byte " + position + " is longer than the " + windowSize + " byte import window");
+                }
+                importWindow(window, usable, report);
+                position += usable;
+            }
+        }
+
+        report.setElapsedNanos(System.nanoTime() - startNanos);
+        return report;
+    }
+
+    /**
+     * Cuts the window into line-aligned chunks, runs them in parallel and waits for all of them before the next window is mapped.
+     */
+    private void importWindow(ByteBuffer window, int usable, ImportReport report) {
+        List<ForkJoinTask<?>> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < usable) {
+            int end = start + chunkSize >= usable ? usable : lastLineEnd(window, start + chunkSize);
+            if (end <= start) {
+                end = nextLineEnd(window, start + chunkSize, usable);
+            }
+            int chunkStart = start;
+            int chunkEnd = end;
+            chunks.add(pool.submit(() -> importChunk(window, chunkStart, chunkEnd, report)));
+            start = end;
+        }
+        for (ForkJoinTask<?> chunk : chunks) {
+            chunk.join();
+        }
+    }
+
+    /**
+     * Parses one chunk and hands its rows to addTasks as a single PARTIAL batch.
+     */
+    private void importChunk(ByteBuffer window, int start, int end, ImportReport report) {
+        List<TaskRow> rows = new ArrayList<>();
+        long rowsRead = 0;
+        long malformed = 0;
+        String[] fields = new String[FIELD_COUNT];
+
+        int lineStart = start;
+        while (lineStart < end) {
+            int lineEnd = nextLineEnd(window, lineStart, end);
+            int contentEnd = lineEnd;
+            if (contentEnd > lineStart && window.get(contentEnd - 1) == '\n') {
+                contentEnd--;
+            }
+            if (contentEnd > lineStart && window.get(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+            if (!isBlank(window, lineStart, contentEnd)) {
+                rowsRead++;
+                if (parseLine(window, lineStart, contentEnd, fields)) {
+                    rows.add(new TaskRow(fields[0], fields[1], fields[2]));
+                } else {
+                    malformed++;
+                }
+            }
+            lineStart = lineEnd;
+        }
+
+        long invalid = 0;
+        long duplicate = 0;
+        BulkAddResult result = taskService.addTasks(rows, BulkCommitPolicy.PARTIAL);
+        for (BulkAddResult.Rejection rejection : result.getRejections()) {
+            if (rejection.getReason() == BulkAddResult.Reason.INVALID) {
+                invalid++;
+            } else {
+                duplicate++;
+            }
+        }
+        report.add(rowsRead, result.getAddedCount(), invalid, duplicate, malformed);
+    }
+
+    /**
+     * Splits one line into exactly three fields.
+     * @return boolean False when the line has the wrong number of fields or an unterminated quote.
+     */
+    private boolean parseLine(ByteBuffer window, int start, int end, String[] fields) {
+        int position = start;
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            while (position < end && window.get(position) == ' ') {
+                position++;
+            }
+            if (position < end && window.get(position) == '"') {
+                position = parseQuotedField(window, position + 1, end, fields, field);
+                if (position < 0) {
+                    return false;
+                }
+                while (position < end && window.get(position) == ' ') {
+                    position++;
+                }
+            } else {
+                int fieldStart = position;
+                while (position < end && window.get(position) != ',') {
+                    position++;
+                }
+                int fieldEnd = position;
+                while (fieldEnd > fieldStart && window.get(fieldEnd - 1) == ' ') {
+                    fieldEnd--;
+                }
+                fields[field] = fieldEnd == fieldStart ? null : decode(window, fieldStart, fieldEnd);
+            }
+
+            boolean lastField = field == FIELD_COUNT - 1;
+            if (lastField) {
+                return position == end;
+            }
+            if (position >= end || window.get(position) != ',') {
+                return false;
+            }
+            position++;
+        }
+        return false;
+    }
+
+    /**
+     * Reads a quoted field, a doubled quote inside it is a literal quote.
+     * @return int Position just after the closing quote, or -1 when the quote is never closed.
+     */
+    private int parseQuotedField(ByteBuffer window, int start, int end, String[] fields, int field) {
+        byte[] bytes = new byte[end - start];
+        int length = 0;
+        int position = start;
+        while (position < end) {
+            byte current = window.get(position);
+            if (current == '"') {
+                if (position + 1 < end && window.get(position + 1) == '"') {
+                    bytes[length++] = '"';
+                    position += 2;
+                    continue;
+                }
+                fields[field] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+                return position + 1;
+            }
+            bytes[length++] = current;
+            position++;
+        }
+        return -1;
+    }
+
+    private static String decode(ByteBuffer window, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        window.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isBlank(ByteBuffer window, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte current = window.get(i);
+            if (current != ' ' && current != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return int Position just after the next newline at or after from, or limit when there is none.
+     */
+    private static int nextLineEnd(ByteBuffer window, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (window.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * @return int Position just after the last newline before limit, or 0 when there is none.
+     */
+    private static int lastLineEnd(ByteBuffer window, int limit) {
+        for (int i = limit - 1; i >= 0; i--) {
+            if (window.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,60 @@
+package org.jeremiahboothe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+
+/**
+ * Page by page walk over a TaskService, opened with TaskService.openCursor. The cursor itself is the continuation: each nextPage picks up where
+ * the last one stopped, with the weakly consistent guarantees of forEachTask, so it is safe while other threads add, update and delete.
+ * A cursor is for one thread at a time.
+ */
+final class TaskCursor {
+    private final Spliterator<Task> source;
+    private boolean exhausted;
+    private long returnedCount;
+
+    /**
+     * @param source Tasks to page through.
+     */
+    TaskCursor(Spliterator<Task> source) {
+        this.source = source;
+    }
+
+    /**
+     * @param pageSize Most tasks to return.
+     * @return List Up to pageSize tasks, fewer only on the last page, empty once the walk is done.
+     */
+    List<Task> nextPage(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1!");
+        }
+        if (exhausted) {
+            return Collections.emptyList();
+        }
+        List<Task> page = new ArrayList<>(Math.min(pageSize, 1024));
+        while (page.size() < pageSize) {
+            if (!source.tryAdvance(page::add)) {
+                exhausted = true;
+                break;
+            }
+        }
+        returnedCount += page.size();
+        return page;
+    }
+
+    /**
+     * @return boolean False once a page came back short, true while more tasks may follow.
+     */
+    boolean hasMore() {
+        return !exhausted;
+    }
+
+    /**
+     * @return long Tasks returned so far.
+     */
+    long getReturnedCount() {
+        return returnedCount;
+    }
+}
@@ -0,0 +1,305 @@
+package org.jeremiahboothe;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Time to live for tasks, turned on with TaskService.enableExpiry. Tasks added with a TTL are deleted once it runs out by a reaper thread, so
+ * short-lived tasks no longer pile up until someone deletes them.
+ * Request threads never touch the timers: adding with a TTL, updating and deleting only append an event to a lock-free queue, from inside the
+ * map's per-Id atomic section, so events for one Id queue in the order the changes happened. The reaper owns everything else. Once per tick it
+ * applies the queued events and advances a hierarchical timer wheel: 4 levels of 64 slots, each level's slot as wide as the whole level below
+ * it, so a TTL of about 16.7 million ticks fits, and longer ones wait in the top level and are placed again when it comes round. Scheduling,
+ * cancelling and refreshing a timer is O(1), and a timer moves down at most 3 times before it fires, so expiry costs O(1) per task whatever
+ * the number of tasks. Expired tasks go through the normal delete path, so listeners such as the write-ahead log see them.
+ * A task expires at most one tick late. An update refreshes the TTL when refreshOnUpdate is set, and setTaskTtl changes it explicitly.
+ * TTLs live only in memory: the write-ahead log and snapshots do not record them, so tasks recovered after a restart never expire.
+ */
+final class TaskExpiry implements TaskChangeListener, AutoCloseable {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN_TICKS = 1L << (SLOT_BITS * LEVELS);
+
+    private final TaskService taskService;
+    private final long tickNanos;
+    private final boolean refreshOnUpdate;
+    private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+    private final Map<String, Timer> timers = new HashMap<>();
+    private final Timer[][] wheel = new Timer[LEVELS][SLOTS];
+    private final long origin = System.nanoTime();
+    private final LongAdder expired = new LongAdder();
+    private final Thread reaper;
+    private volatile int scheduled;
+    private volatile boolean running = true;
+    private long currentTick;
+
+    /**
+     * @param taskService Service whose tasks expire.
+     * @param tickMillis Resolution of the wheel.
+     * @param refreshOnUpdate True to restart a task's TTL whenever its name or description changes.
+     */
+    TaskExpiry(TaskService taskService, long tickMillis, boolean refreshOnUpdate) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("Expiry tick must be at least 1 ms!");
+        }
+        this.taskService = taskService;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.refreshOnUpdate = refreshOnUpdate;
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Timer sentinel = new Timer(null, null, 0);
+                sentinel.previous = sentinel;
+                sentinel.next = sentinel;
+                wheel[level][slot] = sentinel;
+            }
+        }
+        this.reaper = new Thread(this::run, "task-expiry");
+        reaper.setDaemon(true);
+    }
+
+    void start() {
+        reaper.start();
+    }
+
+    /**
+     * Queues a new TTL for the task. Called by TaskService inside the task's atomic section.
+     * @param task Task that expires.
+     * @param ttlMillis Time to live from now, 0 or less removes any TTL.
+     */
+    void schedule(Task task, long ttlMillis) {
+        events.add(new Event(ttlMillis > 0 ? Event.SCHEDULE : Event.CANCEL, task, System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+    }
+
+    @Override
+    public void taskAdded(Task task) {
+        // TTLs arrive through schedule, a plain add has none.
+    }
+
+    @Override
+    public void taskNameUpdated(Task task, String taskName) {
+        events.add(new Event(Event.UPDATE, task, System.nanoTime(), 0));
+    }
+
+    @Override
+    public void taskDescriptionUpdated(Task task, String taskDescription) {
+        events.add(new Event(Event.UPDATE, task, System.nanoTime(), 0));
+    }
+
+    /**
+     * Deletes cancel the timer, except the reaper's own, whose timer is already gone.
+     */
+    @Override
+    public void taskDeleted(Task task) {
+        if (Thread.currentThread() != reaper) {
+            events.add(new Event(Event.CANCEL, task, 0, 0));
+        }
+    }
+
+    /**
+     * @return long Tasks deleted because their TTL ran out.
+     */
+    long getExpiredCount() {
+        return expired.sum();
+    }
+
+    /**
+     * @return int Tasks with a TTL, as of the last tick. Events still queued are not counted yet.
+     */
+    int getScheduledCount() {
+        return scheduled;
+    }
+
+    /**
+     * @return int Events queued for the reaper and not applied yet. Counting walks the queue, so it is O(n).
+     */
+    int getPendingEventCount() {
+        return events.size();
+    }
+
+    /**
+     * Unregisters from the service, which then has expiry off, and stops the reaper. Tasks whose TTL has not run out yet are kept and no
+     * longer expire.
+     */
+    @Override
+    public void close() {
+        taskService.expiryClosed(this);
+        running = false;
+        LockSupport.unpark(reaper);
+        if (reaper.isAlive() && reaper != Thread.currentThread()) {
+            try {
+                reaper.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        events.clear();
+    }
+
+    private void run() {
+        List<Timer> due = new ArrayList<>();
+        while (running) {
+            applyEvents();
+            advance((System.nanoTime() - origin) / tickNanos, due);
+            scheduled = timers.size();
+            for (Timer timer : due) {
+                try {
+                    if (taskService.expireTask(timer.taskId, timer.task)) {
+                        expired.increment();
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Task expiry failed for " + timer.taskId + ": " + e);
+                }
+            }
+            due.clear();
+            LockSupport.parkNanos(tickNanos);
+        }
+    }
+
+    private void applyEvents() {
+        Event event;
+        while ((event = events.poll()) != null) {
+            String taskId = event.task.getTaskId();
+            Timer timer = timers.get(taskId);
+            if (event.kind == Event.SCHEDULE) {
+                if (timer == null) {
+                    timer = new Timer(taskId, event.task, event.ttlNanos);
+                    timers.put(taskId, timer);
+                } else {
+                    unlink(timer);
+                    timer.task = event.task;
+                    timer.ttlNanos = event.ttlNanos;
+                }
+                timer.deadline = event.time + event.ttlNanos;
+                place(timer);
+            } else if (timer == null) {
+                continue;
+            } else if (event.kind == Event.CANCEL) {
+                unlink(timer);
+                timers.remove(taskId);
+            } else {
+                // Stores that hand out copies compare values when removing, so keep the copy that now holds the new values.
+                timer.task = event.task;
+                if (refreshOnUpdate) {
+                    unlink(timer);
+                    timer.deadline = event.time + timer.ttlNanos;
+                    place(timer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the wheel to nowTick, one tick at a time while timers are pending. At each tick, levels whose slot boundary was crossed hand
+     * their timers down, top level first, then the level 0 slot for the tick fires.
+     * @param nowTick Ticks since the wheel started.
+     * @param due Receives the timers that fired.
+     */
+    private void advance(long nowTick, List<Timer> due) {
+        while (currentTick < nowTick) {
+            if (timers.isEmpty()) {
+                currentTick = nowTick;
+                return;
+            }
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    Timer sentinel = wheel[level][(int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK];
+                    while (sentinel.next != sentinel) {
+                        Timer timer = sentinel.next;
+                        unlink(timer);
+                        place(timer);
+                    }
+                }
+            }
+            Timer sentinel = wheel[0][(int) currentTick & SLOT_MASK];
+            while (sentinel.next != sentinel) {
+                Timer timer = sentinel.next;
+                unlink(timer);
+                timers.remove(timer.taskId);
+                due.add(timer);
+            }
+        }
+    }
+
+    /**
+     * Links the timer into the lowest level whose span reaches its deadline. A deadline already past lands in the next tick's slot.
+     */
+    private void place(Timer timer) {
+        long deadlineTick = Math.max(ceilDiv(timer.deadline - origin, tickNanos), currentTick + 1);
+        long delta = deadlineTick - currentTick;
+        if (delta >= MAX_SPAN_TICKS) {
+            deadlineTick = currentTick + MAX_SPAN_TICKS - 1;
+            delta = MAX_SPAN_TICKS - 1;
+        }
+        int level = 0;
+        while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        Timer sentinel = wheel[level][(int) (deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK];
+        timer.previous = sentinel.previous;
+        timer.next = sentinel;
+        sentinel.previous.next = timer;
+        sentinel.previous = timer;
+    }
+
+    private static void unlink(Timer timer) {
+        if (timer.next != null) {
+            timer.previous.next = timer.next;
+            timer.next.previous = timer.previous;
+            timer.previous = null;
+            timer.next = null;
+        }
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return value <= 0 ? 0 : (value + divisor - 1) / divisor;
+    }
+
+    /**
+     * A task's place in the wheel, linked into one slot's circular list. Only the reaper reads or writes it.
+     */
+    private static final class Timer {
+        private final String taskId;
+        private Task task;
+        private long ttlNanos;
+        private long deadline;
+        private Timer previous;
+        private Timer next;
+
+        Timer(String taskId, Task task, long ttlNanos) {
+            this.taskId = taskId;
+            this.task = task;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+
+    /**
+     * A change handed from a request thread to the reaper.
+     */
+    private static final class Event {
+        private static final byte SCHEDULE = 0;
+        private static final byte UPDATE = 1;
+        private static final byte CANCEL = 2;
+
+        private final byte kind;
+        private final Task task;
+        private final long time;
+        private final long ttlNanos;
+
+        Event(byte kind, Task task, long time, long ttlNanos) {
+            this.kind = kind;
+            this.task = task;
+            this.time = time;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package org.jeremiahboothe;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Writes every task of a TaskService to a file or channel through one reused 1 MB buffer, so exporting millions of tasks costs a handful of
+ * large writes instead of three console lines per task. The walk is the weakly consistent one of TaskService.spliterator, safe during writes.
+ * CSV output is what TaskCsvImporter reads back, so a task with a line break in it fails a CSV export. BINARY output is a header, then per task a marker byte and three length-prefixed UTF-8 fields,
+ * then an end marker and the task count, read back by readBinary.
+ */
+final class TaskExporter {
+    /**
+     * Output formats.
+     */
+    enum Format {
+        CSV, BINARY
+    }
+
+    static final int BINARY_MAGIC = 0x54534B58;
+    static final int BINARY_VERSION = 1;
+
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final int MAX_RECORD_BYTES = 1 + 6 * (Task.TASK_ID_MAX_LENGTH + Task.TASK_NAME_MAX_LENGTH + Task.TASK_DESCRIPTION_MAX_LENGTH) + 16;
+    private static final byte RECORD = 1;
+    private static final byte END = 0;
+
+    private final WritableByteChannel channel;
+    private final Format format;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private long exportedCount;
+
+    private TaskExporter(WritableByteChannel channel, Format format) {
+        this.channel = channel;
+        this.format = format;
+    }
+
+    /**
+     * Exports into path, replacing the file if it exists.
+     * @param taskService Service to export.
+     * @param path File to write.
+     * @param format CSV or BINARY.
+     * @return long Number of tasks written.
+     * @throws IOException When writing fails.
+     */
+    static long export(TaskService taskService, Path path, Format format) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return export(taskService, channel, format);
+        }
+    }
+
+    /**
+     * Exports into an open channel, which is left open.
+     * @param taskService Service to export.
+     * @param channel Channel to write.
+     * @param format CSV or BINARY.
+     * @return long Number of tasks written.
+     * @throws IOException When writing fails.
+     */
+    static long export(TaskService taskService, WritableByteChannel channel, Format format) throws IOException {
+        TaskExporter exporter = new TaskExporter(channel, format);
+        if (format == Format.BINARY) {
+            exporter.buffer.putInt(BINARY_MAGIC).putInt(BINARY_VERSION);
+        }
+        try {
+            taskService.spliterator().forEachRemaining(task -> {
+                try {
+                    exporter.write(task);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (format == Format.BINARY) {
+            exporter.ensureRoom(9);
+            exporter.buffer.put(END).putLong(exporter.exportedCount);
+        }
+        exporter.drain();
+        return exporter.exportedCount;
+    }
+
+    /**
+     * Writes one task from a seqlock snapshot, so a concurrent update never leaves a row with the old name and the new description.
+     */
+    private void write(Task task) throws IOException {
+        VersionedTask values = task.snapshot();
+        ensureRoom(MAX_RECORD_BYTES);
+        if (format == Format.CSV) {
+            requireSingleLine(task.getTaskId(), values.getTaskName());
+            requireSingleLine(task.getTaskId(), values.getTaskDescription());
+            putCsvField(task.getTaskId());
+            buffer.put((byte) ',');
+            putCsvField(values.getTaskName());
+            buffer.put((byte) ',');
+            putCsvField(values.getTaskDescription());
+            buffer.put((byte) '\n');
+        } else {
+            buffer.put(RECORD);
+            putBinaryField(task.getTaskId());
+            putBinaryField(values.getTaskName());
+            putBinaryField(values.getTaskDescription());
+        }
+        exportedCount++;
+    }
+
+    /**
+     * TaskCsvImporter ends a row at every newline, quoted or not, so a value holding one could not be read back.
+     * @throws IOException When value contains a newline.
+     */
+    private static void requireSingleLine(String taskId, String value) throws IOException {
+        if (value.indexOf('\n') >= 0) {
+            throw new IOException("Task Id: " + taskId + " has a line break, which CSV cannot carry; export it as BINARY");
+        }
+    }
+
+    /**
+     * Writes a field bare when TaskCsvImporter would read it back unchanged, otherwise in double quotes with inner quotes doubled. Empty values
+     * are quoted because an empty bare field reads back as null.
+     */
+    private void putCsvField(String value) {
+        if (!needsQuotes(value)) {
+            putUtf8(value);
+            return;
+        }
+        buffer.put((byte) '"');
+        if (isAscii(value)) {
+            for (int i = 0; i < value.length(); i++) {
+                char current = value.charAt(i);
+                if (current == '"') {
+                    buffer.put((byte) '"');
+                }
+                buffer.put((byte) current);
+            }
+        } else {
+            for (byte current : value.getBytes(StandardCharsets.UTF_8)) {
+                if (current == '"') {
+                    buffer.put((byte) '"');
+                }
+                buffer.put(current);
+            }
+        }
+        buffer.put((byte) '"');
+    }
+
+    private static boolean needsQuotes(String value) {
+        if (value.isEmpty() || value.charAt(0) == ' ' || value.charAt(value.length() - 1) == ' ') {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char current = value.charAt(i);
+            if (current == ',' || current == '"' || current == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void putBinaryField(String value) {
+        int lengthPosition = buffer.position();
+        buffer.putShort((short) 0);
+        putUtf8(value);
+        buffer.putShort(lengthPosition, (short) (buffer.position() - lengthPosition - 2));
+    }
+
+    /**
+     * ASCII is copied char by char without encoding; anything else goes through String.getBytes.
+     */
+    private void putUtf8(String value) {
+        if (isAscii(value)) {
+            for (int i = 0; i < value.length(); i++) {
+                buffer.put((byte) value.charAt(i));
+            }
+        } else {
+            buffer.put(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureRoom(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Reads a BINARY export, handing each task to the action.
+     * @param path File written by export with Format.BINARY.
+     * @param action Receives each task.
+     * @return long Number of tasks read.
+     * @throws IOException When the file is not a binary export, is cut short, or its count does not match.
+     */
+    static long readBinary(Path path, Consumer<Task> action) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_BYTES))) {
+            if (input.readInt() != BINARY_MAGIC || input.readInt() != BINARY_VERSION) {
+                throw new IOException(path + " is not a binary task export");
+            }
+            long count = 0;
+            try {
+                while (input.readByte() == RECORD) {
+                    action.accept(new Task(readField(input), readField(input), readField(input)));
+                    count++;
+                }
+                long expected = input.readLong();
+                if (expected != count) {
+                    throw new IOException(path + " holds " + count + " tasks but records " + expected);
+                }
+            } catch (EOFException e) {
+                throw new IOException(path + " is cut short after " + count + " tasks", e);
+            }
+            return count;
+        }
+    }
+
+    private static String readField(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[input.readUnsignedShort()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
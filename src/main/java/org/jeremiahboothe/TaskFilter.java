@@ -0,0 +1,115 @@
+package org.jeremiahboothe;
+
+import java.util.function.Predicate;
+
+/**
+ * Condition on a task's Id, name and description for TaskQuery. It takes the three values rather than a Task, so a query can test the live
+ * task's fields without copying it and test the copy it keeps again with the same filter. Build filters with the factories below and combine
+ * them with and, or and negate.
+ */
+@FunctionalInterface
+interface TaskFilter {
+    /**
+     * The task value a factory filter looks at.
+     */
+    enum Field {
+        ID, NAME, DESCRIPTION;
+
+        String of(String taskId, String taskName, String taskDescription) {
+            switch (this) {
+                case ID:
+                    return taskId;
+                case NAME:
+                    return taskName;
+                default:
+                    return taskDescription;
+            }
+        }
+    }
+
+    /**
+     * @return boolean True when the task passes.
+     */
+    boolean test(String taskId, String taskName, String taskDescription);
+
+    /**
+     * @param other Filter checked only when this one passes.
+     * @return TaskFilter Passes when both pass.
+     */
+    default TaskFilter and(TaskFilter other) {
+        return (taskId, taskName, taskDescription) -> test(taskId, taskName, taskDescription) && other.test(taskId, taskName, taskDescription);
+    }
+
+    /**
+     * @param other Filter checked only when this one fails.
+     * @return TaskFilter Passes when either passes.
+     */
+    default TaskFilter or(TaskFilter other) {
+        return (taskId, taskName, taskDescription) -> test(taskId, taskName, taskDescription) || other.test(taskId, taskName, taskDescription);
+    }
+
+    /**
+     * @return TaskFilter Passes when this one fails.
+     */
+    default TaskFilter negate() {
+        return (taskId, taskName, taskDescription) -> !test(taskId, taskName, taskDescription);
+    }
+
+    /**
+     * @return TaskFilter Passes every task.
+     */
+    static TaskFilter all() {
+        return (taskId, taskName, taskDescription) -> true;
+    }
+
+    /**
+     * @return TaskFilter Passes when the field equals value exactly.
+     */
+    static TaskFilter equalTo(Field field, String value) {
+        requireValue(value);
+        return (taskId, taskName, taskDescription) -> value.equals(field.of(taskId, taskName, taskDescription));
+    }
+
+    /**
+     * @return TaskFilter Passes when the field starts with prefix.
+     */
+    static TaskFilter startsWith(Field field, String prefix) {
+        requireValue(prefix);
+        return (taskId, taskName, taskDescription) -> field.of(taskId, taskName, taskDescription).startsWith(prefix);
+    }
+
+    /**
+     * @return TaskFilter Passes when the field contains text, case-sensitive.
+     */
+    static TaskFilter contains(Field field, String text) {
+        requireValue(text);
+        return (taskId, taskName, taskDescription) -> field.of(taskId, taskName, taskDescription).contains(text);
+    }
+
+    /**
+     * @return TaskFilter Passes when the field is between minLength and maxLength characters long, both inclusive.
+     */
+    static TaskFilter lengthBetween(Field field, int minLength, int maxLength) {
+        if (minLength > maxLength) {
+            throw new IllegalArgumentException("Minimum length must not exceed maximum length!");
+        }
+        return (taskId, taskName, taskDescription) -> {
+            int length = field.of(taskId, taskName, taskDescription).length();
+            return length >= minLength && length <= maxLength;
+        };
+    }
+
+    /**
+     * @param condition Any test on the field's value, it must be safe to call from several threads.
+     * @return TaskFilter Passes when condition accepts the field.
+     */
+    static TaskFilter matches(Field field, Predicate<String> condition) {
+        return (taskId, taskName, taskDescription) -> condition.test(field.of(taskId, taskName, taskDescription));
+    }
+
+    private static void requireValue(String value) {
+        if (value == null) {
+            throw new NullPointerException("Filter value must not be null!");
+        }
+    }
+}
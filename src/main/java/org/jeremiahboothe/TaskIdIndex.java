@@ -0,0 +1,214 @@
+package org.jeremiahboothe;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+
+/**
+ * Ordered index over Task Ids, turned on with TaskService.enableIdIndex. The Ids sit in a ConcurrentSkipListSet kept current as a
+ * TaskChangeListener, so range scans, keyset pagination and nearest-Id lookup cost O(log n) to find their start plus one step per Id read,
+ * instead of a full scan and sort of the map.
+ * Ids are in ID_ORDER: plain numbers such as "7", "42" and "100" first, in numeric order, then every other Id in String order. Results are
+ * read back through TaskService, and an Id whose task is gone is skipped.
+ * TaskService keeps the index as its last listener, so no listener after it can cancel an add or delete it has already taken in.
+ */
+final class TaskIdIndex implements TaskChangeListener {
+    /**
+     * Numeric-aware Id order. A plain number has only digits and no leading zero, so comparing two by length and then by characters is the
+     * same as comparing their values, with no parsing and no limit on length. "007" is not a plain number and sorts with the other Ids.
+     */
+    static final Comparator<String> ID_ORDER = (left, right) -> {
+        boolean leftNumber = isPlainNumber(left);
+        boolean rightNumber = isPlainNumber(right);
+        if (leftNumber != rightNumber) {
+            return leftNumber ? -1 : 1;
+        }
+        if (leftNumber && left.length() != right.length()) {
+            return Integer.compare(left.length(), right.length());
+        }
+        return left.compareTo(right);
+    };
+
+    private final TaskService taskService;
+    private final ConcurrentSkipListSet<String> ids = new ConcurrentSkipListSet<>(ID_ORDER);
+    private volatile ConcurrentHashMap<String, Boolean> backfillGuard = new ConcurrentHashMap<>();
+
+    TaskIdIndex(TaskService taskService) {
+        this.taskService = taskService;
+    }
+
+    @Override
+    public void taskAdded(Task task) {
+        ConcurrentHashMap<String, Boolean> guard = backfillGuard;
+        if (guard == null) {
+            ids.add(task.getTaskId());
+            return;
+        }
+        guard.compute(task.getTaskId(), (taskId, seen) -> {
+            ids.add(taskId);
+            return Boolean.TRUE;
+        });
+    }
+
+    /**
+     * Adds a task read by the walk in TaskService.enableIdIndex, unless a listener call for its Id came first. Until backfillDone, every
+     * listener call and backfill for an Id runs in that Id's compute on a guard map, so they are ordered. A listener call is always the newer
+     * news: the walk may have read the task before a delete, or before a delete and a re-add still in flight, so it is skipped, and a listener
+     * call after it simply overrides it.
+     * @param task Task the walk found.
+     */
+    void backfill(Task task) {
+        ConcurrentHashMap<String, Boolean> guard = backfillGuard;
+        if (guard == null) {
+            throw new IllegalStateException("Id index backfill already finished!");
+        }
+        guard.computeIfAbsent(task.getTaskId(), taskId -> {
+            ids.add(taskId);
+            return Boolean.FALSE;
+        });
+    }
+
+    /**
+     * Ends the backfill and drops the guard map; listener calls go straight to the skip list from now on.
+     */
+    void backfillDone() {
+        backfillGuard = null;
+    }
+
+    @Override
+    public void taskNameUpdated(Task task, String taskName) {
+    }
+
+    @Override
+    public void taskDescriptionUpdated(Task task, String taskDescription) {
+    }
+
+    @Override
+    public void taskDeleted(Task task) {
+        ConcurrentHashMap<String, Boolean> guard = backfillGuard;
+        if (guard == null) {
+            ids.remove(task.getTaskId());
+            return;
+        }
+        guard.compute(task.getTaskId(), (taskId, seen) -> {
+            ids.remove(taskId);
+            return Boolean.TRUE;
+        });
+    }
+
+    /**
+     * @param fromId First Id of the range, inclusive.
+     * @param toId Last Id of the range, inclusive.
+     * @param limit Most tasks to return.
+     * @return List Tasks with Ids from fromId through toId, in Id order.
+     * @throws IllegalArgumentException When fromId sorts after toId, or limit is negative.
+     */
+    List<Task> range(String fromId, String toId, int limit) {
+        requireId(fromId, "From Id");
+        requireId(toId, "To Id");
+        requireLimit(limit);
+        return collect(ids.subSet(fromId, true, toId, true), limit);
+    }
+
+    /**
+     * Keyset pagination: pass the last Id of one page to get the next, which stays correct while tasks are added and deleted between pages.
+     * @param afterId Last Id of the previous page, or null for the first page.
+     * @param pageSize Most tasks to return.
+     * @return List Tasks with Ids after afterId, in Id order; fewer than pageSize on the last page.
+     */
+    List<Task> page(String afterId, int pageSize) {
+        requireLimit(pageSize);
+        return collect(afterId == null ? ids : ids.tailSet(afterId, false), pageSize);
+    }
+
+    /**
+     * @param taskId Id to look near, present or not.
+     * @return String The greatest indexed Id at or before taskId, or null when there is none.
+     */
+    String floorId(String taskId) {
+        requireId(taskId, "Task Id");
+        return firstPresent(ids.headSet(taskId, true).descendingSet());
+    }
+
+    /**
+     * @param taskId Id to look near, present or not.
+     * @return String The least indexed Id at or after taskId, or null when there is none.
+     */
+    String ceilingId(String taskId) {
+        requireId(taskId, "Task Id");
+        return firstPresent(ids.tailSet(taskId, true));
+    }
+
+    /**
+     * Walks every task in Id order. Weakly consistent like TaskService.forEachTask: tasks added or deleted during the walk may or may not be seen.
+     * @param action Called with each task.
+     */
+    void forEachInOrder(Consumer<Task> action) {
+        for (String taskId : ids) {
+            Task task = taskService.getTaskById(taskId);
+            if (task != null) {
+                action.accept(task);
+            }
+        }
+    }
+
+    /**
+     * @return int Indexed Ids; counting it walks the skip list, so it is O(n).
+     */
+    int size() {
+        return ids.size();
+    }
+
+    private List<Task> collect(NavigableSet<String> view, int limit) {
+        List<Task> found = new ArrayList<>();
+        for (String taskId : view) {
+            if (found.size() >= limit) {
+                break;
+            }
+            Task task = taskService.getTaskById(taskId);
+            if (task != null) {
+                found.add(task);
+            }
+        }
+        return found;
+    }
+
+    private String firstPresent(NavigableSet<String> view) {
+        for (String taskId : view) {
+            if (taskService.getTaskById(taskId) != null) {
+                return taskId;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isPlainNumber(String taskId) {
+        int length = taskId.length();
+        if (length == 0 || (length > 1 && taskId.charAt(0) == '0')) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = taskId.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void requireId(String taskId, String what) {
+        if (taskId == null) {
+            throw new NullPointerException(what + " must not be null!");
+        }
+    }
+
+    private static void requireLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative!");
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.jeremiahboothe;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped StampedLocks over Task Ids, turned on with TaskService.enableTransactions. Every write to a task holds its Id's stripe for writing,
+ * a TaskTransaction holds the stripes of all its Ids at once, and consistent readers validate optimistic stamps on the stripes they read.
+ * Transactions and readers always take several stripes in ascending order, so they cannot deadlock, and ones whose Ids land on different
+ * stripes never wait for each other.
+ */
+final class TaskLockTable {
+    private static final int STRIPES = 256;
+    private static final int[] ALL_STRIPES = new int[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            ALL_STRIPES[i] = i;
+        }
+    }
+
+    private final StampedLock[] stripes = new StampedLock[STRIPES];
+
+    TaskLockTable() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new StampedLock();
+        }
+    }
+
+    /**
+     * @param taskId Id of a task, present or not.
+     * @return int Index of the stripe guarding that Id.
+     */
+    static int stripeOf(String taskId) {
+        int hash = taskId.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * @param taskIds Ids of tasks, repeats allowed.
+     * @return int[] Distinct stripes guarding those Ids, ascending.
+     */
+    static int[] stripesOf(Collection<String> taskIds) {
+        int[] found = new int[taskIds.size()];
+        int count = 0;
+        for (String taskId : taskIds) {
+            found[count++] = stripeOf(taskId);
+        }
+        Arrays.sort(found);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || found[distinct - 1] != found[i]) {
+                found[distinct++] = found[i];
+            }
+        }
+        return Arrays.copyOf(found, distinct);
+    }
+
+    /**
+     * Runs one single-task write while holding its Id's stripe.
+     * @param taskId Id being written.
+     * @param write The write.
+     * @return T What the write returned.
+     */
+    <T> T write(String taskId, Supplier<T> write) {
+        StampedLock lock = stripes[stripeOf(taskId)];
+        long stamp = lock.writeLock();
+        try {
+            return write.get();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @param held Stripes from stripesOf, locked for writing in that order.
+     * @return long[] Stamps to pass to unlockWrite.
+     */
+    long[] lockWrite(int[] held) {
+        long[] stamps = new long[held.length];
+        for (int i = 0; i < held.length; i++) {
+            stamps[i] = stripes[held[i]].writeLock();
+        }
+        return stamps;
+    }
+
+    void unlockWrite(int[] held, long[] stamps) {
+        for (int i = held.length - 1; i >= 0; i--) {
+            stripes[held[i]].unlockWrite(stamps[i]);
+        }
+    }
+
+    /**
+     * @param held Stripes from stripesOf, locked for reading in that order.
+     * @return long[] Stamps to pass to unlockRead.
+     */
+    long[] lockRead(int[] held) {
+        long[] stamps = new long[held.length];
+        for (int i = 0; i < held.length; i++) {
+            stamps[i] = stripes[held[i]].readLock();
+        }
+        return stamps;
+    }
+
+    void unlockRead(int[] held, long[] stamps) {
+        for (int i = held.length - 1; i >= 0; i--) {
+            stripes[held[i]].unlockRead(stamps[i]);
+        }
+    }
+
+    /**
+     * @return int[] Every stripe, ascending, for readers that must see no write in progress anywhere. Shared, do not change it.
+     */
+    static int[] allStripes() {
+        return ALL_STRIPES;
+    }
+
+    /**
+     * Starts an optimistic read of the stripes without blocking.
+     * @param held Stripes from stripesOf.
+     * @return long[] Stamps to pass to validate, or null when a stripe is being written right now.
+     */
+    long[] tryOptimisticRead(int[] held) {
+        long[] stamps = new long[held.length];
+        for (int i = 0; i < held.length; i++) {
+            stamps[i] = stripes[held[i]].tryOptimisticRead();
+            if (stamps[i] == 0) {
+                return null;
+            }
+        }
+        return stamps;
+    }
+
+    /**
+     * @param held Stripes passed to tryOptimisticRead.
+     * @param stamps Stamps it returned.
+     * @return boolean True when no stripe was written since, so everything read in between is one consistent view.
+     */
+    boolean validate(int[] held, long[] stamps) {
+        for (int i = 0; i < held.length; i++) {
+            if (!stripes[held[i]].validate(stamps[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,145 @@
+package org.jeremiahboothe;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Immutable point-in-time view of a TaskService's tasks, opened with TaskService.snapshot. Every read sees the tasks exactly as they were when
+ * the snapshot was taken, however many writes land afterwards, so a walk over it never fails with ConcurrentModificationException and never
+ * sees half of a batch of changes. Tasks come out as VersionedTask copies. Close it as soon as the walk is done: the writes made while it is
+ * open are held twice until then. Safe to share between threads.
+ */
+final class TaskMapSnapshot implements AutoCloseable {
+    private final SnapshotTaskStore store;
+    private final int size;
+    private final TaskStore base;
+    private volatile SnapshotTaskStore.Overlay[] view;
+
+    /**
+     * @param store Store to release the snapshot to.
+     * @param view Frozen overlays, newest first.
+     * @param base Frozen store below them.
+     * @param size Tasks in the view.
+     */
+    TaskMapSnapshot(SnapshotTaskStore store, SnapshotTaskStore.Overlay[] view, TaskStore base, int size) {
+        this.store = store;
+        this.view = view;
+        this.base = base;
+        this.size = size;
+    }
+
+    /**
+     * @param taskId Id to look up.
+     * @return VersionedTask The task as it was, or null when the Id was absent.
+     */
+    VersionedTask get(String taskId) {
+        Task task = SnapshotTaskStore.lookup(taskId, requireOpen(), base);
+        return task == null ? null : task.snapshot();
+    }
+
+    /**
+     * @return int Tasks in the snapshot, exact.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param action Action to run once per task in the snapshot.
+     */
+    void forEach(Consumer<VersionedTask> action) {
+        spliterator().forEachRemaining(action);
+    }
+
+    /**
+     * Splits by layer and then across the store below, like TaskStore.spliterator.
+     * @return Spliterator Tasks in the snapshot, IMMUTABLE and NONNULL.
+     */
+    Spliterator<VersionedTask> spliterator() {
+        return new CopyingSpliterator(SnapshotTaskStore.layeredSpliterator(requireOpen(), base));
+    }
+
+    /**
+     * @return Stream Sequential stream of the tasks in the snapshot.
+     */
+    Stream<VersionedTask> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * @return Stream Parallel stream of the tasks in the snapshot.
+     */
+    Stream<VersionedTask> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Starts a query over the snapshot, which sees exactly the tasks in it.
+     * @return TaskQuery New query matching every task until given a filter.
+     */
+    TaskQuery query() {
+        return new TaskQuery(() -> SnapshotTaskStore.layeredSpliterator(requireOpen(), base));
+    }
+
+    /**
+     * Releases the snapshot. The last open snapshot to close merges the writes held for it back into the store, so finish any walk first.
+     * Closing twice does nothing.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (view == null) {
+                return;
+            }
+            view = null;
+        }
+        store.release();
+    }
+
+    private SnapshotTaskStore.Overlay[] requireOpen() {
+        SnapshotTaskStore.Overlay[] current = view;
+        if (current == null) {
+            throw new IllegalStateException("Snapshot is closed!");
+        }
+        return current;
+    }
+
+    /**
+     * Hands out each frozen task as a VersionedTask.
+     */
+    private static final class CopyingSpliterator implements Spliterator<VersionedTask> {
+        private final Spliterator<Task> source;
+
+        CopyingSpliterator(Spliterator<Task> source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super VersionedTask> action) {
+            return source.tryAdvance(task -> action.accept(task.snapshot()));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super VersionedTask> action) {
+            source.forEachRemaining(task -> action.accept(task.snapshot()));
+        }
+
+        @Override
+        public Spliterator<VersionedTask> trySplit() {
+            Spliterator<Task> split = source.trySplit();
+            return split == null ? null : new CopyingSpliterator(split);
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return IMMUTABLE | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package org.jeremiahboothe;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Operation metrics for a TaskService, turned on with TaskService.enableMetrics. Every call and outcome is counted with a LongAdder, which
+ * stripes increments across cells so request threads do not contend. Reading the clock twice costs more than a map lookup, so latency is
+ * recorded for one call in every sampleInterval, picked at random per call, into a LatencyHistogram per operation.
+ */
+final class TaskMetrics implements TaskMetricsMXBean {
+    /**
+     * Operations that are counted and timed.
+     */
+    enum Operation {
+        ADD, BULK_ADD, GET, UPDATE_NAME, UPDATE_DESCRIPTION, COMPARE_AND_SET, DELETE
+    }
+
+    /**
+     * Start value for a call that is counted but not timed.
+     */
+    static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final TaskValidation[] VALIDATIONS = TaskValidation.values();
+
+    private final IntSupplier sizeGauge;
+    private final int sampleMask;
+    private final LongAdder[] calls = new LongAdder[OPERATIONS.length];
+    private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS.length];
+    private final LongAdder[] validationFailures = new LongAdder[VALIDATIONS.length];
+    private final LongAdder duplicateIdRejections = new LongAdder();
+    private final LongAdder missingIdDeletes = new LongAdder();
+    private final LongAdder missingIdUpdates = new LongAdder();
+    private final LongAdder missingIdGets = new LongAdder();
+    private final LongAdder versionConflicts = new LongAdder();
+    private final LongAdder expiredTasks = new LongAdder();
+    private volatile ObjectName objectName;
+
+    /**
+     * @param sizeGauge Reads the current task count.
+     * @param sampleInterval Time one call in this many, rounded up to a power of two. 1 times every call.
+     */
+    TaskMetrics(IntSupplier sizeGauge, int sampleInterval) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("Sample interval must be at least 1!");
+        }
+        this.sizeGauge = sizeGauge;
+        this.sampleMask = sampleInterval == 1 ? 0 : Integer.highestOneBit(sampleInterval - 1) * 2 - 1;
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            calls[i] = new LongAdder();
+            latencies[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < VALIDATIONS.length; i++) {
+            validationFailures[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param metrics Metrics of the service, null when disabled.
+     * @return long Start time for stop, or NOT_TIMED when disabled or this call is not sampled.
+     */
+    static long start(TaskMetrics metrics) {
+        if (metrics == null || (ThreadLocalRandom.current().nextInt() & metrics.sampleMask) != 0) {
+            return NOT_TIMED;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Counts the call and records its latency if it was sampled.
+     * @param metrics Metrics of the service, null when disabled.
+     * @param operation Operation that ran.
+     * @param start Value returned by start.
+     */
+    static void stop(TaskMetrics metrics, Operation operation, long start) {
+        if (metrics == null) {
+            return;
+        }
+        metrics.calls[operation.ordinal()].increment();
+        if (start != NOT_TIMED) {
+            metrics.latencies[operation.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @param metrics Metrics of the service, null when disabled.
+     * @param validation Failed validation code.
+     */
+    static void validationFailed(TaskMetrics metrics, TaskValidation validation) {
+        if (metrics != null) {
+            metrics.validationFailures[validation.ordinal()].increment();
+        }
+    }
+
+    void duplicateIdRejected() {
+        duplicateIdRejections.increment();
+    }
+
+    void missingIdDeleted() {
+        missingIdDeletes.increment();
+    }
+
+    void missingIdUpdated() {
+        missingIdUpdates.increment();
+    }
+
+    void missingIdRead() {
+        missingIdGets.increment();
+    }
+
+    void versionConflicted() {
+        versionConflicts.increment();
+    }
+
+    void taskExpired() {
+        expiredTasks.increment();
+    }
+
+    /**
+     * Reads every counter and histogram. Counters are read one by one while traffic continues, so totals taken together may be off by the calls in flight.
+     * @return Snapshot Immutable copy of the current metrics.
+     */
+    Snapshot snapshot() {
+        Map<Operation, Long> callCounts = new EnumMap<>(Operation.class);
+        Map<Operation, LatencyHistogram.Snapshot> latencySnapshots = new EnumMap<>(Operation.class);
+        for (Operation operation : OPERATIONS) {
+            callCounts.put(operation, calls[operation.ordinal()].sum());
+            latencySnapshots.put(operation, latencies[operation.ordinal()].snapshot());
+        }
+        Map<TaskValidation, Long> failures = new EnumMap<>(TaskValidation.class);
+        for (TaskValidation validation : VALIDATIONS) {
+            if (validation.isValid()) {
+                continue;
+            }
+            failures.put(validation, validationFailures[validation.ordinal()].sum());
+        }
+        return new Snapshot(sizeGauge.getAsInt(), callCounts, latencySnapshots, failures, duplicateIdRejections.sum(),
+                missingIdDeletes.sum(), missingIdUpdates.sum(), missingIdGets.sum(), versionConflicts.sum(), expiredTasks.sum());
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server as org.jeremiahboothe:type=TaskService,name=name.
+     * @param name Name to tell services apart in a JMX console.
+     * @return ObjectName Name the bean was registered under.
+     * @throws IllegalStateException When the name is taken or invalid.
+     */
+    synchronized ObjectName registerMBean(String name) {
+        try {
+            ObjectName registered = new ObjectName("org.jeremiahboothe:type=TaskService,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, registered);
+            objectName = registered;
+            return registered;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register TaskService metrics as " + name, e);
+        }
+    }
+
+    /**
+     * Removes the bean added by registerMBean, does nothing if it was never registered.
+     */
+    synchronized void unregisterMBean() {
+        ObjectName registered = objectName;
+        if (registered == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(registered);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister TaskService metrics " + registered, e);
+        }
+        objectName = null;
+    }
+
+    @Override
+    public long getTaskCount() {
+        return sizeGauge.getAsInt();
+    }
+
+    @Override
+    public Map<String, Long> getOperationCounts() {
+        return byOperation(operation -> calls[operation.ordinal()].sum());
+    }
+
+    @Override
+    public Map<String, Long> getP50LatencyNanos() {
+        return byOperation(operation -> latencies[operation.ordinal()].snapshot().getP50());
+    }
+
+    @Override
+    public Map<String, Long> getP99LatencyNanos() {
+        return byOperation(operation -> latencies[operation.ordinal()].snapshot().getP99());
+    }
+
+    @Override
+    public long getDuplicateIdRejections() {
+        return duplicateIdRejections.sum();
+    }
+
+    @Override
+    public long getMissingIdDeletes() {
+        return missingIdDeletes.sum();
+    }
+
+    @Override
+    public long getMissingIdUpdates() {
+        return missingIdUpdates.sum();
+    }
+
+    @Override
+    public long getMissingIdGets() {
+        return missingIdGets.sum();
+    }
+
+    @Override
+    public long getVersionConflicts() {
+        return versionConflicts.sum();
+    }
+
+    @Override
+    public long getExpiredTasks() {
+        return expiredTasks.sum();
+    }
+
+    @Override
+    public Map<String, Long> getValidationFailures() {
+        Map<String, Long> failures = new LinkedHashMap<>();
+        snapshot().getValidationFailures().forEach((validation, count) -> failures.put(validation.name(), count));
+        return failures;
+    }
+
+    private Map<String, Long> byOperation(ToLongFunction<Operation> value) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Operation operation : OPERATIONS) {
+            values.put(operation.name(), value.applyAsLong(operation));
+        }
+        return values;
+    }
+
+    /**
+     * Point-in-time copy of a TaskMetrics.
+     */
+    static final class Snapshot {
+        private final int taskCount;
+        private final Map<Operation, Long> callCounts;
+        private final Map<Operation, LatencyHistogram.Snapshot> latencies;
+        private final Map<TaskValidation, Long> validationFailures;
+        private final long duplicateIdRejections;
+        private final long missingIdDeletes;
+        private final long missingIdUpdates;
+        private final long missingIdGets;
+        private final long versionConflicts;
+        private final long expiredTasks;
+
+        Snapshot(int taskCount, Map<Operation, Long> callCounts, Map<Operation, LatencyHistogram.Snapshot> latencies,
+                 Map<TaskValidation, Long> validationFailures, long duplicateIdRejections, long missingIdDeletes,
+                 long missingIdUpdates, long missingIdGets, long versionConflicts, long expiredTasks) {
+            this.taskCount = taskCount;
+            this.callCounts = Collections.unmodifiableMap(callCounts);
+            this.latencies = Collections.unmodifiableMap(latencies);
+            this.validationFailures = Collections.unmodifiableMap(validationFailures);
+            this.duplicateIdRejections = duplicateIdRejections;
+            this.missingIdDeletes = missingIdDeletes;
+            this.missingIdUpdates = missingIdUpdates;
+            this.missingIdGets = missingIdGets;
+            this.versionConflicts = versionConflicts;
+            this.expiredTasks = expiredTasks;
+        }
+
+        int getTaskCount() {
+            return taskCount;
+        }
+
+        long getCallCount(Operation operation) {
+            return callCounts.get(operation);
+        }
+
+        LatencyHistogram.Snapshot getLatency(Operation operation) {
+            return latencies.get(operation);
+        }
+
+        /**
+         * @return Map Failures per TaskValidation code, VALID excluded.
+         */
+        Map<TaskValidation, Long> getValidationFailures() {
+            return validationFailures;
+        }
+
+        /**
+         * @param field Field name as in TaskValidation.getField(), such as "Task Name".
+         * @return long Failures of any code for that field.
+         */
+        long getValidationFailures(String field) {
+            long total = 0;
+            for (Map.Entry<TaskValidation, Long> entry : validationFailures.entrySet()) {
+                if (entry.getKey().getField().equals(field)) {
+                    total += entry.getValue();
+                }
+            }
+            return total;
+        }
+
+        long getDuplicateIdRejections() {
+            return duplicateIdRejections;
+        }
+
+        long getMissingIdDeletes() {
+            return missingIdDeletes;
+        }
+
+        long getMissingIdUpdates() {
+            return missingIdUpdates;
+        }
+
+        long getMissingIdGets() {
+            return missingIdGets;
+        }
+
+        long getVersionConflicts() {
+            return versionConflicts;
+        }
+
+        long getExpiredTasks() {
+            return expiredTasks;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder("tasks=").append(taskCount).append('\n');
+            for (Map.Entry<Operation, Long> entry : callCounts.entrySet()) {
+                report.append(entry.getKey()).append(" calls=").append(entry.getValue())
+                        .append(" sampled ").append(latencies.get(entry.getKey())).append('\n');
+            }
+            return report.append("duplicateIds=").append(duplicateIdRejections)
+                    .append(" missingIdDeletes=").append(missingIdDeletes)
+                    .append(" missingIdUpdates=").append(missingIdUpdates)
+                    .append(" missingIdGets=").append(missingIdGets)
+                    .append(" versionConflicts=").append(versionConflicts)
+                    .append(" expiredTasks=").append(expiredTasks)
+                    .append(" validationFailures=").append(validationFailures).toString();
+        }
+    }
+}
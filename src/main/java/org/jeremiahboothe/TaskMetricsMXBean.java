@@ -0,0 +1,63 @@
+package org.jeremiahboothe;
+
+import java.util.Map;
+
+/**
+ * JMX view of a TaskMetrics, registered with TaskMetrics.registerMBean. Maps are keyed by operation or validation code name.
+ */
+public interface TaskMetricsMXBean {
+    /**
+     * @return long Tasks currently in the service.
+     */
+    long getTaskCount();
+
+    /**
+     * @return Map Calls per operation.
+     */
+    Map<String, Long> getOperationCounts();
+
+    /**
+     * @return Map Median latency per operation in nanoseconds, from sampled calls.
+     */
+    Map<String, Long> getP50LatencyNanos();
+
+    /**
+     * @return Map 99th percentile latency per operation in nanoseconds, from sampled calls.
+     */
+    Map<String, Long> getP99LatencyNanos();
+
+    /**
+     * @return long Adds rejected because the Id already existed.
+     */
+    long getDuplicateIdRejections();
+
+    /**
+     * @return long Deletes of an Id that did not exist.
+     */
+    long getMissingIdDeletes();
+
+    /**
+     * @return long Updates of an Id that did not exist.
+     */
+    long getMissingIdUpdates();
+
+    /**
+     * @return long Lookups of an Id that did not exist.
+     */
+    long getMissingIdGets();
+
+    /**
+     * @return long Compare-and-set updates rejected because the task had changed.
+     */
+    long getVersionConflicts();
+
+    /**
+     * @return long Tasks removed because their time to live ran out.
+     */
+    long getExpiredTasks();
+
+    /**
+     * @return Map Validation failures per TaskValidation code.
+     */
+    Map<String, Long> getValidationFailures();
+}
@@ -0,0 +1,36 @@
+package org.jeremiahboothe;
+
+/**
+ * Where TaskService and Task send the lines they print: delete confirmations, printAllTasks and displayValues. The default, console(), prints
+ * straight to System.out on the caller's thread as before; AsyncTaskOutput moves the formatting and the write to a background thread.
+ * Set one per service with TaskService.setOutput. Implementations must be safe for concurrent use.
+ */
+interface TaskOutput {
+    /**
+     * The one console sink, so callers can tell whether a service still prints synchronously.
+     */
+    TaskOutput CONSOLE = line -> System.out.println(line);
+
+    /**
+     * @param line Line to print, without the line separator.
+     */
+    void println(String line);
+
+    /**
+     * Prints prefix, value and suffix as one line. Callers pass the pieces rather than the joined String so a sink can join them later, off the
+     * caller's thread.
+     * @param prefix Text before the value.
+     * @param value Value to print, null prints as "null".
+     * @param suffix Text after the value.
+     */
+    default void println(String prefix, String value, String suffix) {
+        println(prefix + value + suffix);
+    }
+
+    /**
+     * @return TaskOutput Synchronous sink printing to System.out as it is when each line is printed, always the same instance.
+     */
+    static TaskOutput console() {
+        return CONSOLE;
+    }
+}
@@ -0,0 +1,180 @@
+package org.jeremiahboothe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a TaskService durable on local disk. open() restores the latest snapshot plus the log segments written after it, then attaches a
+ * TaskWriteAheadLog so every later change is logged. A background thread group-commits the log every flush interval and checkpoints every
+ * checkpoint interval: the log moves to a new segment, a snapshot of the map is written, and the segments before the one just closed are
+ * deleted.
+ */
+final class TaskPersistence implements Closeable {
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 10;
+    private static final long DEFAULT_CHECKPOINT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final int LOG_BUFFER_BYTES = 4 * 1024 * 1024;
+
+    private final Path directory;
+    private final TaskService taskService;
+    private final TaskWriteAheadLog writeAheadLog;
+    private final ScheduledExecutorService scheduler;
+    private final long recoveredTaskCount;
+    private final long replayedRecordCount;
+    private final long recoveryMillis;
+
+    private TaskPersistence(Path directory, TaskService taskService, TaskWriteAheadLog writeAheadLog,
+                            long recoveredTaskCount, long replayedRecordCount, long recoveryMillis) {
+        this.directory = directory;
+        this.taskService = taskService;
+        this.writeAheadLog = writeAheadLog;
+        this.recoveredTaskCount = recoveredTaskCount;
+        this.replayedRecordCount = replayedRecordCount;
+        this.recoveryMillis = recoveryMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-persistence");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens persistence with a 10 ms group commit interval and a 5 minute checkpoint interval.
+     * @param directory Directory for the snapshot and log segments, created if missing.
+     * @param taskService Service to restore into and then log, should not be taking traffic yet.
+     * @return TaskPersistence Running persistence.
+     * @throws IOException When recovery fails.
+     */
+    static TaskPersistence open(Path directory, TaskService taskService) throws IOException {
+        return open(directory, taskService, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_CHECKPOINT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Restores taskService from directory and starts logging its changes.
+     * @param directory Directory for the snapshot and log segments, created if missing.
+     * @param taskService Service to restore into and then log, should not be taking traffic yet.
+     * @param flushIntervalMillis How often buffered log records are written and fsynced, the most a crash can lose.
+     * @param checkpointIntervalMillis How often the log is compacted into a snapshot, 0 to only checkpoint when asked.
+     * @return TaskPersistence Running persistence.
+     * @throws IOException When recovery fails.
+     */
+    static TaskPersistence open(Path directory, TaskService taskService, long flushIntervalMillis, long checkpointIntervalMillis) throws IOException {
+        long startNanos = System.nanoTime();
+        Files.createDirectories(directory);
+
+        TaskSnapshot snapshot = TaskSnapshot.read(directory, taskService);
+        long firstSegment = snapshot == null ? 0 : snapshot.getFirstSegment();
+        long recoveredTasks = snapshot == null ? 0 : snapshot.getTaskCount();
+
+        long replayed = 0;
+        long lastSegment = firstSegment - 1;
+        List<Long> segments = TaskWriteAheadLog.listSegments(directory);
+        for (long segment : segments) {
+            if (segment >= firstSegment) {
+                replayed += TaskWriteAheadLog.replay(TaskWriteAheadLog.segmentPath(directory, segment), taskService);
+            }
+            lastSegment = Math.max(lastSegment, segment);
+        }
+
+        TaskWriteAheadLog writeAheadLog = new TaskWriteAheadLog(directory, lastSegment + 1, LOG_BUFFER_BYTES);
+        long recoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        TaskPersistence persistence = new TaskPersistence(directory, taskService, writeAheadLog, recoveredTasks, replayed, recoveryMillis);
+
+        taskService.addChangeListener(writeAheadLog);
+        persistence.scheduler.scheduleWithFixedDelay(persistence::scheduledFlush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        if (checkpointIntervalMillis > 0) {
+            persistence.scheduler.scheduleWithFixedDelay(persistence::scheduledCheckpoint,
+                    checkpointIntervalMillis, checkpointIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        return persistence;
+    }
+
+    /**
+     * Writes and fsyncs every change logged so far, instead of waiting for the next group commit.
+     */
+    void flush() {
+        writeAheadLog.flush();
+    }
+
+    /**
+     * Compacts the log: starts a new segment, snapshots the map, then deletes every segment before the one just closed.
+     * The just-closed segment is kept and replayed on top of the snapshot. Listeners log a change before it is applied, so a change logged
+     * there just before the rotation may not be in the map yet when the snapshot walks it; replaying that segment again restores it. Replayed
+     * records the snapshot already holds set the same values again, though each replayed update raises that task's version once more.
+     * @throws IOException When the snapshot cannot be written, the old segments are kept in that case.
+     */
+    synchronized void checkpoint() throws IOException {
+        long replayFrom = writeAheadLog.rotate() - 1;
+        TaskSnapshot.write(directory, taskService, replayFrom);
+        for (long segment : TaskWriteAheadLog.listSegments(directory)) {
+            if (segment < replayFrom) {
+                Files.deleteIfExists(TaskWriteAheadLog.segmentPath(directory, segment));
+            }
+        }
+    }
+
+    /**
+     * Background flush, a failure is reported and retried on the next tick rather than cancelling the schedule.
+     */
+    private void scheduledFlush() {
+        try {
+            writeAheadLog.flush();
+        } catch (UncheckedIOException e) {
+            System.err.println("Task log flush failed: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Background checkpoint, a failure is reported and retried on the next tick rather than cancelling the schedule.
+     */
+    private void scheduledCheckpoint() {
+        try {
+            checkpoint();
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Task checkpoint failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return long Tasks loaded from the snapshot during open.
+     */
+    long getRecoveredTaskCount() {
+        return recoveredTaskCount;
+    }
+
+    /**
+     * @return long Log records replayed on top of the snapshot during open.
+     */
+    long getReplayedRecordCount() {
+        return replayedRecordCount;
+    }
+
+    /**
+     * @return long Wall clock time open spent restoring.
+     */
+    long getRecoveryMillis() {
+        return recoveryMillis;
+    }
+
+    /**
+     * Stops the background thread, detaches the log from the service and flushes it. Later changes to the service are not persisted.
+     * @throws IOException When the final flush fails.
+     */
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        taskService.removeChangeListener(writeAheadLog);
+        writeAheadLog.close();
+    }
+}
@@ -0,0 +1,131 @@
+package org.jeremiahboothe;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format shared by TaskServer and TaskClient. Every message is a frame: a big-endian int length, then that many bytes.
+ * A request frame holds an opcode byte, an int request Id, and the opcode's fields. A response frame holds the request Id, a status byte,
+ * and for a GET that found its task, the version, name and description.
+ * Strings are an unsigned short byte count followed by UTF-8, with 0xFFFF meaning null. Responses come back in request order, so a client
+ * can pipeline many requests on one connection without waiting for each answer.
+ */
+final class TaskProtocol {
+    static final int MAX_FRAME_LENGTH = 1 << 16;
+    static final int LENGTH_BYTES = 4;
+
+    static final byte ADD = 1;
+    static final byte GET = 2;
+    static final byte UPDATE_NAME = 3;
+    static final byte UPDATE_DESCRIPTION = 4;
+    static final byte DELETE = 5;
+
+    private static final int NULL_STRING = 0xFFFF;
+    private static final TaskStatus[] STATUS_BY_CODE = {
+            TaskStatus.OK, TaskStatus.ALREADY_EXISTS, TaskStatus.NOT_FOUND, TaskStatus.INVALID, TaskStatus.VERSION_CONFLICT
+    };
+
+    private TaskProtocol() {
+    }
+
+    /**
+     * Status codes are fixed here rather than taken from ordinal, so reordering TaskStatus cannot change the wire format.
+     * @param status Status to send.
+     * @return byte Its code on the wire.
+     */
+    static byte statusCode(TaskStatus status) {
+        switch (status) {
+            case OK:
+                return 0;
+            case ALREADY_EXISTS:
+                return 1;
+            case NOT_FOUND:
+                return 2;
+            case INVALID:
+                return 3;
+            case VERSION_CONFLICT:
+                return 4;
+            default:
+                throw new IllegalArgumentException("No wire code for " + status);
+        }
+    }
+
+    /**
+     * @param code Status byte from a response.
+     * @return TaskStatus The status it stands for.
+     * @throws ProtocolException When the code is unknown.
+     */
+    static TaskStatus status(byte code) throws ProtocolException {
+        if (code < 0 || code >= STATUS_BY_CODE.length) {
+            throw new ProtocolException("Unknown status code " + code);
+        }
+        return STATUS_BY_CODE[code];
+    }
+
+    /**
+     * @param value String to measure, may be null.
+     * @return int Bytes putString writes for it.
+     */
+    static int encodedLength(byte[] value) {
+        return 2 + (value == null ? 0 : value.length);
+    }
+
+    /**
+     * @param value String to encode, may be null.
+     * @return byte[] UTF-8 bytes, or null.
+     */
+    static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param buffer Buffer to write to.
+     * @param value UTF-8 bytes from utf8, may be null.
+     */
+    static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putShort((short) NULL_STRING);
+            return;
+        }
+        if (value.length >= NULL_STRING) {
+            throw new IllegalArgumentException("String of " + value.length + " bytes is too long to send");
+        }
+        buffer.putShort((short) value.length);
+        buffer.put(value);
+    }
+
+    /**
+     * Reads a string written by putString from a heap buffer.
+     * @param buffer Buffer positioned at the string, limited to the end of its frame.
+     * @return String The string, or null.
+     * @throws ProtocolException When the string runs past the frame.
+     */
+    static String getString(ByteBuffer buffer) throws ProtocolException {
+        if (buffer.remaining() < 2) {
+            throw new ProtocolException("Frame ends inside a string length");
+        }
+        int length = buffer.getShort() & 0xFFFF;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        if (buffer.remaining() < length) {
+            throw new ProtocolException("String of " + length + " bytes runs past its frame");
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * Checks the length prefix of the next frame.
+     * @param length Length read from the wire.
+     * @param minimum Smallest valid frame body.
+     * @throws ProtocolException When the length is outside minimum..MAX_FRAME_LENGTH.
+     */
+    static void checkFrameLength(int length, int minimum) throws ProtocolException {
+        if (length < minimum || length > MAX_FRAME_LENGTH) {
+            throw new ProtocolException("Bad frame length " + length);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package org.jeremiahboothe;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Filter, project and aggregate the tasks in place, opened with TaskService.query or TaskMapSnapshot.query. A query is a TaskFilter, an
+ * optional limit, and one terminal call such as count, list, select, countBy or aggregate with any Collector.
+ * By default the store's spliterator is split on a ForkJoinPool into a few ranges per worker, each range folded into its own partial result
+ * and the partials combined as the ranges finish. With a limit, ranges share one countdown of the matches still wanted, and every range stops
+ * as soon as it reaches zero, so findAny or limit(100) over ten million tasks reads only a few ranges' worth.
+ * The filter is tested on the live task's fields first, so non-matching tasks are never copied; a match is copied as a VersionedTask and
+ * tested again, since the task may change between the two reads. Over TaskService the walk has forEachTask's weakly consistent guarantees;
+ * over a TaskMapSnapshot it is exact. Results are unordered, and with a limit which matches come back is unspecified.
+ * A TaskQuery is set up and run from one thread, and may be run again.
+ */
+final class TaskQuery {
+    private static final int MIN_RANGE_SIZE = 4096;
+    private static final int RANGES_PER_WORKER = 4;
+
+    private final Supplier<Spliterator<Task>> source;
+    private TaskFilter filter;
+    private long limit = Long.MAX_VALUE;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    /**
+     * @param source Opens a fresh spliterator over the tasks for each run.
+     */
+    TaskQuery(Supplier<Spliterator<Task>> source) {
+        this.source = source;
+    }
+
+    /**
+     * Adds a condition; a query with several passes tasks that meet all of them.
+     * @param condition Filter to add.
+     * @return TaskQuery This query.
+     */
+    TaskQuery where(TaskFilter condition) {
+        if (condition == null) {
+            throw new NullPointerException("Filter must not be null!");
+        }
+        filter = filter == null ? condition : filter.and(condition);
+        return this;
+    }
+
+    /**
+     * @param maxResults Most matching tasks to use, stopping the walk once reached.
+     * @return TaskQuery This query.
+     */
+    TaskQuery limit(long maxResults) {
+        if (maxResults < 0) {
+            throw new IllegalArgumentException("Limit must not be negative!");
+        }
+        limit = maxResults;
+        return this;
+    }
+
+    /**
+     * Runs on the calling thread only.
+     * @return TaskQuery This query.
+     */
+    TaskQuery sequential() {
+        pool = null;
+        return this;
+    }
+
+    /**
+     * @param forkJoinPool Pool to split the walk across instead of the common pool.
+     * @return TaskQuery This query.
+     */
+    TaskQuery parallel(ForkJoinPool forkJoinPool) {
+        pool = forkJoinPool;
+        return this;
+    }
+
+    /**
+     * @return long Matching tasks, at most the limit.
+     */
+    long count() {
+        return aggregate(Collectors.summingLong(task -> 1L));
+    }
+
+    /**
+     * @return boolean True when any task matches; stops at the first.
+     */
+    boolean anyMatch() {
+        return findAny().isPresent();
+    }
+
+    /**
+     * @return Optional Some matching task, or empty.
+     */
+    Optional<VersionedTask> findAny() {
+        List<VersionedTask> found = run(Collectors.toList(), Math.min(limit, 1));
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    /**
+     * @return List Copies of the matching tasks.
+     */
+    List<VersionedTask> list() {
+        return aggregate(Collectors.toList());
+    }
+
+    /**
+     * @param projection Turns each matching task into the value to return, such as VersionedTask::getTaskName.
+     * @return List One projected value per matching task.
+     */
+    <R> List<R> select(Function<? super VersionedTask, ? extends R> projection) {
+        return aggregate(Collectors.mapping(projection, Collectors.toList()));
+    }
+
+    /**
+     * @param key Groups the matching tasks, such as by name length.
+     * @return Map Matching tasks per key.
+     */
+    <K> Map<K, Long> countBy(Function<? super VersionedTask, ? extends K> key) {
+        return aggregate(Collectors.groupingBy(key, Collectors.counting()));
+    }
+
+    /**
+     * Folds the matching tasks with the collector: each range into its own container, then the containers are combined.
+     * @param collector Any collector; its characteristics are ignored, the result is always unordered.
+     * @return R The collector's result.
+     */
+    <A, R> R aggregate(Collector<? super VersionedTask, A, R> collector) {
+        return run(collector, limit);
+    }
+
+    private <A, R> R run(Collector<? super VersionedTask, A, R> collector, long limit) {
+        Run<A> run = new Run<>(filter, limit, collector);
+        Spliterator<Task> spliterator = source.get();
+        A container;
+        if (limit == 0) {
+            container = collector.supplier().get();
+        } else if (pool == null) {
+            container = run.fold(spliterator);
+        } else {
+            long rangeSize = Math.max(MIN_RANGE_SIZE, spliterator.estimateSize() / ((long) pool.getParallelism() * RANGES_PER_WORKER));
+            container = pool.invoke(new Range<>(run, spliterator, rangeSize));
+        }
+        return collector.finisher().apply(container);
+    }
+
+    /**
+     * What every range of one run shares: the filter, the collector's functions, and the countdown of matches still wanted when limited.
+     */
+    private static final class Run<A> {
+        private final TaskFilter filter;
+        private final AtomicLong remaining;
+        private final Supplier<A> supplier;
+        private final BiConsumer<A, ? super VersionedTask> accumulator;
+        private final BinaryOperator<A> combiner;
+        private volatile boolean done;
+
+        Run(TaskFilter filter, long limit, Collector<? super VersionedTask, A, ?> collector) {
+            this.filter = filter;
+            this.remaining = limit == Long.MAX_VALUE ? null : new AtomicLong(limit);
+            this.supplier = collector.supplier();
+            this.accumulator = collector.accumulator();
+            this.combiner = collector.combiner();
+        }
+
+        /**
+         * Folds one range on the current thread. Without a limit it is a plain forEachRemaining; with one it advances a task at a time and
+         * stops as soon as any range has used up the countdown.
+         */
+        A fold(Spliterator<Task> spliterator) {
+            A container = supplier.get();
+            Consumer<Task> action = task -> offer(container, task);
+            if (remaining == null) {
+                spliterator.forEachRemaining(action);
+            } else {
+                boolean more = true;
+                while (more && !done) {
+                    more = spliterator.tryAdvance(action);
+                }
+            }
+            return container;
+        }
+
+        private void offer(A container, Task task) {
+            if (filter != null && !filter.test(task.getTaskId(), task.getTaskName(), task.getTaskDescription())) {
+                return;
+            }
+            VersionedTask copy = task.snapshot();
+            if (filter != null && !filter.test(copy.getTaskId(), copy.getTaskName(), copy.getTaskDescription())) {
+                return;
+            }
+            if (remaining != null) {
+                long left = remaining.decrementAndGet();
+                if (left <= 0) {
+                    done = true;
+                    if (left < 0) {
+                        return;
+                    }
+                }
+            }
+            accumulator.accept(container, copy);
+        }
+    }
+
+    /**
+     * One range of the walk. Splits off and forks the front half while the range is larger than rangeSize, folds the rest itself, then
+     * combines its result with the forked half's.
+     */
+    private static final class Range<A> extends RecursiveTask<A> {
+        private static final long serialVersionUID = 1L;
+
+        private final Run<A> run;
+        private final Spliterator<Task> spliterator;
+        private final long rangeSize;
+
+        Range(Run<A> run, Spliterator<Task> spliterator, long rangeSize) {
+            this.run = run;
+            this.spliterator = spliterator;
+            this.rangeSize = rangeSize;
+        }
+
+        @Override
+        protected A compute() {
+            Spliterator<Task> front;
+            if (!run.done && spliterator.estimateSize() > rangeSize && (front = spliterator.trySplit()) != null) {
+                Range<A> forked = new Range<>(run, front, rangeSize);
+                forked.fork();
+                A mine = new Range<>(run, spliterator, rangeSize).compute();
+                return run.combiner.apply(forked.join(), mine);
+            }
+            return run.done ? run.supplier.get() : run.fold(spliterator);
+        }
+    }
+}
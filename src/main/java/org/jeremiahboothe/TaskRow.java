@@ -0,0 +1,48 @@
+package org.jeremiahboothe;
+
+/**
+ * Raw, unvalidated input for one task, as it arrives from a batch or file. Nothing is checked until TaskService turns it into a Task.
+ */
+final class TaskRow {
+    private final String taskId;
+    private final String taskName;
+    private final String taskDescription;
+
+    /**
+     * @param taskId Raw Task Id, may be null or too long.
+     * @param taskName Raw Task Name, may be null or too long.
+     * @param taskDescription Raw Task Description, may be null or too long.
+     */
+    TaskRow(String taskId, String taskName, String taskDescription) {
+        this.taskId = taskId;
+        this.taskName = taskName;
+        this.taskDescription = taskDescription;
+    }
+
+    /**
+     * @return TaskValidation VALID or the first failing field, same order as the Task constructor.
+     */
+    TaskValidation validate() {
+        return TaskValidation.check(taskId, taskName, taskDescription);
+    }
+
+    /**
+     * Builds the Task, only call after validate() returned VALID.
+     * @return Task New Task.
+     */
+    Task toTask() {
+        return new Task(taskId, taskName, taskDescription);
+    }
+
+    String getTaskId() {
+        return taskId;
+    }
+
+    String getTaskName() {
+        return taskName;
+    }
+
+    String getTaskDescription() {
+        return taskDescription;
+    }
+}
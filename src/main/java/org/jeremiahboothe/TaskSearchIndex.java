@@ -0,0 +1,216 @@
+package org.jeremiahboothe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+
+/**
+ * Secondary indexes over a TaskService: exact and prefix lookup on Task Name, and a word index over Task Description. Registered as a
+ * TaskChangeListener, so every add, update and delete keeps it current without rescanning, and queries touch only the matching Ids instead of
+ * every task. Index entries are keyed per name or word in ConcurrentHashMaps, so two changes to the same key are applied one at a time.
+ * Results are read back through TaskService and re-checked against the query, so a task changing while a query runs is never returned stale.
+ */
+final class TaskSearchIndex implements TaskChangeListener {
+    private final TaskService taskService;
+    private final ConcurrentHashMap<String, Set<String>> idsByName = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<String> sortedNames = new ConcurrentSkipListSet<>();
+    private final ConcurrentHashMap<String, Set<String>> idsByWord = new ConcurrentHashMap<>();
+
+    private TaskSearchIndex(TaskService taskService) {
+        this.taskService = taskService;
+    }
+
+    /**
+     * Builds the index from the tasks already in taskService and registers it for later changes. Attach before the service takes traffic.
+     * @param taskService Service to index.
+     * @return TaskSearchIndex Live index.
+     */
+    static TaskSearchIndex attach(TaskService taskService) {
+        TaskSearchIndex searchIndex = new TaskSearchIndex(taskService);
+        taskService.forEachTask(searchIndex::taskAdded);
+        taskService.addChangeListener(searchIndex);
+        return searchIndex;
+    }
+
+    /**
+     * Unregisters the index, it stops tracking changes.
+     */
+    void detach() {
+        taskService.removeChangeListener(this);
+    }
+
+    @Override
+    public void taskAdded(Task task) {
+        addName(task.getTaskName(), task.getTaskId());
+        for (String word : words(task.getTaskDescription())) {
+            addId(idsByWord, word, task.getTaskId());
+        }
+    }
+
+    @Override
+    public void taskNameUpdated(Task task, String taskName) {
+        removeName(task.getTaskName(), task.getTaskId());
+        addName(taskName, task.getTaskId());
+    }
+
+    @Override
+    public void taskDescriptionUpdated(Task task, String taskDescription) {
+        Set<String> oldWords = words(task.getTaskDescription());
+        Set<String> newWords = words(taskDescription);
+        for (String word : oldWords) {
+            if (!newWords.contains(word)) {
+                removeId(idsByWord, word, task.getTaskId());
+            }
+        }
+        for (String word : newWords) {
+            if (!oldWords.contains(word)) {
+                addId(idsByWord, word, task.getTaskId());
+            }
+        }
+    }
+
+    @Override
+    public void taskDeleted(Task task) {
+        removeName(task.getTaskName(), task.getTaskId());
+        for (String word : words(task.getTaskDescription())) {
+            removeId(idsByWord, word, task.getTaskId());
+        }
+    }
+
+    /**
+     * @param taskName Exact Task Name, case sensitive.
+     * @return List Tasks with that name.
+     */
+    List<Task> findByName(String taskName) {
+        List<Task> found = new ArrayList<>();
+        collect(idsByName.get(taskName), Integer.MAX_VALUE, found, task -> task.getTaskName().equals(taskName));
+        return found;
+    }
+
+    /**
+     * Tasks whose name starts with prefix, in name order.
+     * @param prefix Name prefix, case sensitive.
+     * @param limit Most tasks to return.
+     * @return List Matching tasks.
+     */
+    List<Task> findByNamePrefix(String prefix, int limit) {
+        List<Task> found = new ArrayList<>();
+        for (String taskName : sortedNames.tailSet(prefix)) {
+            if (!taskName.startsWith(prefix) || found.size() >= limit) {
+                break;
+            }
+            collect(idsByName.get(taskName), limit, found, task -> task.getTaskName().startsWith(prefix));
+        }
+        return found;
+    }
+
+    /**
+     * Tasks whose description contains every given word. Words are matched whole and case-insensitively.
+     * @param query One or more words, split the same way descriptions are.
+     * @param limit Most tasks to return.
+     * @return List Matching tasks.
+     */
+    List<Task> findByDescriptionWords(String query, int limit) {
+        Set<String> queryWords = words(query);
+        if (queryWords.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<String> smallest = null;
+        for (String word : queryWords) {
+            Set<String> ids = idsByWord.get(word);
+            if (ids == null) {
+                return Collections.emptyList();
+            }
+            if (smallest == null || ids.size() < smallest.size()) {
+                smallest = ids;
+            }
+        }
+        List<Task> found = new ArrayList<>();
+        collect(smallest, limit, found, task -> words(task.getTaskDescription()).containsAll(queryWords));
+        return found;
+    }
+
+    /**
+     * Resolves Ids through the service and keeps the tasks that still match.
+     */
+    private void collect(Set<String> ids, int limit, List<Task> found, Predicate<Task> stillMatches) {
+        if (ids == null) {
+            return;
+        }
+        for (String taskId : ids) {
+            if (found.size() >= limit) {
+                return;
+            }
+            Task task = taskService.getTaskById(taskId);
+            if (task != null && stillMatches.test(task)) {
+                found.add(task);
+            }
+        }
+    }
+
+    private void addName(String taskName, String taskId) {
+        idsByName.compute(taskName, (name, ids) -> {
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+                sortedNames.add(name);
+            }
+            ids.add(taskId);
+            return ids;
+        });
+    }
+
+    private void removeName(String taskName, String taskId) {
+        idsByName.computeIfPresent(taskName, (name, ids) -> {
+            ids.remove(taskId);
+            if (ids.isEmpty()) {
+                sortedNames.remove(name);
+                return null;
+            }
+            return ids;
+        });
+    }
+
+    private static void addId(Map<String, Set<String>> index, String key, String taskId) {
+        index.compute(key, (k, ids) -> {
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+            }
+            ids.add(taskId);
+            return ids;
+        });
+    }
+
+    private static void removeId(Map<String, Set<String>> index, String key, String taskId) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(taskId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Splits text into lower-case words of letters and digits.
+     * @param text Description or query.
+     * @return Set Distinct words.
+     */
+    static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,382 @@
+package org.jeremiahboothe;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Standalone server exposing a TaskService over TaskProtocol, so several processes can share one task map instead of each embedding its own.
+ * Connections are spread round-robin over a few NIO event loops, each a thread with its own Selector. A loop reads whatever a connection has
+ * sent, runs every complete request against the service through the exception-free try methods, and writes all the responses in one go, so a
+ * pipelining client gets many answers per system call. While a connection's responses are not yet written, the loop stops reading from it,
+ * so a client that never reads cannot grow the server's buffers. A malformed frame closes only that connection.
+ */
+public final class TaskServer implements AutoCloseable {
+    static final int DEFAULT_PORT = 7320;
+    private static final int REQUEST_HEADER_BYTES = 5;
+    private static final int INITIAL_WRITE_BUFFER = 16 * 1024;
+
+    private final TaskService taskService;
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] eventLoops;
+    private final LongAdder requests = new LongAdder();
+    private volatile boolean running = true;
+    private int nextLoop;
+
+    /**
+     * Binds and starts the event loops.
+     * @param taskService Service the requests run against.
+     * @param address Address to listen on, port 0 picks a free port.
+     * @param eventLoopCount Number of event loop threads.
+     * @throws IOException When the address cannot be bound.
+     */
+    TaskServer(TaskService taskService, InetSocketAddress address, int eventLoopCount) throws IOException {
+        if (eventLoopCount < 1) {
+            throw new IllegalArgumentException("Event loop count must be at least 1!");
+        }
+        this.taskService = taskService;
+        this.serverChannel = ServerSocketChannel.open();
+        this.eventLoops = new EventLoop[eventLoopCount];
+        try {
+            serverChannel.bind(address);
+            serverChannel.configureBlocking(false);
+            for (int i = 0; i < eventLoopCount; i++) {
+                eventLoops[i] = new EventLoop(i);
+            }
+            serverChannel.register(eventLoops[0].selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.thread.start();
+        }
+    }
+
+    /**
+     * Serves the TaskService singleton on all interfaces.
+     * @param port Port to listen on.
+     * @return TaskServer Running server, close it to stop.
+     * @throws IOException When the port cannot be bound.
+     */
+    public static TaskServer start(int port) throws IOException {
+        return new TaskServer(TaskService.getInstance(), new InetSocketAddress(port), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Runs the server until the process is stopped. Optional arguments: port, then event loop count.
+     * @param args [port [eventLoops]]
+     * @throws IOException When the port cannot be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int eventLoopCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        TaskServer server = new TaskServer(TaskService.getInstance(), new InetSocketAddress(port), eventLoopCount);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.println("Task server listening on port " + server.getPort() + " with " + eventLoopCount + " event loops");
+    }
+
+    /**
+     * @return int Port the server is bound to.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * @return long Requests answered since the server started.
+     */
+    long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * Stops accepting, closes every connection and waits for the event loops to exit.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            serverChannel.close();
+        } catch (IOException ignored) {
+            // Closing anyway.
+        }
+        for (EventLoop eventLoop : eventLoops) {
+            if (eventLoop != null) {
+                eventLoop.selector.wakeup();
+            }
+        }
+        for (EventLoop eventLoop : eventLoops) {
+            if (eventLoop == null) {
+                continue;
+            }
+            if (eventLoop.thread.isAlive() && eventLoop.thread != Thread.currentThread()) {
+                try {
+                    eventLoop.thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else if (!eventLoop.thread.isAlive()) {
+                eventLoop.closeAll();
+            }
+        }
+    }
+
+    /**
+     * Hands an accepted connection to the next event loop.
+     * @param channel Accepted connection.
+     */
+    private void dispatch(SocketChannel channel) throws IOException {
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        EventLoop eventLoop = eventLoops[nextLoop];
+        nextLoop = (nextLoop + 1) % eventLoops.length;
+        eventLoop.accepted.add(channel);
+        eventLoop.selector.wakeup();
+    }
+
+    /**
+     * One selector thread and the connections registered with it.
+     */
+    private final class EventLoop implements Runnable {
+        private final Selector selector;
+        private final Queue<SocketChannel> accepted = new ConcurrentLinkedQueue<>();
+        private final Thread thread;
+
+        EventLoop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "task-server-" + index);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select();
+                } catch (IOException e) {
+                    System.err.println("Task server select failed: " + e);
+                    break;
+                }
+                registerAccepted();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        ((Connection) key.attachment()).handle(key);
+                    }
+                }
+            }
+            closeAll();
+        }
+
+        private void accept() {
+            try {
+                SocketChannel channel;
+                while ((channel = serverChannel.accept()) != null) {
+                    dispatch(channel);
+                }
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Task server accept failed: " + e);
+                }
+            }
+        }
+
+        private void registerAccepted() {
+            SocketChannel channel;
+            while ((channel = accepted.poll()) != null) {
+                try {
+                    channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+                } catch (IOException e) {
+                    closeQuietly(channel);
+                }
+            }
+        }
+
+        private void closeAll() {
+            SocketChannel channel;
+            while ((channel = accepted.poll()) != null) {
+                closeQuietly(channel);
+            }
+            try {
+                for (SelectionKey key : selector.keys()) {
+                    closeQuietly(key.channel());
+                }
+                selector.close();
+            } catch (IOException | RuntimeException ignored) {
+                // Shutting down anyway.
+            }
+        }
+    }
+
+    private static void closeQuietly(Channel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing left to do with it.
+        }
+    }
+
+    /**
+     * Buffers of one client. The read buffer fits the largest frame, so a frame never has to be reassembled; the write buffer grows as needed
+     * but reading pauses until it drains, which bounds it to the responses of one read buffer of requests.
+     */
+    private final class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(TaskProtocol.LENGTH_BYTES + TaskProtocol.MAX_FRAME_LENGTH);
+        private ByteBuffer out = ByteBuffer.allocate(INITIAL_WRITE_BUFFER);
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void handle(SelectionKey key) {
+            try {
+                if (key.isWritable()) {
+                    flush(key);
+                } else if (key.isReadable()) {
+                    if (channel.read(in) < 0) {
+                        close(key);
+                        return;
+                    }
+                    processFrames();
+                    flush(key);
+                }
+            } catch (ProtocolException | RuntimeException e) {
+                System.err.println("Task server closed a connection: " + e);
+                close(key);
+            } catch (IOException e) {
+                close(key);
+            }
+        }
+
+        private void processFrames() throws ProtocolException {
+            in.flip();
+            while (in.remaining() >= TaskProtocol.LENGTH_BYTES) {
+                int length = in.getInt(in.position());
+                TaskProtocol.checkFrameLength(length, REQUEST_HEADER_BYTES);
+                if (in.remaining() < TaskProtocol.LENGTH_BYTES + length) {
+                    break;
+                }
+                int frameEnd = in.position() + TaskProtocol.LENGTH_BYTES + length;
+                int limit = in.limit();
+                in.position(in.position() + TaskProtocol.LENGTH_BYTES).limit(frameEnd);
+                execute();
+                if (in.hasRemaining()) {
+                    throw new ProtocolException("Request frame has " + in.remaining() + " unread bytes");
+                }
+                in.limit(limit);
+                requests.increment();
+            }
+            in.compact();
+        }
+
+        /**
+         * Runs the request the read buffer is positioned at and appends its response.
+         */
+        private void execute() throws ProtocolException {
+            byte opcode = in.get();
+            int requestId = in.getInt();
+            String taskId = TaskProtocol.getString(in);
+            if (opcode == TaskProtocol.GET) {
+                VersionedTask task = taskId == null ? null : taskService.getVersionedTask(taskId);
+                if (task == null) {
+                    respond(requestId, TaskStatus.NOT_FOUND);
+                } else {
+                    respond(requestId, task);
+                }
+                return;
+            }
+            TaskStatus status;
+            switch (opcode) {
+                case TaskProtocol.ADD: {
+                    String taskName = TaskProtocol.getString(in);
+                    String taskDescription = TaskProtocol.getString(in);
+                    status = taskService.tryAdd(taskId, taskName, taskDescription);
+                    break;
+                }
+                case TaskProtocol.UPDATE_NAME: {
+                    String taskName = TaskProtocol.getString(in);
+                    status = taskId == null ? TaskStatus.INVALID : taskService.tryUpdateTaskName(taskId, taskName);
+                    break;
+                }
+                case TaskProtocol.UPDATE_DESCRIPTION: {
+                    String taskDescription = TaskProtocol.getString(in);
+                    status = taskId == null ? TaskStatus.INVALID : taskService.tryUpdateTaskDescription(taskId, taskDescription);
+                    break;
+                }
+                case TaskProtocol.DELETE:
+                    status = taskId == null ? TaskStatus.INVALID : taskService.tryDelete(taskId);
+                    break;
+                default:
+                    throw new ProtocolException("Unknown opcode " + opcode);
+            }
+            respond(requestId, status);
+        }
+
+        private void respond(int requestId, TaskStatus status) {
+            reserve(TaskProtocol.LENGTH_BYTES + 5);
+            out.putInt(5).putInt(requestId).put(TaskProtocol.statusCode(status));
+        }
+
+        private void respond(int requestId, VersionedTask task) {
+            byte[] taskName = TaskProtocol.utf8(task.getTaskName());
+            byte[] taskDescription = TaskProtocol.utf8(task.getTaskDescription());
+            int length = 9 + TaskProtocol.encodedLength(taskName) + TaskProtocol.encodedLength(taskDescription);
+            reserve(TaskProtocol.LENGTH_BYTES + length);
+            out.putInt(length).putInt(requestId).put(TaskProtocol.statusCode(TaskStatus.OK)).putInt(task.getVersion());
+            TaskProtocol.putString(out, taskName);
+            TaskProtocol.putString(out, taskDescription);
+        }
+
+        private void reserve(int bytes) {
+            if (out.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+                out.flip();
+                grown.put(out);
+                out = grown;
+            }
+        }
+
+        /**
+         * Writes what the socket takes. Anything left switches the key to write interest, which also stops reads until it drains.
+         */
+        private void flush(SelectionKey key) throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+            if (out.position() > 0) {
+                key.interestOps(SelectionKey.OP_WRITE);
+                return;
+            }
+            if (key.interestOps() != SelectionKey.OP_READ) {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+            if (out.capacity() > INITIAL_WRITE_BUFFER) {
+                out = ByteBuffer.allocate(INITIAL_WRITE_BUFFER);
+            }
+        }
+
+        private void close(SelectionKey key) {
+            key.cancel();
+            closeQuietly(channel);
+        }
+    }
+}
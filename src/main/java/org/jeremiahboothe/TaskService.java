@@ -1,19 +1,72 @@
 package org.jeremiahboothe;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * Created as a Singleton, TaskService, handles the operations and creation of the map and hashmap. Upon initialization the constructor instantiates the Hashmap.
+ * Created as a Singleton, TaskService, handles the operations and creation of the map. Tasks live in a TaskStore, by default an OnHeapTaskStore
+ * backed by a ConcurrentHashMap, which locks per bin rather than globally, so request handlers on many threads can add, update and delete tasks
+ * without serializing on one lock. snapshot() needs a SnapshotTaskStore, which costs every write a little, so it is opt-in through withSnapshots.
  */
 public class TaskService {
-    private final HashMap<String, Task> taskMap;
+    private final TaskStore taskMap;
+    private volatile TaskChangeListener[] changeListeners = new TaskChangeListener[0];
+    private volatile TaskMetrics metrics;
+    private volatile TaskExpiry expiry;
+    private volatile TaskIdIndex idIndex;
+    private volatile TaskLockTable locks;
+    private volatile TaskOutput output = TaskOutput.console();
     private static final TaskService TASK_SERVICE = new TaskService();
 
     /**
-     * Constructor for TaskService instantiates taskMap when constructed.
+     * Constructor for TaskService instantiates taskMap when constructed. Package-private so tests can build isolated instances instead of sharing the singleton.
      */
-    private TaskService() {
-        this.taskMap = new HashMap<>();
+    TaskService() {
+        this(new OnHeapTaskStore());
+    }
+
+    /**
+     * Constructor for a TaskService on another storage mode, such as OffHeapTaskStore.
+     * @param taskStore Store holding the tasks.
+     */
+    TaskService(TaskStore taskStore) {
+        this.taskMap = taskStore;
+    }
+
+    /**
+     * Sends the lines deleteTask, displayValues and printAllTasks print to another sink, such as an AsyncTaskOutput.
+     * @param output Sink to use from now on.
+     * @throws NullPointerException When output is null.
+     */
+    void setOutput(TaskOutput output) {
+        if (output == null) {
+            throw new NullPointerException("Output must not be null!");
+        }
+        this.output = output;
+    }
+
+    /**
+     * @return TaskOutput Sink for printed lines, TaskOutput.console() unless setOutput changed it.
+     */
+    TaskOutput getOutput() {
+        return output;
+    }
+
+    /**
+     * A service on the default on-heap store wrapped in a SnapshotTaskStore, for callers that need snapshot(). Writes pay the wrapper's
+     * writer count, and remove with an expected Task compares by value rather than identity.
+     * @return TaskService New service that can take snapshots.
+     */
+    static TaskService withSnapshots() {
+        return new TaskService(new SnapshotTaskStore(new OnHeapTaskStore()));
     }
 
     /**
@@ -24,15 +77,498 @@ public class TaskService {
         return TASK_SERVICE;
     }
 
+    /**
+     * Registers a listener for every later add, update and delete. Register listeners before the service takes traffic, changes already in
+     * flight while a listener is registered may not reach it. Listeners are called in the order they were added, except that the Id index
+     * from enableIdIndex stays last, so a listener that cancels a change never leaves it holding an Id.
+     * @param listener Listener to add.
+     */
+    synchronized void addChangeListener(TaskChangeListener listener) {
+        TaskChangeListener[] current = changeListeners;
+        TaskChangeListener[] updated = Arrays.copyOf(current, current.length + 1);
+        int last = current.length;
+        if (last > 0 && current[last - 1] == idIndex) {
+            updated[last] = idIndex;
+            last--;
+        }
+        updated[last] = listener;
+        changeListeners = updated;
+    }
+
+    /**
+     * Unregisters a listener added with addChangeListener.
+     * @param listener Listener to remove.
+     */
+    synchronized void removeChangeListener(TaskChangeListener listener) {
+        List<TaskChangeListener> remaining = new ArrayList<>(Arrays.asList(changeListeners));
+        remaining.remove(listener);
+        changeListeners = remaining.toArray(new TaskChangeListener[0]);
+    }
+
+    /**
+     * Starts counting operations, outcomes and validation failures, timing one call in sampleInterval. Until this is called the service
+     * records nothing and pays only a null check per call. Calling it again returns the metrics already running.
+     * @param sampleInterval Time one call in this many, rounded up to a power of two. 1 times every call.
+     * @return TaskMetrics Live metrics of this service.
+     */
+    synchronized TaskMetrics enableMetrics(int sampleInterval) {
+        if (metrics == null) {
+            metrics = new TaskMetrics(taskMap::size, sampleInterval);
+        }
+        return metrics;
+    }
+
+    /**
+     * @return TaskMetrics Live metrics, or null when enableMetrics was never called.
+     */
+    TaskMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Starts the expiry reaper, so tasks added with a TTL are deleted once it runs out. Calling it again returns the expiry already running.
+     * Once on, every update and delete also queues a small event for the reaper.
+     * @param tickMillis Resolution of expiry, tasks are deleted at most this late.
+     * @param refreshOnUpdate True to restart a task's TTL whenever its name or description changes.
+     * @return TaskExpiry Live expiry of this service.
+     */
+    synchronized TaskExpiry enableExpiry(long tickMillis, boolean refreshOnUpdate) {
+        if (expiry == null) {
+            TaskExpiry started = new TaskExpiry(this, tickMillis, refreshOnUpdate);
+            addChangeListener(started);
+            started.start();
+            expiry = started;
+        }
+        return expiry;
+    }
+
+    /**
+     * @return TaskExpiry Live expiry, or null when expiry is off.
+     */
+    TaskExpiry getExpiry() {
+        return expiry;
+    }
+
+    /**
+     * Stops the expiry reaper and unregisters it, so updates and deletes stop queueing events for it. Tasks that still have a TTL are kept
+     * and no longer expire, adding with a TTL throws again, and enableExpiry starts a fresh reaper. Does nothing when expiry is off.
+     */
+    synchronized void disableExpiry() {
+        TaskExpiry running = expiry;
+        if (running != null) {
+            running.close();
+        }
+    }
+
+    /**
+     * Unregisters an expiry that is closing, by disableExpiry or its own close.
+     * @param closing Expiry being closed.
+     */
+    synchronized void expiryClosed(TaskExpiry closing) {
+        removeChangeListener(closing);
+        if (expiry == closing) {
+            expiry = null;
+        }
+    }
+
+    /**
+     * Starts keeping an ordered index of Task Ids, for range scans, sorted pages and nearest-Id lookup, and makes printAllTasks print in Id
+     * order. Calling it again returns the index already kept. Once on, every add and delete also updates a skip list.
+     * @return TaskIdIndex Live Id index of this service.
+     */
+    synchronized TaskIdIndex enableIdIndex() {
+        if (idIndex == null) {
+            TaskIdIndex started = new TaskIdIndex(this);
+            addChangeListener(started);
+            forEachTask(started::backfill);
+            started.backfillDone();
+            idIndex = started;
+        }
+        return idIndex;
+    }
+
+    /**
+     * @return TaskIdIndex Live Id index, or null when enableIdIndex was never called.
+     */
+    TaskIdIndex getIdIndex() {
+        return idIndex;
+    }
+
+    /**
+     * Turns on multi-task transactions. From now on every add, update and delete holds a striped lock on its Id for the moment it takes,
+     * so a TaskTransaction holding the stripes of all its Ids sees and changes them with no other write in between. Turn it on before the
+     * service takes traffic; a write already running when it is turned on is not waited for. Calling it again does nothing.
+     */
+    synchronized void enableTransactions() {
+        if (locks == null) {
+            locks = new TaskLockTable();
+        }
+    }
+
+    /**
+     * Starts staging a group of adds, updates and deletes to commit as one.
+     * @return TaskTransaction Empty transaction.
+     * @throws IllegalStateException When enableTransactions was never called.
+     */
+    TaskTransaction beginTransaction() {
+        TaskLockTable locks = this.locks;
+        if (locks == null) {
+            throw new IllegalStateException("Call enableTransactions before beginning a transaction!");
+        }
+        return new TaskTransaction(this, locks);
+    }
+
     /**
      * Adds new Task to taskMap or throws exception if Task already Exists.
      * @param task Task to be added to the map.
      */
     void addTask(Task task) {
-        if (taskMap.containsKey(task.getTaskId())) {
+        if (tryAdd(task) == TaskStatus.ALREADY_EXISTS) {
+            throw new IllegalArgumentException("Task Id: " + task.getTaskId() + " already exists!");
+        }
+    }
+
+    /**
+     * Adds new Task to taskMap unless the Id is taken, without throwing.
+     * @param task Task to be added to the map.
+     * @return TaskStatus OK or ALREADY_EXISTS.
+     */
+    TaskStatus tryAdd(Task task) {
+        TaskMetrics metrics = this.metrics;
+        long start = TaskMetrics.start(metrics);
+        boolean added = insertIfAbsent(task);
+        TaskMetrics.stop(metrics, TaskMetrics.Operation.ADD, start);
+        if (added) {
+            return TaskStatus.OK;
+        }
+        if (metrics != null) {
+            metrics.duplicateIdRejected();
+        }
+        return TaskStatus.ALREADY_EXISTS;
+    }
+
+    /**
+     * Adds new Task with a time to live, after which the reaper deletes it, or throws exception if Task already Exists.
+     * @param task Task to be added to the map.
+     * @param ttlMillis Time to live.
+     * @throws IllegalStateException When enableExpiry was never called.
+     */
+    void addTask(Task task, long ttlMillis) {
+        if (tryAdd(task, ttlMillis) == TaskStatus.ALREADY_EXISTS) {
             throw new IllegalArgumentException("Task Id: " + task.getTaskId() + " already exists!");
         }
-        taskMap.put(task.getTaskId(), task);
+    }
+
+    /**
+     * Adds new Task with a time to live unless the Id is taken, without throwing. The TTL is queued inside the same atomic section as the
+     * add, so a delete that follows cannot be overtaken by it.
+     * @param task Task to be added to the map.
+     * @param ttlMillis Time to live.
+     * @return TaskStatus OK or ALREADY_EXISTS.
+     * @throws IllegalStateException When enableExpiry was never called.
+     */
+    TaskStatus tryAdd(Task task, long ttlMillis) {
+        TaskExpiry expiry = requireExpiry();
+        TaskMetrics metrics = this.metrics;
+        long start = TaskMetrics.start(metrics);
+        boolean added = insertIfAbsent(task, inserted -> expiry.schedule(inserted, ttlMillis));
+        TaskMetrics.stop(metrics, TaskMetrics.Operation.ADD, start);
+        if (added) {
+            return TaskStatus.OK;
+        }
+        if (metrics != null) {
+            metrics.duplicateIdRejected();
+        }
+        return TaskStatus.ALREADY_EXISTS;
+    }
+
+    /**
+     * Gives a stored task a new time to live, counted from now, or removes its TTL.
+     * @param taskId Id of task.
+     * @param ttlMillis New time to live, 0 or less to keep the task until it is deleted.
+     * @return TaskStatus OK or NOT_FOUND.
+     * @throws IllegalStateException When enableExpiry was never called.
+     */
+    TaskStatus setTaskTtl(String taskId, long ttlMillis) {
+        TaskExpiry expiry = requireExpiry();
+        return taskMap.update(taskId, task -> expiry.schedule(task, ttlMillis)) == null ? TaskStatus.NOT_FOUND : TaskStatus.OK;
+    }
+
+    /**
+     * Deletes the task for the reaper, if it is still the task the TTL was set on, telling listeners as a normal delete would.
+     * @param taskId Id of the expired task.
+     * @param expected Task the TTL was set on.
+     * @return boolean True when the task was deleted.
+     */
+    boolean expireTask(String taskId, Task expected) {
+        Task removed = removeTask(taskId, expected);
+        TaskMetrics metrics = this.metrics;
+        if (removed != null && metrics != null) {
+            metrics.taskExpired();
+        }
+        return removed != null;
+    }
+
+    private TaskExpiry requireExpiry() {
+        TaskExpiry expiry = this.expiry;
+        if (expiry == null) {
+            throw new IllegalStateException("Call enableExpiry before adding tasks with a TTL!");
+        }
+        return expiry;
+    }
+
+    /**
+     * Validates the fields and adds a new Task built from them, without throwing. Nothing is allocated when a field is invalid.
+     * @param taskId Id for new Task
+     * @param taskName Name of new Task
+     * @param taskDescription Description of new Task
+     * @return TaskStatus OK, ALREADY_EXISTS or INVALID.
+     */
+    TaskStatus tryAdd(String taskId, String taskName, String taskDescription) {
+        TaskValidation validation = TaskValidation.check(taskId, taskName, taskDescription);
+        if (!validation.isValid()) {
+            TaskMetrics.validationFailed(metrics, validation);
+            return TaskStatus.INVALID;
+        }
+        return tryAdd(new Task(taskId, taskName, taskDescription));
+    }
+
+    /**
+     * Atomically adds the task unless its Id is taken, telling the listeners inside the same atomic section.
+     * @param task Task to add.
+     * @return boolean True when the task was added.
+     */
+    private boolean insertIfAbsent(Task task) {
+        return insertIfAbsent(task, null);
+    }
+
+    /**
+     * Atomically adds the task unless its Id is taken, telling the listeners and then running onInsert inside the same atomic section.
+     * @param task Task to add.
+     * @param onInsert Extra step for the added task, or null.
+     * @return boolean True when the task was added.
+     */
+    private boolean insertIfAbsent(Task task, Consumer<Task> onInsert) {
+        TaskLockTable locks = this.locks;
+        if (locks == null) {
+            return insertUnlocked(task, onInsert);
+        }
+        return locks.write(task.getTaskId(), () -> insertUnlocked(task, onInsert));
+    }
+
+    /**
+     * Adds a task for a TaskTransaction, which already holds the Id's stripe, telling the listeners as addTask would.
+     * @param task Task to add.
+     * @return boolean True when the task was added.
+     */
+    boolean applyAdd(Task task) {
+        return insertUnlocked(task, null);
+    }
+
+    /**
+     * Body of insertIfAbsent, run with the Id's stripe held when transactions are on.
+     * @param task Task to add.
+     * @param onInsert Extra step for the added task, or null.
+     * @return boolean True when the task was added.
+     */
+    private boolean insertUnlocked(Task task, Consumer<Task> onInsert) {
+        TaskChangeListener[] listeners = changeListeners;
+        if (listeners.length == 0 && onInsert == null) {
+            return taskMap.insertIfAbsent(task, null);
+        }
+        if (taskMap.get(task.getTaskId()) != null) {
+            return false;
+        }
+        return taskMap.insertIfAbsent(task, added -> {
+            for (TaskChangeListener listener : listeners) {
+                listener.taskAdded(added);
+            }
+            if (onInsert != null) {
+                onInsert.accept(added);
+            }
+        });
+    }
+
+    /**
+     * Atomically removes the task stored under taskId, telling the listeners inside the same atomic section.
+     * @param taskId Id to remove.
+     * @param expected Only remove if this Task is the one stored, or null to remove whatever is there.
+     * @return Task The removed Task, or null when nothing was removed.
+     */
+    private Task removeTask(String taskId, Task expected) {
+        TaskLockTable locks = this.locks;
+        if (locks == null) {
+            return removeUnlocked(taskId, expected);
+        }
+        return locks.write(taskId, () -> removeUnlocked(taskId, expected));
+    }
+
+    /**
+     * Deletes a task for a TaskTransaction, which already holds the Id's stripe, telling the listeners as deleteTask would.
+     * @param taskId Id to remove.
+     * @return Task The removed Task, or null when nothing was removed.
+     */
+    Task applyDelete(String taskId) {
+        return removeUnlocked(taskId, null);
+    }
+
+    /**
+     * Body of removeTask, run with the Id's stripe held when transactions are on.
+     * @param taskId Id to remove.
+     * @param expected Only remove if this Task is the one stored, or null to remove whatever is there.
+     * @return Task The removed Task, or null when nothing was removed.
+     */
+    private Task removeUnlocked(String taskId, Task expected) {
+        TaskChangeListener[] listeners = changeListeners;
+        if (listeners.length == 0) {
+            return taskMap.remove(taskId, expected, null);
+        }
+        if (taskMap.get(taskId) == null) {
+            return null;
+        }
+        return taskMap.remove(taskId, expected, removed -> {
+            for (TaskChangeListener listener : listeners) {
+                listener.taskDeleted(removed);
+            }
+        });
+    }
+
+    /**
+     * Adds a whole batch of rows. Every row is validated, checked against the rest of the batch and checked against the map before anything is added,
+     * and every reject is reported in the result instead of thrown. The map is grown once for the whole batch rather than rehashing as it fills.
+     * With ATOMIC, a batch with any reject adds nothing; if a concurrent addTask claims one of the Ids mid-commit, the rows already added by this
+     * batch are removed again, so other threads may briefly see them. With PARTIAL, every acceptable row is added.
+     * @param rows Raw rows to add.
+     * @param policy ATOMIC or PARTIAL.
+     * @return BulkAddResult Added count, commit flag and rejected rows.
+     */
+    BulkAddResult addTasks(List<TaskRow> rows, BulkCommitPolicy policy) {
+        return addTasks(rows, policy, null);
+    }
+
+    /**
+     * addTasks that also hands back the Task objects it added, so a caller spanning several services can undo them with rollbackAdd.
+     * @param rows Raw rows to add.
+     * @param policy ATOMIC or PARTIAL.
+     * @param addedTasks Receives every task added once the batch commits, or null.
+     * @return BulkAddResult Added count, commit flag and rejected rows.
+     */
+    BulkAddResult addTasks(List<TaskRow> rows, BulkCommitPolicy policy, List<Task> addedTasks) {
+        TaskMetrics metrics = this.metrics;
+        long start = TaskMetrics.start(metrics);
+        BulkAddResult result = addTasksUntimed(rows, policy, addedTasks);
+        TaskMetrics.stop(metrics, TaskMetrics.Operation.BULK_ADD, start);
+        if (metrics != null) {
+            for (BulkAddResult.Rejection rejection : result.getRejections()) {
+                if (rejection.getReason() == BulkAddResult.Reason.INVALID) {
+                    TaskMetrics.validationFailed(metrics, rejection.getValidation());
+                } else if (rejection.getReason() == BulkAddResult.Reason.ALREADY_EXISTS) {
+                    metrics.duplicateIdRejected();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Body of addTasks without the metrics bookkeeping.
+     * @param rows Raw rows to add.
+     * @param policy ATOMIC or PARTIAL.
+     * @param addedTasks Receives every task added once the batch commits, or null.
+     * @return BulkAddResult Added count, commit flag and rejected rows.
+     */
+    private BulkAddResult addTasksUntimed(List<TaskRow> rows, BulkCommitPolicy policy, List<Task> addedTasks) {
+        BulkAddResult result = new BulkAddResult(rows.size());
+        List<Task> accepted = new ArrayList<>(rows.size());
+        int[] acceptedRowIndexes = new int[rows.size()];
+        checkRows(rows, result, accepted, acceptedRowIndexes);
+
+        if (policy == BulkCommitPolicy.ATOMIC && result.hasRejections()) {
+            return result;
+        }
+
+        presize(taskMap.size() + accepted.size());
+        int added = 0;
+        boolean[] inserted = addedTasks == null ? null : new boolean[accepted.size()];
+        for (int i = 0; i < accepted.size(); i++) {
+            Task task = accepted.get(i);
+            if (insertIfAbsent(task)) {
+                added++;
+                if (inserted != null) {
+                    inserted[i] = true;
+                }
+                continue;
+            }
+            result.reject(acceptedRowIndexes[i], task.getTaskId(), BulkAddResult.Reason.ALREADY_EXISTS, TaskValidation.VALID);
+            if (policy == BulkCommitPolicy.ATOMIC) {
+                for (int j = 0; j < i; j++) {
+                    removeTask(accepted.get(j).getTaskId(), accepted.get(j));
+                }
+                return result;
+            }
+        }
+        if (inserted != null) {
+            for (int i = 0; i < accepted.size(); i++) {
+                if (inserted[i]) {
+                    addedTasks.add(accepted.get(i));
+                }
+            }
+        }
+        result.commit(added);
+        return result;
+    }
+
+    /**
+     * Runs the addTasks checks on a batch without adding anything, so a caller spanning several services can learn whether every part
+     * passes before any part commits.
+     * @param rows Raw rows to check.
+     * @return BulkAddResult Uncommitted result holding every row addTasks would reject right now.
+     */
+    BulkAddResult checkTasks(List<TaskRow> rows) {
+        BulkAddResult result = new BulkAddResult(rows.size());
+        checkRows(rows, result, null, null);
+        return result;
+    }
+
+    /**
+     * Validates each row, checks it against the earlier rows and against the map, and rejects the ones that fail into result.
+     * @param accepted Receives a new Task for every row that passes, or null to only check.
+     * @param acceptedRowIndexes Receives the row index of each accepted Task, or null.
+     */
+    private void checkRows(List<TaskRow> rows, BulkAddResult result, List<Task> accepted, int[] acceptedRowIndexes) {
+        Set<String> batchIds = new HashSet<>(rows.size() * 4 / 3 + 1);
+        for (int i = 0; i < rows.size(); i++) {
+            TaskRow row = rows.get(i);
+            TaskValidation validation = row.validate();
+            if (!validation.isValid()) {
+                result.reject(i, row.getTaskId(), BulkAddResult.Reason.INVALID, validation);
+            } else if (!batchIds.add(row.getTaskId())) {
+                result.reject(i, row.getTaskId(), BulkAddResult.Reason.DUPLICATE_IN_BATCH, validation);
+            } else if (taskMap.get(row.getTaskId()) != null) {
+                result.reject(i, row.getTaskId(), BulkAddResult.Reason.ALREADY_EXISTS, validation);
+            } else if (accepted != null) {
+                acceptedRowIndexes[accepted.size()] = i;
+                accepted.add(row.toTask());
+            }
+        }
+    }
+
+    /**
+     * Removes a task this service added, only if it is still the one stored, so undoing an add never deletes a task another caller
+     * deleted and re-added under the same Id in the meantime. Listeners see it as a delete.
+     * @param task Task returned through addTasks.
+     * @return boolean True when the task was removed.
+     */
+    boolean rollbackAdd(Task task) {
+        return removeTask(task.getTaskId(), task) != null;
+    }
+
+    /**
+     * Grows the store to hold expectedSize tasks in one step instead of resizing as it fills.
+     * @param expectedSize Total tasks the store should hold.
+     */
+    void presize(int expectedSize) {
+        taskMap.presize(expectedSize);
     }
 
     /**
@@ -43,6 +579,13 @@ public class TaskService {
      * @return Task New Task
      */
     Task createNewTaskToAddToMap(String taskId, String taskName, String taskDescription){
+        TaskMetrics metrics = this.metrics;
+        if (metrics != null) {
+            TaskValidation validation = TaskValidation.check(taskId, taskName, taskDescription);
+            if (!validation.isValid()) {
+                TaskMetrics.validationFailed(metrics, validation);
+            }
+        }
         return new Task(
                 taskId,
                 taskName,
@@ -50,30 +593,126 @@ public class TaskService {
     }
 
     /**
-     * Deletes a Task by Id or throws an exception if the Id does not exist in the HashMap
+     * Deletes a Task by Id or throws an exception if the Id does not exist in the map. The remove is a single atomic call, so two threads deleting the same Id cannot both succeed.
      * @param taskId Task Id to delete
      * @throws NullPointerException When Id is not in the map.
      */
     void deleteTask(String taskId) throws NullPointerException {
-        if (taskMap.containsKey(taskId)) {
-            taskMap.remove(taskId);
-            System.out.println("Task with Id: "
-                    + taskId
-                    + " deleted successfully!");
-        } else {
-            throw new NullPointerException("Task Id: "
-                    + taskId
-                    + " does not exist");
+        deleteTaskQuietly(taskId);
+        output.println("Task with Id: ", taskId, " deleted successfully!");
+    }
+
+    /**
+     * Deletes a Task by Id like deleteTask, without printing the confirmation, for callers that report it themselves off the request thread.
+     * @param taskId Task Id to delete
+     * @throws NullPointerException When Id is not in the map.
+     */
+    void deleteTaskQuietly(String taskId) throws NullPointerException {
+        if (tryDelete(taskId) == TaskStatus.NOT_FOUND) {
+            throw missingId(taskId);
+        }
+    }
+
+    /**
+     * Deletes a Task by Id without printing or throwing.
+     * @param taskId Task Id to delete
+     * @return TaskStatus OK or NOT_FOUND.
+     */
+    TaskStatus tryDelete(String taskId) {
+        TaskMetrics metrics = this.metrics;
+        long start = TaskMetrics.start(metrics);
+        Task removed = removeTask(taskId, null);
+        TaskMetrics.stop(metrics, TaskMetrics.Operation.DELETE, start);
+        if (removed != null) {
+            return TaskStatus.OK;
+        }
+        if (metrics != null) {
+            metrics.missingIdDeleted();
         }
+        return TaskStatus.NOT_FOUND;
     }
 
     /**
-     * Retrieves Task by Id.
+     * Retrieves Task by Id. With the default store this is the stored Task itself; stores that keep tasks in another form, like OffHeapTaskStore,
+     * return a copy, so change tasks through updateTaskName and updateTaskDescription rather than the Task setters.
      * @param taskId Id of Task.
      * @return Task at Id taskId.
      */
     Task getTaskById(String taskId) {
-        return taskMap.get(taskId);
+        TaskMetrics metrics = this.metrics;
+        return metrics == null ? taskMap.get(taskId) : getTaskByIdMetered(taskId, metrics);
+    }
+
+    /**
+     * Retrieves Task by Id like getTaskById, as an Optional. A miss returns the shared empty Optional, so it allocates nothing.
+     * @param taskId Id of Task.
+     * @return Optional Task at Id taskId, or empty.
+     */
+    Optional<Task> findById(String taskId) {
+        return Optional.ofNullable(getTaskById(taskId));
+    }
+
+    /**
+     * Retrieves a consistent copy of a task's name, description and version, read without locking. Unlike getTaskById it can never show a
+     * new name with an old description.
+     * @param taskId Id of Task.
+     * @return VersionedTask Copy of the task at Id taskId, or null when the Id is absent.
+     */
+    VersionedTask getVersionedTask(String taskId) {
+        Task task = getTaskById(taskId);
+        return task == null ? null : task.snapshot();
+    }
+
+    /**
+     * Reads several tasks as one consistent view: with transactions on, no TaskTransaction is ever seen half committed, and no other write
+     * lands between the reads. The read is optimistic and lock-free, falling back to read locks on the Ids' stripes when a write gets in
+     * the way. Without transactions each task is read on its own, like getVersionedTask.
+     * @param taskIds Ids to read.
+     * @return List Copy of each task in the order asked, null where an Id is absent.
+     */
+    List<VersionedTask> getVersionedTasks(List<String> taskIds) {
+        TaskLockTable locks = this.locks;
+        if (locks == null) {
+            return readVersionedTasks(taskIds);
+        }
+        int[] stripes = TaskLockTable.stripesOf(taskIds);
+        long[] stamps = locks.tryOptimisticRead(stripes);
+        if (stamps != null) {
+            List<VersionedTask> found = readVersionedTasks(taskIds);
+            if (locks.validate(stripes, stamps)) {
+                return found;
+            }
+        }
+        stamps = locks.lockRead(stripes);
+        try {
+            return readVersionedTasks(taskIds);
+        } finally {
+            locks.unlockRead(stripes, stamps);
+        }
+    }
+
+    private List<VersionedTask> readVersionedTasks(List<String> taskIds) {
+        List<VersionedTask> found = new ArrayList<>(taskIds.size());
+        for (String taskId : taskIds) {
+            found.add(getVersionedTask(taskId));
+        }
+        return found;
+    }
+
+    /**
+     * getTaskById with metrics, kept out of line so the unmetered lookup stays small enough to inline.
+     * @param taskId Id of Task.
+     * @param metrics Metrics of the service.
+     * @return Task at Id taskId.
+     */
+    private Task getTaskByIdMetered(String taskId, TaskMetrics metrics) {
+        long start = TaskMetrics.start(metrics);
+        Task task = taskMap.get(taskId);
+        TaskMetrics.stop(metrics, TaskMetrics.Operation.GET, start);
+        if (task == null) {
+            metrics.missingIdRead();
+        }
+        return task;
     }
 
     /**
@@ -95,23 +734,227 @@ public class TaskService {
     }
 
     /**
-     * Updates Task Name in the map, by Id.
+     * Updates Task Name in the map, by Id. The update runs inside the store's atomic section so it cannot race with a delete of the same Id.
      * @param taskId Id of task to update
      * @param taskName Task Name to update
+     * @throws NullPointerException When Id is not in the map.
      */
     void updateTaskName(String taskId, String taskName){
-        Task task = taskMap.get(taskId);
-        task.setTaskName(taskName);
+        requirePresent(updateTask(taskId, TaskValidation.checkName(taskName), TaskMetrics.Operation.UPDATE_NAME, nameChange(taskName)), taskId);
     }
 
     /**
-     * Updates Task Description in the map, by Id.
+     * Updates Task Name in the map, by Id, without throwing. The Id is looked up before anything is allocated, so a miss costs one map read.
+     * @param taskId Id of task to update
+     * @param taskName Task Name to update
+     * @return TaskStatus OK, NOT_FOUND or INVALID.
+     */
+    TaskStatus tryUpdateTaskName(String taskId, String taskName) {
+        return tryUpdateTask(taskId, TaskValidation.checkName(taskName), TaskMetrics.Operation.UPDATE_NAME, taskName, true);
+    }
+
+    /**
+     * Updates Task Description in the map, by Id. The update runs inside the store's atomic section so it cannot race with a delete of the same Id.
      * @param taskId Task Id to update
      * @param taskDescription New Task Description
+     * @throws NullPointerException When Id is not in the map.
      */
     void updateTaskDescription(String taskId, String taskDescription){
-        Task task = taskMap.get(taskId);
-        task.setTaskDescription(taskDescription);
+        requirePresent(updateTask(taskId, TaskValidation.checkDescription(taskDescription), TaskMetrics.Operation.UPDATE_DESCRIPTION,
+                descriptionChange(taskDescription)), taskId);
+    }
+
+    /**
+     * Updates Task Description in the map, by Id, without throwing. The Id is looked up before anything is allocated, so a miss costs one map read.
+     * @param taskId Task Id to update
+     * @param taskDescription New Task Description
+     * @return TaskStatus OK, NOT_FOUND or INVALID.
+     */
+    TaskStatus tryUpdateTaskDescription(String taskId, String taskDescription) {
+        return tryUpdateTask(taskId, TaskValidation.checkDescription(taskDescription), TaskMetrics.Operation.UPDATE_DESCRIPTION, taskDescription, false);
+    }
+
+    /**
+     * Sets the name and description together, only if the task is still at expectedVersion, so writers that read the same version cannot
+     * overwrite each other's changes. Listeners see it as a name update followed by a description update, and only when the version matches:
+     * the check, the listener calls and the change all run holding the task's monitor, which every change to a Task takes, so the version
+     * cannot move between them. On VERSION_CONFLICT, read the task again with getVersionedTask and retry.
+     * @param taskId Id of task to update.
+     * @param expectedVersion Version from getVersionedTask.
+     * @param taskName New Task Name.
+     * @param taskDescription New Task Description.
+     * @return TaskStatus OK, NOT_FOUND, INVALID or VERSION_CONFLICT.
+     */
+    TaskStatus compareAndSetTask(String taskId, int expectedVersion, String taskName, String taskDescription) {
+        TaskValidation validation = TaskValidation.checkName(taskName);
+        if (validation.isValid()) {
+            validation = TaskValidation.checkDescription(taskDescription);
+        }
+        if (!validation.isValid()) {
+            TaskMetrics.validationFailed(metrics, validation);
+            return TaskStatus.INVALID;
+        }
+        TaskMetrics metrics = this.metrics;
+        TaskChangeListener[] listeners = changeListeners;
+        boolean[] conflict = new boolean[1];
+        Consumer<Task> change = task -> {
+            synchronized (task) {
+                if (task.getVersion() != expectedVersion) {
+                    conflict[0] = true;
+                    return;
+                }
+                for (TaskChangeListener listener : listeners) {
+                    listener.taskNameUpdated(task, taskName);
+                    listener.taskDescriptionUpdated(task, taskDescription);
+                }
+                if (!task.compareAndSet(expectedVersion, taskName, taskDescription)) {
+                    throw new IllegalStateException("Task Id: " + taskId + " changed while its update was applied!");
+                }
+            }
+        };
+        long start = TaskMetrics.start(metrics);
+        Task updated = applyUpdate(taskId, change, locks);
+        TaskMetrics.stop(metrics, TaskMetrics.Operation.COMPARE_AND_SET, start);
+        if (updated == null) {
+            if (metrics != null) {
+                metrics.missingIdUpdated();
+            }
+            return TaskStatus.NOT_FOUND;
+        }
+        if (conflict[0]) {
+            if (metrics != null) {
+                metrics.versionConflicted();
+            }
+            return TaskStatus.VERSION_CONFLICT;
+        }
+        return TaskStatus.OK;
+    }
+
+    /**
+     * Listener notification and setter call for a name update, run inside the store's atomic section.
+     * @param taskName New Task Name.
+     * @return Consumer Change to apply to the stored task.
+     */
+    Consumer<Task> nameChange(String taskName) {
+        TaskChangeListener[] listeners = changeListeners;
+        return task -> {
+            for (TaskChangeListener listener : listeners) {
+                listener.taskNameUpdated(task, taskName);
+            }
+            task.setTaskName(taskName);
+        };
+    }
+
+    /**
+     * Listener notification and setter call for a description update, run inside the store's atomic section.
+     * @param taskDescription New Task Description.
+     * @return Consumer Change to apply to the stored task.
+     */
+    Consumer<Task> descriptionChange(String taskDescription) {
+        TaskChangeListener[] listeners = changeListeners;
+        return task -> {
+            for (TaskChangeListener listener : listeners) {
+                listener.taskDescriptionUpdated(task, taskDescription);
+            }
+            task.setTaskDescription(taskDescription);
+        };
+    }
+
+    /**
+     * Applies a validated change to the stored task inside the store's atomic section. Validation is checked inside that section too, so a
+     * missing Id is reported before an invalid value, as the updates always have.
+     * @param taskId Id of task to update.
+     * @param validation Result of checking the new value.
+     * @param operation Operation to record in the metrics.
+     * @param change Listener notification and setter call.
+     * @return Task The updated task, or null when the Id is absent.
+     */
+    private Task updateTask(String taskId, TaskValidation validation, TaskMetrics.Operation operation, Consumer<Task> change) {
+        TaskMetrics metrics = this.metrics;
+        long start = TaskMetrics.start(metrics);
+        Task updated = applyUpdate(taskId, task -> {
+            requireValid(validation, metrics);
+            change.accept(task);
+        }, locks);
+        TaskMetrics.stop(metrics, operation, start);
+        if (updated == null && metrics != null) {
+            metrics.missingIdUpdated();
+        }
+        return updated;
+    }
+
+    /**
+     * Applies a change to the stored task inside the store's atomic section, holding the Id's stripe when transactions are on.
+     * @param taskId Id of task to update.
+     * @param change Listener notification and setter call.
+     * @param locks Lock table of the service, or null to take no stripe, as a TaskTransaction that already holds it passes.
+     * @return Task The updated task, or null when the Id is absent.
+     */
+    Task applyUpdate(String taskId, Consumer<Task> change, TaskLockTable locks) {
+        if (locks == null) {
+            return taskMap.update(taskId, change);
+        }
+        return locks.write(taskId, () -> taskMap.update(taskId, change));
+    }
+
+    /**
+     * Shared body of the tryUpdate methods. Invalid values and absent Ids return before the change is built.
+     * @param taskId Id of task to update.
+     * @param validation Result of checking the new value.
+     * @param operation Operation to record in the metrics.
+     * @param value New name or description.
+     * @param name True to change the name, false for the description.
+     * @return TaskStatus OK, NOT_FOUND or INVALID.
+     */
+    private TaskStatus tryUpdateTask(String taskId, TaskValidation validation, TaskMetrics.Operation operation, String value, boolean name) {
+        if (!validation.isValid()) {
+            TaskMetrics.validationFailed(metrics, validation);
+            return TaskStatus.INVALID;
+        }
+        if (taskMap.get(taskId) == null) {
+            TaskMetrics metrics = this.metrics;
+            TaskMetrics.stop(metrics, operation, TaskMetrics.NOT_TIMED);
+            if (metrics != null) {
+                metrics.missingIdUpdated();
+            }
+            return TaskStatus.NOT_FOUND;
+        }
+        Task updated = updateTask(taskId, validation, operation, name ? nameChange(value) : descriptionChange(value));
+        return updated == null ? TaskStatus.NOT_FOUND : TaskStatus.OK;
+    }
+
+    /**
+     * Counts a failed validation before throwing it, so metrics see failures the caller may catch.
+     * @param validation Result of a field check.
+     * @param metrics Metrics of the service, null when disabled.
+     */
+    private static void requireValid(TaskValidation validation, TaskMetrics metrics) {
+        if (!validation.isValid()) {
+            TaskMetrics.validationFailed(metrics, validation);
+            validation.throwIfInvalid();
+        }
+    }
+
+    /**
+     * Throws the missing Id exception for the updates.
+     * @param task Task returned by the store, null when the Id was absent.
+     * @param taskId Id that was looked up.
+     */
+    private void requirePresent(Task task, String taskId) {
+        if (task == null) {
+            throw missingId(taskId);
+        }
+    }
+
+    /**
+     * Builds the missing Id exception shared by deleteTask and the updates.
+     * @param taskId Id that was looked up.
+     * @return NullPointerException Exception to throw.
+     */
+    private static NullPointerException missingId(String taskId) {
+        return new NullPointerException("Task Id: "
+                + taskId
+                + " does not exist");
     }
 
     /**
@@ -119,27 +962,127 @@ public class TaskService {
      * @param taskId Id of task to display values from
      */
     void displayValues(String taskId) {
-        getTaskById(taskId).displayValues();
+        getTaskById(taskId).displayValues(output);
     }
 
     /**
-     * Iterates through the hashmap and prints all tasks.
+     * Iterates through the map and prints all tasks, in Id order when enableIdIndex is on and in map order otherwise.
      */
     void printAllTasks() {
-        for (HashMap.Entry<String, Task> entry : TASK_SERVICE.getAllTasks().entrySet()) {
-            String taskId = entry.getKey();
-            Task retrievedTask = entry.getValue();
-            System.out.println("Retrieved Task from Index [" + taskId + "]:");
-            retrievedTask.displayValues();
-            System.out.println("\n");
+        TaskOutput output = this.output;
+        Consumer<Task> print = retrievedTask -> {
+            output.println("Retrieved Task from Index [", retrievedTask.getTaskId(), "]:");
+            retrievedTask.displayValues(output);
+            output.println("\n");
+        };
+        TaskIdIndex idIndex = this.idIndex;
+        if (idIndex == null) {
+            forEachTask(print);
+        } else {
+            idIndex.forEachInOrder(print);
+        }
+    }
+
+    /**
+     * Number of tasks currently in the map.
+     * @return int Task count.
+     */
+    int size() {
+        return taskMap.size();
+    }
+
+    /**
+     * Runs the action on every task in the map. Safe while other threads add and delete, tasks changed during the walk may or may not be seen.
+     * @param action Action to run per task.
+     */
+    void forEachTask(Consumer<Task> action) {
+        taskMap.forEach(action);
+    }
+
+    /**
+     * Weakly consistent spliterator over every task, see TaskStore.spliterator. It splits across the store, so parallel streams scale.
+     * @return Spliterator Tasks in the map.
+     */
+    Spliterator<Task> spliterator() {
+        return taskMap.spliterator();
+    }
+
+    /**
+     * Streams every task without copying the map first, safe while other threads change it.
+     * @return Stream Sequential stream of tasks.
+     */
+    Stream<Task> stream() {
+        return StreamSupport.stream(taskMap.spliterator(), false);
+    }
+
+    /**
+     * Like stream, split across the common fork-join pool.
+     * @return Stream Parallel stream of tasks.
+     */
+    Stream<Task> parallelStream() {
+        return StreamSupport.stream(taskMap.spliterator(), true);
+    }
+
+    /**
+     * Opens a cursor for walking the tasks a page at a time.
+     * @return TaskCursor Cursor positioned before the first task.
+     */
+    TaskCursor openCursor() {
+        return new TaskCursor(taskMap.spliterator());
+    }
+
+    /**
+     * Starts a query over the tasks in place, split across the common fork-join pool unless made sequential.
+     * @return TaskQuery New query matching every task until given a filter.
+     */
+    TaskQuery query() {
+        return new TaskQuery(taskMap::spliterator);
+    }
+
+    /**
+     * Takes an immutable point-in-time view of every task while writers carry on, in O(1) whatever the number of tasks. Needs a service built
+     * on a SnapshotTaskStore, such as one from withSnapshots. With transactions on, the view is taken while no write holds a stripe, so it
+     * never holds part of a TaskTransaction.
+     * @return TaskMapSnapshot View of the tasks as of now, close it when done.
+     * @throws UnsupportedOperationException When the store cannot take snapshots.
+     */
+    TaskMapSnapshot snapshot() {
+        TaskLockTable locks = this.locks;
+        if (locks == null) {
+            return taskMap.snapshot();
+        }
+        int[] stripes = TaskLockTable.allStripes();
+        long[] stamps = locks.lockRead(stripes);
+        try {
+            return taskMap.snapshot();
+        } finally {
+            locks.unlockRead(stripes, stamps);
         }
     }
 
     /**
-     * Function to retrieve the task map for printing all tasks. Made Private since nothing external accesses it.
-     * @return HashMap
+     * Puts a task straight into the map, replacing any task with the same Id, without duplicate checks or listeners. Only for rebuilding state
+     * from persistence before the service takes traffic.
+     * @param task Task to restore.
+     */
+    void restoreTask(Task task) {
+        taskMap.put(task);
+    }
+
+    /**
+     * Removes a task straight from the map without listeners, missing Ids are ignored. Only for rebuilding state from persistence.
+     * @param taskId Id to remove.
+     */
+    void restoreDelete(String taskId) {
+        taskMap.remove(taskId, null, null);
+    }
+
+    /**
+     * Changes a stored task without validation by the service or listeners, missing Ids are ignored. Only for rebuilding state from persistence.
+     * @param taskId Id to change.
+     * @param mutation Change to apply, such as a setter call.
      */
-    private HashMap<String, Task> getAllTasks() {
-        return taskMap;
+    void restoreUpdate(String taskId, Consumer<Task> mutation) {
+        taskMap.update(taskId, mutation);
     }
 }
\ No newline at end of file
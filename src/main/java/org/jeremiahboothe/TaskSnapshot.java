@@ -0,0 +1,154 @@
+package org.jeremiahboothe;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of every task in a TaskService, written by TaskPersistence checkpoints. The file names the first write-ahead log segment that
+ * must be replayed on top of it. Layout: magic, format version, that segment number, an expected task count used to presize the map, then
+ * id/name/description triples in modified UTF-8 each followed by the task's version, an end marker, the real count and a CRC32 of everything
+ * before it. Format 1 files, written before tasks had versions, load with every version at 0.
+ */
+final class TaskSnapshot {
+    static final String FILE_NAME = "tasks.snapshot";
+
+    private static final int MAGIC = 0x54534B53;
+    private static final int FORMAT_VERSION = 2;
+    private static final int UNVERSIONED_FORMAT = 1;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final long firstSegment;
+    private final long taskCount;
+
+    private TaskSnapshot(long firstSegment, long taskCount) {
+        this.firstSegment = firstSegment;
+        this.taskCount = taskCount;
+    }
+
+    /**
+     * @return long First log segment to replay after this snapshot.
+     */
+    long getFirstSegment() {
+        return firstSegment;
+    }
+
+    long getTaskCount() {
+        return taskCount;
+    }
+
+    /**
+     * Writes every task to a temporary file and atomically moves it over the previous snapshot, so a crash mid-write keeps the old snapshot.
+     * Writers may keep changing the service while this runs; those changes are in firstSegment or later, and replaying them repairs the snapshot.
+     * @param directory Persistence directory.
+     * @param taskService Service to snapshot.
+     * @param firstSegment First log segment that is not covered by this snapshot.
+     * @return TaskSnapshot Description of what was written.
+     * @throws IOException When the snapshot cannot be written.
+     */
+    static TaskSnapshot write(Path directory, TaskService taskService, long firstSegment) throws IOException {
+        Path temporary = directory.resolve(FILE_NAME + ".tmp");
+        CRC32 crc = new CRC32();
+        long[] written = new long[1];
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(file, BUFFER_BYTES), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(firstSegment);
+            out.writeInt(taskService.size());
+            try {
+                taskService.forEachTask(task -> {
+                    try {
+                        VersionedTask snapshot = task.snapshot();
+                        out.writeBoolean(true);
+                        out.writeUTF(snapshot.getTaskId());
+                        out.writeUTF(snapshot.getTaskName());
+                        out.writeUTF(snapshot.getTaskDescription());
+                        out.writeInt(snapshot.getVersion());
+                        written[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.writeBoolean(false);
+            out.writeLong(written[0]);
+            out.flush();
+            new DataOutputStream(file).writeLong(crc.getValue());
+            file.getFD().sync();
+        }
+        Files.move(temporary, directory.resolve(FILE_NAME), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory(directory);
+        return new TaskSnapshot(firstSegment, written[0]);
+    }
+
+    /**
+     * Fsyncs the directory so the rename above survives a crash before the caller deletes the log segments the snapshot replaces. Some
+     * platforms, such as Windows, cannot open a directory as a channel; their file systems make the rename durable on their own.
+     * @param directory Persistence directory.
+     * @throws IOException When the directory was opened but could not be synced.
+     */
+    private static void syncDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Loads the snapshot in directory into taskService, if there is one.
+     * @param directory Persistence directory.
+     * @param taskService Service being rebuilt.
+     * @return TaskSnapshot What was loaded, or null when there is no snapshot yet.
+     * @throws IOException When the snapshot is unreadable or fails its checksum.
+     */
+    static TaskSnapshot read(Path directory, TaskService taskService) throws IOException {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), BUFFER_BYTES);
+             DataInputStream in = new DataInputStream(new CheckedInputStream(raw, crc))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a task snapshot: " + file);
+            }
+            int format = in.readInt();
+            if (format != FORMAT_VERSION && format != UNVERSIONED_FORMAT) {
+                throw new IOException("Not a task snapshot: " + file);
+            }
+            long firstSegment = in.readLong();
+            taskService.presize(taskService.size() + in.readInt());
+
+            long read = 0;
+            while (in.readBoolean()) {
+                String taskId = in.readUTF();
+                String taskName = in.readUTF();
+                String taskDescription = in.readUTF();
+                int version = format == FORMAT_VERSION ? in.readInt() : 0;
+                taskService.restoreTask(new Task(taskId, taskName, taskDescription, version));
+                read++;
+            }
+            long expected = in.readLong();
+            long computedCrc = crc.getValue();
+            long storedCrc = new DataInputStream(raw).readLong();
+            if (read != expected || storedCrc != computedCrc) {
+                throw new IOException("Task snapshot is corrupt: " + file);
+            }
+            return new TaskSnapshot(firstSegment, read);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.jeremiahboothe;
+
+/**
+ * Outcome of the exception-free TaskService methods (tryAdd, tryDelete, the tryUpdate methods and compareAndSetTask). Returning a constant instead of throwing
+ * means a miss costs no allocation and no stack trace, which matters when misses are a normal part of the traffic.
+ */
+public enum TaskStatus {
+    /**
+     * The change was applied.
+     */
+    OK,
+    /**
+     * An add found a task already stored under the Id.
+     */
+    ALREADY_EXISTS,
+    /**
+     * A delete or update found no task under the Id.
+     */
+    NOT_FOUND,
+    /**
+     * A field failed validation, nothing was changed. TaskValidation tells which check failed.
+     */
+    INVALID,
+    /**
+     * A compare-and-set found the task at another version than the caller read, nothing was changed.
+     */
+    VERSION_CONFLICT;
+
+    /**
+     * @return boolean True when this is OK.
+     */
+    public boolean isOk() {
+        return this == OK;
+    }
+}
@@ -0,0 +1,81 @@
+package org.jeremiahboothe;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Storage engine behind TaskService. Every mutating call is atomic per Id, and the callbacks it takes run inside that atomic section, which is
+ * how TaskService keeps its change listeners in order with the changes themselves.
+ */
+interface TaskStore {
+
+    /**
+     * @param taskId Id to look up.
+     * @return Task The stored Task, or null when the Id is absent.
+     */
+    Task get(String taskId);
+
+    /**
+     * Adds the task unless its Id is taken.
+     * @param task Task to add.
+     * @param beforeInsert Runs inside the atomic section just before the task is stored, may be null. If it throws, nothing is stored.
+     * @return boolean True when the task was added.
+     */
+    boolean insertIfAbsent(Task task, Consumer<Task> beforeInsert);
+
+    /**
+     * Removes the task stored under taskId.
+     * @param taskId Id to remove.
+     * @param expected Only remove if this Task is the one stored, or null to remove whatever is there.
+     * @param beforeRemove Runs inside the atomic section just before the task is removed, may be null. If it throws, nothing is removed.
+     * @return Task The removed Task, or null when nothing was removed.
+     */
+    Task remove(String taskId, Task expected, Consumer<Task> beforeRemove);
+
+    /**
+     * Changes the task stored under taskId in place.
+     * @param taskId Id to update.
+     * @param mutation Runs inside the atomic section on the stored task. If it throws, the stored task is left as it was.
+     * @return Task The updated Task, or null when the Id is absent.
+     */
+    Task update(String taskId, Consumer<Task> mutation);
+
+    /**
+     * Stores the task, replacing any task with the same Id, with no callbacks. Used to rebuild state.
+     * @param task Task to store.
+     */
+    void put(Task task);
+
+    /**
+     * @return int Number of stored tasks.
+     */
+    int size();
+
+    /**
+     * Runs the action on every stored task. Safe while other threads change the store; tasks changed during the walk may or may not be seen.
+     * @param action Action to run per task.
+     */
+    void forEach(Consumer<Task> action);
+
+    /**
+     * Weakly consistent spliterator over the stored tasks with the same guarantees as forEach. It splits into independent ranges of the store for
+     * parallel streams and never fails with ConcurrentModificationException.
+     * @return Spliterator Stored tasks, CONCURRENT and NONNULL.
+     */
+    Spliterator<Task> spliterator();
+
+    /**
+     * Grows the store up front to hold expectedSize tasks without resizing, a hint only.
+     * @param expectedSize Total tasks the store should hold.
+     */
+    void presize(int expectedSize);
+
+    /**
+     * Freezes the store's current contents into an immutable view while writes carry on. Only SnapshotTaskStore supports it.
+     * @return TaskMapSnapshot Point-in-time view, close it when done.
+     * @throws UnsupportedOperationException When the store cannot take snapshots.
+     */
+    default TaskMapSnapshot snapshot() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot take snapshots, wrap it in a SnapshotTaskStore");
+    }
+}
@@ -0,0 +1,110 @@
+package org.jeremiahboothe;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded intern table for task names and descriptions, which repeat heavily across tasks. Installed with Task.useStringPool, the Task
+ * constructor and setters keep the pooled copy of each value, so tasks sharing a name share one String.
+ * The table is two-way set associative and lock-free: a value hashes to a pair of slots and is looked up in both. A miss takes an empty slot,
+ * else one not hit since its pair was last swept, giving entries a second chance in the style of CLOCK. Values seen only once are replaced
+ * first, so unique descriptions cannot push out the common ones. Races between threads only cost a missed deduplication, since any value
+ * returned equals the one passed in.
+ */
+final class TaskStringPool {
+    private final AtomicReferenceArray<String> entries;
+    private final AtomicIntegerArray referenced;
+    private final int pairMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity Most strings to keep, rounded up to a power of two.
+     */
+    TaskStringPool(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Pool capacity must be at least 2!");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.entries = new AtomicReferenceArray<>(size);
+        this.referenced = new AtomicIntegerArray(size);
+        this.pairMask = (size - 1) & ~1;
+    }
+
+    /**
+     * @param value String to deduplicate.
+     * @return String The pooled String equal to value, or value itself when it is not pooled.
+     */
+    String intern(String value) {
+        int hash = value.hashCode();
+        int first = (hash ^ (hash >>> 16)) & pairMask;
+        for (int slot = first; slot < first + 2; slot++) {
+            String entry = entries.get(slot);
+            if (entry != null && entry.hashCode() == hash && entry.equals(value)) {
+                if (referenced.get(slot) == 0) {
+                    referenced.lazySet(slot, 1);
+                }
+                hits.increment();
+                return entry;
+            }
+        }
+        misses.increment();
+        for (int slot = first; slot < first + 2; slot++) {
+            String entry = entries.get(slot);
+            if (entry == null) {
+                if (entries.compareAndSet(slot, null, value)) {
+                    return value;
+                }
+            } else if (referenced.get(slot) == 0 && entries.compareAndSet(slot, entry, value)) {
+                evictions.increment();
+                return value;
+            }
+        }
+        referenced.lazySet(first, 0);
+        referenced.lazySet(first + 1, 0);
+        return value;
+    }
+
+    /**
+     * @return int Slots in the table.
+     */
+    int getCapacity() {
+        return entries.length();
+    }
+
+    /**
+     * @return int Strings pooled right now.
+     */
+    int size() {
+        int size = 0;
+        for (int i = 0; i < entries.length(); i++) {
+            if (entries.get(i) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return long Lookups that returned a pooled String.
+     */
+    long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return long Lookups that found no equal String.
+     */
+    long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return long Pooled Strings replaced by a newer value.
+     */
+    long getEvictionCount() {
+        return evictions.sum();
+    }
+}
@@ -0,0 +1,285 @@
+package org.jeremiahboothe;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A group of adds, updates and deletes across several tasks, staged in order and committed as one, opened with
+ * TaskService.beginTransaction. commit validates every staged field first, then holds the lock stripes of all the Ids, checks every
+ * operation against the stored tasks and the operations staged before it, and applies them all or none. Transactions on different stripes
+ * commit in parallel; ones sharing a stripe wait for each other, and single-task writes to those Ids wait for the commit.
+ * While the stripes are held, TaskService.getVersionedTasks and TaskService.snapshot wait or retry, so they see the transaction whole or not
+ * at all; plain getTaskById reads and walks over the live map may see it part way, as they can any write.
+ * Listeners are told of each operation as it is applied. If one throws, such as the write-ahead log failing to write, the operations
+ * already applied are undone with opposite changes, so listeners see those too, updated tasks keep their raised version, and the exception
+ * is rethrown. A TaskTransaction is staged and committed from one thread, and committed once.
+ */
+final class TaskTransaction {
+    private enum Kind {
+        ADD, UPDATE_NAME, UPDATE_DESCRIPTION, DELETE, EXPECT_VERSION
+    }
+
+    /**
+     * One staged operation; the fields it does not use are null or 0.
+     */
+    private static final class Operation {
+        private final Kind kind;
+        private final String taskId;
+        private final String taskName;
+        private final String taskDescription;
+        private final int version;
+
+        Operation(Kind kind, String taskId, String taskName, String taskDescription, int version) {
+            this.kind = kind;
+            this.taskId = taskId;
+            this.taskName = taskName;
+            this.taskDescription = taskDescription;
+            this.version = version;
+        }
+
+        TaskValidation validate() {
+            switch (kind) {
+                case ADD:
+                    return TaskValidation.check(taskId, taskName, taskDescription);
+                case UPDATE_NAME:
+                    return taskId == null ? TaskValidation.ID_NULL : TaskValidation.checkName(taskName);
+                case UPDATE_DESCRIPTION:
+                    return taskId == null ? TaskValidation.ID_NULL : TaskValidation.checkDescription(taskDescription);
+                default:
+                    return taskId == null ? TaskValidation.ID_NULL : TaskValidation.VALID;
+            }
+        }
+    }
+
+    private final TaskService taskService;
+    private final TaskLockTable locks;
+    private final List<Operation> operations = new ArrayList<>();
+    private boolean committed;
+    private int failedOperation = -1;
+    private TaskValidation validation = TaskValidation.VALID;
+
+    TaskTransaction(TaskService taskService, TaskLockTable locks) {
+        this.taskService = taskService;
+        this.locks = locks;
+    }
+
+    /**
+     * @return TaskTransaction This transaction, with an add of a new task staged.
+     */
+    TaskTransaction addTask(String taskId, String taskName, String taskDescription) {
+        return stage(new Operation(Kind.ADD, taskId, taskName, taskDescription, 0));
+    }
+
+    /**
+     * @return TaskTransaction This transaction, with a rename staged.
+     */
+    TaskTransaction updateTaskName(String taskId, String taskName) {
+        return stage(new Operation(Kind.UPDATE_NAME, taskId, taskName, null, 0));
+    }
+
+    /**
+     * @return TaskTransaction This transaction, with a description change staged.
+     */
+    TaskTransaction updateTaskDescription(String taskId, String taskDescription) {
+        return stage(new Operation(Kind.UPDATE_DESCRIPTION, taskId, null, taskDescription, 0));
+    }
+
+    /**
+     * @return TaskTransaction This transaction, with a delete staged.
+     */
+    TaskTransaction deleteTask(String taskId) {
+        return stage(new Operation(Kind.DELETE, taskId, null, null, 0));
+    }
+
+    /**
+     * Makes the commit depend on a task not having changed since it was read, as compareAndSetTask does for one task. Checked against the
+     * stored task when the commit starts, wherever it is staged.
+     * @param taskId Id of a task the transaction relies on.
+     * @param version Version from getVersionedTask or getVersionedTasks.
+     * @return TaskTransaction This transaction.
+     */
+    TaskTransaction expectVersion(String taskId, int version) {
+        return stage(new Operation(Kind.EXPECT_VERSION, taskId, null, null, version));
+    }
+
+    private TaskTransaction stage(Operation operation) {
+        requireOpen();
+        operations.add(operation);
+        return this;
+    }
+
+    private void requireOpen() {
+        if (committed) {
+            throw new IllegalStateException("Transaction already committed!");
+        }
+    }
+
+    /**
+     * Applies every staged operation, or none of them.
+     * @return TaskStatus OK when all were applied; otherwise the first failure, and nothing was changed: INVALID for a bad field,
+     * ALREADY_EXISTS for an add of a taken Id, NOT_FOUND for an update or delete of an absent Id, VERSION_CONFLICT for a failed expectVersion.
+     * @throws IllegalStateException When the transaction was already committed.
+     */
+    TaskStatus commit() {
+        requireOpen();
+        committed = true;
+        for (int i = 0; i < operations.size(); i++) {
+            TaskValidation checked = operations.get(i).validate();
+            if (!checked.isValid()) {
+                TaskMetrics.validationFailed(taskService.getMetrics(), checked);
+                validation = checked;
+                return fail(i, TaskStatus.INVALID);
+            }
+        }
+        List<String> taskIds = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            taskIds.add(operation.taskId);
+        }
+        int[] stripes = TaskLockTable.stripesOf(taskIds);
+        long[] stamps = locks.lockWrite(stripes);
+        try {
+            TaskStatus status = check();
+            if (status == TaskStatus.OK) {
+                apply();
+            }
+            return status;
+        } finally {
+            locks.unlockWrite(stripes, stamps);
+        }
+    }
+
+    /**
+     * Plays the operations against whether each Id is present, starting from the stored tasks, without changing anything.
+     */
+    private TaskStatus check() {
+        Map<String, Boolean> present = new HashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            Operation operation = operations.get(i);
+            if (operation.kind == Kind.EXPECT_VERSION) {
+                Task stored = taskService.getTaskById(operation.taskId);
+                if (stored == null) {
+                    return fail(i, TaskStatus.NOT_FOUND);
+                }
+                if (stored.getVersion() != operation.version) {
+                    return fail(i, TaskStatus.VERSION_CONFLICT);
+                }
+            }
+        }
+        for (int i = 0; i < operations.size(); i++) {
+            Operation operation = operations.get(i);
+            if (operation.kind == Kind.EXPECT_VERSION) {
+                continue;
+            }
+            boolean exists = present.computeIfAbsent(operation.taskId, taskId -> taskService.getTaskById(taskId) != null);
+            if (operation.kind == Kind.ADD) {
+                if (exists) {
+                    return fail(i, TaskStatus.ALREADY_EXISTS);
+                }
+                present.put(operation.taskId, true);
+            } else if (!exists) {
+                return fail(i, TaskStatus.NOT_FOUND);
+            } else if (operation.kind == Kind.DELETE) {
+                present.put(operation.taskId, false);
+            }
+        }
+        return TaskStatus.OK;
+    }
+
+    /**
+     * Applies the checked operations in order, undoing the applied ones if a listener throws.
+     */
+    private void apply() {
+        List<Runnable> undo = new ArrayList<>(operations.size());
+        try {
+            for (Operation operation : operations) {
+                String taskId = operation.taskId;
+                switch (operation.kind) {
+                    case ADD:
+                        if (!taskService.applyAdd(new Task(taskId, operation.taskName, operation.taskDescription))) {
+                            throw changedOutside(taskId);
+                        }
+                        undo.add(() -> taskService.applyDelete(taskId));
+                        break;
+                    case UPDATE_NAME:
+                        String oldName = requireStored(taskId).getTaskName();
+                        taskService.applyUpdate(taskId, taskService.nameChange(operation.taskName), null);
+                        undo.add(() -> taskService.applyUpdate(taskId, taskService.nameChange(oldName), null));
+                        break;
+                    case UPDATE_DESCRIPTION:
+                        String oldDescription = requireStored(taskId).getTaskDescription();
+                        taskService.applyUpdate(taskId, taskService.descriptionChange(operation.taskDescription), null);
+                        undo.add(() -> taskService.applyUpdate(taskId, taskService.descriptionChange(oldDescription), null));
+                        break;
+                    case DELETE:
+                        Task removed = taskService.applyDelete(taskId);
+                        if (removed == null) {
+                            throw changedOutside(taskId);
+                        }
+                        undo.add(() -> taskService.applyAdd(removed));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (RuntimeException e) {
+            for (int i = undo.size() - 1; i >= 0; i--) {
+                try {
+                    undo.get(i).run();
+                } catch (RuntimeException undoFailure) {
+                    System.err.println("Transaction rollback failed: " + undoFailure);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private Task requireStored(String taskId) {
+        Task stored = taskService.getTaskById(taskId);
+        if (stored == null) {
+            throw changedOutside(taskId);
+        }
+        return stored;
+    }
+
+    /**
+     * Only restoreTask and the other persistence calls write without a stripe, so this means one ran while the service took traffic.
+     */
+    private static IllegalStateException changedOutside(String taskId) {
+        return new IllegalStateException("Task Id: " + taskId + " changed outside the transaction!");
+    }
+
+    private TaskStatus fail(int operation, TaskStatus status) {
+        failedOperation = operation;
+        return status;
+    }
+
+    /**
+     * @return int Number of staged operations.
+     */
+    int size() {
+        return operations.size();
+    }
+
+    /**
+     * @return int Position, in staging order from 0, of the operation that made commit fail, or -1.
+     */
+    int getFailedOperation() {
+        return failedOperation;
+    }
+
+    /**
+     * @return String Id of the operation that made commit fail, or null.
+     */
+    String getFailedTaskId() {
+        return failedOperation < 0 ? null : operations.get(failedOperation).taskId;
+    }
+
+    /**
+     * @return TaskValidation The failed check when commit returned INVALID, otherwise VALID.
+     */
+    TaskValidation getValidation() {
+        return validation;
+    }
+}
@@ -0,0 +1,121 @@
+package org.jeremiahboothe;
+
+/**
+ * Result codes for Task field validation. Every message is a precomputed constant, so checking a valid value allocates nothing and bulk callers can
+ * inspect the code instead of catching an exception per bad row. Task itself converts a failed code into the matching exception.
+ */
+enum TaskValidation {
+    VALID(null, null),
+    ID_NULL("Task Id", "Task Id cannot be null!"),
+    ID_TOO_LONG("Task Id", "Task Id cannot be longer than " + Task.TASK_ID_MAX_LENGTH + "!"),
+    NAME_NULL("Task Name", "Task Name cannot be null!"),
+    NAME_TOO_LONG("Task Name", "Task Name cannot be longer than " + Task.TASK_NAME_MAX_LENGTH + "!"),
+    DESCRIPTION_NULL("Task Description", "Task Description cannot be null!"),
+    DESCRIPTION_TOO_LONG("Task Description", "Task Description cannot be longer than " + Task.TASK_DESCRIPTION_MAX_LENGTH + "!");
+
+    private final String field;
+    private final String message;
+
+    /**
+     * @param field Name of the field the code refers to, null for VALID.
+     * @param message Exception message for the failure, null for VALID.
+     */
+    TaskValidation(String field, String message) {
+        this.field = field;
+        this.message = message;
+    }
+
+    /**
+     * Checks a Task Id for null and length.
+     * @param taskId Id to check.
+     * @return TaskValidation VALID, ID_NULL or ID_TOO_LONG.
+     */
+    static TaskValidation checkId(String taskId) {
+        if (taskId == null) {
+            return ID_NULL;
+        }
+        return taskId.length() > Task.TASK_ID_MAX_LENGTH ? ID_TOO_LONG : VALID;
+    }
+
+    /**
+     * Checks a Task Name for null and length.
+     * @param taskName Name to check.
+     * @return TaskValidation VALID, NAME_NULL or NAME_TOO_LONG.
+     */
+    static TaskValidation checkName(String taskName) {
+        if (taskName == null) {
+            return NAME_NULL;
+        }
+        return taskName.length() > Task.TASK_NAME_MAX_LENGTH ? NAME_TOO_LONG : VALID;
+    }
+
+    /**
+     * Checks a Task Description for null and length.
+     * @param taskDescription Description to check.
+     * @return TaskValidation VALID, DESCRIPTION_NULL or DESCRIPTION_TOO_LONG.
+     */
+    static TaskValidation checkDescription(String taskDescription) {
+        if (taskDescription == null) {
+            return DESCRIPTION_NULL;
+        }
+        return taskDescription.length() > Task.TASK_DESCRIPTION_MAX_LENGTH ? DESCRIPTION_TOO_LONG : VALID;
+    }
+
+    /**
+     * Checks all three fields in the same order the Task constructor does, returning the first failure.
+     * @param taskId Id to check.
+     * @param taskName Name to check.
+     * @param taskDescription Description to check.
+     * @return TaskValidation VALID or the first failing code.
+     */
+    static TaskValidation check(String taskId, String taskName, String taskDescription) {
+        TaskValidation result = checkId(taskId);
+        if (result != VALID) {
+            return result;
+        }
+        result = checkName(taskName);
+        if (result != VALID) {
+            return result;
+        }
+        return checkDescription(taskDescription);
+    }
+
+    /**
+     * @return boolean True when this is VALID.
+     */
+    boolean isValid() {
+        return this == VALID;
+    }
+
+    /**
+     * @return String Field the failure refers to, null for VALID.
+     */
+    String getField() {
+        return field;
+    }
+
+    /**
+     * @return String Exception message for the failure, null for VALID.
+     */
+    String getMessage() {
+        return message;
+    }
+
+    /**
+     * Throws the exception Task has always thrown for this failure: NullPointerException for nulls, IllegalArgumentException for lengths. Does nothing for VALID.
+     * @throws NullPointerException When the code is a null failure.
+     * @throws IllegalArgumentException When the code is a length failure.
+     */
+    void throwIfInvalid() throws NullPointerException, IllegalArgumentException {
+        switch (this) {
+            case VALID:
+                return;
+            case ID_NULL:
+            case NAME_NULL:
+            case DESCRIPTION_NULL:
+                throw new NullPointerException(message);
+            default:
+                throw new IllegalArgumentException(message);
+        }
+    }
+}
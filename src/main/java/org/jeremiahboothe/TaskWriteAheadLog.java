@@ -0,0 +1,295 @@
+package org.jeremiahboothe;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of every TaskService change, registered as a TaskChangeListener. Appends only copy the encoded record into an in-memory buffer;
+ * flush() writes everything buffered since the last flush with one write and one fsync, so concurrent writers share the cost of each fsync (group
+ * commit). TaskPersistence calls flush() on a short timer, so a crash loses at most that interval of changes.
+ * The log is split into numbered segment files so a checkpoint can start a new segment and delete the ones its snapshot covers.
+ * Each record is [int payload length][int CRC32 of payload][payload], so a record torn by a crash is detected and dropped on replay.
+ */
+final class TaskWriteAheadLog implements TaskChangeListener, Closeable {
+    static final byte ADD = 1;
+    static final byte UPDATE_NAME = 2;
+    static final byte UPDATE_DESCRIPTION = 3;
+    static final byte DELETE = 4;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("tasks-(\\d{20})\\.log");
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final Object appendLock = new Object();
+    private final Object flushLock = new Object();
+    private ByteBuffer activeBuffer;
+    private ByteBuffer flushBuffer;
+    private FileChannel channel;
+    private long segment;
+    private boolean closed;
+
+    /**
+     * Opens a new, empty segment numbered segment in directory.
+     * @param directory Directory holding the segment files.
+     * @param segment Number of the first segment to write.
+     * @param bufferBytes Bytes buffered between flushes before an append has to flush itself.
+     * @throws IOException When the segment cannot be created.
+     */
+    TaskWriteAheadLog(Path directory, long segment, int bufferBytes) throws IOException {
+        this.directory = directory;
+        this.segment = segment;
+        this.activeBuffer = ByteBuffer.allocate(bufferBytes);
+        this.flushBuffer = ByteBuffer.allocate(bufferBytes);
+        this.channel = openSegment(directory, segment);
+    }
+
+    private static FileChannel openSegment(Path directory, long segment) throws IOException {
+        return FileChannel.open(segmentPath(directory, segment),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    static Path segmentPath(Path directory, long segment) {
+        return directory.resolve(String.format("tasks-%020d.log", segment));
+    }
+
+    /**
+     * Lists the segment numbers present in directory, oldest first.
+     * @param directory Directory holding the segment files.
+     * @return List Segment numbers in ascending order.
+     * @throws IOException When the directory cannot be listed.
+     */
+    static List<Long> listSegments(Path directory) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    @Override
+    public void taskAdded(Task task) {
+        append(ADD, task.getTaskId(), task.getTaskName(), task.getTaskDescription());
+    }
+
+    @Override
+    public void taskNameUpdated(Task task, String taskName) {
+        append(UPDATE_NAME, task.getTaskId(), taskName, null);
+    }
+
+    @Override
+    public void taskDescriptionUpdated(Task task, String taskDescription) {
+        append(UPDATE_DESCRIPTION, task.getTaskId(), taskDescription, null);
+    }
+
+    @Override
+    public void taskDeleted(Task task) {
+        append(DELETE, task.getTaskId(), null, null);
+    }
+
+    /**
+     * Encodes one record and copies it into the active buffer, flushing first if the buffer is full.
+     */
+    private void append(byte type, String taskId, String first, String second) {
+        byte[] record = encode(type, taskId, first, second);
+        while (true) {
+            synchronized (appendLock) {
+                if (closed) {
+                    throw new IllegalStateException("Write-ahead log is closed!");
+                }
+                if (activeBuffer.remaining() >= record.length) {
+                    activeBuffer.put(record);
+                    return;
+                }
+            }
+            flush();
+        }
+    }
+
+    private static byte[] encode(byte type, String taskId, String first, String second) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeByte(type);
+            out.writeUTF(taskId);
+            if (first != null) {
+                out.writeUTF(first);
+            }
+            if (second != null) {
+                out.writeUTF(second);
+            }
+            byte[] record = bytes.toByteArray();
+
+            int payloadLength = record.length - RECORD_HEADER_BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(record, RECORD_HEADER_BYTES, payloadLength);
+            ByteBuffer.wrap(record).putInt(payloadLength).putInt((int) crc.getValue());
+            return record;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes and fsyncs everything appended so far. Appends keep going into the other buffer while this runs.
+     * @throws UncheckedIOException When the write or fsync fails.
+     */
+    void flush() {
+        synchronized (flushLock) {
+            ByteBuffer toWrite;
+            FileChannel target;
+            synchronized (appendLock) {
+                if (activeBuffer.position() == 0) {
+                    return;
+                }
+                toWrite = activeBuffer;
+                activeBuffer = flushBuffer;
+                flushBuffer = toWrite;
+                target = channel;
+            }
+            writeAndSync(toWrite, target);
+        }
+    }
+
+    /**
+     * Closes the current segment and starts the next one. Every change appended before this call is in the old segment, every later change in the new one.
+     * @return long Number of the new segment.
+     * @throws IOException When the new segment cannot be created.
+     */
+    long rotate() throws IOException {
+        synchronized (flushLock) {
+            ByteBuffer toWrite;
+            FileChannel previous;
+            long next;
+            synchronized (appendLock) {
+                next = segment + 1;
+                FileChannel nextChannel = openSegment(directory, next);
+                toWrite = activeBuffer;
+                activeBuffer = flushBuffer;
+                flushBuffer = toWrite;
+                previous = channel;
+                channel = nextChannel;
+                segment = next;
+            }
+            writeAndSync(toWrite, previous);
+            previous.close();
+            return next;
+        }
+    }
+
+    private static void writeAndSync(ByteBuffer buffer, FileChannel target) {
+        try {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            target.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Flushes what is buffered and closes the segment, later appends throw IllegalStateException.
+     * @throws IOException When the final write or close fails.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (flushLock) {
+            synchronized (appendLock) {
+                closed = true;
+            }
+            flush();
+            channel.close();
+        }
+    }
+
+    /**
+     * Applies one segment to taskService, stopping at the first torn or corrupt record and truncating the file there so later appends never follow garbage.
+     * Every record sets absolute values, so replaying changes a snapshot already contains leaves the same result.
+     * @param file Segment file.
+     * @param taskService Service being rebuilt.
+     * @return long Number of records applied.
+     * @throws IOException When the file cannot be read.
+     */
+    static long replay(Path file, TaskService taskService) throws IOException {
+        long applied = 0;
+        long validBytes = 0;
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 20))) {
+            while (true) {
+                int payloadLength;
+                int expectedCrc;
+                byte[] payload;
+                try {
+                    payloadLength = in.readInt();
+                    expectedCrc = in.readInt();
+                    if (payloadLength <= 0 || payloadLength > 1 << 16) {
+                        break;
+                    }
+                    payload = new byte[payloadLength];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != expectedCrc) {
+                    break;
+                }
+                apply(payload, taskService);
+                applied++;
+                validBytes += RECORD_HEADER_BYTES + payloadLength;
+            }
+        }
+        if (validBytes < Files.size(file)) {
+            try (FileChannel truncate = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                truncate.truncate(validBytes);
+            }
+        }
+        return applied;
+    }
+
+    private static void apply(byte[] payload, TaskService taskService) throws IOException {
+        DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = record.readByte();
+        String taskId = record.readUTF();
+        switch (type) {
+            case ADD:
+                taskService.restoreTask(new Task(taskId, record.readUTF(), record.readUTF()));
+                break;
+            case UPDATE_NAME:
+                String taskName = record.readUTF();
+                taskService.restoreUpdate(taskId, task -> task.setTaskName(taskName));
+                break;
+            case UPDATE_DESCRIPTION:
+                String taskDescription = record.readUTF();
+                taskService.restoreUpdate(taskId, task -> task.setTaskDescription(taskDescription));
+                break;
+            case DELETE:
+                taskService.restoreDelete(taskId);
+                break;
+            default:
+                throw new IOException("Unknown write-ahead log record type " + type);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.jeremiahboothe;
+
+/**
+ * Immutable copy of a task as it was at one version, returned by TaskService.getVersionedTask. Pass its version to
+ * TaskService.compareAndSetTask to change the task only if nobody else changed it since.
+ */
+public final class VersionedTask {
+    private final String taskId;
+    private final String taskName;
+    private final String taskDescription;
+    private final int version;
+
+    VersionedTask(String taskId, String taskName, String taskDescription, int version) {
+        this.taskId = taskId;
+        this.taskName = taskName;
+        this.taskDescription = taskDescription;
+        this.version = version;
+    }
+
+    /**
+     * @return String Id of the task.
+     */
+    public String getTaskId() {
+        return taskId;
+    }
+
+    /**
+     * @return String Name at this version.
+     */
+    public String getTaskName() {
+        return taskName;
+    }
+
+    /**
+     * @return String Description at this version.
+     */
+    public String getTaskDescription() {
+        return taskDescription;
+    }
+
+    /**
+     * @return int Number of changes applied to the task up to this copy.
+     */
+    public int getVersion() {
+        return version;
+    }
+}
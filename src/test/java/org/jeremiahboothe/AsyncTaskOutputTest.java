@@ -0,0 +1,226 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class AsyncTaskOutputTest {
+    private static final String NL = System.lineSeparator();
+
+    private ByteArrayOutputStream bytes;
+    private WritableByteChannel channel;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * Each test collects the sink's output in memory.
+     */
+    @BeforeEach
+    void setUpCapture() {
+        bytes = new ByteArrayOutputStream();
+        channel = Channels.newChannel(bytes);
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    private String captured() {
+        synchronized (bytes) {
+            return bytes.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * deleteTask, displayValues and printAllTasks all go through the service's sink and print what they printed before.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Service Output Goes Through The Sink:")
+    void testServiceOutput() {
+        TaskService taskService = new TaskService();
+        assertThrows(NullPointerException.class, () -> taskService.setOutput(null));
+        try (AsyncTaskOutput output = new AsyncTaskOutput(channel, 64, 16, AsyncTaskOutput.OverflowPolicy.BLOCK)) {
+            taskService.setOutput(output);
+            taskService.addTask(new Task("1", "Walk Dog", "Around the block"));
+            taskService.addTask(new Task("2", "Feed Cat", "Fill the bowl"));
+            taskService.displayValues("1");
+            taskService.deleteTask("2");
+            taskService.printAllTasks();
+            output.flush();
+
+            assertEquals("Task Id: 1" + NL + "Task Name: Walk Dog" + NL + "Task Description: Around the block" + NL
+                    + "Task with Id: 2 deleted successfully!" + NL
+                    + "Retrieved Task from Index [1]:" + NL
+                    + "Task Id: 1" + NL + "Task Name: Walk Dog" + NL + "Task Description: Around the block" + NL
+                    + "\n" + NL, captured());
+            assertEquals(9, output.getWrittenCount());
+            assertTrue(output.getBatchCount() <= output.getWrittenCount());
+        }
+    }
+
+    /**
+     * With the channel stuck, DROP keeps callers moving and counts what it throws away, BLOCK makes the caller wait and loses nothing. A
+     * closed sink drops instead of queueing for a writer that is gone.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Drop And Block When Full:")
+    void testOverflowPolicies() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        WritableByteChannel stuck = new GatedChannel(channel, release);
+        try (AsyncTaskOutput output = new AsyncTaskOutput(stuck, 4, 1, AsyncTaskOutput.OverflowPolicy.DROP)) {
+            for (int i = 0; i < 100; i++) {
+                output.println("Line ", String.valueOf(i), "");
+            }
+            assertTrue(output.getDroppedCount() > 0);
+            release.countDown();
+            output.flush();
+            assertEquals(100, output.getWrittenCount() + output.getDroppedCount());
+        }
+        AsyncTaskOutput closed = new AsyncTaskOutput(channel, 4, 1, AsyncTaskOutput.OverflowPolicy.BLOCK);
+        closed.close();
+        closed.println("After close");
+        assertEquals(1, closed.getDroppedCount());
+
+        bytes.reset();
+        CountDownLatch blockRelease = new CountDownLatch(1);
+        try (AsyncTaskOutput output = new AsyncTaskOutput(new GatedChannel(channel, blockRelease), 4, 1,
+                AsyncTaskOutput.OverflowPolicy.BLOCK)) {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            Future<?> caller = executor.submit(() -> {
+                for (int i = 0; i < 100; i++) {
+                    output.println("Line ", String.valueOf(i), "");
+                }
+            });
+            Thread.sleep(200);
+            assertFalse(caller.isDone(), "Caller should wait for the stuck writer");
+            blockRelease.countDown();
+            caller.get(30, TimeUnit.SECONDS);
+            executor.shutdown();
+            output.flush();
+            assertEquals(0, output.getDroppedCount());
+            StringBuilder expected = new StringBuilder();
+            for (int i = 0; i < 100; i++) {
+                expected.append("Line ").append(i).append(NL);
+            }
+            assertEquals(expected.toString(), captured());
+        }
+    }
+
+    /**
+     * Many threads printing at once: every line arrives whole, once, and each thread's lines stay in its order, in far fewer writes.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Concurrent Callers Keep Their Order:")
+    void testConcurrentCallers() throws Exception {
+        int threads = 4;
+        int linesPerThread = 20_000;
+        AsyncTaskOutput output = new AsyncTaskOutput(channel, 1024, 256, AsyncTaskOutput.OverflowPolicy.BLOCK);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String prefix = "T" + t + " ";
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < linesPerThread; i++) {
+                    output.println(prefix, String.valueOf(i), " done");
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        output.close();
+
+        String[] lines = captured().split(NL);
+        assertEquals(threads * linesPerThread, lines.length);
+        int[] nextPerThread = new int[threads];
+        for (String line : lines) {
+            String[] parts = line.split(" ");
+            assertEquals(3, parts.length, "Torn line: " + line);
+            int thread = Integer.parseInt(parts[0].substring(1));
+            assertEquals(nextPerThread[thread]++, Integer.parseInt(parts[1]));
+        }
+        assertEquals(threads * linesPerThread, output.getWrittenCount());
+        System.out.printf("%d lines in %d writes%n", output.getWrittenCount(), output.getBatchCount());
+        assertTrue(output.getBatchCount() < output.getWrittenCount());
+    }
+
+    /**
+     * Channel that holds every write until released, then passes it on.
+     */
+    private final class GatedChannel implements WritableByteChannel {
+        private final WritableByteChannel target;
+        private final CountDownLatch release;
+
+        GatedChannel(WritableByteChannel target, CountDownLatch release) {
+            this.target = target;
+            this.release = release;
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (bytes) {
+                return target.write(source);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class AsyncTaskServiceTest {
+    private TaskService taskService;
+    private AsyncTaskService asyncTaskService;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * Each test wraps its own isolated TaskService.
+     */
+    @BeforeEach
+    void setUpAsyncService() {
+        taskService = new TaskService();
+        asyncTaskService = new AsyncTaskService(taskService);
+        System.out.println("Virtual threads: " + asyncTaskService.usesVirtualThreads());
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        asyncTaskService.close();
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    /**
+     * Add, read, update and delete through the futures.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Async Add, Get, Update and Delete:")
+    void testAsyncOperations() {
+        asyncTaskService.addTask("53354", "Finish CS-320 Paper", "So Many Code Snippets").join();
+        asyncTaskService.updateTaskName("53354", "UPDATED").join();
+        asyncTaskService.updateTaskDescription("53354", "UPDATED").join();
+
+        Task task = asyncTaskService.getTaskById("53354").join();
+        assertEquals("UPDATED", task.getTaskName());
+        assertEquals("UPDATED", task.getTaskDescription());
+
+        List<String> printed = new ArrayList<>();
+        taskService.setOutput(printed::add);
+        asyncTaskService.deleteTask("53354").join();
+        assertNull(asyncTaskService.getTaskById("53354").join());
+        assertEquals(List.of("Task with Id: 53354 deleted successfully!"), printed);
+    }
+
+    /**
+     * Failures complete the future with the exception the blocking method throws.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Async Failures Complete Exceptionally:")
+    void testAsyncFailures() {
+        CompletionException tooLong = assertThrows(CompletionException.class,
+                () -> asyncTaskService.addTask("44256456897", "Read Book", "Read the first chapter of a new novel").join());
+        assertInstanceOf(IllegalArgumentException.class, tooLong.getCause());
+
+        CompletionException missing = assertThrows(CompletionException.class, () -> asyncTaskService.deleteTask("175").join());
+        assertInstanceOf(NullPointerException.class, missing.getCause());
+        assertEquals("Task Id: 175 does not exist", missing.getCause().getMessage());
+        System.out.println(missing.getCause().getMessage());
+    }
+
+    /**
+     * Ten thousand callers in flight at once all complete.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Ten Thousand Concurrent Callers:")
+    void testManyConcurrentCallers() {
+        List<CompletableFuture<Void>> adds = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            adds.add(asyncTaskService.addTask(String.valueOf(i), "Task " + i, "Async"));
+        }
+        CompletableFuture.allOf(adds.toArray(new CompletableFuture<?>[0])).join();
+
+        assertEquals(10_000, taskService.size());
+    }
+}
@@ -0,0 +1,236 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class CachingTaskStoreTest {
+    @TempDir
+    Path directory;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    private FileTaskBackingStore openFile() throws IOException {
+        return FileTaskBackingStore.open(directory.resolve("tasks.dat"));
+    }
+
+    /**
+     * The TaskService operations behave the same through the cache, and every change is in the file as soon as the call returns.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Write-Through Service Operations:")
+    void testWriteThrough() throws IOException {
+        try (CachingTaskStore taskStore = new CachingTaskStore(openFile(), 100)) {
+            TaskService taskService = new TaskService(taskStore);
+            taskService.addTask(taskService.createNewTaskToAddToMap("1234567890", "aseriopiyiokjhgpiuio", "dfasdfasdfasdfasdfaasdfasdfasdfasdfasdfasdfasdfasd"));
+            taskService.addTask(taskService.createNewTaskToAddToMap("53354", "Finish CS-320 Paper", "So Many Code Snippets"));
+            assertThrows(IllegalArgumentException.class, () -> taskService.addTask(taskService.createNewTaskToAddToMap("53354", "Again", "Again")));
+
+            taskService.updateTaskName("53354", "UPDATED");
+            taskService.updateTaskDescription("53354", "UPDATED");
+            assertEquals(TaskStatus.NOT_FOUND, taskService.tryUpdateTaskName("missing", "Name"));
+            assertThrows(IllegalArgumentException.class, () -> taskService.updateTaskName("53354", "This name is far too long"));
+            assertEquals("UPDATED", taskService.getTaskName("53354"));
+
+            taskService.deleteTask("1234567890");
+            assertNull(taskService.getTaskById("1234567890"));
+            assertThrows(NullPointerException.class, () -> taskService.deleteTask("1234567890"));
+            assertEquals(1, taskService.size());
+        }
+
+        try (FileTaskBackingStore reopened = openFile()) {
+            assertEquals(1, reopened.size());
+            assertNull(reopened.load("1234567890"));
+            assertEquals("UPDATED", reopened.load("53354").getTaskName());
+            assertEquals("UPDATED", reopened.load("53354").getTaskDescription());
+        }
+    }
+
+    /**
+     * A cache far smaller than the data stays within its size, loads evicted tasks back from the file and counts hits, misses and evictions.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Bounded Size And Statistics:")
+    void testEviction() throws IOException {
+        try (CachingTaskStore taskStore = new CachingTaskStore(openFile(), 10)) {
+            TaskService taskService = new TaskService(taskStore);
+            for (int i = 0; i < 1000; i++) {
+                taskService.addTask(new Task(String.valueOf(i), "Name " + i, "Description " + i));
+            }
+            assertTrue(taskStore.getCachedCount() <= 10);
+            assertTrue(taskStore.getEvictionCount() >= 990);
+            assertEquals(1000, taskService.size());
+
+            for (int i = 0; i < 1000; i++) {
+                assertEquals("Name " + i, taskService.getTaskName(String.valueOf(i)));
+            }
+            assertTrue(taskStore.getCachedCount() <= 10);
+            assertTrue(taskStore.getMissCount() > 0);
+            assertNull(taskService.getTaskById("missing"));
+
+            taskService.updateTaskName("5", "Reloaded");
+            assertEquals("Reloaded", taskService.getTaskName("5"));
+
+            Set<String> seen = new HashSet<>();
+            taskService.forEachTask(task -> seen.add(task.getTaskId()));
+            assertEquals(1000, seen.size());
+        }
+    }
+
+    /**
+     * Tasks read again and again stay cached while a one-off scan of other Ids goes past them.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Hot Tasks Survive A Scan:")
+    void testScanResistance() throws IOException {
+        try (CachingTaskStore taskStore = new CachingTaskStore(openFile(), 200)) {
+            TaskService taskService = new TaskService(taskStore);
+            for (int i = 0; i < 5000; i++) {
+                taskService.addTask(new Task(String.valueOf(i), "Name", "Description"));
+            }
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < 50; i++) {
+                    taskService.getTaskById(String.valueOf(i));
+                }
+            }
+            for (int i = 1000; i < 5000; i++) {
+                taskService.getTaskById(String.valueOf(i));
+            }
+
+            long hitsBefore = taskStore.getHitCount();
+            for (int i = 0; i < 50; i++) {
+                taskService.getTaskById(String.valueOf(i));
+            }
+            assertTrue(taskStore.getHitCount() - hitsBefore >= 40);
+        }
+    }
+
+    /**
+     * Write-behind changes are visible at once, reach the file on flush, and deleted or evicted Ids read through the queue correctly.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Write-Behind Queue And Flush:")
+    void testWriteBehind() throws IOException {
+        try (CachingTaskStore taskStore = new CachingTaskStore(openFile(), 4, CachingTaskStore.WritePolicy.WRITE_BEHIND, 60_000)) {
+            TaskService taskService = new TaskService(taskStore);
+            for (int i = 0; i < 20; i++) {
+                taskService.addTask(new Task(String.valueOf(i), "Name", "Description"));
+            }
+            taskService.updateTaskDescription("3", "Queued");
+            taskService.deleteTask("7");
+            assertTrue(taskStore.getPendingWriteCount() > 0);
+            assertEquals(19, taskService.size());
+            assertEquals("Queued", taskService.getTaskDescription("3"));
+            assertNull(taskService.getTaskById("7"));
+
+            taskStore.flush();
+            assertEquals(0, taskStore.getPendingWriteCount());
+            assertEquals(19, taskService.size());
+        }
+
+        try (FileTaskBackingStore reopened = openFile()) {
+            assertEquals(19, reopened.size());
+            assertEquals("Queued", reopened.load("3").getTaskDescription());
+            assertFalse(reopened.contains("7"));
+        }
+    }
+
+    /**
+     * Freed records are reused and the file is indexed again on open.
+     */
+    @Test
+    @Order(5)
+    @DisplayName("File Store Reuses Records:")
+    void testFileStore() throws IOException {
+        try (FileTaskBackingStore backingStore = openFile()) {
+            backingStore.store(new Task("1", "One", "First"));
+            backingStore.store(new Task("2", "Two", "Second"));
+            backingStore.delete("1");
+            backingStore.store(new Task("3", "Three", "Third"));
+        }
+        assertEquals(2L * FileTaskBackingStore.RECORD_BYTES, directory.resolve("tasks.dat").toFile().length());
+
+        try (FileTaskBackingStore reopened = openFile()) {
+            assertEquals(2, reopened.size());
+            assertEquals("Third", reopened.load("3").getTaskDescription());
+            assertNull(reopened.load("1"));
+        }
+    }
+
+    /**
+     * Random stores and deletes, enough to grow the file's Id index and shift entries back on delete, match a HashMap before and after
+     * reopening.
+     */
+    @Test
+    @Order(6)
+    @DisplayName("File Index Matches A HashMap:")
+    void testFileIndexMatchesReference() throws IOException {
+        Map<String, String> reference = new HashMap<>();
+        Random random = new Random(320);
+        try (FileTaskBackingStore backingStore = openFile()) {
+            for (int i = 0; i < 20_000; i++) {
+                String taskId = String.valueOf(random.nextInt(3000));
+                if (random.nextInt(3) == 0) {
+                    backingStore.delete(taskId);
+                    reference.remove(taskId);
+                } else {
+                    backingStore.store(new Task(taskId, "Task " + i, "Random"));
+                    reference.put(taskId, "Task " + i);
+                }
+            }
+            assertEquals(reference.size(), backingStore.size());
+            for (int i = 0; i < 3000; i++) {
+                String taskId = String.valueOf(i);
+                assertEquals(reference.containsKey(taskId), backingStore.contains(taskId));
+            }
+        }
+        try (FileTaskBackingStore reopened = openFile()) {
+            assertEquals(reference.size(), reopened.size());
+            reference.forEach((taskId, taskName) -> assertEquals(taskName, reopened.load(taskId).getTaskName()));
+            reopened.store(new Task("5000", "New", "Fills a free record"));
+            assertEquals(reference.size() + 1, reopened.size());
+        }
+        assertTrue(directory.resolve("tasks.dat").toFile().length() <= 3000L * FileTaskBackingStore.RECORD_BYTES);
+    }
+}
@@ -0,0 +1,178 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class NumericKeyTaskStoreTest {
+    private NumericKeyTaskStore taskStore;
+    private TaskService taskService;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * Each test gets a TaskService running on its own numeric-key store.
+     */
+    @BeforeEach
+    void setUpNumericKeyService() {
+        taskStore = new NumericKeyTaskStore();
+        taskService = new TaskService(taskStore);
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    /**
+     * Only Ids that print back the same as their number are numeric, so "7" and "007" stay different tasks.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Only Canonical Numbers Are Numeric Keys:")
+    void testNumericKey() {
+        assertEquals(0, NumericKeyTaskStore.numericKey("0"));
+        assertEquals(175, NumericKeyTaskStore.numericKey("175"));
+        assertEquals(9_999_999_999L, NumericKeyTaskStore.numericKey("9999999999"));
+        assertEquals(-1, NumericKeyTaskStore.numericKey("007"));
+        assertEquals(-1, NumericKeyTaskStore.numericKey("-5"));
+        assertEquals(-1, NumericKeyTaskStore.numericKey("12a"));
+        assertEquals(-1, NumericKeyTaskStore.numericKey(""));
+        assertEquals(-1, NumericKeyTaskStore.numericKey("12345678901"));
+
+        taskService.addTask(taskService.createNewTaskToAddToMap("7", "Seven", "Numeric"));
+        taskService.addTask(taskService.createNewTaskToAddToMap("007", "Bond", "String keyed"));
+        taskService.addTask(taskService.createNewTaskToAddToMap("tenant:1", "Tenant", "String keyed"));
+        assertEquals("Seven", taskService.getTaskName("7"));
+        assertEquals("Bond", taskService.getTaskName("007"));
+        assertEquals(3, taskService.size());
+        assertEquals(3, taskService.stream().count());
+    }
+
+    /**
+     * The TaskService operations behave the same on this store.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Add, Update, Delete Through TaskService:")
+    void testServiceOperations() {
+        taskService.addTask(taskService.createNewTaskToAddToMap("1234567890", "aseriopiyiokjhgpiuio", "dfasdfasdfasdfasdfaasdfasdfasdfasdfasdfasdfasdfasd"));
+        taskService.addTask(taskService.createNewTaskToAddToMap("53354", "Finish CS-320 Paper", "So Many Code Snippets"));
+        assertThrows(IllegalArgumentException.class, () -> taskService.addTask(taskService.createNewTaskToAddToMap("53354", "Again", "Again")));
+
+        taskService.updateTaskName("53354", "UPDATED");
+        taskService.updateTaskDescription("53354", "UPDATED");
+        assertEquals("UPDATED", taskService.getTaskName("53354"));
+        assertSame(taskService.getTaskById("53354"), taskService.getTaskById("53354"));
+
+        taskService.deleteTask("53354");
+        assertNull(taskService.getTaskById("53354"));
+        assertThrows(NullPointerException.class, () -> taskService.deleteTask("53354"));
+        assertEquals(1, taskService.size());
+    }
+
+    /**
+     * Random adds and deletes of numeric and string Ids against a HashMap reference exercise growth and backward-shift deletion.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Random Adds and Deletes Match a HashMap:")
+    void testRandomOperationsMatchReference() {
+        Map<String, String> reference = new HashMap<>();
+        Random random = new Random(320);
+        for (int i = 0; i < 200_000; i++) {
+            int number = random.nextInt(20_000);
+            String taskId = number % 10 == 0 ? "0" + number : String.valueOf(number);
+            if (random.nextInt(3) == 0) {
+                Task removed = taskStore.remove(taskId, null, null);
+                assertEquals(reference.remove(taskId) != null, removed != null);
+            } else {
+                boolean inserted = taskStore.insertIfAbsent(new Task(taskId, "Name " + i, "Description"), null);
+                assertEquals(!reference.containsKey(taskId), inserted);
+                reference.putIfAbsent(taskId, "Name " + i);
+            }
+        }
+
+        assertEquals(reference.size(), taskStore.size());
+        reference.forEach((taskId, taskName) -> assertEquals(taskName, taskStore.get(taskId).getTaskName()));
+        Map<String, String> seen = taskService.parallelStream().collect(Collectors.toMap(Task::getTaskId, Task::getTaskName));
+        assertEquals(reference, seen);
+    }
+
+    /**
+     * Readers probing optimistically while writers grow and shrink the same segments always find the tasks that stay put.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Optimistic Reads Survive Concurrent Resizes:")
+    void testConcurrentReadsAndWrites() throws Exception {
+        for (int i = 0; i < 1_000; i++) {
+            taskService.addTask(new Task(String.valueOf(i), "Stable", "Description"));
+        }
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger missing = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int threadIndex = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                Random random = new Random(threadIndex);
+                for (int i = 0; i < 50_000; i++) {
+                    if (threadIndex % 2 == 0) {
+                        String taskId = String.valueOf(1_000 + threadIndex * 100_000 + random.nextInt(20_000));
+                        if (taskService.tryAdd(new Task(taskId, "Churn", "Description")) != TaskStatus.OK) {
+                            taskService.tryDelete(taskId);
+                        }
+                    } else if (taskService.getTaskById(String.valueOf(random.nextInt(1_000))) == null) {
+                        missing.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertEquals(0, missing.get());
+    }
+}
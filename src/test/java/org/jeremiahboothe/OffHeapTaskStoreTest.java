@@ -0,0 +1,173 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class OffHeapTaskStoreTest {
+    private OffHeapTaskStore taskStore;
+    private TaskService taskService;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * Each test gets a TaskService running on its own off-heap store.
+     */
+    @BeforeEach
+    void setUpOffHeapService() {
+        taskStore = new OffHeapTaskStore();
+        taskService = new TaskService(taskStore);
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    /**
+     * The TaskService operations behave the same on the off-heap store, including at the maximum field lengths.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Add, Update, Delete Through TaskService:")
+    void testServiceOperations() {
+        taskService.addTask(taskService.createNewTaskToAddToMap("1234567890", "aseriopiyiokjhgpiuio", "dfasdfasdfasdfasdfaasdfasdfasdfasdfasdfasdfasdfasd"));
+        taskService.addTask(taskService.createNewTaskToAddToMap("53354", "Finish CS-320 Paper", "So Many Code Snippets"));
+
+        assertEquals("aseriopiyiokjhgpiuio", taskService.getTaskName("1234567890"));
+        assertEquals("dfasdfasdfasdfasdfaasdfasdfasdfasdfasdfasdfasdfasd", taskService.getTaskDescription("1234567890"));
+        assertThrows(IllegalArgumentException.class, () -> taskService.addTask(taskService.createNewTaskToAddToMap("53354", "Again", "Again")));
+
+        taskService.updateTaskName("53354", "UPDATED");
+        taskService.updateTaskDescription("53354", "UPDATED");
+        assertEquals("UPDATED", taskService.getTaskName("53354"));
+        assertEquals("UPDATED", taskService.getTaskDescription("53354"));
+
+        taskService.deleteTask("53354");
+        assertNull(taskService.getTaskById("53354"));
+        assertThrows(NullPointerException.class, () -> taskService.deleteTask("53354"));
+        assertEquals(1, taskService.size());
+        taskService.printAllTasks();
+    }
+
+    /**
+     * Tasks with characters outside Latin-1 fall back to the heap and still behave normally.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Non Latin-1 Tasks Use the Overflow Map:")
+    void testOverflowTasks() {
+        taskService.addTask(taskService.createNewTaskToAddToMap("7", "Caf\u00e9 Night", "Cr\u00e8me br\u00fbl\u00e9e for everyone"));
+        taskService.addTask(taskService.createNewTaskToAddToMap("8", "Learn Guitar", "Practice playing the guitar for 20 minutes"));
+        assertEquals(0, taskStore.getOverflowCount());
+
+        taskService.updateTaskName("8", "Learn \u5409\u4ed6");
+        assertEquals(1, taskStore.getOverflowCount());
+        assertEquals("Learn \u5409\u4ed6", taskService.getTaskName("8"));
+        assertEquals("Cr\u00e8me br\u00fbl\u00e9e for everyone", taskService.getTaskDescription("7"));
+
+        AtomicInteger seen = new AtomicInteger();
+        taskService.forEachTask(task -> seen.incrementAndGet());
+        assertEquals(2, seen.get());
+
+        taskService.deleteTask("8");
+        assertEquals(0, taskStore.getOverflowCount());
+    }
+
+    /**
+     * Random adds and deletes against a HashMap reference exercise index growth, slot reuse and backward-shift deletion.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Random Adds and Deletes Match a HashMap:")
+    void testRandomOperationsMatchReference() {
+        Map<String, String> reference = new HashMap<>();
+        Random random = new Random(320);
+        for (int i = 0; i < 200_000; i++) {
+            String taskId = String.valueOf(random.nextInt(20_000));
+            if (random.nextInt(3) == 0) {
+                Task removed = taskStore.remove(taskId, null, null);
+                assertEquals(reference.remove(taskId) != null, removed != null);
+            } else {
+                boolean inserted = taskStore.insertIfAbsent(new Task(taskId, "Name " + i, "Description"), null);
+                assertEquals(!reference.containsKey(taskId), inserted);
+                reference.putIfAbsent(taskId, "Name " + i);
+            }
+        }
+
+        assertEquals(reference.size(), taskStore.size());
+        reference.forEach((taskId, taskName) -> assertEquals(taskName, taskStore.get(taskId).getTaskName()));
+        AtomicInteger seen = new AtomicInteger();
+        taskStore.forEach(task -> {
+            assertEquals(reference.get(task.getTaskId()), task.getTaskName());
+            seen.incrementAndGet();
+        });
+        assertEquals(reference.size(), seen.get());
+        System.out.println(taskStore.size() + " tasks in " + taskStore.getOffHeapBytes() + " off-heap bytes");
+    }
+
+    /**
+     * Tasks handed out by the store are copies, changing one does not change the stored record, and the same holds for overflow tasks.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Returned Tasks Are Detached Copies:")
+    void testReturnedTasksAreCopies() {
+        taskService.addTask(taskService.createNewTaskToAddToMap("100", "Workout", "Pump some Iron like I'm Arnold in 1978"));
+        taskService.getTaskById("100").setTaskName("Nap");
+        assertEquals("Workout", taskService.getTaskName("100"));
+
+        Task added = taskService.createNewTaskToAddToMap("8", "Learn \u5409\u4ed6", "Practice chords");
+        taskService.addTask(added);
+        added.setTaskName("Changed After Add");
+        taskService.getTaskById("8").setTaskName("Nap");
+        taskService.forEachTask(task -> task.setTaskDescription("Skip it"));
+        assertEquals("Learn \u5409\u4ed6", taskService.getTaskName("8"));
+        assertEquals("Practice chords", taskService.getTaskDescription("8"));
+        assertEquals("Workout", taskService.getTaskName("100"));
+    }
+
+    /**
+     * The version is stored in the record, so compare-and-set works even though every read returns a new copy.
+     */
+    @Test
+    @Order(5)
+    @DisplayName("Versions Are Kept In The Record:")
+    void testVersionsSurviveCopies() {
+        taskService.addTask(taskService.createNewTaskToAddToMap("100", "Workout", "Pump some Iron like I'm Arnold in 1978"));
+        taskService.updateTaskDescription("100", "Leg day");
+        assertEquals(1, taskService.getVersionedTask("100").getVersion());
+        assertEquals(TaskStatus.VERSION_CONFLICT, taskService.compareAndSetTask("100", 0, "Stale", "Stale"));
+        assertEquals(TaskStatus.OK, taskService.compareAndSetTask("100", 1, "Rest", "Rest day"));
+        assertEquals(3, taskService.getVersionedTask("100").getVersion());
+        assertEquals("Rest day", taskService.getTaskDescription("100"));
+    }
+}
@@ -0,0 +1,208 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ShardedTaskServiceTest {
+    @TempDir
+    Path directory;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    /**
+     * Routed calls behave like TaskService, including its exceptions and messages, and tasks spread over every shard.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Routes With TaskService Semantics:")
+    void testRoutesWithTaskServiceSemantics() {
+        ShardedTaskService sharded = new ShardedTaskService(4);
+        for (int i = 0; i < 1_000; i++) {
+            sharded.addTask(sharded.createNewTaskToAddToMap(String.valueOf(i), "Task " + i, "Description " + i));
+        }
+        assertEquals(1_000, sharded.size());
+        for (int size : sharded.shardSizes()) {
+            assertTrue(size > 150, "Shard holds " + size + " of 1000 tasks");
+        }
+
+        IllegalArgumentException duplicate = assertThrows(IllegalArgumentException.class,
+                () -> sharded.addTask(new Task("7", "Again", "Again")));
+        assertEquals("Task Id: 7 already exists!", duplicate.getMessage());
+        NullPointerException missing = assertThrows(NullPointerException.class, () -> sharded.deleteTaskQuietly("5000"));
+        assertEquals("Task Id: 5000 does not exist", missing.getMessage());
+        assertThrows(NullPointerException.class, () -> sharded.createNewTaskToAddToMap(null, "Name", "Description"));
+
+        sharded.updateTaskName("7", "Renamed");
+        assertEquals("Renamed", sharded.getTaskName("7"));
+        assertEquals(TaskStatus.NOT_FOUND, sharded.tryUpdateTaskDescription("5000", "Nothing"));
+        assertEquals(TaskStatus.OK, sharded.tryDelete("7"));
+        assertTrue(sharded.findById("7").isEmpty());
+        assertSame(sharded.shardFor("8").getTaskById("8"), sharded.getTaskById("8"));
+
+        Set<String> seen = new HashSet<>();
+        sharded.forEachTask(task -> seen.add(task.getTaskId()));
+        assertEquals(999, seen.size());
+    }
+
+    /**
+     * The tenant router keeps every task of a tenant on one shard.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Tenant Prefix Shares a Shard:")
+    void testTenantPrefixSharesShard() {
+        ShardedTaskService sharded = new ShardedTaskService(8, OnHeapTaskStore::new, ShardRouter.byTenantPrefix(':'));
+        for (int i = 0; i < 100; i++) {
+            sharded.addTask(new Task("acme:" + i, "Task " + i, "Acme work"));
+        }
+        int acmeShard = sharded.shardIndexFor("acme:0");
+        assertEquals(100, sharded.getShard(acmeShard).size());
+        assertEquals(100, sharded.size());
+    }
+
+    /**
+     * An ATOMIC batch spanning shards adds nothing when one shard rejects its rows, not even for a moment, so no listener hears of an add,
+     * and it reports rows by their original index.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Atomic Batch Across Shards:")
+    void testAtomicBatchAcrossShards() {
+        ShardedTaskService sharded = new ShardedTaskService(4);
+        sharded.addTask(new Task("5", "Existing", "Already stored"));
+        AtomicInteger changes = new AtomicInteger();
+        for (int shard = 0; shard < sharded.getShardCount(); shard++) {
+            sharded.getShard(shard).addChangeListener(new TaskChangeListener() {
+                @Override
+                public void taskAdded(Task task) {
+                    changes.incrementAndGet();
+                }
+
+                @Override
+                public void taskNameUpdated(Task task, String taskName) {
+                }
+
+                @Override
+                public void taskDescriptionUpdated(Task task, String taskDescription) {
+                }
+
+                @Override
+                public void taskDeleted(Task task) {
+                    changes.incrementAndGet();
+                }
+            });
+        }
+        List<TaskRow> rows = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            rows.add(new TaskRow(String.valueOf(i), "Task " + i, "Description " + i));
+        }
+
+        BulkAddResult rejected = sharded.addTasks(rows, BulkCommitPolicy.ATOMIC);
+        assertFalse(rejected.isCommitted());
+        assertEquals(1, rejected.getRejections().size());
+        assertEquals(5, rejected.getRejections().get(0).getRowIndex());
+        assertEquals(BulkAddResult.Reason.ALREADY_EXISTS, rejected.getRejections().get(0).getReason());
+        assertEquals(1, sharded.size());
+        assertEquals(0, changes.get());
+
+        BulkAddResult partial = sharded.addTasks(rows, BulkCommitPolicy.PARTIAL);
+        assertTrue(partial.isCommitted());
+        assertEquals(19, partial.getAddedCount());
+        assertEquals(20, sharded.size());
+    }
+
+    /**
+     * Undoing an add removes only the task that was added, not one another caller deleted and re-added under the same Id since.
+     */
+    @Test
+    @Order(5)
+    @DisplayName("Rollback Leaves Re-Added Tasks:")
+    void testRollbackChecksIdentity() {
+        TaskService taskService = new TaskService();
+        List<Task> added = new ArrayList<>();
+        BulkAddResult result = taskService.addTasks(List.of(new TaskRow("1", "Batch", "From the batch"), new TaskRow("2", "Batch", "From the batch")),
+                BulkCommitPolicy.ATOMIC, added);
+        assertTrue(result.isCommitted());
+        assertEquals(2, added.size());
+
+        taskService.deleteTaskQuietly("1");
+        taskService.addTask(new Task("1", "Other Caller", "Re-added after the batch"));
+        assertFalse(taskService.rollbackAdd(added.get(0)));
+        assertEquals("Other Caller", taskService.getTaskName("1"));
+        assertTrue(taskService.rollbackAdd(added.get(1)));
+        assertNull(taskService.getTaskById("2"));
+    }
+
+    /**
+     * Every shard logs and recovers in its own directory.
+     * @throws IOException When persistence fails.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Persists Shards Independently:")
+    void testPersistsShardsIndependently() throws IOException {
+        ShardedTaskService sharded = new ShardedTaskService(3);
+        List<TaskPersistence> persistence = sharded.openPersistence(directory);
+        for (int i = 0; i < 30; i++) {
+            sharded.addTask(new Task(String.valueOf(i), "Task " + i, "Description " + i));
+        }
+        persistence.get(1).checkpoint();
+        closeAll(persistence);
+
+        ShardedTaskService restored = new ShardedTaskService(3);
+        List<TaskPersistence> reopened = restored.openPersistence(directory);
+        try {
+            assertArrayEquals(sharded.shardSizes(), restored.shardSizes());
+            assertEquals(sharded.shardSizes()[1], reopened.get(1).getRecoveredTaskCount());
+            assertEquals(0, reopened.get(0).getRecoveredTaskCount());
+            assertEquals("Task 29", restored.getTaskName("29"));
+        } finally {
+            closeAll(reopened);
+        }
+    }
+
+    private static void closeAll(List<? extends Closeable> closeables) throws IOException {
+        for (Closeable closeable : closeables) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class SnapshotTaskStoreTest {
+    private SnapshotTaskStore taskStore;
+    private TaskService taskService;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * Each test gets a TaskService running on its own snapshot store over the default map.
+     */
+    @BeforeEach
+    void setUpSnapshotService() {
+        taskStore = new SnapshotTaskStore(new OnHeapTaskStore());
+        taskService = new TaskService(taskStore);
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    /**
+     * Updates, deletes and adds after the snapshot change the live map but not the snapshot, and closing it folds them back in.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Snapshot Keeps The Tasks As They Were:")
+    void testPointInTime() {
+        assertThrows(UnsupportedOperationException.class, () -> new TaskService().snapshot());
+        try (TaskMapSnapshot empty = TaskService.withSnapshots().snapshot()) {
+            assertEquals(0, empty.size());
+        }
+        for (int i = 0; i < 100; i++) {
+            taskService.addTask(new Task(String.valueOf(i), "Name " + i, "Description " + i));
+        }
+
+        TaskMapSnapshot snapshot = taskService.snapshot();
+        taskService.updateTaskName("1", "Changed");
+        taskService.deleteTask("2");
+        taskService.addTask(new Task("100", "Added", "After the snapshot"));
+        taskService.deleteTask("100");
+        taskService.addTask(new Task("101", "Added", "After the snapshot"));
+        taskService.deleteTask("3");
+        taskService.addTask(new Task("3", "Re-added", "Same Id, new task"));
+
+        assertEquals(100, snapshot.size());
+        assertEquals(100, snapshot.stream().count());
+        assertEquals("Name 1", snapshot.get("1").getTaskName());
+        assertEquals("Name 2", snapshot.get("2").getTaskName());
+        assertEquals("Name 3", snapshot.get("3").getTaskName());
+        assertNull(snapshot.get("101"));
+
+        assertEquals(100, taskService.size());
+        assertEquals(100, taskService.stream().count());
+        assertEquals("Changed", taskService.getTaskName("1"));
+        assertNull(taskService.getTaskById("2"));
+        assertEquals("Re-added", taskService.getTaskName("3"));
+        assertEquals("Added", taskService.getTaskName("101"));
+        assertEquals(1, taskStore.getOverlayCount());
+
+        snapshot.close();
+        snapshot.close();
+        assertThrows(IllegalStateException.class, () -> snapshot.get("1"));
+        assertEquals(0, taskStore.getOverlayCount());
+        assertEquals(0, taskStore.getOpenSnapshots());
+        assertEquals(100, taskService.size());
+        assertEquals("Changed", taskService.getTaskName("1"));
+        assertNull(taskService.getTaskById("2"));
+        assertEquals("Re-added", taskService.getTaskName("3"));
+        assertEquals("Added", taskService.getTaskName("101"));
+    }
+
+    /**
+     * Overlapping snapshots each keep their own point in time. Writes stay in overlays until the last one closes.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Overlapping Snapshots Keep Their Own Time:")
+    void testOverlappingSnapshots() {
+        taskService.addTask(new Task("1", "First", "Version one"));
+        TaskMapSnapshot first = taskService.snapshot();
+        taskService.updateTaskName("1", "Second");
+        taskService.addTask(new Task("2", "Two", "Added between"));
+        TaskMapSnapshot second = taskService.snapshot();
+        TaskMapSnapshot same = taskService.snapshot();
+        taskService.updateTaskName("1", "Third");
+        taskService.deleteTask("2");
+        assertEquals(2, taskStore.getOverlayCount());
+
+        assertEquals("First", first.get("1").getTaskName());
+        assertNull(first.get("2"));
+        assertEquals(1, first.size());
+        assertEquals("Second", second.get("1").getTaskName());
+        assertEquals("Two", same.get("2").getTaskName());
+        assertEquals(2, second.size());
+        assertEquals(2, same.stream().count());
+
+        first.close();
+        assertEquals("Second", second.get("1").getTaskName());
+        assertEquals(2, taskStore.getOverlayCount());
+        second.close();
+        same.close();
+        assertEquals(0, taskStore.getOverlayCount());
+        assertEquals("Third", taskService.getTaskName("1"));
+        assertEquals(2, taskService.getVersionedTask("1").getVersion());
+        assertNull(taskService.getTaskById("2"));
+        assertEquals(1, taskService.size());
+    }
+
+    /**
+     * Chain writers add w-k and only then raise their head task to k, so in any point-in-time view every task up to the head exists; a weakly
+     * consistent walk could see the head and miss a task. Churn writers add, update and delete at random. Snapshots taken during all of it
+     * are self-consistent, and once everything is closed the map matches what the writers did.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Snapshots Stay Consistent Under Writers:")
+    void testConsistencyUnderWriters() throws Exception {
+        int chainWriters = 2;
+        int churnWriters = 2;
+        for (int w = 0; w < chainWriters; w++) {
+            taskService.addTask(new Task("head" + w, "Head", "-1"));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(chainWriters + churnWriters);
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(chainWriters + churnWriters);
+        List<Future<Map<String, String>>> futures = new ArrayList<>();
+        for (int w = 0; w < chainWriters; w++) {
+            int writer = w;
+            futures.add(executor.submit(() -> {
+                started.countDown();
+                int k = 0;
+                while (running.get() && k < 200_000) {
+                    taskService.addTask(new Task(writer + "-" + k, "Link", "In the chain"));
+                    taskService.updateTaskDescription("head" + writer, String.valueOf(k));
+                    k++;
+                }
+                return new HashMap<>();
+            }));
+        }
+        for (int w = 0; w < churnWriters; w++) {
+            int writer = w;
+            futures.add(executor.submit(() -> {
+                started.countDown();
+                Random random = new Random(writer);
+                Map<String, String> expected = new HashMap<>();
+                while (running.get()) {
+                    String taskId = "c" + writer + "-" + random.nextInt(500);
+                    int roll = random.nextInt(3);
+                    if (roll == 0) {
+                        if (taskService.tryAdd(new Task(taskId, "Churn", "Added")) == TaskStatus.OK) {
+                            expected.put(taskId, "Churn");
+                        }
+                    } else if (roll == 1) {
+                        String name = "Churn " + random.nextInt(1000);
+                        if (taskService.tryUpdateTaskName(taskId, name) == TaskStatus.OK) {
+                            expected.put(taskId, name);
+                        }
+                    } else if (taskService.tryDelete(taskId) == TaskStatus.OK) {
+                        expected.remove(taskId);
+                    }
+                }
+                return expected;
+            }));
+        }
+        started.await();
+
+        for (int round = 0; round < 20; round++) {
+            try (TaskMapSnapshot snapshot = taskService.snapshot()) {
+                Set<String> ids = new HashSet<>();
+                snapshot.forEach(task -> assertTrue(ids.add(task.getTaskId()), "Duplicate " + task.getTaskId()));
+                assertEquals(snapshot.size(), ids.size());
+                assertEquals(snapshot.size(), snapshot.parallelStream().count());
+                for (int w = 0; w < chainWriters; w++) {
+                    int head = Integer.parseInt(snapshot.get("head" + w).getTaskDescription());
+                    for (int k = 0; k <= head; k++) {
+                        assertTrue(ids.contains(w + "-" + k), "Head " + head + " but " + w + "-" + k + " missing");
+                    }
+                }
+            }
+            Thread.sleep(10);
+        }
+        running.set(false);
+        Map<String, String> expected = new HashMap<>();
+        int chainTasks = 0;
+        for (Future<Map<String, String>> future : futures) {
+            expected.putAll(future.get(60, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        for (int w = 0; w < chainWriters; w++) {
+            chainTasks += Integer.parseInt(taskService.getTaskDescription("head" + w)) + 2;
+        }
+
+        assertEquals(0, taskStore.getOverlayCount());
+        assertEquals(chainTasks + expected.size(), taskService.size());
+        assertEquals(taskService.size(), taskService.stream().count());
+        expected.forEach((taskId, name) -> assertEquals(name, taskService.getTaskName(taskId)));
+    }
+
+    /**
+     * Taking a snapshot of a large map is immediate and costs nothing until writes arrive; the copies made for writes while it was open are
+     * garbage once it closes.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Memory Is Reclaimed On Close:")
+    void testMemoryReclaimed() {
+        int count = 200_000;
+        for (int i = 0; i < count; i++) {
+            taskService.addTask(new Task(String.valueOf(i), "Name", "Description"));
+        }
+        String[] names = new String[1000];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "Renamed " + i;
+        }
+        long heapBefore = usedHeapAfterGc();
+
+        long start = System.nanoTime();
+        TaskMapSnapshot snapshot = taskService.snapshot();
+        long snapshotMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        for (int i = 0; i < count; i++) {
+            taskService.updateTaskName(String.valueOf(i), names[i % names.length]);
+        }
+        long heapOpen = usedHeapAfterGc();
+        assertEquals("Name", snapshot.get("0").getTaskName());
+        snapshot.close();
+        long heapClosed = usedHeapAfterGc();
+
+        System.out.printf("Snapshot of %d tasks took %d us, heap while open +%d KB, after close +%d KB%n", count, snapshotMicros,
+                (heapOpen - heapBefore) / 1024, (heapClosed - heapBefore) / 1024);
+        assertTrue(heapOpen - heapBefore > 8L * count, "Writes while open should be held as copies");
+        assertTrue(heapClosed - heapBefore < (heapOpen - heapBefore) / 2, "Copies were not reclaimed");
+        assertEquals(0, taskStore.getOverlayCount());
+        assertEquals("Renamed 0", taskService.getTaskName("0"));
+        assertEquals(count, taskService.size());
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,212 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TaskChangeFeedTest {
+    private TaskService taskService;
+    private TaskChangeFeed feed;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    @BeforeEach
+    void setUpIsolatedService() {
+        taskService = new TaskService();
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        if (feed != null) {
+            feed.detach();
+        }
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    /**
+     * Waits until the subscription has consumed every claimed event.
+     */
+    private static void awaitCaughtUp(TaskChangeFeed feed, TaskChangeFeed.Subscription subscription) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (subscription.getSequence() < feed.getCursor()) {
+            assertTrue(System.nanoTime() < deadline, "Subscriber did not catch up");
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Each operation arrives once, typed, with its values, in the order it happened.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Typed Events In Order:")
+    void testTypedEvents() throws InterruptedException {
+        feed = TaskChangeFeed.attach(taskService, 16, TaskChangeFeed.OverflowPolicy.BLOCK);
+        List<TaskChangeEvent> received = new ArrayList<>();
+        TaskChangeFeed.Subscription subscription = feed.subscribe(received::addAll, 4);
+
+        taskService.addTask(taskService.createNewTaskToAddToMap("1", "Workout", "Pump some Iron"));
+        taskService.updateTaskName("1", "Nap");
+        taskService.updateTaskDescription("1", "Rest up");
+        assertThrows(IllegalArgumentException.class, () -> taskService.updateTaskName("1", "This name is far too long"));
+        taskService.deleteTask("1");
+        awaitCaughtUp(feed, subscription);
+
+        assertEquals(4, received.size());
+        assertEquals(TaskChangeEvent.Type.ADDED, received.get(0).getType());
+        assertEquals("Pump some Iron", received.get(0).getTaskDescription());
+        assertEquals(TaskChangeEvent.Type.NAME_UPDATED, received.get(1).getType());
+        assertEquals("Nap", received.get(1).getTaskName());
+        assertEquals(TaskChangeEvent.Type.DESCRIPTION_UPDATED, received.get(2).getType());
+        assertEquals("Rest up", received.get(2).getTaskDescription());
+        assertEquals(TaskChangeEvent.Type.DELETED, received.get(3).getType());
+        for (int i = 0; i < received.size(); i++) {
+            assertEquals(i, received.get(i).getSequence());
+        }
+        assertEquals(4, subscription.getDeliveredCount());
+    }
+
+    /**
+     * Many writers on a small ring with BLOCK: every event reaches every subscriber exactly once and in sequence order, and batches never
+     * exceed their size.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Backpressure Loses Nothing:")
+    void testBlockingFeedUnderLoad() throws Exception {
+        feed = TaskChangeFeed.attach(taskService, 64, TaskChangeFeed.OverflowPolicy.BLOCK);
+        AtomicInteger oversizedBatches = new AtomicInteger();
+        long[] expectedSequence = new long[2];
+        AtomicInteger outOfOrder = new AtomicInteger();
+        List<TaskChangeFeed.Subscription> subscriptions = new ArrayList<>();
+        for (int s = 0; s < 2; s++) {
+            int subscriber = s;
+            subscriptions.add(feed.subscribe(batch -> {
+                if (batch.size() > 32) {
+                    oversizedBatches.incrementAndGet();
+                }
+                for (TaskChangeEvent event : batch) {
+                    if (event.getSequence() != expectedSequence[subscriber]++) {
+                        outOfOrder.incrementAndGet();
+                    }
+                }
+            }, 32));
+        }
+
+        int threads = 4;
+        int tasksPerThread = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int threadIndex = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < tasksPerThread; i++) {
+                    String taskId = threadIndex + "-" + i;
+                    taskService.addTask(new Task(taskId, "Name", "Description"));
+                    taskService.updateTaskName(taskId, "Renamed");
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        long total = 2L * threads * tasksPerThread;
+        assertEquals(total, feed.getPublishedCount());
+        assertEquals(0, feed.getDroppedCount());
+        for (TaskChangeFeed.Subscription subscription : subscriptions) {
+            awaitCaughtUp(feed, subscription);
+            assertEquals(total, subscription.getDeliveredCount());
+            assertEquals(0, subscription.getLag());
+        }
+        assertEquals(0, outOfOrder.get());
+        assertEquals(0, oversizedBatches.get());
+    }
+
+    /**
+     * With DROP a stalled subscriber never holds up writers; what does not fit the ring is counted as dropped.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Drop Policy Never Blocks Writers:")
+    void testDropFeedWithStalledSubscriber() throws InterruptedException {
+        feed = TaskChangeFeed.attach(taskService, 8, TaskChangeFeed.OverflowPolicy.DROP);
+        CountDownLatch release = new CountDownLatch(1);
+        TaskChangeFeed.Subscription subscription = feed.subscribe(batch -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 1);
+
+        for (int i = 0; i < 100; i++) {
+            taskService.addTask(new Task(String.valueOf(i), "Name", "Description"));
+        }
+        assertEquals(100, taskService.size());
+        assertTrue(feed.getDroppedCount() > 0);
+        assertEquals(100, feed.getPublishedCount() + feed.getDroppedCount());
+
+        release.countDown();
+        awaitCaughtUp(feed, subscription);
+        assertEquals(feed.getPublishedCount(), subscription.getDeliveredCount());
+    }
+
+    /**
+     * Nothing is published while nobody subscribes, and a closed subscription stops holding writers back.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("No Subscribers, No Work:")
+    void testNoSubscribers() {
+        feed = TaskChangeFeed.attach(taskService, 4, TaskChangeFeed.OverflowPolicy.BLOCK);
+        taskService.addTask(new Task("1", "Name", "Description"));
+        assertEquals(0, feed.getPublishedCount());
+
+        TaskChangeFeed.Subscription subscription = feed.subscribe(batch -> {
+            throw new IllegalStateException("Subscriber failure is logged, not fatal");
+        }, 1);
+        subscription.close();
+        for (int i = 2; i < 20; i++) {
+            taskService.addTask(new Task(String.valueOf(i), "Name", "Description"));
+        }
+        assertEquals(19, taskService.size());
+    }
+}
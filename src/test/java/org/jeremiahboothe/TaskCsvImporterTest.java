@@ -0,0 +1,158 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TaskCsvImporterTest {
+    private static final String CSV_ROWS = String.join("\n",
+            ",Grocery Shopping,Buy groceries for the week",
+            "2,,Go for a 30-minute jog in the park",
+            "3,Work Meeting,",
+            "44256456897,Read Book,Read the first chapter of a new novel",
+            "5,Cook Dinner Cook Dinner,Prepare a homemade dinner for the family",
+            "6,Pay Bills,Settle monthly utility bills and go to the poor house!",
+            "7,Call Friend,Catch up with a friend over the phone",
+            "7,Call Friend,Catch up with a friend over the phone",
+            "8,Learn Guitar,Practice playing the guitar for 20 minutes",
+            "",
+            "9, Clean House ,\"Tidy up, then clean the \"\"big\"\" rooms\"\r",
+            "10,Write Journal",
+            "175,Movie Night,Watch a favorite movie with popcorn",
+            "");
+
+    @TempDir
+    Path tempDir;
+
+    private TaskService taskService;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * Each test imports into its own isolated TaskService.
+     */
+    @BeforeEach
+    void setUpIsolatedService() {
+        taskService = new TaskService();
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    private Path writeCsv(String content) throws IOException {
+        Path csv = tempDir.resolve("tasks.csv");
+        Files.writeString(csv, content, StandardCharsets.UTF_8);
+        return csv;
+    }
+
+    /**
+     * Checks the counts and parsed values for the shared CSV rows.
+     */
+    private void assertImported(ImportReport report) {
+        assertEquals(12, report.getRowsRead());
+        assertEquals(4, report.getRowsAdded());
+        assertEquals(6, report.getInvalidRows());
+        assertEquals(1, report.getDuplicateRows());
+        assertEquals(1, report.getMalformedRows());
+        assertEquals(8, report.getRejectedRows());
+
+        assertEquals("Call Friend", taskService.getTaskName("7"));
+        assertEquals("Clean House", taskService.getTaskName("9"));
+        assertEquals("Tidy up, then clean the \"big\" rooms", taskService.getTaskDescription("9"));
+        assertNotNull(taskService.getTaskById("175"));
+        assertNull(taskService.getTaskById("10"));
+    }
+
+    /**
+     * Imports the TaskServiceTest rows with the default window and chunk sizes.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Import CSV Counts Added and Rejected Rows:")
+    void testImportCountsRows() throws IOException {
+        ImportReport report = new TaskCsvImporter(taskService).importFile(writeCsv(CSV_ROWS));
+
+        assertImported(report);
+        System.out.println(report);
+    }
+
+    /**
+     * Tiny windows and chunks force lines to straddle every boundary, the result must not change.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Import CSV Across Tiny Windows and Chunks:")
+    void testImportAcrossWindowBoundaries() throws IOException {
+        TaskCsvImporter importer = new TaskCsvImporter(taskService, ForkJoinPool.commonPool(), 128, 16);
+        ImportReport report = importer.importFile(writeCsv(CSV_ROWS));
+
+        assertImported(report);
+        System.out.println(report);
+    }
+
+    /**
+     * Many rows spread over many windows all arrive.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Import Large CSV in Bounded Windows:")
+    void testImportManyRows() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            csv.append(i).append(",Task ").append(i).append(",Description of task ").append(i).append('\n');
+        }
+        TaskCsvImporter importer = new TaskCsvImporter(taskService, ForkJoinPool.commonPool(), 64 * 1024, 4 * 1024);
+        ImportReport report = importer.importFile(writeCsv(csv.toString()));
+
+        assertEquals(50_000, report.getRowsAdded());
+        assertEquals(0, report.getRejectedRows());
+        assertEquals("Task 49999", taskService.getTaskName("49999"));
+        System.out.println(report);
+    }
+
+    /**
+     * A line that can never fit in a window is reported rather than silently split.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Import Fails When a Line Exceeds the Window:")
+    void testLineLongerThanWindowFails() throws IOException {
+        Path csv = writeCsv("1,Name," + "x".repeat(200) + "\n2,Name,Description\n");
+        TaskCsvImporter importer = new TaskCsvImporter(taskService, ForkJoinPool.commonPool(), 64, 16);
+
+        IOException thrown = assertThrows(IOException.class, () -> importer.importFile(csv));
+        System.out.println(thrown.getMessage());
+    }
+}
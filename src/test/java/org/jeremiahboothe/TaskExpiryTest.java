@@ -0,0 +1,233 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TaskExpiryTest {
+    private TaskService taskService;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    @BeforeEach
+    void setUpIsolatedService() {
+        taskService = new TaskService();
+    }
+
+    /**
+     * After test Formatting for viewing pleasure! Also stops the reaper.
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        if (taskService.getExpiry() != null) {
+            taskService.getExpiry().close();
+        }
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, message);
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Tasks with a TTL are deleted through the normal delete path once it runs out; tasks without one stay.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Tasks Expire After Their TTL:")
+    void testExpiry() throws InterruptedException {
+        assertThrows(IllegalStateException.class, () -> taskService.addTask(new Task("1", "Name", "Description"), 100));
+        TaskMetrics metrics = taskService.enableMetrics(1);
+        TaskExpiry expiry = taskService.enableExpiry(5, false);
+        AtomicInteger deleted = new AtomicInteger();
+        taskService.addChangeListener(new TaskChangeListener() {
+            @Override
+            public void taskAdded(Task task) {
+            }
+
+            @Override
+            public void taskNameUpdated(Task task, String taskName) {
+            }
+
+            @Override
+            public void taskDescriptionUpdated(Task task, String taskDescription) {
+            }
+
+            @Override
+            public void taskDeleted(Task task) {
+                deleted.incrementAndGet();
+            }
+        });
+
+        taskService.addTask(new Task("1", "Call Friend", "Catch up"), 1_000);
+        taskService.addTask(new Task("2", "Pay Bills", "Electric and water"));
+        assertThrows(IllegalArgumentException.class, () -> taskService.addTask(new Task("1", "Again", "Again"), 100));
+        assertNotNull(taskService.getTaskById("1"));
+
+        awaitTrue(() -> taskService.getTaskById("1") == null, "Task 1 never expired");
+        assertNotNull(taskService.getTaskById("2"));
+        assertEquals(1, expiry.getExpiredCount());
+        assertEquals(1, metrics.snapshot().getExpiredTasks());
+        assertEquals(1, metrics.getExpiredTasks());
+        assertEquals(1, deleted.get());
+        awaitTrue(() -> expiry.getScheduledCount() == 0, "Timer was not released");
+    }
+
+    /**
+     * Updates refresh the TTL when asked to, setTaskTtl moves or removes it, and a delete cancels it. A task re-added under an expired Id
+     * without a TTL is never removed by the old timer.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Refresh, Reset And Cancel:")
+    void testRefreshAndCancel() throws InterruptedException {
+        TaskExpiry expiry = taskService.enableExpiry(5, true);
+        taskService.addTask(new Task("1", "Walk Dog", "Around the block"), 600);
+        taskService.addTask(new Task("2", "Feed Cat", "Fill the bowl"), 60_000);
+        taskService.addTask(new Task("3", "Read Book", "Chapter one"), 600);
+        taskService.addTask(new Task("4", "Wash Car", "Soap and rinse"), 60_000);
+        assertEquals(TaskStatus.NOT_FOUND, taskService.setTaskTtl("5", 100));
+
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1_500);
+        while (System.nanoTime() < end) {
+            taskService.updateTaskName("1", "Walk Dog");
+            Thread.sleep(50);
+        }
+        assertNotNull(taskService.getTaskById("1"));
+        assertNull(taskService.getTaskById("3"));
+
+        assertEquals(TaskStatus.OK, taskService.setTaskTtl("1", 0));
+        assertEquals(TaskStatus.OK, taskService.setTaskTtl("4", 50));
+        taskService.deleteTask("2");
+        taskService.addTask(new Task("2", "Feed Cat", "Fill the bowl"));
+        awaitTrue(() -> taskService.getTaskById("4") == null, "Shortened TTL never fired");
+        Thread.sleep(500);
+        assertNotNull(taskService.getTaskById("1"));
+        assertNotNull(taskService.getTaskById("2"));
+        assertEquals(2, expiry.getExpiredCount());
+        assertEquals(0, expiry.getScheduledCount());
+    }
+
+    /**
+     * TTLs that land in the first, second and third wheel levels each fire after their TTL and within a few ticks of it.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Timers Cascade Through The Wheel Levels:")
+    void testWheelLevels() throws InterruptedException {
+        taskService.enableExpiry(1, false);
+        long[] ttls = {30, 200, 4_200};
+        long start = System.nanoTime();
+        for (int i = 0; i < ttls.length; i++) {
+            taskService.addTask(new Task(String.valueOf(i), "Name", "Description"), ttls[i]);
+        }
+        for (int i = 0; i < ttls.length; i++) {
+            String taskId = String.valueOf(i);
+            awaitTrue(() -> taskService.getTaskById(taskId) == null, "Task " + taskId + " never expired");
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(elapsedMillis >= ttls[i], "Task " + taskId + " expired after " + elapsedMillis + " ms");
+            assertTrue(elapsedMillis < ttls[i] + 1_000, "Task " + taskId + " expired after " + elapsedMillis + " ms");
+        }
+    }
+
+    /**
+     * A steady stream of short-lived tasks: the map, the timers and the heap stay flat while hundreds of thousands of tasks come and go.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Steady Add And Expire Holds Memory Constant:")
+    void testConstantMemory() throws InterruptedException {
+        TaskExpiry expiry = taskService.enableExpiry(5, false);
+        int perBatch = 500;
+        long ttlMillis = 50;
+        int nextId = 0;
+        long heapAfterWarmup = 0;
+        int maxSize = 0;
+        for (int round = 0; round < 600; round++) {
+            for (int i = 0; i < perBatch; i++) {
+                taskService.addTask(new Task(String.valueOf(nextId++), "Short Lived", "Gone in fifty milliseconds"), ttlMillis);
+            }
+            Thread.sleep(5);
+            maxSize = Math.max(maxSize, taskService.size());
+            if (round == 100) {
+                heapAfterWarmup = usedHeapAfterGc();
+            }
+        }
+        long heapAtEnd = usedHeapAfterGc();
+        awaitTrue(() -> taskService.size() == 0, "Tasks were left behind");
+        awaitTrue(() -> expiry.getScheduledCount() == 0, "Timers were left behind");
+
+        assertEquals(nextId, expiry.getExpiredCount());
+        assertTrue(maxSize < 100_000, "Map grew to " + maxSize);
+        long growth = heapAtEnd - heapAfterWarmup;
+        System.out.printf("Added %d tasks, peak map size %d, heap growth %d KB%n", nextId, maxSize, growth / 1024);
+        assertTrue(growth < 16L * 1024 * 1024, "Heap grew by " + growth + " bytes");
+    }
+
+    /**
+     * disableExpiry unregisters the reaper as well as stopping it: later updates queue nothing, adding with a TTL throws again, the tasks
+     * that had one stay, and enableExpiry starts a new reaper that works.
+     */
+    @Test
+    @Order(5)
+    @DisplayName("Disable Then Enable Again:")
+    void testDisableExpiry() throws InterruptedException {
+        TaskExpiry first = taskService.enableExpiry(5, true);
+        taskService.addTask(new Task("1", "Long Lived", "Would expire in a minute"), 60_000);
+        taskService.disableExpiry();
+        assertNull(taskService.getExpiry());
+        assertEquals(0, first.getPendingEventCount());
+        for (int i = 0; i < 1_000; i++) {
+            taskService.updateTaskName("1", "Rename " + (i % 10));
+        }
+        assertEquals(0, first.getPendingEventCount());
+        assertThrows(IllegalStateException.class, () -> taskService.addTask(new Task("2", "Name", "Description"), 100));
+        assertNotNull(taskService.getTaskById("1"));
+        taskService.disableExpiry();
+
+        TaskExpiry second = taskService.enableExpiry(5, false);
+        assertNotSame(first, second);
+        taskService.addTask(new Task("2", "Short Lived", "Gone in fifty milliseconds"), 50);
+        awaitTrue(() -> taskService.getTaskById("2") == null, "Task 2 never expired");
+        assertEquals(1, second.getExpiredCount());
+
+        second.close();
+        assertNull(taskService.getExpiry());
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
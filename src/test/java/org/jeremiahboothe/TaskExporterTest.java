@@ -0,0 +1,161 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TaskExporterTest {
+    private static final int TASK_COUNT = 10_000;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    private static TaskService populated(TaskStore store) {
+        TaskService taskService = new TaskService(store);
+        for (int i = 0; i < TASK_COUNT; i++) {
+            taskService.addTask(new Task(String.valueOf(i), "Task " + i, "Description " + i));
+        }
+        return taskService;
+    }
+
+    /**
+     * Spliterators of both stores split, and a parallel stream sees every task exactly once, including off-heap overflow tasks.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Parallel Streams Over Both Stores:")
+    void testParallelStreams() {
+        for (TaskStore store : List.of(new OnHeapTaskStore(), new OffHeapTaskStore())) {
+            TaskService taskService = populated(store);
+            taskService.addTask(new Task("\u03b1", "Alpha", "Outside Latin-1"));
+            Spliterator<Task> spliterator = taskService.spliterator();
+            assertNotNull(spliterator.trySplit(), store.getClass().getSimpleName() + " did not split");
+            Set<String> ids = taskService.parallelStream().map(Task::getTaskId).collect(Collectors.toSet());
+            assertEquals(TASK_COUNT + 1, ids.size());
+            assertEquals(TASK_COUNT + 1, taskService.stream().count());
+        }
+    }
+
+    /**
+     * A cursor returns full pages until a short last page, and keeps going while tasks are deleted behind it.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Cursor Pages Through Deletes:")
+    void testCursorPages() {
+        TaskService taskService = populated(new OffHeapTaskStore());
+        TaskCursor cursor = taskService.openCursor();
+        Set<String> seen = new HashSet<>();
+        List<Task> page = cursor.nextPage(3_000);
+        assertEquals(3_000, page.size());
+        page.forEach(task -> seen.add(task.getTaskId()));
+        for (Task task : page) {
+            taskService.deleteTaskQuietly(task.getTaskId());
+        }
+        while (cursor.hasMore()) {
+            for (Task task : cursor.nextPage(3_000)) {
+                assertTrue(seen.add(task.getTaskId()), "Seen twice: " + task.getTaskId());
+            }
+        }
+        assertEquals(TASK_COUNT, seen.size());
+        assertEquals(TASK_COUNT, cursor.getReturnedCount());
+        assertTrue(cursor.nextPage(10).isEmpty());
+    }
+
+    /**
+     * A CSV export imports back into an equal service, including fields that need quoting, and a value with a line break fails the export.
+     * @throws IOException When the export or import fails.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("CSV Export Round Trip:")
+    void testCsvRoundTrip() throws IOException {
+        TaskService taskService = populated(new OnHeapTaskStore());
+        taskService.addTask(new Task("q1", "Say \"Hi\", then", " padded "));
+        taskService.addTask(new Task("q2", "Caf\u00e9", ""));
+        Path file = directory.resolve("tasks.csv");
+        assertEquals(TASK_COUNT + 2, TaskExporter.export(taskService, file, TaskExporter.Format.CSV));
+
+        TaskService imported = new TaskService();
+        ImportReport report = new TaskCsvImporter(imported).importFile(file);
+        System.out.println(report);
+        assertEquals(TASK_COUNT + 2, imported.size());
+        assertEquals("Say \"Hi\", then", imported.getTaskName("q1"));
+        assertEquals(" padded ", imported.getTaskDescription("q1"));
+        assertEquals("Caf\u00e9", imported.getTaskName("q2"));
+        assertEquals("", imported.getTaskDescription("q2"));
+        assertEquals("Description 42", imported.getTaskDescription("42"));
+
+        taskService.addTask(new Task("n1", "Two", "Line\nbreak"));
+        IOException lineBreak = assertThrows(IOException.class,
+                () -> TaskExporter.export(taskService, directory.resolve("broken.csv"), TaskExporter.Format.CSV));
+        assertTrue(lineBreak.getMessage().contains("n1"));
+    }
+
+    /**
+     * A binary export reads back task for task, line breaks included, and a cut short file is reported.
+     * @throws IOException When the export or read fails.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Binary Export Round Trip:")
+    void testBinaryRoundTrip() throws IOException {
+        TaskService taskService = populated(new OffHeapTaskStore());
+        taskService.addTask(new Task("u1", "\u03b1\u03b2\u03b3", "Greek name"));
+        taskService.addTask(new Task("n1", "Two", "Line\nbreak"));
+        Path file = directory.resolve("tasks.bin");
+        assertEquals(TASK_COUNT + 2, TaskExporter.export(taskService, file, TaskExporter.Format.BINARY));
+
+        TaskService restored = new TaskService();
+        assertEquals(TASK_COUNT + 2, TaskExporter.readBinary(file, restored::addTask));
+        assertEquals("\u03b1\u03b2\u03b3", restored.getTaskName("u1"));
+        assertEquals("Line\nbreak", restored.getTaskDescription("n1"));
+        assertEquals("Task 9999", restored.getTaskName("9999"));
+
+        Path truncated = directory.resolve("truncated.bin");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IOException.class, () -> TaskExporter.readBinary(truncated, task -> { }));
+    }
+}
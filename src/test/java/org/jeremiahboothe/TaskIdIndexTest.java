@@ -0,0 +1,254 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TaskIdIndexTest {
+    private static final int TASK_COUNT = 1000;
+
+    private TaskService taskService;
+    private TaskIdIndex idIndex;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * Each test gets a service holding Ids 0 through 999, with the index turned on after half of them, so the backfill is covered too.
+     */
+    @BeforeEach
+    void setUpIndexedService() {
+        taskService = new TaskService();
+        for (int i = 0; i < TASK_COUNT / 2; i++) {
+            taskService.addTask(new Task(String.valueOf(i), "Task " + i, "Indexed task"));
+        }
+        idIndex = taskService.enableIdIndex();
+        for (int i = TASK_COUNT / 2; i < TASK_COUNT; i++) {
+            taskService.addTask(new Task(String.valueOf(i), "Task " + i, "Indexed task"));
+        }
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    private static List<String> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getTaskId).collect(Collectors.toList());
+    }
+
+    /**
+     * Plain numbers sort by value ahead of every other Id, and printAllTasks follows that order once the index is on.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Ids Sort Numerically First:")
+    void testIdOrder() {
+        List<String> sorted = new ArrayList<>(Arrays.asList("b", "10", "007", "9", "A1", "100", "0", "99", "a"));
+        sorted.sort(TaskIdIndex.ID_ORDER);
+        assertEquals(Arrays.asList("0", "9", "10", "99", "100", "007", "A1", "a", "b"), sorted);
+        assertEquals(0, TaskIdIndex.ID_ORDER.compare("42", "42"));
+
+        taskService.addTask(new Task("abc", "Lettered", "Sorts after numbers"));
+        taskService.addTask(new Task("007", "Padded", "Sorts with the text"));
+        List<String> printed = new ArrayList<>();
+        taskService.setOutput(line -> {
+            if (line.startsWith("Retrieved Task from Index [")) {
+                printed.add(line.substring("Retrieved Task from Index [".length(), line.length() - 2));
+            }
+        });
+        taskService.printAllTasks();
+        assertEquals(TASK_COUNT + 2, printed.size());
+        assertEquals(Arrays.asList("0", "1", "2"), printed.subList(0, 3));
+        assertEquals(Arrays.asList("998", "999", "007", "abc"), printed.subList(TASK_COUNT - 2, TASK_COUNT + 2));
+        assertSame(idIndex, taskService.enableIdIndex());
+    }
+
+    /**
+     * Ranges and pages come back in Id order, and follow later adds and deletes.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Range Scans And Pages:")
+    void testRangeAndPages() {
+        List<Task> hundreds = idIndex.range("100", "199", Integer.MAX_VALUE);
+        assertEquals(100, hundreds.size());
+        assertEquals("100", hundreds.get(0).getTaskId());
+        assertEquals("199", hundreds.get(99).getTaskId());
+        assertEquals(Arrays.asList("100", "101", "102"), ids(idIndex.range("100", "199", 3)));
+        assertEquals(Arrays.asList("5", "6"), ids(idIndex.range("5", "6", 10)));
+        assertTrue(idIndex.range("5000", "6000", 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> idIndex.range("200", "100", 10));
+        assertThrows(IllegalArgumentException.class, () -> idIndex.page(null, -1));
+        assertThrows(NullPointerException.class, () -> idIndex.range(null, "100", 10));
+
+        taskService.deleteTaskQuietly("150");
+        taskService.addTask(new Task("1500", "Task 1500", "Out of range"));
+        assertEquals(99, idIndex.range("100", "199", Integer.MAX_VALUE).size());
+
+        List<String> walked = new ArrayList<>();
+        String last = null;
+        List<Task> page;
+        while (!(page = idIndex.page(last, 64)).isEmpty()) {
+            walked.addAll(ids(page));
+            last = page.get(page.size() - 1).getTaskId();
+        }
+        assertEquals(TASK_COUNT, walked.size());
+        assertEquals("0", walked.get(0));
+        assertEquals("1500", walked.get(TASK_COUNT - 1));
+        assertFalse(walked.contains("150"));
+        List<String> sorted = new ArrayList<>(walked);
+        sorted.sort(TaskIdIndex.ID_ORDER);
+        assertEquals(sorted, walked);
+    }
+
+    /**
+     * floorId and ceilingId find the nearest present Id on either side, whether or not the Id asked about exists.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Nearest Id Lookup:")
+    void testNearestIds() {
+        assertEquals("500", idIndex.floorId("500"));
+        assertEquals("500", idIndex.ceilingId("500"));
+        taskService.deleteTaskQuietly("500");
+        taskService.deleteTaskQuietly("501");
+        assertEquals("499", idIndex.floorId("500"));
+        assertEquals("502", idIndex.ceilingId("500"));
+        assertEquals("999", idIndex.floorId("5000"));
+        assertNull(idIndex.ceilingId("5000"));
+        assertEquals("999", idIndex.floorId("zzz"));
+        taskService.deleteTaskQuietly("0");
+        assertNull(idIndex.floorId("0"));
+        assertEquals("1", idIndex.ceilingId("0"));
+    }
+
+    /**
+     * Pages read while writers add and delete Ids are always in strictly increasing Id order, and the index matches the map afterwards.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Pages Under Concurrent Writes:")
+    void testPagesDuringWrites() throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            int i = 0;
+            while (running.get()) {
+                String taskId = String.valueOf(TASK_COUNT + i % 500);
+                if (taskService.tryAdd(new Task(taskId, "Churn", "Added and deleted")) != TaskStatus.OK) {
+                    taskService.tryDelete(taskId);
+                }
+                taskService.tryDelete(String.valueOf(i % TASK_COUNT));
+                taskService.tryAdd(new Task(String.valueOf(i % TASK_COUNT), "Back", "Re-added"));
+                i += 3;
+            }
+        });
+        writer.start();
+        try {
+            for (int round = 0; round < 20; round++) {
+                String last = null;
+                List<Task> page;
+                while (!(page = idIndex.page(last, 50)).isEmpty()) {
+                    for (Task task : page) {
+                        if (last != null) {
+                            assertTrue(TaskIdIndex.ID_ORDER.compare(last, task.getTaskId()) < 0, last + " before " + task.getTaskId());
+                        }
+                        last = task.getTaskId();
+                    }
+                }
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+        assertEquals(taskService.size(), idIndex.size());
+        List<String> inOrder = new ArrayList<>();
+        idIndex.forEachInOrder(task -> inOrder.add(task.getTaskId()));
+        assertEquals(taskService.size(), inOrder.size());
+    }
+
+    /**
+     * An add cancelled by a listener registered after the index, and a backfilled task deleted before the backfill reaches it, leave no Id
+     * behind, while a re-add still in flight when the backfill reaches the old task keeps its Id, so the index keeps matching the map.
+     */
+    @Test
+    @Order(5)
+    @DisplayName("Cancelled Adds And Racing Backfill Leave No Stale Ids:")
+    void testNoStaleIds() {
+        taskService.addChangeListener(new TaskChangeListener() {
+            @Override
+            public void taskAdded(Task task) {
+                if (task.getTaskId().equals("2000")) {
+                    throw new IllegalStateException("Rejected");
+                }
+            }
+
+            @Override
+            public void taskNameUpdated(Task task, String taskName) {
+            }
+
+            @Override
+            public void taskDescriptionUpdated(Task task, String taskDescription) {
+            }
+
+            @Override
+            public void taskDeleted(Task task) {
+            }
+        });
+        assertThrows(IllegalStateException.class, () -> taskService.addTask(new Task("2000", "Rejected", "Cancelled add")));
+        assertNull(taskService.getTaskById("2000"));
+        assertEquals(taskService.size(), idIndex.size());
+
+        TaskIdIndex backfilling = new TaskIdIndex(taskService);
+        taskService.addChangeListener(backfilling);
+        // The walk reaches 42 and 43 last, after a delete of 42 and a delete and a re-add of 43 whose listener call came before its store.
+        taskService.forEachTask(task -> {
+            if (!task.getTaskId().equals("42") && !task.getTaskId().equals("43")) {
+                backfilling.backfill(task);
+            }
+        });
+        Task deleted = taskService.getTaskById("42");
+        taskService.deleteTaskQuietly("42");
+        backfilling.backfill(deleted);
+
+        Task reAdded = taskService.getTaskById("43");
+        taskService.deleteTaskQuietly("43");
+        Task inFlight = new Task("43", "Again", "Listener told, not yet stored");
+        backfilling.taskAdded(inFlight);
+        backfilling.backfill(reAdded);
+        taskService.restoreTask(inFlight);
+        backfilling.backfillDone();
+        assertEquals(taskService.size(), backfilling.size());
+        assertEquals("43", backfilling.ceilingId("43"));
+        assertEquals("41", backfilling.floorId("42"));
+        assertThrows(IllegalStateException.class, () -> backfilling.backfill(inFlight));
+    }
+}
@@ -0,0 +1,155 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TaskMetricsTest {
+    private TaskService taskService;
+    private TaskMetrics metrics;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * Every test times every call, so latency counts are exact.
+     */
+    @BeforeEach
+    void setUpMeteredService() {
+        taskService = new TaskService();
+        metrics = taskService.enableMetrics(1);
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    /**
+     * Calls, duplicate Ids and missing Ids are counted per operation, and the size gauge follows the map.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Counts Operations and Outcomes:")
+    void testCountsOperationsAndOutcomes() {
+        taskService.addTask(taskService.createNewTaskToAddToMap("1", "Walk Dog", "Take the dog around the block"));
+        taskService.addTask(taskService.createNewTaskToAddToMap("2", "Wash Car", "Rinse and dry the car"));
+        assertThrows(IllegalArgumentException.class,
+                () -> taskService.addTask(taskService.createNewTaskToAddToMap("1", "Walk Dog", "Again")));
+        assertNull(taskService.getTaskById("3"));
+        assertEquals("Walk Dog", taskService.getTaskName("1"));
+        taskService.updateTaskName("1", "Walk Cat");
+        assertThrows(NullPointerException.class, () -> taskService.updateTaskDescription("3", "Nothing"));
+        taskService.deleteTaskQuietly("2");
+        assertThrows(NullPointerException.class, () -> taskService.deleteTaskQuietly("2"));
+
+        TaskMetrics.Snapshot snapshot = metrics.snapshot();
+        System.out.println(snapshot);
+        assertEquals(1, snapshot.getTaskCount());
+        assertEquals(3, snapshot.getCallCount(TaskMetrics.Operation.ADD));
+        assertEquals(2, snapshot.getCallCount(TaskMetrics.Operation.GET));
+        assertEquals(1, snapshot.getCallCount(TaskMetrics.Operation.UPDATE_NAME));
+        assertEquals(1, snapshot.getCallCount(TaskMetrics.Operation.UPDATE_DESCRIPTION));
+        assertEquals(2, snapshot.getCallCount(TaskMetrics.Operation.DELETE));
+        assertEquals(3, snapshot.getLatency(TaskMetrics.Operation.ADD).getCount());
+        assertEquals(1, snapshot.getDuplicateIdRejections());
+        assertEquals(1, snapshot.getMissingIdGets());
+        assertEquals(1, snapshot.getMissingIdUpdates());
+        assertEquals(1, snapshot.getMissingIdDeletes());
+    }
+
+    /**
+     * Validation failures from creates, updates and bulk rows are counted by code and by field.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Counts Validation Failures by Field:")
+    void testCountsValidationFailures() {
+        taskService.addTask(taskService.createNewTaskToAddToMap("1", "Walk Dog", "Take the dog around the block"));
+        assertThrows(IllegalArgumentException.class,
+                () -> taskService.createNewTaskToAddToMap("12345678901", "Walk Dog", "Too long an Id"));
+        assertThrows(NullPointerException.class, () -> taskService.updateTaskName("1", null));
+        assertThrows(IllegalArgumentException.class, () -> taskService.updateTaskName("1", "A name that is far too long"));
+        taskService.addTasks(List.of(new TaskRow("2", "Fine", null), new TaskRow("1", "Taken", "Already there")),
+                BulkCommitPolicy.PARTIAL);
+
+        TaskMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getValidationFailures().get(TaskValidation.ID_TOO_LONG));
+        assertEquals(1, snapshot.getValidationFailures().get(TaskValidation.NAME_NULL));
+        assertEquals(1, snapshot.getValidationFailures().get(TaskValidation.NAME_TOO_LONG));
+        assertEquals(1, snapshot.getValidationFailures().get(TaskValidation.DESCRIPTION_NULL));
+        assertEquals(2, snapshot.getValidationFailures("Task Name"));
+        assertEquals(1, snapshot.getDuplicateIdRejections());
+        assertEquals(1, snapshot.getCallCount(TaskMetrics.Operation.BULK_ADD));
+    }
+
+    /**
+     * Percentiles land within the 12.5% bucket precision of the recorded values.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Histogram Percentiles:")
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1_000);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(10_000_000, snapshot.getMax());
+        assertEquals(5_000_000, snapshot.getP50(), 5_000_000 * 0.125);
+        assertEquals(9_900_000, snapshot.getP99(), 9_900_000 * 0.125);
+        for (int index = 0; index < 488; index++) {
+            assertEquals(index, LatencyHistogram.bucketIndex(LatencyHistogram.bucketUpperBound(index)));
+        }
+    }
+
+    /**
+     * The metrics can be read through the platform MBean server.
+     * @throws Exception When the MBean server rejects a call.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Readable Over JMX:")
+    void testReadableOverJmx() throws Exception {
+        taskService.addTask(taskService.createNewTaskToAddToMap("1", "Walk Dog", "Take the dog around the block"));
+        ObjectName name = metrics.registerMBean("metrics-test");
+        try {
+            assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "TaskCount"));
+            TaskMetricsMXBean proxy = javax.management.JMX.newMXBeanProxy(
+                    ManagementFactory.getPlatformMBeanServer(), name, TaskMetricsMXBean.class);
+            Map<String, Long> counts = proxy.getOperationCounts();
+            assertEquals(1L, counts.get("ADD"));
+        } finally {
+            metrics.unregisterMBean();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+}
@@ -0,0 +1,218 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TaskPersistenceTest {
+    @TempDir
+    Path directory;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    /**
+     * Opens persistence with checkpoints only on request, so each test controls when compaction happens.
+     */
+    private TaskPersistence open(TaskService taskService) throws IOException {
+        return TaskPersistence.open(directory, taskService, 5, 0);
+    }
+
+    /**
+     * Every kind of change made before close is there after reopening.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Replays Log After Restart:")
+    void testReplayLogAfterRestart() throws IOException {
+        TaskService taskService = new TaskService();
+        TaskPersistence writing = open(taskService);
+        try (writing) {
+            taskService.addTask(taskService.createNewTaskToAddToMap("7", "Call Friend", "Catch up with a friend over the phone"));
+            taskService.addTask(taskService.createNewTaskToAddToMap("8", "Learn Guitar", "Practice playing the guitar for 20 minutes"));
+            taskService.addTask(taskService.createNewTaskToAddToMap("175", "Movie Night", "Watch a favorite movie with popcorn"));
+            taskService.updateTaskName("7", "UPDATED");
+            taskService.updateTaskDescription("8", "UPDATED");
+            taskService.deleteTask("175");
+        }
+
+        TaskService restored = new TaskService();
+        try (TaskPersistence persistence = open(restored)) {
+            assertEquals(6, persistence.getReplayedRecordCount());
+            assertEquals(2, restored.size());
+            assertEquals("UPDATED", restored.getTaskName("7"));
+            assertEquals("Catch up with a friend over the phone", restored.getTaskDescription("7"));
+            assertEquals("UPDATED", restored.getTaskDescription("8"));
+            assertNull(restored.getTaskById("175"));
+            System.out.println("Replayed " + persistence.getReplayedRecordCount() + " records in " + persistence.getRecoveryMillis() + " ms");
+        }
+    }
+
+    /**
+     * A checkpoint folds the log into a snapshot. Only the segment it closed and the changes after it are replayed, older segments are deleted.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Restores Snapshot Plus Log Tail:")
+    void testSnapshotPlusLogTail() throws IOException {
+        TaskService taskService = new TaskService();
+        try (TaskPersistence persistence = open(taskService)) {
+            for (int i = 0; i < 1_000; i++) {
+                taskService.addTask(taskService.createNewTaskToAddToMap(String.valueOf(i), "Task " + i, "Description " + i));
+            }
+            persistence.checkpoint();
+            taskService.updateTaskName("1", "Between Checkpoints");
+            persistence.checkpoint();
+            taskService.updateTaskName("1", "After Checkpoint");
+            taskService.deleteTask("2");
+        }
+        assertEquals(List.of(1L, 2L), TaskWriteAheadLog.listSegments(directory), "Segments before the closed one should be deleted");
+
+        TaskService restored = new TaskService();
+        try (TaskPersistence persistence = open(restored)) {
+            assertEquals(1_000, persistence.getRecoveredTaskCount());
+            assertEquals(3, persistence.getReplayedRecordCount());
+            assertEquals(999, restored.size());
+            assertEquals("After Checkpoint", restored.getTaskName("1"));
+            assertNull(restored.getTaskById("2"));
+            assertEquals("Description 999", restored.getTaskDescription("999"));
+        }
+    }
+
+    /**
+     * A half-written record at the end of the log, as a crash mid-write leaves, is dropped and everything before it survives.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Drops Torn Record at End of Log:")
+    void testTornTailIsDropped() throws IOException {
+        TaskService taskService = new TaskService();
+        TaskPersistence writing = open(taskService);
+        try (writing) {
+            taskService.addTask(taskService.createNewTaskToAddToMap("100", "Workout", "Pump some Iron like I'm Arnold in 1978"));
+        }
+        Path segment = TaskWriteAheadLog.segmentPath(directory, TaskWriteAheadLog.listSegments(directory).get(0));
+        Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        TaskService restored = new TaskService();
+        try (TaskPersistence persistence = open(restored)) {
+            assertEquals(1, persistence.getReplayedRecordCount());
+            assertEquals("Workout", restored.getTaskName("100"));
+            restored.addTask(restored.createNewTaskToAddToMap("399", "Wash the Car", "Looks like someone went muddin' in my car"));
+        }
+
+        TaskService again = new TaskService();
+        try (TaskPersistence persistence = open(again)) {
+            assertEquals(2, persistence.getReplayedRecordCount());
+            assertEquals(2, again.size());
+        }
+    }
+
+    /**
+     * A change the listener rejects by validation never reaches the log.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Rejected Updates Are Not Logged:")
+    void testRejectedUpdatesNotLogged() throws IOException {
+        TaskService taskService = new TaskService();
+        TaskPersistence writing = open(taskService);
+        try (writing) {
+            taskService.addTask(taskService.createNewTaskToAddToMap("5", "Cook Dinner", "Prepare a homemade dinner for the family"));
+            assertThrows(IllegalArgumentException.class, () -> taskService.updateTaskName("5", "Cook Dinner Cook Dinner"));
+            assertThrows(IllegalArgumentException.class, () -> taskService.addTask(taskService.createNewTaskToAddToMap("5", "Again", "Again")));
+        }
+
+        TaskService restored = new TaskService();
+        try (TaskPersistence persistence = open(restored)) {
+            assertEquals(1, persistence.getReplayedRecordCount());
+            assertEquals("Cook Dinner", restored.getTaskName("5"));
+        }
+    }
+
+    /**
+     * An add that is logged just before a checkpoint rotates the log, but not yet in the map when the snapshot is written, survives a restart.
+     */
+    @Test
+    @Order(5)
+    @DisplayName("Change Racing A Checkpoint Survives:")
+    void testChangeRacingCheckpoint() throws IOException, InterruptedException {
+        TaskService taskService = new TaskService();
+        CountDownLatch logged = new CountDownLatch(1);
+        CountDownLatch checkpointed = new CountDownLatch(1);
+        try (TaskPersistence persistence = open(taskService)) {
+            taskService.addChangeListener(new TaskChangeListener() {
+                @Override
+                public void taskAdded(Task task) {
+                    logged.countDown();
+                    try {
+                        checkpointed.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                @Override
+                public void taskNameUpdated(Task task, String taskName) {
+                }
+
+                @Override
+                public void taskDescriptionUpdated(Task task, String taskDescription) {
+                }
+
+                @Override
+                public void taskDeleted(Task task) {
+                }
+            });
+            Thread adder = new Thread(() -> taskService.addTask(new Task("42", "Late Add", "Logged before the rotation")));
+            adder.start();
+            assertTrue(logged.await(5, TimeUnit.SECONDS));
+            persistence.checkpoint();
+            checkpointed.countDown();
+            adder.join();
+            assertNotNull(taskService.getTaskById("42"));
+        }
+
+        TaskService restored = new TaskService();
+        try (TaskPersistence persistence = open(restored)) {
+            assertEquals(0, persistence.getRecoveredTaskCount());
+            assertEquals("Late Add", restored.getTaskName("42"));
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TaskQueryTest {
+    private static final int TASK_COUNT = 200_000;
+
+    private static ForkJoinPool pool;
+    private TaskService taskService;
+
+    /**
+     * One pool for the class, so the parallel runs really split even where the common pool has a single worker.
+     */
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * Each test gets a service preloaded with the workload rows under numeric Ids.
+     */
+    @BeforeEach
+    void setUpPopulatedService() {
+        taskService = new TaskService(new SnapshotTaskStore(new OnHeapTaskStore()));
+        for (int i = 0; i < TASK_COUNT; i++) {
+            taskService.addTask(new Task(String.valueOf(i), ROWS[i % ROWS.length][0], ROWS[i % ROWS.length][1]));
+        }
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    private static final String[][] ROWS = {
+            {"Grocery Shopping", "Buy groceries for the week"},
+            {"Read Book", "Read the first chapter of a new novel"},
+            {"Pay Bills", "Settle monthly utility bills"},
+            {"Call Friend", "Catch up with a friend over the phone"},
+            {"Movie Night", "Watch a favorite movie with popcorn"}
+    };
+
+    /**
+     * Each factory filter and each combination selects the same tasks a plain loop over the rows would.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Filters Select The Right Tasks:")
+    void testFilters() {
+        int perRow = TASK_COUNT / ROWS.length;
+        assertEquals(TASK_COUNT, taskService.query().count());
+        assertEquals(perRow, taskService.query().where(TaskFilter.equalTo(TaskFilter.Field.NAME, "Pay Bills")).count());
+        assertEquals(3 * perRow, taskService.query().where(TaskFilter.contains(TaskFilter.Field.DESCRIPTION, "the")).count());
+        assertEquals(perRow, taskService.query()
+                .where(TaskFilter.contains(TaskFilter.Field.DESCRIPTION, "the"))
+                .where(TaskFilter.startsWith(TaskFilter.Field.NAME, "Read"))
+                .count());
+        assertEquals(4 * perRow, taskService.query()
+                .where(TaskFilter.lengthBetween(TaskFilter.Field.NAME, 9, 11))
+                .count());
+        assertEquals(2 * perRow, taskService.query()
+                .where(TaskFilter.equalTo(TaskFilter.Field.NAME, "Pay Bills").or(TaskFilter.equalTo(TaskFilter.Field.NAME, "Read Book")))
+                .count());
+        assertEquals(TASK_COUNT - perRow, taskService.query()
+                .where(TaskFilter.equalTo(TaskFilter.Field.NAME, "Pay Bills").negate())
+                .count());
+        assertEquals(1111, taskService.query().where(TaskFilter.startsWith(TaskFilter.Field.ID, "199")).count());
+        assertEquals(0, taskService.query().where(TaskFilter.equalTo(TaskFilter.Field.ID, "nope")).count());
+        assertThrows(NullPointerException.class, () -> TaskFilter.contains(TaskFilter.Field.NAME, null));
+        assertThrows(IllegalArgumentException.class, () -> TaskFilter.lengthBetween(TaskFilter.Field.NAME, 5, 4));
+        assertThrows(IllegalArgumentException.class, () -> taskService.query().limit(-1));
+
+        List<String> ids = taskService.query()
+                .where(TaskFilter.matches(TaskFilter.Field.ID, id -> id.length() == 1))
+                .select(VersionedTask::getTaskId);
+        assertEquals(Set.of("0", "1", "2", "3", "4", "5", "6", "7", "8", "9"), new HashSet<>(ids));
+        VersionedTask task = taskService.query().where(TaskFilter.equalTo(TaskFilter.Field.ID, "7")).findAny().orElseThrow();
+        assertEquals(ROWS[7 % ROWS.length][0], task.getTaskName());
+    }
+
+    /**
+     * Parallel runs on four workers give the same counts, groups and sums as a sequential run.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Parallel Aggregation Matches Sequential:")
+    void testParallelAggregation() {
+        TaskFilter filter = TaskFilter.contains(TaskFilter.Field.DESCRIPTION, "e");
+        Map<Integer, Long> expected = new HashMap<>();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            String[] row = ROWS[i % ROWS.length];
+            if (row[1].contains("e")) {
+                expected.merge(row[0].length(), 1L, Long::sum);
+            }
+        }
+        Map<Integer, Long> sequential = taskService.query().where(filter).sequential().countBy(task -> task.getTaskName().length());
+        Map<Integer, Long> parallel = taskService.query().where(filter).parallel(pool).countBy(task -> task.getTaskName().length());
+        assertEquals(expected, sequential);
+        assertEquals(expected, parallel);
+
+        int descriptionChars = taskService.query().parallel(pool)
+                .aggregate(Collectors.summingInt(task -> task.getTaskDescription().length()));
+        int expectedChars = 0;
+        for (int i = 0; i < TASK_COUNT; i++) {
+            expectedChars += ROWS[i % ROWS.length][1].length();
+        }
+        assertEquals(expectedChars, descriptionChars);
+        assertEquals(TASK_COUNT, taskService.query().parallel(pool).list().size());
+    }
+
+    /**
+     * A limit stops every range once enough matches are found, so a limited query over every task reads a small part of the map.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Limits Stop The Walk Early:")
+    void testEarlyTermination() {
+        AtomicLong examined = new AtomicLong();
+        TaskFilter counting = TaskFilter.matches(TaskFilter.Field.NAME, name -> {
+            examined.incrementAndGet();
+            return true;
+        });
+        List<VersionedTask> ten = taskService.query().where(counting).limit(10).parallel(pool).list();
+        assertEquals(10, ten.size());
+        assertEquals(10, new HashSet<>(ten.stream().map(VersionedTask::getTaskId).collect(Collectors.toList())).size());
+        System.out.printf("limit(10) examined %d of %d tasks%n", examined.get(), TASK_COUNT);
+        assertTrue(examined.get() < TASK_COUNT / 4, "Examined " + examined.get());
+
+        examined.set(0);
+        assertTrue(taskService.query().where(counting).anyMatch());
+        assertTrue(examined.get() < TASK_COUNT / 4, "Examined " + examined.get());
+        assertEquals(0, taskService.query().limit(0).count());
+        assertEquals(5, taskService.query().limit(5).sequential().count());
+        assertFalse(taskService.query().where(TaskFilter.equalTo(TaskFilter.Field.NAME, "Absent")).parallel(pool).anyMatch());
+    }
+
+    /**
+     * Queries run while writers rename tasks: over the live map they never fail, and over a snapshot they see exactly the tasks as they were.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Queries Under Concurrent Writes:")
+    void testQueriesDuringWrites() throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            int i = 0;
+            while (running.get()) {
+                taskService.updateTaskName(String.valueOf(i % TASK_COUNT), "Renamed");
+                i += 7;
+            }
+        });
+        TaskFilter renamed = TaskFilter.equalTo(TaskFilter.Field.NAME, "Renamed");
+        try (TaskMapSnapshot snapshot = taskService.snapshot()) {
+            writer.start();
+            for (int round = 0; round < 5; round++) {
+                assertEquals(0, snapshot.query().where(renamed).parallel(pool).count());
+                assertEquals(TASK_COUNT, snapshot.query().parallel(pool).count());
+                long live = taskService.query().where(renamed).parallel(pool).count();
+                assertTrue(live >= 0 && live <= TASK_COUNT);
+                for (VersionedTask task : taskService.query().where(renamed).limit(100).parallel(pool).list()) {
+                    assertEquals("Renamed", task.getTaskName());
+                }
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+        assertTrue(taskService.query().where(renamed).count() > 0);
+    }
+}
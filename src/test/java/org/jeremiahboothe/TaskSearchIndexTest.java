@@ -0,0 +1,124 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TaskSearchIndexTest {
+    private TaskService taskService;
+    private TaskSearchIndex searchIndex;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * Loads a few tasks before attaching, so the backfill is covered too, and a few after.
+     */
+    @BeforeEach
+    void setUpIndexedService() {
+        taskService = new TaskService();
+        taskService.addTask(taskService.createNewTaskToAddToMap("7", "Call Friend", "Catch up with a friend over the phone"));
+        taskService.addTask(taskService.createNewTaskToAddToMap("8", "Call Mom", "Catch up with Mom over the phone"));
+        searchIndex = TaskSearchIndex.attach(taskService);
+        taskService.addTask(taskService.createNewTaskToAddToMap("9", "Clean House", "Tidy up and clean different rooms in the house"));
+        taskService.addTask(taskService.createNewTaskToAddToMap("10", "Call Friend", "Plan a movie night with a friend"));
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    private static Set<String> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getTaskId).collect(Collectors.toSet());
+    }
+
+    /**
+     * Exact and prefix name lookups find tasks added before and after attaching.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Find by Exact Name and Prefix:")
+    void testFindByNameAndPrefix() {
+        assertEquals(Set.of("7", "10"), ids(searchIndex.findByName("Call Friend")));
+        assertEquals(Set.of("7", "8", "10"), ids(searchIndex.findByNamePrefix("Call", 10)));
+        assertEquals(Set.of("9"), ids(searchIndex.findByNamePrefix("Cl", 10)));
+        assertEquals(2, searchIndex.findByNamePrefix("C", 2).size());
+        assertTrue(searchIndex.findByName("call friend").isEmpty());
+        searchIndex.findByNamePrefix("Call", 10).forEach(Task::displayValues);
+    }
+
+    /**
+     * Description words match whole words, any case, all words required.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Find by Description Words:")
+    void testFindByDescriptionWords() {
+        assertEquals(Set.of("7", "8"), ids(searchIndex.findByDescriptionWords("phone", 10)));
+        assertEquals(Set.of("7", "10"), ids(searchIndex.findByDescriptionWords("FRIEND", 10)));
+        assertEquals(Set.of("7"), ids(searchIndex.findByDescriptionWords("friend phone", 10)));
+        assertTrue(searchIndex.findByDescriptionWords("frie", 10).isEmpty());
+        assertTrue(searchIndex.findByDescriptionWords("  ", 10).isEmpty());
+    }
+
+    /**
+     * Updates and deletes move tasks between index entries.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Index Follows Updates and Deletes:")
+    void testIndexFollowsChanges() {
+        taskService.updateTaskName("7", "UPDATED");
+        taskService.updateTaskDescription("8", "Video call with Mom");
+        taskService.deleteTask("10");
+
+        assertTrue(searchIndex.findByName("Call Friend").isEmpty());
+        assertEquals(Set.of("7"), ids(searchIndex.findByName("UPDATED")));
+        assertEquals(Set.of("7"), ids(searchIndex.findByDescriptionWords("phone", 10)));
+        assertEquals(Set.of("8"), ids(searchIndex.findByDescriptionWords("video mom", 10)));
+        assertTrue(searchIndex.findByDescriptionWords("movie", 10).isEmpty());
+        assertEquals(Set.of("8"), ids(searchIndex.findByNamePrefix("Call", 10)));
+    }
+
+    /**
+     * A rejected update leaves the index unchanged, and a detached index stops following changes.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Rejected Updates and Detach:")
+    void testRejectedUpdateAndDetach() {
+        assertThrows(IllegalArgumentException.class, () -> taskService.updateTaskName("9", "Clean House Clean House"));
+        assertEquals(Set.of("9"), ids(searchIndex.findByName("Clean House")));
+
+        searchIndex.detach();
+        taskService.addTask(taskService.createNewTaskToAddToMap("11", "Clean Garage", "Sweep it"));
+        assertEquals(Set.of("9"), ids(searchIndex.findByNamePrefix("Clean", 10)));
+    }
+}
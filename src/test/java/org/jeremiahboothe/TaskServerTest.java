@@ -0,0 +1,190 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TaskServerTest {
+    private TaskService taskService;
+    private TaskServer server;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * Each test gets its own service behind a server on a free loopback port.
+     */
+    @BeforeEach
+    void startServer() throws IOException {
+        taskService = new TaskService();
+        server = new TaskServer(taskService, new InetSocketAddress("127.0.0.1", 0), 2);
+    }
+
+    /**
+     * After test Formatting for viewing pleasure! Also stops the server.
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        server.close();
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    /**
+     * Every operation round-trips with the same status the in-process try methods give.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Add, Get, Update, Delete Over The Wire:")
+    void testRoundTrip() throws IOException {
+        try (TaskClient client = TaskClient.connect("127.0.0.1", server.getPort())) {
+            assertEquals(TaskStatus.OK, client.addTask("175", "Walk Dog", "Walk the dog around the block"));
+            assertEquals(TaskStatus.ALREADY_EXISTS, client.addTask("175", "Walk Dog", "Again"));
+            assertEquals(TaskStatus.INVALID, client.addTask("176", "This name is far too long", "Description"));
+            assertEquals(TaskStatus.INVALID, client.addTask(null, "Name", "Description"));
+
+            VersionedTask task = client.getTask("175");
+            assertEquals("175", task.getTaskId());
+            assertEquals("Walk Dog", task.getTaskName());
+            assertEquals("Walk the dog around the block", task.getTaskDescription());
+            assertNull(client.getTask("176"));
+
+            assertEquals(TaskStatus.OK, client.updateTaskName("175", "Feed Cat"));
+            assertEquals(TaskStatus.OK, client.updateTaskDescription("175", "Fill the bowl, \u00fcn\u00efc\u00f6d\u00e9"));
+            assertEquals(TaskStatus.NOT_FOUND, client.updateTaskName("176", "Feed Cat"));
+            assertEquals(TaskStatus.INVALID, client.updateTaskDescription("175", null));
+            VersionedTask updated = client.getTask("175");
+            assertEquals("Feed Cat", updated.getTaskName());
+            assertEquals("Fill the bowl, \u00fcn\u00efc\u00f6d\u00e9", updated.getTaskDescription());
+            assertEquals(task.getVersion() + 2, updated.getVersion());
+            assertEquals("Feed Cat", taskService.getTaskName("175"));
+
+            assertEquals(TaskStatus.OK, client.deleteTask("175"));
+            assertEquals(TaskStatus.NOT_FOUND, client.deleteTask("175"));
+            assertEquals(0, taskService.size());
+        }
+    }
+
+    /**
+     * Thousands of requests sent before any answer is read all come back, in order, with the right results.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Pipelined Requests Answer In Order:")
+    void testPipelining() throws IOException {
+        int count = 20_000;
+        try (TaskClient client = TaskClient.connect("127.0.0.1", server.getPort())) {
+            List<CompletableFuture<TaskStatus>> adds = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                adds.add(client.addTaskAsync(String.valueOf(i), "Name " + (i % 100), "Description"));
+            }
+            List<CompletableFuture<VersionedTask>> gets = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                gets.add(client.getTaskAsync(String.valueOf(i)));
+            }
+            for (int i = 0; i < count; i++) {
+                assertEquals(TaskStatus.OK, adds.get(i).join());
+                assertEquals("Name " + (i % 100), gets.get(i).join().getTaskName());
+            }
+        }
+        assertEquals(count, taskService.size());
+        assertEquals(2L * count, server.getRequestCount());
+    }
+
+    /**
+     * Several clients spread over the event loops, each adding and deleting its own Ids while sharing one client between threads.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Concurrent Clients Share The Map:")
+    void testConcurrentClients() throws Exception {
+        int clients = 4;
+        int threadsPerClient = 2;
+        int tasksPerThread = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(clients * threadsPerClient);
+        CountDownLatch start = new CountDownLatch(1);
+        List<TaskClient> connections = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            TaskClient client = TaskClient.connect("127.0.0.1", server.getPort());
+            connections.add(client);
+            for (int t = 0; t < threadsPerClient; t++) {
+                String prefix = c + "-" + t + "-";
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < tasksPerThread; i++) {
+                        assertEquals(TaskStatus.OK, client.addTask(prefix + i, "Name", "Description"));
+                        if (i % 2 == 0) {
+                            assertEquals(TaskStatus.OK, client.deleteTask(prefix + i));
+                        }
+                    }
+                    return null;
+                }));
+            }
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        connections.forEach(TaskClient::close);
+        assertEquals(clients * threadsPerClient * tasksPerThread / 2, taskService.size());
+    }
+
+    /**
+     * A garbage frame closes only the connection that sent it, and a client whose server goes away fails instead of hanging.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Bad Frames And Lost Servers Fail Cleanly:")
+    void testMalformedFrameAndShutdown() throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(TaskProtocol.MAX_FRAME_LENGTH + 1);
+            out.flush();
+            socket.setSoTimeout(10_000);
+            InputStream in = socket.getInputStream();
+            assertEquals(-1, in.read());
+        }
+
+        TaskClient client = TaskClient.connect("127.0.0.1", server.getPort());
+        assertEquals(TaskStatus.OK, client.addTask("1", "Name", "Description"));
+        server.close();
+        assertThrows(UncheckedIOException.class, () -> client.getTask("1"));
+        assertThrows(UncheckedIOException.class, () -> client.getTask("1"));
+        client.close();
+    }
+}
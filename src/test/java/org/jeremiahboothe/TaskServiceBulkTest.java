@@ -0,0 +1,131 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TaskServiceBulkTest {
+    private TaskService taskService;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * Each test starts from an empty, isolated TaskService with one existing task.
+     */
+    @BeforeEach
+    void setUpIsolatedService() {
+        taskService = new TaskService();
+        taskService.addTask(taskService.createNewTaskToAddToMap("100", "Workout", "Pump some Iron like I'm Arnold in 1978"));
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    /**
+     * The same rows as the TaskServiceTest CSV, plus a collision with the existing task.
+     * @return List Mixed good and bad rows.
+     */
+    private List<TaskRow> mixedBatch() {
+        List<TaskRow> rows = new ArrayList<>();
+        rows.add(new TaskRow(null, "Grocery Shopping", "Buy groceries for the week"));
+        rows.add(new TaskRow("2", null, "Go for a 30-minute jog in the park"));
+        rows.add(new TaskRow("44256456897", "Read Book", "Read the first chapter of a new novel"));
+        rows.add(new TaskRow("7", "Call Friend", "Catch up with a friend over the phone"));
+        rows.add(new TaskRow("7", "Call Friend", "Catch up with a friend over the phone"));
+        rows.add(new TaskRow("8", "Learn Guitar", "Practice playing the guitar for 20 minutes"));
+        rows.add(new TaskRow("100", "Workout", "Again"));
+        return rows;
+    }
+
+    /**
+     * A clean batch is added in full.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Bulk Add Clean Batch:")
+    void testBulkAddCleanBatch() {
+        List<TaskRow> rows = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            rows.add(new TaskRow("b" + i, "Name " + i, "Description " + i));
+        }
+
+        BulkAddResult result = taskService.addTasks(rows, BulkCommitPolicy.ATOMIC);
+
+        assertTrue(result.isCommitted());
+        assertFalse(result.hasRejections());
+        assertEquals(10_000, result.getAddedCount());
+        assertEquals("Name 9999", taskService.getTaskName("b9999"));
+        System.out.println("Added " + result.getAddedCount() + " of " + result.getSubmittedCount());
+    }
+
+    /**
+     * PARTIAL adds the good rows and reports every bad one with its reason.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Bulk Add Partial Reports All Rejects:")
+    void testBulkAddPartial() {
+        BulkAddResult result = taskService.addTasks(mixedBatch(), BulkCommitPolicy.PARTIAL);
+
+        assertTrue(result.isCommitted());
+        assertEquals(2, result.getAddedCount());
+        assertNotNull(taskService.getTaskById("7"));
+        assertNotNull(taskService.getTaskById("8"));
+        assertEquals("Workout", taskService.getTaskName("100"));
+
+        List<BulkAddResult.Rejection> rejections = result.getRejections();
+        assertEquals(5, rejections.size());
+        assertEquals(TaskValidation.ID_NULL, rejections.get(0).getValidation());
+        assertEquals(TaskValidation.NAME_NULL, rejections.get(1).getValidation());
+        assertEquals(TaskValidation.ID_TOO_LONG, rejections.get(2).getValidation());
+        assertEquals(BulkAddResult.Reason.DUPLICATE_IN_BATCH, rejections.get(3).getReason());
+        assertEquals(4, rejections.get(3).getRowIndex());
+        assertEquals(BulkAddResult.Reason.ALREADY_EXISTS, rejections.get(4).getReason());
+        assertEquals("Task Id: 100 already exists!", rejections.get(4).getMessage());
+        rejections.forEach(rejection -> System.out.println(rejection.getRowIndex() + ": " + rejection.getMessage()));
+    }
+
+    /**
+     * ATOMIC adds nothing when any row is rejected.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Bulk Add Atomic Rolls Back on Any Reject:")
+    void testBulkAddAtomic() {
+        BulkAddResult result = taskService.addTasks(mixedBatch(), BulkCommitPolicy.ATOMIC);
+
+        assertFalse(result.isCommitted());
+        assertEquals(0, result.getAddedCount());
+        assertEquals(5, result.getRejections().size());
+        assertNull(taskService.getTaskById("7"));
+        assertNull(taskService.getTaskById("8"));
+    }
+}
@@ -0,0 +1,351 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TaskServiceConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int TASKS_PER_THREAD = 2_000;
+    private TaskService taskService;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * Each test gets its own TaskService so the stress runs don't collide with the singleton used by TaskServiceTest.
+     */
+    @BeforeEach
+    void setUpIsolatedService() {
+        taskService = new TaskService();
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    /**
+     * Runs the same job on every thread, all released together by a latch to maximize contention.
+     * @param job Job to run, receives the thread index.
+     */
+    private void runConcurrently(IntConsumerWithException job) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int threadIndex = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    job.accept(threadIndex);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Thread job that is allowed to throw, so assertion failures surface through Future.get.
+     */
+    @FunctionalInterface
+    private interface IntConsumerWithException {
+        void accept(int value) throws Exception;
+    }
+
+    /**
+     * Every thread adds its own range of Ids, nothing may be lost.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Concurrent Adds of Distinct Ids Lose Nothing:")
+    void testConcurrentDistinctAdds() throws Exception {
+        runConcurrently(threadIndex -> {
+            for (int i = 0; i < TASKS_PER_THREAD; i++) {
+                String taskId = threadIndex + "-" + i;
+                taskService.addTask(taskService.createNewTaskToAddToMap(taskId, "Name " + i, "Description " + i));
+            }
+        });
+
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < TASKS_PER_THREAD; i++) {
+                assertNotNull(taskService.getTaskById(t + "-" + i));
+            }
+        }
+        System.out.println("Added " + THREADS * TASKS_PER_THREAD + " tasks across " + THREADS + " threads.");
+    }
+
+    /**
+     * Every thread races to add the same Ids, exactly one add per Id may win.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Concurrent Adds of the Same Ids Never Duplicate:")
+    void testConcurrentDuplicateAdds() throws Exception {
+        AtomicInteger wins = new AtomicInteger();
+        AtomicInteger rejections = new AtomicInteger();
+
+        runConcurrently(threadIndex -> {
+            for (int i = 0; i < TASKS_PER_THREAD; i++) {
+                try {
+                    taskService.addTask(taskService.createNewTaskToAddToMap(String.valueOf(i), "Thread " + threadIndex, "Race"));
+                    wins.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    rejections.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(TASKS_PER_THREAD, wins.get());
+        assertEquals((THREADS - 1) * TASKS_PER_THREAD, rejections.get());
+        System.out.println(wins.get() + " adds won, " + rejections.get() + " duplicates rejected.");
+    }
+
+    /**
+     * Every thread races to delete the same Ids, exactly one delete per Id may succeed.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Concurrent Deletes of the Same Ids Succeed Once:")
+    void testConcurrentDuplicateDeletes() throws Exception {
+        int taskCount = 200;
+        for (int i = 0; i < taskCount; i++) {
+            taskService.addTask(taskService.createNewTaskToAddToMap(String.valueOf(i), "Delete Me", "Race"));
+        }
+        AtomicInteger deletes = new AtomicInteger();
+        AtomicInteger misses = new AtomicInteger();
+
+        runConcurrently(threadIndex -> {
+            for (int i = 0; i < taskCount; i++) {
+                try {
+                    taskService.deleteTask(String.valueOf(i));
+                    deletes.incrementAndGet();
+                } catch (NullPointerException e) {
+                    misses.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(taskCount, deletes.get());
+        assertEquals((THREADS - 1) * taskCount, misses.get());
+        for (int i = 0; i < taskCount; i++) {
+            assertNull(taskService.getTaskById(String.valueOf(i)));
+        }
+    }
+
+    /**
+     * Threads update names and descriptions of shared tasks while others delete them, updates either land on a live task or report the Id missing.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Concurrent Updates Racing Deletes Stay Consistent:")
+    void testConcurrentUpdatesAndDeletes() throws Exception {
+        int taskCount = 500;
+        for (int i = 0; i < taskCount; i++) {
+            taskService.addTask(taskService.createNewTaskToAddToMap(String.valueOf(i), "Original", "Original"));
+        }
+
+        runConcurrently(threadIndex -> {
+            for (int i = 0; i < taskCount; i++) {
+                String taskId = String.valueOf(i);
+                try {
+                    if (threadIndex == 0 && i % 2 == 0) {
+                        taskService.deleteTask(taskId);
+                    } else if (threadIndex % 2 == 0) {
+                        taskService.updateTaskName(taskId, "Thread " + threadIndex);
+                    } else {
+                        taskService.updateTaskDescription(taskId, "Thread " + threadIndex);
+                    }
+                } catch (NullPointerException e) {
+                    assertEquals("Task Id: " + taskId + " does not exist", e.getMessage());
+                }
+            }
+        });
+
+        for (int i = 0; i < taskCount; i++) {
+            Task task = taskService.getTaskById(String.valueOf(i));
+            if (i % 2 == 0) {
+                assertNull(task);
+            } else {
+                assertNotNull(task);
+                assertTrue(task.getTaskName().startsWith("Thread ") || task.getTaskName().equals("Original"));
+            }
+        }
+    }
+
+    /**
+     * Updating an Id that was never added reports it the same way deleteTask does.
+     */
+    @Test
+    @Order(5)
+    @DisplayName("Update Missing Id Fails:")
+    void testUpdateMissingIdFails() {
+        NullPointerException thrown = assertThrows(NullPointerException.class, () -> {
+            taskService.updateTaskName("404", "Nobody Home");
+        }, "NullPointerException was expected");
+        assertEquals("Task Id: 404 does not exist", thrown.getMessage());
+        System.out.println(thrown.getMessage());
+    }
+
+    /**
+     * Compare-and-set rejects stale versions, so every successful change is counted in the version and none is overwritten unseen.
+     */
+    @Test
+    @Order(6)
+    @DisplayName("Compare-And-Set Never Loses An Update:")
+    void testCompareAndSetLosesNothing() throws Exception {
+        taskService.addTask(taskService.createNewTaskToAddToMap("1", "Counter 0", "Counter 0"));
+        AtomicInteger successes = new AtomicInteger();
+        runConcurrently(threadIndex -> {
+            for (int i = 0; i < 500; i++) {
+                while (true) {
+                    VersionedTask current = taskService.getVersionedTask("1");
+                    int next = Integer.parseInt(current.getTaskName().substring(8)) + 1;
+                    if (taskService.compareAndSetTask("1", current.getVersion(), "Counter " + next, "Counter " + next) == TaskStatus.OK) {
+                        successes.incrementAndGet();
+                        break;
+                    }
+                }
+            }
+        });
+
+        VersionedTask result = taskService.getVersionedTask("1");
+        assertEquals(THREADS * 500, successes.get());
+        assertEquals("Counter " + THREADS * 500, result.getTaskName());
+        assertEquals(2 * THREADS * 500, result.getVersion());
+    }
+
+    /**
+     * Readers taking snapshots while writers change both fields together never see one field from one change and one from another.
+     */
+    @Test
+    @Order(7)
+    @DisplayName("Versioned Reads Are Never Half Updated:")
+    void testVersionedReadsAreConsistent() throws Exception {
+        taskService.addTask(taskService.createNewTaskToAddToMap("1", "Pair 0", "Pair 0"));
+        runConcurrently(threadIndex -> {
+            for (int i = 0; i < 5_000; i++) {
+                if (threadIndex % 2 == 0) {
+                    VersionedTask current = taskService.getVersionedTask("1");
+                    String value = "Pair " + threadIndex + "-" + i;
+                    taskService.compareAndSetTask("1", current.getVersion(), value, value);
+                } else {
+                    VersionedTask current = taskService.getVersionedTask("1");
+                    assertEquals(current.getTaskName(), current.getTaskDescription());
+                }
+            }
+        });
+    }
+
+    /**
+     * A stale version, a missing Id and an invalid value are reported without changing anything.
+     */
+    @Test
+    @Order(8)
+    @DisplayName("Compare-And-Set Outcomes:")
+    void testCompareAndSetOutcomes() {
+        taskService.addTask(taskService.createNewTaskToAddToMap("1", "Name", "Description"));
+        VersionedTask first = taskService.getVersionedTask("1");
+        assertEquals(0, first.getVersion());
+
+        taskService.updateTaskName("1", "Renamed");
+        assertEquals(TaskStatus.VERSION_CONFLICT, taskService.compareAndSetTask("1", first.getVersion(), "Stale", "Stale"));
+        assertEquals(TaskStatus.NOT_FOUND, taskService.compareAndSetTask("404", 0, "Name", "Description"));
+        assertEquals(TaskStatus.INVALID, taskService.compareAndSetTask("1", 1, "This name is far too long", "Description"));
+        assertEquals("Renamed", taskService.getTaskName("1"));
+        assertEquals(1, taskService.getVersionedTask("1").getVersion());
+
+        assertEquals(TaskStatus.OK, taskService.compareAndSetTask("1", 1, "Both", "Changed"));
+        assertEquals("Both", taskService.getTaskName("1"));
+        assertEquals("Changed", taskService.getTaskDescription("1"));
+        assertEquals(3, taskService.getVersionedTask("1").getVersion());
+    }
+
+    /**
+     * A change made straight on the stored Task while compare-and-set is telling its listeners waits for it, so the listeners never record
+     * an update that then fails to apply.
+     */
+    @Test
+    @Order(9)
+    @DisplayName("Compare-And-Set Tells Listeners Only Applied Changes:")
+    void testCompareAndSetListenersSeeOnlyAppliedChanges() throws Exception {
+        taskService.addTask(taskService.createNewTaskToAddToMap("1", "Name", "Description"));
+        CountDownLatch inListener = new CountDownLatch(1);
+        CountDownLatch changedOutside = new CountDownLatch(1);
+        List<String> recordedNames = new CopyOnWriteArrayList<>();
+        taskService.addChangeListener(new TaskChangeListener() {
+            @Override
+            public void taskAdded(Task task) {
+            }
+
+            @Override
+            public void taskNameUpdated(Task task, String taskName) {
+                recordedNames.add(taskName);
+                inListener.countDown();
+                try {
+                    changedOutside.await(200, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void taskDescriptionUpdated(Task task, String taskDescription) {
+            }
+
+            @Override
+            public void taskDeleted(Task task) {
+            }
+        });
+        Task stored = taskService.getTaskById("1");
+        Thread outside = new Thread(() -> {
+            try {
+                inListener.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            stored.setTaskDescription("Outside");
+            changedOutside.countDown();
+        });
+        outside.start();
+
+        assertEquals(TaskStatus.OK, taskService.compareAndSetTask("1", 0, "Both", "Changed"));
+        outside.join();
+        assertEquals(List.of("Both"), recordedNames);
+        assertEquals("Both", taskService.getTaskName("1"));
+        assertEquals("Outside", taskService.getTaskDescription("1"));
+    }
+}
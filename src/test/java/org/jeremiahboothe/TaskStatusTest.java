@@ -0,0 +1,137 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TaskStatusTest {
+    private TaskService taskService;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * Every test starts from one stored task.
+     */
+    @BeforeEach
+    void setUpService() {
+        taskService = new TaskService();
+        taskService.addTask(taskService.createNewTaskToAddToMap("1", "Walk Dog", "Take the dog around the block"));
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    /**
+     * tryAdd reports duplicates and invalid fields instead of throwing, and leaves the stored task alone.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("tryAdd Status Codes:")
+    void testTryAdd() {
+        assertEquals(TaskStatus.OK, taskService.tryAdd("2", "Wash Car", "Rinse and dry the car"));
+        assertEquals(TaskStatus.ALREADY_EXISTS, taskService.tryAdd("1", "Other", "Other task"));
+        assertEquals(TaskStatus.ALREADY_EXISTS, taskService.tryAdd(new Task("2", "Other", "Other task")));
+        assertEquals(TaskStatus.INVALID, taskService.tryAdd("3", null, "No name"));
+        assertEquals(TaskStatus.INVALID, taskService.tryAdd("12345678901", "Too Long", "Id is too long"));
+        assertEquals("Walk Dog", taskService.getTaskName("1"));
+        assertEquals(2, taskService.size());
+    }
+
+    /**
+     * tryDelete and findById report misses without throwing.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("tryDelete and findById:")
+    void testTryDeleteAndFindById() {
+        assertEquals("Walk Dog", taskService.findById("1").map(Task::getTaskName).orElse(null));
+        assertTrue(taskService.findById("2").isEmpty());
+        assertEquals(TaskStatus.NOT_FOUND, taskService.tryDelete("2"));
+        assertEquals(TaskStatus.OK, taskService.tryDelete("1"));
+        assertEquals(TaskStatus.NOT_FOUND, taskService.tryDelete("1"));
+        assertTrue(taskService.findById("1").isEmpty());
+    }
+
+    /**
+     * The tryUpdate methods apply valid changes, and report invalid values and missing Ids without changing anything.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("tryUpdate Status Codes:")
+    void testTryUpdate() {
+        assertEquals(TaskStatus.OK, taskService.tryUpdateTaskName("1", "Walk Cat"));
+        assertEquals(TaskStatus.OK, taskService.tryUpdateTaskDescription("1", "Take the cat around the block"));
+        assertEquals(TaskStatus.INVALID, taskService.tryUpdateTaskName("1", "A name that is far too long"));
+        assertEquals(TaskStatus.INVALID, taskService.tryUpdateTaskDescription("1", null));
+        assertEquals(TaskStatus.NOT_FOUND, taskService.tryUpdateTaskName("2", "Walk Cat"));
+        assertEquals(TaskStatus.NOT_FOUND, taskService.tryUpdateTaskDescription("2", "Nothing"));
+        assertEquals("Walk Cat", taskService.getTaskName("1"));
+        assertEquals("Take the cat around the block", taskService.getTaskDescription("1"));
+    }
+
+    /**
+     * Listeners see successful try calls and nothing for misses, since a miss returns before the change is built.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Listeners Skip Misses:")
+    void testListenersSkipMisses() {
+        List<String> events = new ArrayList<>();
+        taskService.addChangeListener(new TaskChangeListener() {
+            @Override
+            public void taskAdded(Task task) {
+                events.add("added " + task.getTaskId());
+            }
+
+            @Override
+            public void taskNameUpdated(Task task, String newName) {
+                events.add("name " + task.getTaskId());
+            }
+
+            @Override
+            public void taskDescriptionUpdated(Task task, String newDescription) {
+                events.add("description " + task.getTaskId());
+            }
+
+            @Override
+            public void taskDeleted(Task task) {
+                events.add("deleted " + task.getTaskId());
+            }
+        });
+        taskService.tryAdd("1", "Walk Dog", "Duplicate");
+        taskService.tryUpdateTaskName("2", "Missing");
+        taskService.tryDelete("2");
+        taskService.tryAdd("2", "Wash Car", "Rinse and dry the car");
+        taskService.tryUpdateTaskName("2", "Wax Car");
+        taskService.tryDelete("2");
+        assertEquals(List.of("added 2", "name 2", "deleted 2"), events);
+    }
+}
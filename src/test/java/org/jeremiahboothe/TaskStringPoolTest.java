@@ -0,0 +1,98 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TaskStringPoolTest {
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * After test Formatting for viewing pleasure! Also turns deduplication back off for the other tests.
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        Task.useStringPool(null);
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    /**
+     * Equal strings come back as one instance once pooled.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Equal Strings Share One Instance:")
+    void testIntern() {
+        TaskStringPool pool = new TaskStringPool(64);
+        String first = new String("Call Friend".toCharArray());
+        String second = new String("Call Friend".toCharArray());
+        assertNotSame(first, second);
+
+        assertSame(first, pool.intern(first));
+        assertSame(first, pool.intern(second));
+        assertEquals(1, pool.getHitCount());
+        assertEquals(1, pool.getMissCount());
+        assertEquals(1, pool.size());
+    }
+
+    /**
+     * The table never grows past its capacity, and strings that keep being used survive a stream of one-off values.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Bounded With Second-Chance Eviction:")
+    void testBoundedEviction() {
+        TaskStringPool pool = new TaskStringPool(16);
+        String common = pool.intern(new String("Pay Bills".toCharArray()));
+        pool.intern(new String("Pay Bills".toCharArray()));
+        for (int i = 0; i < 10_000; i++) {
+            pool.intern("One-off " + i);
+            assertSame(common, pool.intern(new String("Pay Bills".toCharArray())));
+        }
+        assertEquals(16, pool.getCapacity());
+        assertTrue(pool.size() <= 16);
+        assertTrue(pool.getEvictionCount() > 0);
+    }
+
+    /**
+     * With a pool installed, the Task constructor and setters keep pooled copies; without one, Tasks keep the Strings they were given.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Tasks Use The Installed Pool:")
+    void testTasksUsePool() {
+        Task unpooled = new Task("1", new String("Read Book".toCharArray()), "Read the first chapter of a new novel");
+        Task.useStringPool(new TaskStringPool(64));
+        Task first = new Task("2", new String("Read Book".toCharArray()), new String("Chapter two".toCharArray()));
+        Task second = new Task("3", new String("Read Book".toCharArray()), new String("Chapter two".toCharArray()));
+        assertSame(first.getTaskName(), second.getTaskName());
+        assertSame(first.getTaskDescription(), second.getTaskDescription());
+        assertNotSame(unpooled.getTaskName(), first.getTaskName());
+
+        second.setTaskDescription(new String("Chapter three".toCharArray()));
+        first.setTaskDescription(new String("Chapter three".toCharArray()));
+        assertSame(first.getTaskDescription(), second.getTaskDescription());
+        assertEquals("Chapter three", first.getTaskDescription());
+    }
+}
@@ -0,0 +1,325 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TaskTransactionTest {
+    private TaskService taskService;
+    private RecordingListener listener;
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * Each test gets a service with transactions on, three tasks and a listener recording every change.
+     */
+    @BeforeEach
+    void setUpService() {
+        taskService = new TaskService(new SnapshotTaskStore(new OnHeapTaskStore()));
+        taskService.enableTransactions();
+        taskService.addTask(new Task("1", "Walk Dog", "Around the block"));
+        taskService.addTask(new Task("2", "Wash Car", "Rinse and dry the car"));
+        taskService.addTask(new Task("3", "Pay Bills", "Settle monthly utility bills"));
+        listener = new RecordingListener();
+        taskService.addChangeListener(listener);
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    /**
+     * Records every change, and throws or waits on the ones a test asks it to.
+     */
+    private static final class RecordingListener implements TaskChangeListener {
+        final List<String> events = new ArrayList<>();
+        volatile String failOnDelete;
+        volatile String blockOnName;
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public synchronized void taskAdded(Task task) {
+            events.add("added " + task.getTaskId());
+        }
+
+        @Override
+        public void taskNameUpdated(Task task, String taskName) {
+            if (taskName.equals(blockOnName)) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (this) {
+                events.add("name " + task.getTaskId());
+            }
+        }
+
+        @Override
+        public synchronized void taskDescriptionUpdated(Task task, String taskDescription) {
+            events.add("description " + task.getTaskId());
+        }
+
+        @Override
+        public synchronized void taskDeleted(Task task) {
+            if (task.getTaskId().equals(failOnDelete)) {
+                throw new IllegalStateException("Log write failed");
+            }
+            events.add("deleted " + task.getTaskId());
+        }
+    }
+
+    /**
+     * A rename, a description change, a delete and an add commit together, in staging order, and listeners hear each one.
+     */
+    @Test
+    @Order(1)
+    @DisplayName("Commit Applies Every Operation:")
+    void testCommit() {
+        TaskTransaction transaction = taskService.beginTransaction()
+                .updateTaskName("1", "Walk Cat")
+                .updateTaskDescription("2", "Vacuum the seats too")
+                .deleteTask("3")
+                .addTask("4", "Mow Lawn", "Front and back")
+                .updateTaskName("4", "Mow Yard");
+        assertEquals(5, transaction.size());
+        assertEquals(TaskStatus.OK, transaction.commit());
+        assertEquals(-1, transaction.getFailedOperation());
+        assertNull(transaction.getFailedTaskId());
+
+        assertEquals("Walk Cat", taskService.getTaskName("1"));
+        assertEquals("Vacuum the seats too", taskService.getTaskDescription("2"));
+        assertNull(taskService.getTaskById("3"));
+        assertEquals("Mow Yard", taskService.getTaskName("4"));
+        assertEquals(Arrays.asList("name 1", "description 2", "deleted 3", "added 4", "name 4"), listener.events);
+
+        assertThrows(IllegalStateException.class, transaction::commit);
+        assertThrows(IllegalStateException.class, () -> transaction.deleteTask("1"));
+        assertEquals(TaskStatus.OK, taskService.beginTransaction().commit());
+        assertThrows(IllegalStateException.class, () -> new TaskService().beginTransaction());
+    }
+
+    /**
+     * Any failing operation, wherever it is staged, fails the whole commit before anything changes, and the transaction says which one.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("A Failure Changes Nothing:")
+    void testAllOrNothing() {
+        TaskTransaction invalid = taskService.beginTransaction()
+                .updateTaskName("1", "Walk Cat")
+                .updateTaskDescription("2", "x".repeat(Task.TASK_DESCRIPTION_MAX_LENGTH + 1))
+                .deleteTask("3");
+        assertEquals(TaskStatus.INVALID, invalid.commit());
+        assertEquals(1, invalid.getFailedOperation());
+        assertEquals("2", invalid.getFailedTaskId());
+        assertEquals(TaskValidation.DESCRIPTION_TOO_LONG, invalid.getValidation());
+
+        TaskTransaction missing = taskService.beginTransaction().updateTaskName("1", "Walk Cat").deleteTask("3").updateTaskName("3", "Gone");
+        assertEquals(TaskStatus.NOT_FOUND, missing.commit());
+        assertEquals(2, missing.getFailedOperation());
+        assertEquals(TaskStatus.NOT_FOUND, taskService.beginTransaction().deleteTask("9").commit());
+
+        TaskTransaction taken = taskService.beginTransaction().deleteTask("3").addTask("2", "Again", "Already here");
+        assertEquals(TaskStatus.ALREADY_EXISTS, taken.commit());
+        assertEquals("2", taken.getFailedTaskId());
+
+        int version = taskService.getVersionedTask("1").getVersion();
+        taskService.updateTaskName("1", "Walk Dogs");
+        TaskTransaction stale = taskService.beginTransaction().updateTaskName("2", "Wax Car").expectVersion("1", version);
+        assertEquals(TaskStatus.VERSION_CONFLICT, stale.commit());
+        assertEquals(1, stale.getFailedOperation());
+
+        assertEquals(Arrays.asList("name 1"), listener.events);
+        assertEquals("Wash Car", taskService.getTaskName("2"));
+        assertNotNull(taskService.getTaskById("3"));
+        assertEquals(TaskStatus.OK, taskService.beginTransaction()
+                .expectVersion("1", version + 1)
+                .deleteTask("3")
+                .addTask("3", "Pay Rent", "Replaces the old task")
+                .commit());
+        assertEquals("Pay Rent", taskService.getTaskName("3"));
+    }
+
+    /**
+     * When a listener throws part way through a commit, the operations already applied are undone and the exception reaches the caller.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Listener Failure Rolls Back:")
+    void testRollback() {
+        listener.failOnDelete = "3";
+        TaskTransaction transaction = taskService.beginTransaction()
+                .updateTaskName("1", "Walk Cat")
+                .addTask("4", "Mow Lawn", "Front and back")
+                .deleteTask("2")
+                .deleteTask("3");
+        assertThrows(IllegalStateException.class, transaction::commit);
+
+        assertEquals("Walk Dog", taskService.getTaskName("1"));
+        assertNull(taskService.getTaskById("4"));
+        assertEquals("Wash Car", taskService.getTaskName("2"));
+        assertNotNull(taskService.getTaskById("3"));
+        assertEquals(3, taskService.size());
+        assertEquals(Arrays.asList("name 1", "added 4", "deleted 2", "added 2", "deleted 4", "name 1"), listener.events);
+    }
+
+    /**
+     * A commit held up on one stripe does not stop a transaction on another stripe, while a single-task write to one of its Ids waits for it.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Disjoint Transactions Run In Parallel:")
+    void testDisjointParallel() throws InterruptedException {
+        String blockedId = "1";
+        String freeId = "2";
+        assertNotEquals(TaskLockTable.stripeOf(blockedId), TaskLockTable.stripeOf(freeId));
+        listener.blockOnName = "Blocking";
+        AtomicReference<TaskStatus> blockedStatus = new AtomicReference<>();
+        Thread committer = new Thread(() -> blockedStatus.set(taskService.beginTransaction()
+                .updateTaskName(blockedId, "Blocking")
+                .updateTaskDescription(blockedId, "Held mid-commit")
+                .commit()));
+        committer.start();
+        assertTrue(listener.blocked.await(5, TimeUnit.SECONDS));
+
+        assertEquals(TaskStatus.OK, taskService.beginTransaction().updateTaskName(freeId, "Not Waiting").commit());
+        assertEquals("Not Waiting", taskService.getTaskName(freeId));
+
+        AtomicBoolean writerDone = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            taskService.updateTaskDescription(blockedId, "After the commit");
+            writerDone.set(true);
+        });
+        writer.start();
+        writer.join(200);
+        assertFalse(writerDone.get());
+
+        listener.release.countDown();
+        committer.join();
+        writer.join();
+        assertEquals(TaskStatus.OK, blockedStatus.get());
+        assertEquals("Blocking", taskService.getTaskName(blockedId));
+        assertEquals("After the commit", taskService.getTaskDescription(blockedId));
+    }
+
+    /**
+     * Writers swap names between random pairs of tasks in transactions, so the set of names never changes. Readers using getVersionedTasks
+     * or snapshot always see every name exactly once, and no swap is lost or applied twice.
+     */
+    @Test
+    @Order(5)
+    @DisplayName("Readers Never See Half A Transaction:")
+    void testIsolation() throws InterruptedException {
+        int taskCount = 32;
+        TaskService service = new TaskService(new SnapshotTaskStore(new OnHeapTaskStore()));
+        service.enableTransactions();
+        List<String> ids = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < taskCount; i++) {
+            ids.add("t" + i);
+            names.add("Name " + i);
+            service.addTask(new Task("t" + i, "Name " + i, "Swapped around"));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong swaps = new AtomicLong();
+        AtomicLong conflicts = new AtomicLong();
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            Thread writer = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    String a = ids.get(random.nextInt(taskCount));
+                    String b = ids.get(random.nextInt(taskCount));
+                    if (a.equals(b)) {
+                        continue;
+                    }
+                    List<VersionedTask> pair = service.getVersionedTasks(Arrays.asList(a, b));
+                    TaskStatus status = service.beginTransaction()
+                            .expectVersion(a, pair.get(0).getVersion())
+                            .expectVersion(b, pair.get(1).getVersion())
+                            .updateTaskName(a, pair.get(1).getTaskName())
+                            .updateTaskName(b, pair.get(0).getTaskName())
+                            .commit();
+                    if (status == TaskStatus.OK) {
+                        swaps.incrementAndGet();
+                    } else {
+                        assertEquals(TaskStatus.VERSION_CONFLICT, status);
+                        conflicts.incrementAndGet();
+                    }
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1500);
+            int reads = 0;
+            while (System.nanoTime() < deadline) {
+                Set<String> seen = new HashSet<>();
+                for (VersionedTask task : service.getVersionedTasks(ids)) {
+                    seen.add(task.getTaskName());
+                }
+                assertEquals(names, seen);
+                if (reads++ % 20 == 0) {
+                    try (TaskMapSnapshot snapshot = service.snapshot()) {
+                        Set<String> snapped = new HashSet<>();
+                        snapshot.forEach(task -> snapped.add(task.getTaskName()));
+                        assertEquals(names, snapped);
+                    }
+                }
+            }
+        } finally {
+            running.set(false);
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+        System.out.printf("%d swaps committed, %d version conflicts%n", swaps.get(), conflicts.get());
+        assertTrue(swaps.get() > 0);
+        int versions = 0;
+        for (VersionedTask task : service.getVersionedTasks(ids)) {
+            versions += task.getVersion();
+        }
+        assertEquals(2 * swaps.get(), versions);
+    }
+}
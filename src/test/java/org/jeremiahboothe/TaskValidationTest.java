@@ -0,0 +1,84 @@
+package org.jeremiahboothe;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TaskValidationTest {
+
+    /**
+     * BeforeEach test formatting, to make it a little bit more enjoyable to read!
+     * @param testInfo - to pull the display name off each test to display.
+     */
+    @BeforeEach
+    void testFormattingPrintBefore(TestInfo testInfo) {
+        String displayName = testInfo.getDisplayName();
+        int totalLength = 80; // Adjust the total length as needed
+        int paddingLength = (totalLength - displayName.length() - 2) / 2;
+        int extraPadding = (totalLength - displayName.length() - 2) % 2;
+
+        String padding = "*".repeat(paddingLength);
+        String padding2 = "=".repeat(totalLength);
+        String extraPaddingStr = (extraPadding == 1) ? "*": "";
+
+        System.out.println(padding2);
+        System.out.printf("%s %s %s%s\n\n", padding, displayName, padding, extraPaddingStr);
+    }
+
+    /**
+     * After test Formatting for viewing pleasure!
+     */
+    @AfterEach
+    void testFormattingPrintAfter() {
+        int totalLength = 80; // Adjust the total length as needed
+        String padding2 = "=".repeat(totalLength);
+        System.out.println(padding2 + "\n\n");
+    }
+
+    /**
+     * Result codes match the first failing field, in constructor order.
+     * @param taskId CSV Task Id's
+     * @param taskName CSV Task Names
+     * @param taskDescription CSV Task Descriptions
+     * @param expected Expected result code.
+     */
+    @Order(1)
+    @CsvSource({
+            ",Grocery Shopping,Buy groceries for the week,ID_NULL",
+            "2,,Go for a 30-minute jog in the park,NAME_NULL",
+            "3,Work Meeting,,DESCRIPTION_NULL",
+            "44256456897,Read Book,Read the first chapter of a new novel,ID_TOO_LONG",
+            "5,Cook Dinner Cook Dinner,Prepare a homemade dinner for the family,NAME_TOO_LONG",
+            "6,Pay Bills,Settle monthly utility bills and go to the poor house!,DESCRIPTION_TOO_LONG",
+            "7,Call Friend,Catch up with a friend over the phone,VALID"})
+    @ParameterizedTest(name = "[{index}] {3}")
+    @DisplayName("Result Codes for Each Field:")
+    void testCheckResultCodes(String taskId, String taskName, String taskDescription, TaskValidation expected) {
+        TaskValidation result = TaskValidation.check(taskId, taskName, taskDescription);
+        assertEquals(expected, result);
+        System.out.println(result + ": " + result.getMessage());
+    }
+
+    /**
+     * Each failing code throws the same exception type and message the Task constructor throws.
+     */
+    @Test
+    @Order(2)
+    @DisplayName("Result Codes Throw Matching Exceptions:")
+    void testThrowIfInvalidMatchesTask() {
+        assertDoesNotThrow(TaskValidation.VALID::throwIfInvalid);
+        assertTrue(TaskValidation.check("1234567890", "aseriopiyiokjhgpiuio", "dfasdfasdfasdfasdfaasdfasdfasdfasdfasdfasdfasdfasd").isValid());
+
+        NullPointerException nameNull = assertThrows(NullPointerException.class, TaskValidation.NAME_NULL::throwIfInvalid);
+        NullPointerException fromTask = assertThrows(NullPointerException.class, () -> new Task("2", null, "Stuff to Do"));
+        assertEquals(fromTask.getMessage(), nameNull.getMessage());
+
+        IllegalArgumentException descriptionLong = assertThrows(IllegalArgumentException.class, TaskValidation.DESCRIPTION_TOO_LONG::throwIfInvalid);
+        assertEquals("Task Description cannot be longer than 50!", descriptionLong.getMessage());
+        assertEquals("Task Description", TaskValidation.DESCRIPTION_TOO_LONG.getField());
+        System.out.println(descriptionLong.getMessage());
+    }
+}